@@ -0,0 +1,20 @@
+package com.devfreitag.pismotest.reactive;
+
+import com.devfreitag.pismotest.api.controllers.GlobalExceptionHandler;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+/**
+ * WebFlux and R2DBC runtime for the same account and transaction contracts as the servlet application. The error
+ * mapping is the servlet application's {@link GlobalExceptionHandler}, imported since it lives outside this package.
+ */
+@SpringBootApplication
+@Import(GlobalExceptionHandler.class)
+public class PismoReactiveApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(PismoReactiveApplication.class, args);
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.devfreitag.pismotest.reactive.api;
+
+import com.devfreitag.pismotest.models.CreateTransactionBatchRequest;
+import com.devfreitag.pismotest.models.CreateTransactionBatchResponse;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import com.devfreitag.pismotest.models.ErrorResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import reactor.core.publisher.Mono;
+
+@Tag(name = "Transactions", description = "Transaction management operations")
+@RequestMapping(value = "transactions")
+public interface TransactionAPI {
+
+    String IDEMPOTENCY_KEY = "Idempotency-Key";
+    String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    @Operation(
+            summary = "Create a new transaction",
+            description = """
+                    Creates a new transaction for the specified account.
+
+                    ## Amount Sign Adjustment
+                    The transaction amount is automatically adjusted based on the operation type:
+                    - **Types 1, 2, 3** (PURCHASE, INSTALLMENT_PURCHASE, WITHDRAWAL): Amount becomes **negative** (debit)
+                    - **Type 4** (PAYMENT): Amount remains **positive** (credit)
+
+                    Always input the amount as a positive value; the system handles the sign conversion.
+
+                    ## Idempotency
+                    Send an `Idempotency-Key` header to make retries safe: a transaction is created at most once per key.
+                    Repeating the request with the same key returns the original transaction, marked with an
+                    `Idempotent-Replayed: true` header, without applying it to the account again. Reusing a key for a
+                    different account, operation type or amount is rejected.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Transaction created successfully",
+                    content = @Content(schema = @Schema(implementation = CreateTransactionResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Validation error - required fields missing or invalid",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Account or operation type not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "422",
+                    description = "Insufficient credit limit, amount out of range, or idempotency key already used for a different transaction",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PostMapping
+    Mono<ResponseEntity<CreateTransactionResponse>> createTransaction(
+            @Parameter(description = "Client-generated key that makes retries of this request safe", example = "5f0c7d2e-8a4b-4c1e-9d3f-2b6a1e7c9f40")
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) @Size(min = 1, max = 255) String idempotencyKey,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Transaction creation request",
+                    required = true
+            )
+            @RequestBody @Valid CreateTransactionRequest request
+    );
+
+    @Operation(
+            summary = "Create transactions in batch",
+            description = """
+                    Creates up to 10,000 transactions in a single call, applying the same amount sign adjustment and
+                    credit limit rules as `POST /transactions`.
+
+                    Transactions are applied in request order for each account. A transaction rejected for business
+                    reasons (unknown account or operation type, insufficient credit limit) does not prevent the others
+                    from being created: every item gets its own result with the status it would have produced on its own.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed; check each result for its own status",
+                    content = @Content(schema = @Schema(implementation = CreateTransactionBatchResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Validation error - batch is empty, too large, or has items with missing or invalid fields",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PostMapping("/batch")
+    Mono<ResponseEntity<CreateTransactionBatchResponse>> createTransactions(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Batch transaction creation request",
+                    required = true
+            )
+            @RequestBody @Valid CreateTransactionBatchRequest request
+    );
+}
@@ -0,0 +1,31 @@
+package com.devfreitag.pismotest.reactive.api.controllers;
+
+import com.devfreitag.pismotest.models.CreateAccountRequest;
+import com.devfreitag.pismotest.models.GetAccountResponse;
+import com.devfreitag.pismotest.reactive.api.AccountAPI;
+import com.devfreitag.pismotest.reactive.services.AccountService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+@RestController
+@RequiredArgsConstructor
+public class AccountController implements AccountAPI {
+
+    private final AccountService accountService;
+
+    @Override
+    public Mono<ResponseEntity<GetAccountResponse>> createAccount(@RequestBody @Valid CreateAccountRequest request) {
+        return this.accountService.createAccount(request.documentNumber())
+                .map(account -> ResponseEntity.created(URI.create("/accounts/" + account.accountId())).body(account));
+    }
+
+    @Override
+    public Mono<ResponseEntity<GetAccountResponse>> getAccount(@PathVariable Long accountId) {
+        return this.accountService.findById(accountId).map(ResponseEntity::ok);
+    }
+}
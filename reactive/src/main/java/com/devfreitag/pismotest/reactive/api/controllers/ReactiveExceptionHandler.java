@@ -0,0 +1,27 @@
+package com.devfreitag.pismotest.reactive.api.controllers;
+
+import com.devfreitag.pismotest.models.ErrorResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WebFlux reports an invalid {@code @Valid} body with {@link WebExchangeBindException} where Spring MVC uses
+ * {@link org.springframework.web.bind.MethodArgumentNotValidException}; this answers it the same way the shared
+ * {@link com.devfreitag.pismotest.api.controllers.GlobalExceptionHandler} does.
+ */
+@ControllerAdvice
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> handleValidationExceptions(WebExchangeBindException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getFieldErrors().forEach((error) -> errors.put(error.getField(), error.getDefaultMessage()));
+
+        return ResponseEntity.badRequest().body(new ErrorResponse("Validation failed", errors));
+    }
+}
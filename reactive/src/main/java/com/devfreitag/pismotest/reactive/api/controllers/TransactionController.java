@@ -0,0 +1,79 @@
+package com.devfreitag.pismotest.reactive.api.controllers;
+
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.exceptions.AmountOutOfRangeException;
+import com.devfreitag.pismotest.exceptions.OperationTypeNotFoundException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.CreateTransactionBatchItemResponse;
+import com.devfreitag.pismotest.models.CreateTransactionBatchRequest;
+import com.devfreitag.pismotest.models.CreateTransactionBatchResponse;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import com.devfreitag.pismotest.reactive.api.TransactionAPI;
+import com.devfreitag.pismotest.reactive.services.IdempotencyService;
+import com.devfreitag.pismotest.reactive.services.TransactionBatchItemResult;
+import com.devfreitag.pismotest.reactive.services.TransactionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TransactionController implements TransactionAPI {
+
+    private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+
+    @Override
+    public Mono<ResponseEntity<CreateTransactionResponse>> createTransaction(String idempotencyKey,
+                                                                             CreateTransactionRequest request) {
+        if (idempotencyKey != null) {
+            return idempotencyService.createTransaction(idempotencyKey, request)
+                    .map(result -> ResponseEntity.created(URI.create("/transactions/" + result.response().transactionId()))
+                            .header(IDEMPOTENT_REPLAYED, String.valueOf(result.replayed()))
+                            .body(result.response()));
+        }
+
+        return transactionService.createTransaction(request.accountId(), request.operationTypeId(), request.amount())
+                .map(transaction -> ResponseEntity.created(URI.create("/transactions/" + transaction.transactionId()))
+                        .body(transaction));
+    }
+
+    @Override
+    public Mono<ResponseEntity<CreateTransactionBatchResponse>> createTransactions(@RequestBody @Valid CreateTransactionBatchRequest request) {
+        return transactionService.createTransactions(request.transactions()).map(batch -> {
+            final List<CreateTransactionBatchItemResponse> results = batch.stream()
+                    .map(TransactionController::toItemResponse)
+                    .toList();
+
+            final int created = (int) results.stream().filter(result -> result.transaction() != null).count();
+
+            return ResponseEntity.ok(new CreateTransactionBatchResponse(created, results.size() - created, results));
+        });
+    }
+
+    private static CreateTransactionBatchItemResponse toItemResponse(final TransactionBatchItemResult result) {
+        if (result.isCreated()) {
+            return new CreateTransactionBatchItemResponse(result.index(), HttpStatus.CREATED.value(), result.transaction(), null);
+        }
+
+        return new CreateTransactionBatchItemResponse(result.index(), statusOf(result.error()).value(), null, result.error().getMessage());
+    }
+
+    private static HttpStatus statusOf(final RuntimeException error) {
+        if (error instanceof AccountNotFoundException || error instanceof OperationTypeNotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (error instanceof TransactionInvalidException || error instanceof AmountOutOfRangeException) {
+            return HttpStatus.UNPROCESSABLE_CONTENT;
+        }
+        throw error;
+    }
+}
@@ -0,0 +1,220 @@
+package com.devfreitag.pismotest.reactive.repositories;
+
+import com.devfreitag.pismotest.models.GetAccountResponse;
+import com.devfreitag.pismotest.services.Money;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain SQL over {@link DatabaseClient}, mirroring the statements the servlet application issues through JPA and
+ * JDBC, so both runtimes can serve the same schema side by side.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AccountRepository {
+
+    static final int CHUNK_SIZE = 1_000;
+
+    private static final String FIND_BY_ID = """
+            SELECT a.account_id, a.document_number,
+                   a.available_credit_limit + COALESCE((SELECT SUM(s.available_credit_limit)
+                                                           FROM account_balance_shard s
+                                                          WHERE s.account_id = a.account_id), 0) AS available_credit_limit
+              FROM account a
+             WHERE a.account_id = :accountId
+            """;
+
+    private static final String LOCK_CREDIT_LIMITS = """
+            SELECT account_id, available_credit_limit, balance_shards
+              FROM account
+             WHERE account_id IN (:accountIds)
+             ORDER BY account_id
+               FOR UPDATE
+            """;
+
+    private static final String LOCK_SHARD_CREDIT_LIMITS = """
+            SELECT account_id, available_credit_limit
+              FROM account_balance_shard
+             WHERE account_id IN (:accountIds)
+             ORDER BY account_id, shard
+               FOR UPDATE
+            """;
+
+    private static final String UPDATE_CREDIT_LIMIT = """
+            UPDATE account SET available_credit_limit = $1, version = version + 1 WHERE account_id = $2
+            """;
+
+    private static final String UPDATE_SHARD_CREDIT_LIMIT = """
+            UPDATE account_balance_shard SET available_credit_limit = $1 WHERE account_id = $2 AND shard = $3
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<GetAccountResponse> insert(String documentNumber) {
+        return this.databaseClient.sql("INSERT INTO account (document_number, available_credit_limit) VALUES (:documentNumber, 0)")
+                .filter(statement -> statement.returnGeneratedValues("account_id"))
+                .bind("documentNumber", documentNumber)
+                .map(row -> row.get("account_id", Long.class))
+                .one()
+                .map(accountId -> new GetAccountResponse(accountId, documentNumber, BigDecimal.ZERO));
+    }
+
+    /**
+     * Like the servlet application, answers an account with balance shards with its whole limit: the shards plus
+     * whatever is left on the account row.
+     */
+    public Mono<GetAccountResponse> findById(Long accountId) {
+        return this.databaseClient.sql(FIND_BY_ID)
+                .bind("accountId", accountId)
+                .map(AccountRepository::toResponse)
+                .one();
+    }
+
+    public Mono<Boolean> existsByDocumentNumber(String documentNumber) {
+        return this.databaseClient.sql("SELECT 1 FROM account WHERE document_number = :documentNumber")
+                .bind("documentNumber", documentNumber)
+                .fetch()
+                .first()
+                .hasElement();
+    }
+
+    /**
+     * Adds the signed amount to the available credit limit in a single conditional statement, so concurrent
+     * transactions on the same account can't overwrite each other. Emits 0 when the account does not exist or the
+     * resulting limit would not be positive, 1 otherwise. Accounts with balance shards are left alone and emit 0 too,
+     * their limit being held by the shards. Like every credit limit update, it bumps the version the servlet
+     * application's batches check.
+     */
+    public Mono<Long> applyToCreditLimit(Long accountId, BigDecimal amount) {
+        return this.databaseClient.sql("""
+                        UPDATE account
+                           SET available_credit_limit = available_credit_limit + :amount,
+                               version = version + 1
+                         WHERE account_id = :accountId
+                           AND balance_shards = 0
+                           AND available_credit_limit + :amount > 0
+                        """)
+                .bind("accountId", accountId)
+                .bind("amount", amount)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Locks the accounts' rows in id order, so batches touching the same accounts can't deadlock, and emits their
+     * credit limits in cents. Accounts with balance shards then have their shards locked in the same order, the way a
+     * reshard does, and get the shards' sum as their limit. Accounts that do not exist are left out.
+     */
+    public Mono<Map<Long, LockedCreditLimit>> lockCreditLimits(Collection<Long> accountIds) {
+        final List<Long> sortedIds = accountIds.stream().distinct().sorted().toList();
+
+        return Flux.fromIterable(chunks(sortedIds))
+                .concatMap(chunk -> this.databaseClient.sql(LOCK_CREDIT_LIMITS)
+                        .bind("accountIds", chunk)
+                        .map(row -> Map.entry(row.get("account_id", Long.class), new LockedCreditLimit(
+                                Money.toCents(row.get("available_credit_limit", BigDecimal.class)),
+                                row.get("balance_shards", Integer.class))))
+                        .all())
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue, () -> new HashMap<>(sortedIds.size() * 2))
+                .flatMap(this::lockShardCreditLimits);
+    }
+
+    private Mono<Map<Long, LockedCreditLimit>> lockShardCreditLimits(Map<Long, LockedCreditLimit> creditLimits) {
+        final List<Long> shardedIds = creditLimits.entrySet().stream()
+                .filter(entry -> entry.getValue().balanceShards() > 0)
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+        shardedIds.forEach(accountId -> creditLimits.compute(accountId,
+                (id, creditLimit) -> new LockedCreditLimit(0L, creditLimit.balanceShards())));
+
+        return Flux.fromIterable(chunks(shardedIds))
+                .concatMap(chunk -> this.databaseClient.sql(LOCK_SHARD_CREDIT_LIMITS)
+                        .bind("accountIds", chunk)
+                        .map(row -> Map.entry(row.get("account_id", Long.class),
+                                Money.toCents(row.get("available_credit_limit", BigDecimal.class))))
+                        .all())
+                .doOnNext(shard -> creditLimits.compute(shard.getKey(), (id, creditLimit) -> new LockedCreditLimit(
+                        Money.add(creditLimit.cents(), shard.getValue()), creditLimit.balanceShards())))
+                .then(Mono.just(creditLimits));
+    }
+
+    /**
+     * Writes the new credit limits, in cents, as a single batched statement in account id order.
+     */
+    public Mono<Void> updateCreditLimits(Map<Long, Long> creditLimits) {
+        if (creditLimits.isEmpty()) {
+            return Mono.empty();
+        }
+
+        final List<Map.Entry<Long, Long>> entries = creditLimits.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+
+        return this.databaseClient.inConnectionMany(connection -> {
+            final Statement statement = connection.createStatement(UPDATE_CREDIT_LIMIT);
+            for (int i = 0; i < entries.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                statement.bind(0, Money.toBigDecimal(entries.get(i).getValue()))
+                        .bind(1, entries.get(i).getKey());
+            }
+            return Flux.from(statement.execute()).concatMap(result -> result.getRowsUpdated());
+        }).then();
+    }
+
+    /**
+     * Writes the new credit limits of an account's balance shards, in cents and shard order, as a single batched
+     * statement.
+     */
+    public Mono<Void> updateShardCreditLimits(Long accountId, long[] cents) {
+        return this.databaseClient.inConnectionMany(connection -> {
+            final Statement statement = connection.createStatement(UPDATE_SHARD_CREDIT_LIMIT);
+            for (int shard = 0; shard < cents.length; shard++) {
+                if (shard > 0) {
+                    statement.add();
+                }
+                statement.bind(0, Money.toBigDecimal(cents[shard]))
+                        .bind(1, accountId)
+                        .bind(2, shard);
+            }
+            return Flux.from(statement.execute()).concatMap(result -> result.getRowsUpdated());
+        }).then();
+    }
+
+    private static List<List<Long>> chunks(List<Long> accountIds) {
+        final List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < accountIds.size(); from += CHUNK_SIZE) {
+            chunks.add(accountIds.subList(from, Math.min(from + CHUNK_SIZE, accountIds.size())));
+        }
+        return chunks;
+    }
+
+    private static GetAccountResponse toResponse(final Readable row) {
+        return new GetAccountResponse(
+                row.get("account_id", Long.class),
+                row.get("document_number", String.class),
+                row.get("available_credit_limit", BigDecimal.class)
+        );
+    }
+
+    /**
+     * An account's credit limit in cents, as locked by {@link #lockCreditLimits}, and the number of balance shards
+     * holding it. 0 shards means it is held by the account row.
+     */
+    public record LockedCreditLimit(long cents, int balanceShards) {
+    }
+}
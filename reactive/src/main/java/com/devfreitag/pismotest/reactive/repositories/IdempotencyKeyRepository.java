@@ -0,0 +1,48 @@
+package com.devfreitag.pismotest.reactive.repositories;
+
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Stores the key for a transaction. A key that is already stored fails with a
+     * {@link org.springframework.dao.DataIntegrityViolationException}.
+     */
+    public Mono<Void> insert(String idempotencyKey, Long transactionId, Instant createdAt) {
+        return this.databaseClient.sql("INSERT INTO idempotency_key (idempotency_key, transaction_id, created_at) VALUES (:idempotencyKey, :transactionId, :createdAt)")
+                .bind("idempotencyKey", idempotencyKey)
+                .bind("transactionId", transactionId)
+                .bind("createdAt", LocalDateTime.ofInstant(createdAt, ZoneOffset.UTC))
+                .then();
+    }
+
+    public Mono<CreateTransactionResponse> findResponseByIdempotencyKey(String idempotencyKey) {
+        return this.databaseClient.sql("""
+                        SELECT t.transaction_id, t.account_id, t.operation_type_id, t.amount
+                          FROM idempotency_key k
+                          JOIN transaction t ON t.transaction_id = k.transaction_id
+                         WHERE k.idempotency_key = :idempotencyKey
+                        """)
+                .bind("idempotencyKey", idempotencyKey)
+                .map(row -> new CreateTransactionResponse(
+                        row.get("transaction_id", Long.class),
+                        row.get("account_id", Long.class),
+                        row.get("operation_type_id", Long.class),
+                        row.get("amount", BigDecimal.class)
+                ))
+                .one();
+    }
+}
@@ -0,0 +1,20 @@
+package com.devfreitag.pismotest.reactive.repositories;
+
+import com.devfreitag.pismotest.models.OperationTypeResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+@RequiredArgsConstructor
+public class OperationTypeRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<OperationTypeResponse> findAll() {
+        return this.databaseClient.sql("SELECT operation_type_id, description FROM operation_type")
+                .map(row -> new OperationTypeResponse(row.get("operation_type_id", Long.class), row.get("description", String.class)))
+                .all();
+    }
+}
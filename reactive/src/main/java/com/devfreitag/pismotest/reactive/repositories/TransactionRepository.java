@@ -0,0 +1,104 @@
+package com.devfreitag.pismotest.reactive.repositories;
+
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class TransactionRepository {
+
+    private static final String INSERT = """
+            INSERT INTO transaction (account_id, operation_type_id, amount, event_date) VALUES ($1, $2, $3, $4)
+            """;
+
+    private static final String INSERT_OUTBOX_EVENT = """
+            INSERT INTO outbox (transaction_id, account_id, operation_type_id, amount, event_date) VALUES ($1, $2, $3, $4, $5)
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Inserts a single transaction and emits its generated id.
+     */
+    public Mono<Long> insert(Long accountId, Long operationTypeId, BigDecimal amount, Instant eventDate) {
+        return this.databaseClient.sql(INSERT)
+                .filter(statement -> statement.returnGeneratedValues("transaction_id"))
+                .bind(0, accountId)
+                .bind(1, operationTypeId)
+                .bind(2, amount)
+                .bind(3, toTimestamp(eventDate))
+                .map(row -> row.get("transaction_id", Long.class))
+                .one();
+    }
+
+    /**
+     * Inserts the transactions, whose ids are ignored, as a single batched statement and emits them back with their
+     * generated ids, in order.
+     */
+    public Flux<CreateTransactionResponse> insertAll(List<CreateTransactionResponse> transactions, Instant eventDate) {
+        if (transactions.isEmpty()) {
+            return Flux.empty();
+        }
+
+        final LocalDateTime timestamp = toTimestamp(eventDate);
+        return this.databaseClient.inConnectionMany(connection -> {
+            final Statement statement = connection.createStatement(INSERT).returnGeneratedValues("transaction_id");
+            for (int i = 0; i < transactions.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                final CreateTransactionResponse transaction = transactions.get(i);
+                statement.bind(0, transaction.accountId())
+                        .bind(1, transaction.operationTypeId())
+                        .bind(2, transaction.amount())
+                        .bind(3, timestamp);
+            }
+            return Flux.from(statement.execute()).concatMap(result -> result.map(row -> row.get("transaction_id", Long.class)));
+        }).index((i, transactionId) -> {
+            final CreateTransactionResponse transaction = transactions.get(i.intValue());
+            return new CreateTransactionResponse(transactionId, transaction.accountId(), transaction.operationTypeId(), transaction.amount());
+        });
+    }
+
+    /**
+     * Inserts an outbox event for each of the transactions, which need their ids, as a single batched statement.
+     */
+    public Mono<Void> insertOutboxEvents(List<CreateTransactionResponse> transactions, Instant eventDate) {
+        if (transactions.isEmpty()) {
+            return Mono.empty();
+        }
+
+        final LocalDateTime timestamp = toTimestamp(eventDate);
+        return this.databaseClient.inConnectionMany(connection -> {
+            final Statement statement = connection.createStatement(INSERT_OUTBOX_EVENT);
+            for (int i = 0; i < transactions.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                final CreateTransactionResponse transaction = transactions.get(i);
+                statement.bind(0, transaction.transactionId())
+                        .bind(1, transaction.accountId())
+                        .bind(2, transaction.operationTypeId())
+                        .bind(3, transaction.amount())
+                        .bind(4, timestamp);
+            }
+            return Flux.from(statement.execute()).concatMap(result -> result.getRowsUpdated());
+        }).then();
+    }
+
+    // event_date is a TIMESTAMP without time zone, kept in UTC like the servlet application's Instant mapping
+    private static LocalDateTime toTimestamp(final Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,9 @@
+package com.devfreitag.pismotest.reactive.services;
+
+import com.devfreitag.pismotest.models.GetAccountResponse;
+import reactor.core.publisher.Mono;
+
+public interface AccountService {
+    Mono<GetAccountResponse> createAccount(String documentNumber);
+    Mono<GetAccountResponse> findById(Long accountId);
+}
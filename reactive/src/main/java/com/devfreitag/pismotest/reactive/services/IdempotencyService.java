@@ -0,0 +1,9 @@
+package com.devfreitag.pismotest.reactive.services;
+
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.services.IdempotentTransaction;
+import reactor.core.publisher.Mono;
+
+public interface IdempotencyService {
+    Mono<IdempotentTransaction> createTransaction(String idempotencyKey, CreateTransactionRequest request);
+}
@@ -0,0 +1,11 @@
+package com.devfreitag.pismotest.reactive.services;
+
+import com.devfreitag.pismotest.enums.OperationTypeEnum;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+public interface OperationTypeRegistry {
+    Mono<OperationTypeEnum> findById(Long operationTypeId);
+    Mono<Map<Long, OperationTypeEnum>> findAll();
+}
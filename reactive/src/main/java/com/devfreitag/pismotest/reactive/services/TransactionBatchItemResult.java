@@ -0,0 +1,18 @@
+package com.devfreitag.pismotest.reactive.services;
+
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+
+public record TransactionBatchItemResult(int index, CreateTransactionResponse transaction, RuntimeException error) {
+
+    public static TransactionBatchItemResult created(final int index, final CreateTransactionResponse transaction) {
+        return new TransactionBatchItemResult(index, transaction, null);
+    }
+
+    public static TransactionBatchItemResult rejected(final int index, final RuntimeException error) {
+        return new TransactionBatchItemResult(index, null, error);
+    }
+
+    public boolean isCreated() {
+        return this.transaction != null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.devfreitag.pismotest.reactive.services;
+
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Events for downstream systems, one per created transaction, written to the same {@code outbox} table as the
+ * servlet application's, in the same database transaction as the transactions themselves. They are published by the
+ * servlet application's relay.
+ */
+public interface TransactionOutbox {
+
+    /**
+     * Writes an event for each transaction created in the current database transaction, all with the same event
+     * date. The transactions need their ids.
+     */
+    Mono<Void> append(List<CreateTransactionResponse> transactions, Instant eventDate);
+}
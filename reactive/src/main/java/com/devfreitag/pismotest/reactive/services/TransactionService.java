@@ -0,0 +1,14 @@
+package com.devfreitag.pismotest.reactive.services;
+
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface TransactionService {
+    Mono<CreateTransactionResponse> createTransaction(Long accountId, Long operationType, BigDecimal amount);
+    Mono<CreateTransactionResponse> createTransaction(Long accountId, Long operationType, BigDecimal amount, String idempotencyKey);
+    Mono<List<TransactionBatchItemResult>> createTransactions(List<CreateTransactionRequest> requests);
+}
@@ -0,0 +1,39 @@
+package com.devfreitag.pismotest.reactive.services.impl;
+
+import com.devfreitag.pismotest.exceptions.AccountConflictException;
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.models.GetAccountResponse;
+import com.devfreitag.pismotest.reactive.repositories.AccountRepository;
+import com.devfreitag.pismotest.reactive.services.AccountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class AccountServiceImpl implements AccountService {
+
+    private final AccountRepository accountRepository;
+
+    /**
+     * A concurrent request for the same document number that wins the race past the existence check is caught by
+     * the unique constraint, and reported the same way.
+     */
+    @Override
+    @Transactional
+    public Mono<GetAccountResponse> createAccount(String documentNumber) {
+        return this.accountRepository.existsByDocumentNumber(documentNumber)
+                .flatMap(exists -> exists
+                        ? Mono.<GetAccountResponse>error(new AccountConflictException(documentNumber))
+                        : this.accountRepository.insert(documentNumber))
+                .onErrorMap(DataIntegrityViolationException.class, ex -> new AccountConflictException(documentNumber));
+    }
+
+    @Override
+    public Mono<GetAccountResponse> findById(Long accountId) {
+        return this.accountRepository.findById(accountId)
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(accountId)));
+    }
+}
@@ -0,0 +1,53 @@
+package com.devfreitag.pismotest.reactive.services.impl;
+
+import com.devfreitag.pismotest.exceptions.IdempotencyKeyReusedException;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import com.devfreitag.pismotest.reactive.repositories.IdempotencyKeyRepository;
+import com.devfreitag.pismotest.reactive.services.IdempotencyService;
+import com.devfreitag.pismotest.reactive.services.TransactionService;
+import com.devfreitag.pismotest.services.IdempotentTransaction;
+import com.devfreitag.pismotest.services.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Creates each transaction at most once per {@code Idempotency-Key}, storing the key with the transaction in the same
+ * database transaction and answering retries from the {@code idempotency_key} table without touching the account
+ * again. Concurrent requests with the same key are settled by the table's primary key: the loser's transaction is
+ * rolled back and it replays the winner's. A key reused with a different account, operation type or amount is rejected
+ * with {@link IdempotencyKeyReusedException}.
+ */
+@Service
+@RequiredArgsConstructor
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private final TransactionService transactionService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Override
+    public Mono<IdempotentTransaction> createTransaction(String idempotencyKey, CreateTransactionRequest request) {
+        return this.idempotencyKeyRepository.findResponseByIdempotencyKey(idempotencyKey)
+                .map(stored -> replay(idempotencyKey, request, stored))
+                .switchIfEmpty(Mono.defer(() -> this.transactionService
+                        .createTransaction(request.accountId(), request.operationTypeId(), request.amount(), idempotencyKey)
+                        .map(created -> new IdempotentTransaction(created, false))
+                        // Another request stored the key first and this transaction was rolled back, so replay the stored one
+                        .onErrorResume(DataIntegrityViolationException.class, ex -> this.idempotencyKeyRepository
+                                .findResponseByIdempotencyKey(idempotencyKey)
+                                .switchIfEmpty(Mono.error(ex))
+                                .map(stored -> replay(idempotencyKey, request, stored)))));
+    }
+
+    private static IdempotentTransaction replay(String idempotencyKey, CreateTransactionRequest request,
+                                                CreateTransactionResponse response) {
+        if (!response.accountId().equals(request.accountId())
+                || !response.operationTypeId().equals(request.operationTypeId())
+                || Math.abs(Money.toCents(response.amount())) != Money.toCents(request.amount())) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+        return new IdempotentTransaction(response, true);
+    }
+}
@@ -0,0 +1,23 @@
+package com.devfreitag.pismotest.reactive.services.impl;
+
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import com.devfreitag.pismotest.reactive.services.TransactionOutbox;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Used while the outbox is disabled: no events are written.
+ */
+@Service
+@ConditionalOnBooleanProperty(value = "pismo.outbox.enabled", havingValue = false, matchIfMissing = true)
+public class NoOpTransactionOutbox implements TransactionOutbox {
+
+    @Override
+    public Mono<Void> append(List<CreateTransactionResponse> transactions, Instant eventDate) {
+        return Mono.empty();
+    }
+}
@@ -0,0 +1,73 @@
+package com.devfreitag.pismotest.reactive.services.impl;
+
+import com.devfreitag.pismotest.enums.OperationTypeEnum;
+import com.devfreitag.pismotest.exceptions.OperationTypeNotFoundException;
+import com.devfreitag.pismotest.models.OperationTypeResponse;
+import com.devfreitag.pismotest.reactive.repositories.OperationTypeRepository;
+import com.devfreitag.pismotest.reactive.services.OperationTypeRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the {@code operation_type} reference table in memory, so lookups on the transaction path never reach the
+ * database. The table is read on first use rather than at startup, when Flyway may not have created it yet, and read
+ * again on the next use if that fails.
+ */
+@Slf4j
+@Service
+public class OperationTypeRegistryImpl implements OperationTypeRegistry {
+
+    private static final Duration FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
+    private final OperationTypeRepository operationTypeRepository;
+    private final Mono<Map<Long, OperationTypeEnum>> operationTypesById;
+
+    public OperationTypeRegistryImpl(final OperationTypeRepository operationTypeRepository) {
+        this.operationTypeRepository = operationTypeRepository;
+        this.operationTypesById = Mono.defer(this::load)
+                .cache(loaded -> FOREVER, error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    @Override
+    public Mono<OperationTypeEnum> findById(Long operationTypeId) {
+        return this.operationTypesById.flatMap(operationTypes -> Mono.justOrEmpty(operationTypes.get(operationTypeId)))
+                .switchIfEmpty(Mono.error(() -> new OperationTypeNotFoundException(operationTypeId)));
+    }
+
+    @Override
+    public Mono<Map<Long, OperationTypeEnum>> findAll() {
+        return this.operationTypesById;
+    }
+
+    /**
+     * Checks the table against {@link OperationTypeEnum} like the servlet application does: every enum code must have
+     * a row, and rows without an enum constant are left out since the service would not know how to sign their amounts.
+     */
+    private Mono<Map<Long, OperationTypeEnum>> load() {
+        return this.operationTypeRepository.findAll().collectList().map(rows -> {
+            final Map<Long, OperationTypeEnum> loaded = new HashMap<>();
+            for (OperationTypeResponse row : rows) {
+                try {
+                    loaded.put(row.operationTypeId(), OperationTypeEnum.fromCode(row.operationTypeId()));
+                } catch (IllegalArgumentException ex) {
+                    log.warn("Ignoring operation type {} ({}): no matching OperationTypeEnum constant",
+                            row.operationTypeId(), row.description());
+                }
+            }
+
+            for (OperationTypeEnum type : OperationTypeEnum.values()) {
+                if (!loaded.containsKey(type.getCode())) {
+                    throw new IllegalStateException("Operation type " + type + " (" + type.getCode() + ") is missing from the operation_type table.");
+                }
+            }
+
+            return Collections.unmodifiableMap(loaded);
+        });
+    }
+}
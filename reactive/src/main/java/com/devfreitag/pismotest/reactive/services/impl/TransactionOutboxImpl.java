@@ -0,0 +1,29 @@
+package com.devfreitag.pismotest.reactive.services.impl;
+
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import com.devfreitag.pismotest.reactive.repositories.TransactionRepository;
+import com.devfreitag.pismotest.reactive.services.TransactionOutbox;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Inserts the events of a call as a single batched statement, so a single transaction costs one more statement, and
+ * a batch of them one more batched statement.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnBooleanProperty("pismo.outbox.enabled")
+public class TransactionOutboxImpl implements TransactionOutbox {
+
+    private final TransactionRepository transactionRepository;
+
+    @Override
+    public Mono<Void> append(List<CreateTransactionResponse> transactions, Instant eventDate) {
+        return this.transactionRepository.insertOutboxEvents(transactions, eventDate);
+    }
+}
@@ -0,0 +1,200 @@
+package com.devfreitag.pismotest.reactive.services.impl;
+
+import com.devfreitag.pismotest.enums.OperationTypeEnum;
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.exceptions.AmountOutOfRangeException;
+import com.devfreitag.pismotest.exceptions.OperationTypeNotFoundException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import com.devfreitag.pismotest.reactive.repositories.AccountRepository;
+import com.devfreitag.pismotest.reactive.repositories.AccountRepository.LockedCreditLimit;
+import com.devfreitag.pismotest.reactive.repositories.IdempotencyKeyRepository;
+import com.devfreitag.pismotest.reactive.repositories.TransactionRepository;
+import com.devfreitag.pismotest.reactive.services.OperationTypeRegistry;
+import com.devfreitag.pismotest.reactive.services.TransactionBatchItemResult;
+import com.devfreitag.pismotest.reactive.services.TransactionOutbox;
+import com.devfreitag.pismotest.reactive.services.TransactionService;
+import com.devfreitag.pismotest.services.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@RequiredArgsConstructor
+public class TransactionServiceImpl implements TransactionService {
+
+    private final AccountRepository accountRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final OperationTypeRegistry operationTypeRegistry;
+    private final TransactionRepository transactionRepository;
+    private final TransactionOutbox transactionOutbox;
+
+    /**
+     * Applies the amount with a single conditional statement on the account row. When that updates nothing, the
+     * account is locked to tell why; one with balance shards has them all locked and the transaction decided against
+     * their sum, which is then spread evenly again, like the servlet application does when no single shard can take it.
+     */
+    @Override
+    @Transactional
+    public Mono<CreateTransactionResponse> createTransaction(Long accountId, Long operationTypeId, BigDecimal amount) {
+        return this.operationTypeRegistry.findById(operationTypeId).flatMap(operationType -> {
+            final long cents = operationType.applySign(Money.toCents(amount));
+            final BigDecimal signedAmount = Money.toBigDecimal(cents);
+            final Instant eventDate = Instant.now();
+
+            return this.accountRepository.applyToCreditLimit(accountId, signedAmount)
+                    .flatMap(updated -> updated == 0 ? applyToBalanceShards(accountId, cents) : Mono.just(updated))
+                    .flatMap(updated -> this.transactionRepository.insert(accountId, operationTypeId, signedAmount, eventDate))
+                    .map(transactionId -> new CreateTransactionResponse(transactionId, accountId, operationTypeId, signedAmount))
+                    .flatMap(transaction -> this.transactionOutbox.append(List.of(transaction), eventDate).thenReturn(transaction));
+        });
+    }
+
+    /**
+     * Same as {@link #createTransaction(Long, Long, BigDecimal)}, storing the idempotency key in the same database
+     * transaction so that the key exists if and only if the transaction does. A key that is already stored fails with
+     * a {@link org.springframework.dao.DataIntegrityViolationException} and nothing is created.
+     */
+    @Override
+    @Transactional
+    public Mono<CreateTransactionResponse> createTransaction(Long accountId, Long operationTypeId, BigDecimal amount,
+                                                             String idempotencyKey) {
+        return createTransaction(accountId, operationTypeId, amount)
+                .flatMap(transaction -> this.idempotencyKeyRepository
+                        .insert(idempotencyKey, transaction.transactionId(), Instant.now())
+                        .thenReturn(transaction));
+    }
+
+    /**
+     * Applies the same rules as {@link #createTransaction} to every item, in request order, while paying for the
+     * account lookups once per batch. Items that break a rule are reported back instead of failing the whole batch;
+     * the accepted ones are inserted and their accounts updated with batched statements.
+     */
+    @Override
+    @Transactional
+    public Mono<List<TransactionBatchItemResult>> createTransactions(List<CreateTransactionRequest> requests) {
+        final Instant eventDate = Instant.now();
+
+        return Mono.zip(this.operationTypeRegistry.findAll(),
+                        this.accountRepository.lockCreditLimits(requests.stream().map(CreateTransactionRequest::accountId).toList()))
+                .flatMap(locked -> createTransactions(requests, locked.getT1(), locked.getT2(), eventDate));
+    }
+
+    private Mono<List<TransactionBatchItemResult>> createTransactions(List<CreateTransactionRequest> requests,
+                                                                      Map<Long, OperationTypeEnum> operationTypes,
+                                                                      Map<Long, LockedCreditLimit> lockedCreditLimits,
+                                                                      Instant eventDate) {
+        final TransactionBatchItemResult[] results = new TransactionBatchItemResult[requests.size()];
+        final int[] pendingIndexes = new int[requests.size()];
+        final List<CreateTransactionResponse> pending = new ArrayList<>(requests.size());
+        final List<CreateTransactionResponse> created = new ArrayList<>(requests.size());
+        final Map<Long, Long> updatedCreditLimits = new HashMap<>();
+
+        for (int index = 0; index < requests.size(); index++) {
+            final CreateTransactionRequest request = requests.get(index);
+
+            final LockedCreditLimit lockedCreditLimit = lockedCreditLimits.get(request.accountId());
+            if (lockedCreditLimit == null) {
+                results[index] = TransactionBatchItemResult.rejected(index, new AccountNotFoundException(request.accountId()));
+                continue;
+            }
+            final long creditLimit = updatedCreditLimits.getOrDefault(request.accountId(), lockedCreditLimit.cents());
+
+            final OperationTypeEnum operationType = operationTypes.get(request.operationTypeId());
+            if (operationType == null) {
+                results[index] = TransactionBatchItemResult.rejected(index, new OperationTypeNotFoundException(request.operationTypeId()));
+                continue;
+            }
+
+            final long amount;
+            final long newCreditLimit;
+            try {
+                amount = operationType.applySign(Money.toCents(request.amount()));
+                newCreditLimit = applyCreditLimitRule(creditLimit, amount);
+            } catch (TransactionInvalidException | AmountOutOfRangeException ex) {
+                results[index] = TransactionBatchItemResult.rejected(index, ex);
+                continue;
+            }
+
+            updatedCreditLimits.put(request.accountId(), newCreditLimit);
+
+            pendingIndexes[pending.size()] = index;
+            pending.add(new CreateTransactionResponse(null, request.accountId(), request.operationTypeId(), Money.toBigDecimal(amount)));
+        }
+
+        final Map<Long, Long> accountCreditLimits = new HashMap<>();
+        final Map<Long, long[]> shardCreditLimits = new TreeMap<>();
+        updatedCreditLimits.forEach((accountId, cents) -> {
+            final int shards = lockedCreditLimits.get(accountId).balanceShards();
+            if (shards > 0) {
+                shardCreditLimits.put(accountId, split(cents, shards));
+            } else {
+                accountCreditLimits.put(accountId, cents);
+            }
+        });
+
+        return this.transactionRepository.insertAll(pending, eventDate)
+                .index()
+                .doOnNext(inserted -> {
+                    final int index = pendingIndexes[inserted.getT1().intValue()];
+                    results[index] = TransactionBatchItemResult.created(index, inserted.getT2());
+                    created.add(inserted.getT2());
+                })
+                .then(Mono.defer(() -> this.transactionOutbox.append(created, eventDate)))
+                .then(this.accountRepository.updateCreditLimits(accountCreditLimits))
+                .then(Flux.fromIterable(shardCreditLimits.entrySet())
+                        .concatMap(entry -> this.accountRepository.updateShardCreditLimits(entry.getKey(), entry.getValue()))
+                        .then())
+                .then(Mono.fromSupplier(() -> Arrays.asList(results)));
+    }
+
+    private Mono<Long> applyToBalanceShards(Long accountId, long amount) {
+        return this.accountRepository.lockCreditLimits(List.of(accountId)).flatMap(locked -> {
+            final LockedCreditLimit creditLimit = locked.get(accountId);
+            if (creditLimit == null) {
+                return Mono.error(new AccountNotFoundException(accountId));
+            }
+            if (creditLimit.balanceShards() == 0) {
+                return Mono.error(new TransactionInvalidException());
+            }
+
+            final long newCreditLimit = applyCreditLimitRule(creditLimit.cents(), amount);
+            return this.accountRepository.updateShardCreditLimits(accountId, split(newCreditLimit, creditLimit.balanceShards()))
+                    .thenReturn(1L);
+        });
+    }
+
+    private static long applyCreditLimitRule(long creditLimit, long signedAmount) {
+        final long newCreditLimit = Money.add(creditLimit, signedAmount);
+
+        if (newCreditLimit <= 0L) {
+            throw new TransactionInvalidException();
+        }
+
+        return newCreditLimit;
+    }
+
+    /**
+     * Splits the limit into the given number of parts that differ by at most a cent, the larger ones first, the same
+     * way the servlet application spreads it over the shards.
+     */
+    private static long[] split(long creditLimit, int shards) {
+        final long[] cents = new long[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            cents[shard] = creditLimit / shards + (shard < creditLimit % shards ? 1L : 0L);
+        }
+        return cents;
+    }
+}
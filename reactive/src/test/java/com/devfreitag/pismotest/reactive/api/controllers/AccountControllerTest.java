@@ -0,0 +1,122 @@
+package com.devfreitag.pismotest.reactive.api.controllers;
+
+import com.devfreitag.pismotest.exceptions.AccountConflictException;
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.models.GetAccountResponse;
+import com.devfreitag.pismotest.reactive.services.AccountService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webflux.test.autoconfigure.WebFluxTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(AccountController.class)
+@DisplayName("Reactive AccountController Tests")
+class AccountControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private AccountService accountService;
+
+    @Nested
+    @DisplayName("POST /accounts - Create Account")
+    class CreateAccountTests {
+
+        @Test
+        @DisplayName("Should create account successfully with valid document number")
+        void shouldCreateAccountSuccessfully() {
+            // Arrange
+            String documentNumber = "12345678900";
+            when(accountService.createAccount(documentNumber))
+                    .thenReturn(Mono.just(new GetAccountResponse(1L, documentNumber, BigDecimal.ZERO)));
+
+            // Act & Assert
+            webTestClient.post().uri("/accounts")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"document_number\": \"" + documentNumber + "\"}")
+                    .exchange()
+                    .expectStatus().isCreated()
+                    .expectHeader().valueEquals("Location", "/accounts/1")
+                    .expectBody()
+                    .jsonPath("$.account_id").isEqualTo(1)
+                    .jsonPath("$.document_number").isEqualTo(documentNumber);
+        }
+
+        @Test
+        @DisplayName("Should return 400 when document number is blank")
+        void shouldReturn400WhenDocumentNumberIsBlank() {
+            // Act & Assert
+            webTestClient.post().uri("/accounts")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"document_number\": \"  \"}")
+                    .exchange()
+                    .expectStatus().isBadRequest()
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo("Validation failed")
+                    .jsonPath("$.errors.documentNumber").isEqualTo("Document number is required");
+        }
+
+        @Test
+        @DisplayName("Should return 409 when document number already exists")
+        void shouldReturn409WhenDocumentNumberAlreadyExists() {
+            // Arrange
+            String documentNumber = "12345678900";
+            when(accountService.createAccount(documentNumber))
+                    .thenReturn(Mono.error(new AccountConflictException(documentNumber)));
+
+            // Act & Assert
+            webTestClient.post().uri("/accounts")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"document_number\": \"" + documentNumber + "\"}")
+                    .exchange()
+                    .expectStatus().isEqualTo(409)
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo(new AccountConflictException(documentNumber).getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /accounts/{accountId} - Get Account")
+    class GetAccountTests {
+
+        @Test
+        @DisplayName("Should return account when it exists")
+        void shouldReturnAccountWhenItExists() {
+            // Arrange
+            when(accountService.findById(1L))
+                    .thenReturn(Mono.just(new GetAccountResponse(1L, "12345678900", new BigDecimal("500.00"))));
+
+            // Act & Assert
+            webTestClient.get().uri("/accounts/1")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.account_id").isEqualTo(1)
+                    .jsonPath("$.available_credit_limit").isEqualTo(500.0);
+        }
+
+        @Test
+        @DisplayName("Should return 404 when account does not exist")
+        void shouldReturn404WhenAccountDoesNotExist() {
+            // Arrange
+            when(accountService.findById(999L)).thenReturn(Mono.error(new AccountNotFoundException(999L)));
+
+            // Act & Assert
+            webTestClient.get().uri("/accounts/999")
+                    .exchange()
+                    .expectStatus().isNotFound()
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo("Account with ID 999 not found.");
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.devfreitag.pismotest.reactive.api.controllers;
+
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.exceptions.IdempotencyKeyReusedException;
+import com.devfreitag.pismotest.exceptions.OperationTypeNotFoundException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.CreateTransactionBatchRequest;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import com.devfreitag.pismotest.reactive.services.IdempotencyService;
+import com.devfreitag.pismotest.reactive.services.TransactionBatchItemResult;
+import com.devfreitag.pismotest.reactive.services.TransactionService;
+import com.devfreitag.pismotest.services.IdempotentTransaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webflux.test.autoconfigure.WebFluxTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(TransactionController.class)
+@DisplayName("Reactive TransactionController Tests")
+class TransactionControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private TransactionService transactionService;
+
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
+    @Nested
+    @DisplayName("POST /transactions - Create Transaction")
+    class CreateTransactionTests {
+
+        private final CreateTransactionRequest request = new CreateTransactionRequest(1L, 1L, new BigDecimal("123.45"));
+
+        @Test
+        @DisplayName("Should create transaction with the signed amount")
+        void shouldCreateTransactionWithTheSignedAmount() {
+            // Arrange
+            when(transactionService.createTransaction(1L, 1L, new BigDecimal("123.45")))
+                    .thenReturn(Mono.just(new CreateTransactionResponse(10L, 1L, 1L, new BigDecimal("-123.45"))));
+
+            // Act & Assert
+            webTestClient.post().uri("/transactions")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(request)
+                    .exchange()
+                    .expectStatus().isCreated()
+                    .expectHeader().valueEquals("Location", "/transactions/10")
+                    .expectHeader().doesNotExist("Idempotent-Replayed")
+                    .expectBody()
+                    .jsonPath("$.transaction_id").isEqualTo(10)
+                    .jsonPath("$.amount").isEqualTo(-123.45);
+        }
+
+        @Test
+        @DisplayName("Should return 400 with every missing field")
+        void shouldReturn400WithEveryMissingField() {
+            // Act & Assert
+            webTestClient.post().uri("/transactions")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{}")
+                    .exchange()
+                    .expectStatus().isBadRequest()
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo("Validation failed")
+                    .jsonPath("$.errors.accountId").isEqualTo("Account must be informed")
+                    .jsonPath("$.errors.operationTypeId").isEqualTo("Operation type must be informed")
+                    .jsonPath("$.errors.amount").isEqualTo("Amount must be informed");
+
+            verifyNoInteractions(transactionService, idempotencyService);
+        }
+
+        @Test
+        @DisplayName("Should return 404 when account does not exist")
+        void shouldReturn404WhenAccountDoesNotExist() {
+            // Arrange
+            when(transactionService.createTransaction(1L, 1L, new BigDecimal("123.45")))
+                    .thenReturn(Mono.error(new AccountNotFoundException(1L)));
+
+            // Act & Assert
+            webTestClient.post().uri("/transactions")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(request)
+                    .exchange()
+                    .expectStatus().isNotFound()
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo("Account with ID 1 not found.");
+        }
+
+        @Test
+        @DisplayName("Should return 422 when the credit limit is not enough")
+        void shouldReturn422WhenTheCreditLimitIsNotEnough() {
+            // Arrange
+            when(transactionService.createTransaction(1L, 1L, new BigDecimal("123.45")))
+                    .thenReturn(Mono.error(new TransactionInvalidException()));
+
+            // Act & Assert
+            webTestClient.post().uri("/transactions")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(request)
+                    .exchange()
+                    .expectStatus().isEqualTo(422)
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo("Transaction with credit limit can't be less than zero.");
+        }
+
+        @Nested
+        @DisplayName("Idempotency Key")
+        class IdempotencyKeyScenarios {
+
+            @Test
+            @DisplayName("Should mark a replayed transaction")
+            void shouldMarkAReplayedTransaction() {
+                // Arrange
+                when(idempotencyService.createTransaction("key-1", request))
+                        .thenReturn(Mono.just(new IdempotentTransaction(
+                                new CreateTransactionResponse(10L, 1L, 1L, new BigDecimal("-123.45")), true)));
+
+                // Act & Assert
+                webTestClient.post().uri("/transactions")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(request)
+                        .exchange()
+                        .expectStatus().isCreated()
+                        .expectHeader().valueEquals("Idempotent-Replayed", "true")
+                        .expectBody()
+                        .jsonPath("$.transaction_id").isEqualTo(10);
+
+                verifyNoInteractions(transactionService);
+            }
+
+            @Test
+            @DisplayName("Should return 422 when the key was used for a different transaction")
+            void shouldReturn422WhenTheKeyWasUsedForADifferentTransaction() {
+                // Arrange
+                when(idempotencyService.createTransaction("key-1", request))
+                        .thenReturn(Mono.error(new IdempotencyKeyReusedException("key-1")));
+
+                // Act & Assert
+                webTestClient.post().uri("/transactions")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(request)
+                        .exchange()
+                        .expectStatus().isEqualTo(422)
+                        .expectBody()
+                        .jsonPath("$.message").isEqualTo("Idempotency key key-1 was already used for a different transaction.");
+            }
+
+            @Test
+            @DisplayName("Should return 400 when the key is too long")
+            void shouldReturn400WhenTheKeyIsTooLong() {
+                // Act & Assert
+                webTestClient.post().uri("/transactions")
+                        .header("Idempotency-Key", "k".repeat(256))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(request)
+                        .exchange()
+                        .expectStatus().isBadRequest()
+                        .expectBody()
+                        .jsonPath("$.errors.idempotencyKey").exists();
+
+                verifyNoInteractions(idempotencyService, transactionService);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /transactions/batch - Create Transactions in Batch")
+    class CreateTransactionsTests {
+
+        @Test
+        @DisplayName("Should return one result per item, including rejected ones")
+        void shouldReturnOneResultPerItemIncludingRejectedOnes() {
+            // Arrange
+            List<CreateTransactionRequest> requests = List.of(
+                    new CreateTransactionRequest(1L, 1L, new BigDecimal("50.00")),
+                    new CreateTransactionRequest(999L, 1L, new BigDecimal("10.00")),
+                    new CreateTransactionRequest(1L, 3L, new BigDecimal("5000.00")),
+                    new CreateTransactionRequest(1L, 999L, new BigDecimal("10.00")));
+
+            when(transactionService.createTransactions(requests))
+                    .thenReturn(Mono.just(List.of(
+                            TransactionBatchItemResult.created(0, new CreateTransactionResponse(10L, 1L, 1L, new BigDecimal("-50.00"))),
+                            TransactionBatchItemResult.rejected(1, new AccountNotFoundException(999L)),
+                            TransactionBatchItemResult.rejected(2, new TransactionInvalidException()),
+                            TransactionBatchItemResult.rejected(3, new OperationTypeNotFoundException(999L))
+                    )));
+
+            // Act & Assert
+            webTestClient.post().uri("/transactions/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new CreateTransactionBatchRequest(requests))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.created").isEqualTo(1)
+                    .jsonPath("$.rejected").isEqualTo(3)
+                    .jsonPath("$.results[0].status").isEqualTo(201)
+                    .jsonPath("$.results[0].transaction.transaction_id").isEqualTo(10)
+                    .jsonPath("$.results[1].status").isEqualTo(404)
+                    .jsonPath("$.results[1].message").isEqualTo("Account with ID 999 not found.")
+                    .jsonPath("$.results[2].status").isEqualTo(422)
+                    .jsonPath("$.results[3].status").isEqualTo(404);
+        }
+
+        @Test
+        @DisplayName("Should return 400 when batch is empty")
+        void shouldReturn400WhenBatchIsEmpty() {
+            // Act & Assert
+            webTestClient.post().uri("/transactions/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new CreateTransactionBatchRequest(Collections.emptyList()))
+                    .exchange()
+                    .expectStatus().isBadRequest()
+                    .expectBody()
+                    .jsonPath("$.errors.transactions").isEqualTo("At least one transaction must be informed");
+
+            verifyNoInteractions(transactionService);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.devfreitag.pismotest.reactive.services.impl;
+
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import com.devfreitag.pismotest.models.GetAccountResponse;
+import com.devfreitag.pismotest.reactive.services.AccountService;
+import com.devfreitag.pismotest.reactive.services.TransactionBatchItemResult;
+import com.devfreitag.pismotest.reactive.services.TransactionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "pismo.outbox.enabled=true")
+@DisplayName("Reactive TransactionOutboxImpl Integration Tests")
+class TransactionOutboxImplIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private Long createAccount(String availableCreditLimit) {
+        final GetAccountResponse account = accountService.createAccount(UUID.randomUUID().toString()).block();
+        databaseClient.sql("UPDATE account SET available_credit_limit = :limit WHERE account_id = :accountId")
+                .bind("limit", new BigDecimal(availableCreditLimit))
+                .bind("accountId", account.accountId())
+                .then()
+                .block();
+        return account.accountId();
+    }
+
+    private List<CreateTransactionResponse> outboxEventsOf(Long accountId) {
+        return databaseClient.sql("""
+                        SELECT transaction_id, account_id, operation_type_id, amount
+                          FROM outbox
+                         WHERE account_id = :accountId
+                         ORDER BY transaction_id
+                        """)
+                .bind("accountId", accountId)
+                .map(row -> new CreateTransactionResponse(
+                        row.get("transaction_id", Long.class),
+                        row.get("account_id", Long.class),
+                        row.get("operation_type_id", Long.class),
+                        row.get("amount", BigDecimal.class)))
+                .all()
+                .collectList()
+                .block();
+    }
+
+    @Test
+    @DisplayName("Should write an event for each created transaction and none for rejected ones")
+    void shouldWriteAnEventForEachCreatedTransactionAndNoneForRejectedOnes() {
+        // Arrange
+        Long accountId = createAccount("100.00");
+
+        // Act
+        CreateTransactionResponse purchase = transactionService.createTransaction(accountId, 1L, new BigDecimal("30.00")).block();
+        StepVerifier.create(transactionService.createTransaction(accountId, 3L, new BigDecimal("70.00")))
+                .expectError(TransactionInvalidException.class)
+                .verify();
+        List<TransactionBatchItemResult> results = transactionService.createTransactions(List.of(
+                new CreateTransactionRequest(accountId, 4L, new BigDecimal("5.00")),
+                new CreateTransactionRequest(accountId, 3L, new BigDecimal("80.00")),
+                new CreateTransactionRequest(accountId, 1L, new BigDecimal("10.00")))).block();
+
+        // Assert
+        List<CreateTransactionResponse> events = outboxEventsOf(accountId);
+        assertThat(events).extracting(CreateTransactionResponse::transactionId, CreateTransactionResponse::operationTypeId)
+                .containsExactly(
+                        tuple(purchase.transactionId(), 1L),
+                        tuple(results.get(0).transaction().transactionId(), 4L),
+                        tuple(results.get(2).transaction().transactionId(), 1L));
+        assertThat(events).extracting(CreateTransactionResponse::amount)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("-30.00"), new BigDecimal("5.00"), new BigDecimal("-10.00"));
+    }
+}
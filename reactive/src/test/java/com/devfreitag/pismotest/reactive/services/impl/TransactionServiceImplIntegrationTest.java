@@ -0,0 +1,236 @@
+package com.devfreitag.pismotest.reactive.services.impl;
+
+import com.devfreitag.pismotest.exceptions.AccountConflictException;
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.exceptions.IdempotencyKeyReusedException;
+import com.devfreitag.pismotest.exceptions.OperationTypeNotFoundException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import com.devfreitag.pismotest.models.GetAccountResponse;
+import com.devfreitag.pismotest.reactive.services.AccountService;
+import com.devfreitag.pismotest.reactive.services.IdempotencyService;
+import com.devfreitag.pismotest.reactive.services.TransactionBatchItemResult;
+import com.devfreitag.pismotest.reactive.services.TransactionService;
+import com.devfreitag.pismotest.services.IdempotentTransaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DisplayName("Reactive TransactionServiceImpl Integration Tests")
+class TransactionServiceImplIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private Long createAccount(String availableCreditLimit) {
+        final GetAccountResponse account = accountService.createAccount(UUID.randomUUID().toString()).block();
+        databaseClient.sql("UPDATE account SET available_credit_limit = :limit WHERE account_id = :accountId")
+                .bind("limit", new BigDecimal(availableCreditLimit))
+                .bind("accountId", account.accountId())
+                .then()
+                .block();
+        return account.accountId();
+    }
+
+    private Long createShardedAccount(String... shardCreditLimits) {
+        final Long accountId = createAccount("0.00");
+        databaseClient.sql("UPDATE account SET balance_shards = :shards WHERE account_id = :accountId")
+                .bind("shards", shardCreditLimits.length)
+                .bind("accountId", accountId)
+                .then()
+                .block();
+        for (int shard = 0; shard < shardCreditLimits.length; shard++) {
+            databaseClient.sql("INSERT INTO account_balance_shard (account_id, shard, available_credit_limit) VALUES (:accountId, :shard, :limit)")
+                    .bind("accountId", accountId)
+                    .bind("shard", shard)
+                    .bind("limit", new BigDecimal(shardCreditLimits[shard]))
+                    .then()
+                    .block();
+        }
+        return accountId;
+    }
+
+    private List<BigDecimal> shardCreditLimitsOf(Long accountId) {
+        return databaseClient.sql("SELECT available_credit_limit FROM account_balance_shard WHERE account_id = :accountId ORDER BY shard")
+                .bind("accountId", accountId)
+                .map(row -> row.get("available_credit_limit", BigDecimal.class))
+                .all()
+                .collectList()
+                .block();
+    }
+
+    private BigDecimal creditLimitOf(Long accountId) {
+        return accountService.findById(accountId).map(GetAccountResponse::availableCreditLimit).block();
+    }
+
+    private long transactionCountOf(Long accountId) {
+        return databaseClient.sql("SELECT COUNT(*) AS total FROM transaction WHERE account_id = :accountId")
+                .bind("accountId", accountId)
+                .map(row -> row.get("total", Long.class))
+                .one()
+                .block();
+    }
+
+    @Test
+    @DisplayName("Should create an account with no credit limit and reject its document number twice")
+    void shouldCreateAnAccountWithNoCreditLimitAndRejectItsDocumentNumberTwice() {
+        // Arrange
+        String documentNumber = UUID.randomUUID().toString();
+
+        // Act
+        GetAccountResponse created = accountService.createAccount(documentNumber).block();
+
+        // Assert
+        assertThat(accountService.findById(created.accountId()).block())
+                .extracting(GetAccountResponse::documentNumber, account -> account.availableCreditLimit().signum())
+                .containsExactly(documentNumber, 0);
+        StepVerifier.create(accountService.createAccount(documentNumber))
+                .expectError(AccountConflictException.class)
+                .verify();
+        StepVerifier.create(accountService.findById(Long.MAX_VALUE))
+                .expectError(AccountNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Should sign the amount and apply it to the credit limit")
+    void shouldSignTheAmountAndApplyItToTheCreditLimit() {
+        // Arrange
+        Long accountId = createAccount("100.00");
+
+        // Act
+        CreateTransactionResponse purchase = transactionService.createTransaction(accountId, 1L, new BigDecimal("30.00")).block();
+        CreateTransactionResponse payment = transactionService.createTransaction(accountId, 4L, new BigDecimal("5.50")).block();
+
+        // Assert
+        assertThat(purchase.transactionId()).isNotNull();
+        assertThat(purchase.amount()).isEqualByComparingTo("-30.00");
+        assertThat(payment.amount()).isEqualByComparingTo("5.50");
+        assertThat(creditLimitOf(accountId)).isEqualByComparingTo("75.50");
+    }
+
+    @Test
+    @DisplayName("Should reject a transaction that would leave no credit limit, and unknown accounts and operation types")
+    void shouldRejectTransactionsThatBreakARule() {
+        // Arrange
+        Long accountId = createAccount("10.00");
+
+        // Act & Assert
+        StepVerifier.create(transactionService.createTransaction(accountId, 3L, new BigDecimal("10.00")))
+                .expectError(TransactionInvalidException.class)
+                .verify();
+        StepVerifier.create(transactionService.createTransaction(Long.MAX_VALUE, 1L, BigDecimal.ONE))
+                .expectError(AccountNotFoundException.class)
+                .verify();
+        StepVerifier.create(transactionService.createTransaction(accountId, 999L, BigDecimal.ONE))
+                .expectError(OperationTypeNotFoundException.class)
+                .verify();
+
+        assertThat(creditLimitOf(accountId)).isEqualByComparingTo("10.00");
+        assertThat(transactionCountOf(accountId)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should create a transaction once per idempotency key")
+    void shouldCreateATransactionOncePerIdempotencyKey() {
+        // Arrange
+        Long accountId = createAccount("100.00");
+        String idempotencyKey = UUID.randomUUID().toString();
+        CreateTransactionRequest request = new CreateTransactionRequest(accountId, 1L, new BigDecimal("20.00"));
+
+        // Act
+        IdempotentTransaction first = idempotencyService.createTransaction(idempotencyKey, request).block();
+        IdempotentTransaction retry = idempotencyService.createTransaction(idempotencyKey, request).block();
+
+        // Assert
+        assertThat(first.replayed()).isFalse();
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.response()).isEqualTo(first.response());
+        assertThat(creditLimitOf(accountId)).isEqualByComparingTo("80.00");
+        assertThat(transactionCountOf(accountId)).isEqualTo(1L);
+        StepVerifier.create(idempotencyService.createTransaction(idempotencyKey,
+                        new CreateTransactionRequest(accountId, 1L, new BigDecimal("25.00"))))
+                .expectError(IdempotencyKeyReusedException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Should insert accepted items and update every touched account in one batch")
+    void shouldInsertAcceptedItemsAndUpdateEveryTouchedAccountInOneBatch() {
+        // Arrange
+        Long first = createAccount("1000.00");
+        Long second = createAccount("50.00");
+
+        List<CreateTransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1_500; i++) {
+            requests.add(new CreateTransactionRequest(first, 1L, new BigDecimal("0.50")));
+        }
+        requests.add(new CreateTransactionRequest(second, 3L, new BigDecimal("60.00")));
+        requests.add(new CreateTransactionRequest(second, 4L, new BigDecimal("15.00")));
+        requests.add(new CreateTransactionRequest(Long.MAX_VALUE, 1L, new BigDecimal("1.00")));
+        requests.add(new CreateTransactionRequest(second, 999L, new BigDecimal("1.00")));
+
+        // Act
+        List<TransactionBatchItemResult> results = transactionService.createTransactions(requests).block();
+
+        // Assert
+        assertThat(results).hasSize(requests.size());
+        assertThat(results.stream().filter(TransactionBatchItemResult::isCreated)).hasSize(1_501);
+        assertThat(results.get(1_500).error()).isInstanceOf(TransactionInvalidException.class);
+        assertThat(results.get(1_501).transaction().amount()).isEqualByComparingTo("15.00");
+        assertThat(results.get(1_502).error()).isInstanceOf(AccountNotFoundException.class);
+        assertThat(results.get(1_503).error()).isInstanceOf(OperationTypeNotFoundException.class);
+        assertThat(results.stream().filter(TransactionBatchItemResult::isCreated)
+                .map(result -> result.transaction().transactionId()).distinct()).hasSize(1_501);
+
+        assertThat(creditLimitOf(first)).isEqualByComparingTo("250.00");
+        assertThat(creditLimitOf(second)).isEqualByComparingTo("65.00");
+        assertThat(transactionCountOf(first)).isEqualTo(1_500L);
+    }
+
+    @Test
+    @DisplayName("Should decide transactions on an account with balance shards against the sum of its shards")
+    void shouldDecideTransactionsOnAnAccountWithBalanceShardsAgainstTheSumOfItsShards() {
+        // Arrange
+        Long accountId = createShardedAccount("30.00", "20.00");
+
+        // Act
+        CreateTransactionResponse purchase = transactionService.createTransaction(accountId, 1L, new BigDecimal("40.00")).block();
+        List<TransactionBatchItemResult> results = transactionService.createTransactions(List.of(
+                new CreateTransactionRequest(accountId, 4L, new BigDecimal("5.01")),
+                new CreateTransactionRequest(accountId, 1L, new BigDecimal("20.00")))).block();
+
+        // Assert
+        assertThat(purchase.amount()).isEqualByComparingTo("-40.00");
+        assertThat(results.get(0).isCreated()).isTrue();
+        assertThat(results.get(1).error()).isInstanceOf(TransactionInvalidException.class);
+        assertThat(creditLimitOf(accountId)).isEqualByComparingTo("15.01");
+        assertThat(shardCreditLimitsOf(accountId)).usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("7.51"), new BigDecimal("7.50"));
+        StepVerifier.create(transactionService.createTransaction(accountId, 3L, new BigDecimal("15.01")))
+                .expectError(TransactionInvalidException.class)
+                .verify();
+        assertThat(transactionCountOf(accountId)).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,64 @@
+package com.devfreitag.pismotest.benchmarks;
+
+import com.devfreitag.pismotest.enums.OperationTypeEnum;
+import com.devfreitag.pismotest.services.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory work {@code TransactionServiceImpl} does per batch item: signing the requested amount, applying the
+ * credit limit rule, and producing the amount to insert and the new limit to keep. {@code bigDecimal} is how it was done
+ * before amounts were kept in cents; {@code cents} is how it is done now. Compare {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreditLimitBenchmark {
+
+    @Param({"1", "4"})
+    public long operationTypeId;
+
+    private BigDecimal amount;
+    private BigDecimal creditLimit;
+    private long creditLimitCents;
+
+    @Setup
+    public void setUp() {
+        this.amount = new BigDecimal("123.45");
+        this.creditLimit = new BigDecimal("5000.00");
+        this.creditLimitCents = Money.toCents(this.creditLimit);
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole blackhole) {
+        final BigDecimal signedAmount = OperationTypeEnum.fromCode(this.operationTypeId) == OperationTypeEnum.PAYMENT
+                ? this.amount.abs()
+                : this.amount.abs().negate();
+        final BigDecimal newCreditLimit = this.creditLimit.add(signedAmount);
+        if (newCreditLimit.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalStateException();
+        }
+
+        blackhole.consume(signedAmount);
+        blackhole.consume(newCreditLimit);
+    }
+
+    @Benchmark
+    public void cents(Blackhole blackhole) {
+        final long signedAmount = OperationTypeEnum.fromCode(this.operationTypeId).applySign(Money.toCents(this.amount));
+        final long newCreditLimit = Money.add(this.creditLimitCents, signedAmount);
+        if (newCreditLimit <= 0L) {
+            throw new IllegalStateException();
+        }
+
+        // The amount is inserted as NUMERIC, the new limit is kept in a primitive map until the batch update
+        blackhole.consume(Money.toBigDecimal(signedAmount));
+        blackhole.consume(newCreditLimit);
+    }
+}
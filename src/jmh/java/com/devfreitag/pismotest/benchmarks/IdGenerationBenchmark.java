@@ -0,0 +1,133 @@
+package com.devfreitag.pismotest.benchmarks;
+
+import jakarta.persistence.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * Bulk insert throughput, in rows per second, of an entity shaped like {@code Transaction} mapped with
+ * {@code GenerationType.IDENTITY} (one round trip per row, no JDBC batching) against the pooled sequence mapping
+ * (one {@code nextval} per 50 rows, inserts sent in JDBC batches of 50).
+ * <p>
+ * Runs against an in-memory H2 by default, which hides network latency and therefore understates the gap. Point it
+ * at Postgres to get representative numbers:
+ * {@code -Djmh.args="IdGeneration -p jdbcUrl=jdbc:postgresql://localhost:5432/test -p jdbcUser=test -p jdbcPassword=test"}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGenerationBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    @Param("jdbc:h2:mem:id-generation;DB_CLOSE_DELAY=-1")
+    public String jdbcUrl;
+
+    @Param("sa")
+    public String jdbcUser;
+
+    @Param("")
+    public String jdbcPassword;
+
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.sessionFactory = new Configuration()
+                .addAnnotatedClass(IdentityRow.class)
+                .addAnnotatedClass(PooledSequenceRow.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, this.jdbcUrl)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, this.jdbcUser)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, this.jdbcPassword)
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .buildSessionFactory();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.sessionFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void identity() {
+        insert(IdentityRow::new);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void pooledSequence() {
+        insert(PooledSequenceRow::new);
+    }
+
+    private void insert(final LongFunction<Object> row) {
+        this.sessionFactory.inTransaction(session -> {
+            for (long i = 0; i < ROWS; i++) {
+                session.persist(row.apply(i));
+            }
+        });
+    }
+
+    @Entity
+    @Table(name = "bench_identity_row")
+    public static class IdentityRow {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private Long accountId;
+
+        @Column(precision = 19, scale = 2)
+        private BigDecimal amount;
+
+        private Instant eventDate;
+
+        protected IdentityRow() {
+        }
+
+        IdentityRow(final long accountId) {
+            this.accountId = accountId;
+            this.amount = BigDecimal.TEN;
+            this.eventDate = Instant.now();
+        }
+    }
+
+    @Entity
+    @Table(name = "bench_pooled_row")
+    public static class PooledSequenceRow {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bench_pooled_row_seq")
+        @SequenceGenerator(name = "bench_pooled_row_seq", sequenceName = "bench_pooled_row_seq", allocationSize = 50)
+        private Long id;
+
+        private Long accountId;
+
+        @Column(precision = 19, scale = 2)
+        private BigDecimal amount;
+
+        private Instant eventDate;
+
+        protected PooledSequenceRow() {
+        }
+
+        PooledSequenceRow(final long accountId) {
+            this.accountId = accountId;
+            this.amount = BigDecimal.TEN;
+            this.eventDate = Instant.now();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.devfreitag.pismotest.benchmarks;
+
+import com.devfreitag.pismotest.enums.OperationTypeEnum;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-transaction operation type work done in memory by {@code TransactionServiceImpl}: resolving the operation
+ * type code and signing the amount in cents. Both should stay allocation free.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperationTypeBenchmark {
+
+    @Param({"1", "4"})
+    public long operationTypeId;
+
+    private long amount;
+
+    @Setup
+    public void setUp() {
+        this.amount = 12_345L;
+    }
+
+    @Benchmark
+    public OperationTypeEnum fromCode() {
+        return OperationTypeEnum.fromCode(this.operationTypeId);
+    }
+
+    @Benchmark
+    public long signAmount() {
+        return OperationTypeEnum.fromCode(this.operationTypeId).applySign(this.amount);
+    }
+}
@@ -0,0 +1,75 @@
+package com.devfreitag.pismotest.benchmarks;
+
+import com.devfreitag.pismotest.PismoTestApplication;
+import com.devfreitag.pismotest.services.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Full request dispatch through {@code DispatcherServlet}, validation, the services and JPA against an in-memory H2,
+ * without the network: what one request costs the application itself. Transactions are payments so the credit limit
+ * never rejects them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransactionEndpointBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private String accountPath;
+    private String transactionJson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = new SpringApplicationBuilder(PismoTestApplication.class)
+                .properties(
+                        "server.port=0",
+                        "logging.level.root=warn",
+                        "spring.datasource.url=jdbc:h2:mem:endpoint-benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+                .run();
+        this.mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) this.context).build();
+
+        final Long accountId = this.context.getBean(AccountService.class)
+                .createAccount(UUID.randomUUID().toString())
+                .getAccountId();
+        this.accountPath = "/accounts/" + accountId;
+        this.transactionJson = "{\"account_id\":" + accountId + ",\"operation_type_id\":4,\"amount\":1.00}";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public int createTransaction() throws Exception {
+        return this.mockMvc.perform(post("/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(this.transactionJson))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int getAccount() throws Exception {
+        return this.mockMvc.perform(get(this.accountPath))
+                .andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,49 @@
+package com.devfreitag.pismotest.benchmarks;
+
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding of the {@code POST /transactions} payloads with the Jackson 3 mapper Spring MVC uses, from and to bytes as
+ * on the wire.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionJsonBenchmark {
+
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private byte[] requestJson;
+    private CreateTransactionResponse response;
+
+    @Setup
+    public void setUp() {
+        final JsonMapper jsonMapper = JsonMapper.builder().build();
+        this.requestReader = jsonMapper.readerFor(CreateTransactionRequest.class);
+        this.responseWriter = jsonMapper.writerFor(CreateTransactionResponse.class);
+        this.requestJson = "{\"account_id\":1,\"operation_type_id\":1,\"amount\":123.45}".getBytes(StandardCharsets.UTF_8);
+        this.response = new CreateTransactionResponse(1L, 1L, 1L, new BigDecimal("-123.45"));
+    }
+
+    @Benchmark
+    public CreateTransactionRequest readRequest() {
+        return this.requestReader.readValue(this.requestJson);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() {
+        return this.responseWriter.writeValueAsBytes(this.response);
+    }
+}
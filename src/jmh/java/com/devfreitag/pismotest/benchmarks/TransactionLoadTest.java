@@ -0,0 +1,128 @@
+package com.devfreitag.pismotest.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load test for {@code POST /transactions} against a running application: each client sends a payment,
+ * waits for the response and sends the next one, spread over a fixed set of accounts. Prints throughput and latency
+ * percentiles, which is what the Tomcat worker pool and virtual-thread modes are compared on.
+ * <p>
+ * Not a JMH benchmark, so it runs through the same profile with another main class:
+ * {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.devfreitag.pismotest.benchmarks.TransactionLoadTest
+ * -Djmh.args="url=http://localhost:8080 clients=5000 seconds=60 accounts=100"}
+ */
+public class TransactionLoadTest {
+
+    private static final Pattern ACCOUNT_ID = Pattern.compile("\"account_id\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        final Map<String, String> options = new HashMap<>(Map.of(
+                "url", "http://localhost:8080", "clients", "5000", "seconds", "60", "warmup", "10", "accounts", "100"));
+        for (String arg : args) {
+            final String[] option = arg.split("=", 2);
+            options.put(option[0], option[1]);
+        }
+
+        final String url = options.get("url");
+        final int clients = Integer.parseInt(options.get("clients"));
+        final Duration warmup = Duration.ofSeconds(Long.parseLong(options.get("warmup")));
+        final Duration measurement = Duration.ofSeconds(Long.parseLong(options.get("seconds")));
+
+        final HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+
+        final List<Long> accountIds = new ArrayList<>();
+        for (int i = 0; i < Integer.parseInt(options.get("accounts")); i++) {
+            accountIds.add(createAccount(httpClient, url));
+        }
+
+        System.out.printf("%d clients, %d accounts, %ds warmup, %ds measurement against %s%n",
+                clients, accountIds.size(), warmup.toSeconds(), measurement.toSeconds(), url);
+
+        final long measureFrom = System.nanoTime() + warmup.toNanos();
+        final long measureUntil = measureFrom + measurement.toNanos();
+        final ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        final CountDownLatch done = new CountDownLatch(clients);
+
+        for (int client = 0; client < clients; client++) {
+            Thread.ofVirtual().start(() -> {
+                final long[] own = new long[1 << 16];
+                int count = 0;
+                try {
+                    while (System.nanoTime() < measureUntil) {
+                        final long accountId = accountIds.get(ThreadLocalRandom.current().nextInt(accountIds.size()));
+                        final long start = System.nanoTime();
+                        String outcome;
+                        try {
+                            outcome = String.valueOf(httpClient.send(post(url + "/transactions",
+                                    "{\"account_id\":" + accountId + ",\"operation_type_id\":4,\"amount\":1.00}"),
+                                    HttpResponse.BodyHandlers.discarding()).statusCode());
+                        } catch (Exception ex) {
+                            outcome = ex.getClass().getSimpleName();
+                        }
+                        final long end = System.nanoTime();
+
+                        if (start >= measureFrom && end <= measureUntil) {
+                            outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+                            if (count < own.length) {
+                                own[count++] = end - start;
+                            }
+                        }
+                    }
+                } finally {
+                    latencies.add(Arrays.copyOf(own, count));
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+
+        final long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("requests: %d (%.0f/s), outcomes: %s%n",
+                all.length, all.length / (double) measurement.toSeconds(), outcomes);
+        if (all.length > 0) {
+            System.out.printf("latency ms: p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                    percentile(all, 50), percentile(all, 90), percentile(all, 99), percentile(all, 99.9),
+                    all[all.length - 1] / 1e6);
+        }
+    }
+
+    private static long createAccount(HttpClient httpClient, String url) throws Exception {
+        final HttpResponse<String> response = httpClient.send(
+                post(url + "/accounts", "{\"document_number\":\"" + UUID.randomUUID() + "\"}"),
+                HttpResponse.BodyHandlers.ofString());
+        final Matcher matcher = ACCOUNT_ID.matcher(response.body());
+        if (response.statusCode() != 201 || !matcher.find()) {
+            throw new IllegalStateException("Could not create account: " + response.statusCode() + " " + response.body());
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static HttpRequest post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        final int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -2,8 +2,10 @@ package com.devfreitag.pismotest;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class PismoTestApplication {
 
     public static void main(String[] args) {
@@ -1,5 +1,6 @@
 package com.devfreitag.pismotest.api;
 
+import com.devfreitag.pismotest.models.AccountImportLineResponse;
 import com.devfreitag.pismotest.models.CreateAccountRequest;
 import com.devfreitag.pismotest.models.ErrorResponse;
 import com.devfreitag.pismotest.models.GetAccountResponse;
@@ -10,13 +11,19 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
 
 @Tag(name = "Accounts", description = "Account management operations")
 @RequestMapping(value = "accounts")
 public interface AccountAPI {
 
+    String TEXT_CSV_VALUE = "text/csv";
+
     @Operation(
             summary = "Create a new account",
             description = "Creates a new account with the provided document number"
@@ -63,4 +70,43 @@ public interface AccountAPI {
             @Parameter(description = "ID of the account to retrieve", required = true, example = "1")
             @PathVariable Long accountId
     );
+
+    @Operation(
+            summary = "Import accounts",
+            description = """
+                    Creates an account for every line of a UTF-8 CSV file of `document_number,available_credit_limit`.
+                    The header line is optional, and so is the limit, which defaults to 0. A positive limit is
+                    recorded as a payment on the new account.
+
+                    The file is streamed to the database, so it has no size limit, and the response is
+                    newline-delimited JSON: one object per line of the file, in file order, with status 201 and the
+                    new account's ID, 409 when the document number belongs to an account already or to an earlier
+                    line, or 422 when the line can't be read. The last line holds the `created`, `conflicts` and
+                    `rejected` counts and is only written once the accounts are committed. A response that ends
+                    without it created no account and can be sent again.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Outcome of every line, one JSON object per line, followed by the counts",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = AccountImportLineResponse.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> importAccounts(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "CSV file with one account per line",
+                    required = true,
+                    content = @Content(mediaType = TEXT_CSV_VALUE, schema = @Schema(type = "string", example = """
+                            document_number,available_credit_limit
+                            12345678900,1000.00
+                            98765432100
+                            """))
+            )
+            @Parameter(hidden = true) InputStream csv
+    );
 }
@@ -0,0 +1,98 @@
+package com.devfreitag.pismotest.api;
+
+import com.devfreitag.pismotest.models.AccountTransactionPageResponse;
+import com.devfreitag.pismotest.models.AccountTransactionResponse;
+import com.devfreitag.pismotest.models.ErrorResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Tag(name = "Transactions", description = "Transaction management operations")
+@RequestMapping(value = "accounts/{accountId}/transactions")
+public interface AccountTransactionAPI {
+
+    int MAX_LIMIT = 500;
+
+    @Operation(
+            summary = "List an account's transactions",
+            description = """
+                    Returns the account's transactions, newest first, one page at a time.
+
+                    To read the next page, repeat the call with `cursor` set to the `next_cursor` of the previous
+                    response. `next_cursor` is absent on the last page. Transactions created after the first page was
+                    read do not shift the following pages.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Page of transactions",
+                    content = @Content(schema = @Schema(implementation = AccountTransactionPageResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid limit or cursor",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Account not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping
+    ResponseEntity<AccountTransactionPageResponse> getTransactions(
+            @Parameter(description = "ID of the account", required = true, example = "1")
+            @PathVariable Long accountId,
+
+            @Parameter(description = "Maximum number of transactions in the page", example = "50")
+            @RequestParam(defaultValue = "50") @Min(1) @Max(MAX_LIMIT) int limit,
+
+            @Parameter(description = "`next_cursor` of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor
+    );
+
+    @Operation(
+            summary = "Export an account's transactions",
+            description = """
+                    Streams every transaction of the account, oldest first, as newline-delimited JSON: one
+                    transaction object per line, in the same shape as the items of the paginated listing.
+
+                    The response is written while it is read from the database, so it starts immediately and has no
+                    size limit. Closing the connection stops the export.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Transactions, one JSON object per line",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = AccountTransactionResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Account not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> exportTransactions(
+            @Parameter(description = "ID of the account", required = true, example = "1")
+            @PathVariable Long accountId
+    );
+}
@@ -0,0 +1,103 @@
+package com.devfreitag.pismotest.api;
+
+import com.devfreitag.pismotest.models.AccountBalanceShardsResponse;
+import com.devfreitag.pismotest.models.CreditLimitRebuildResponse;
+import com.devfreitag.pismotest.models.ErrorResponse;
+import com.devfreitag.pismotest.models.OperationTypeResponse;
+import com.devfreitag.pismotest.models.UpdateBalanceShardsRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+@Tag(name = "Admin", description = "Operational endpoints")
+@RequestMapping(value = "admin")
+public interface AdminAPI {
+
+    @Operation(
+            summary = "Reload operation types",
+            description = "Reloads the in-memory operation type registry from the operation_type table and returns the loaded operation types"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Operation types reloaded",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = OperationTypeResponse.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "The table is missing a known operation type; the previous operation types are kept"
+            )
+    })
+    @PostMapping("/operation-types/refresh")
+    ResponseEntity<List<OperationTypeResponse>> refreshOperationTypes();
+
+    @Operation(
+            summary = "Split an account's credit limit over balance shards",
+            description = "Spreads the account's available credit limit evenly over the given number of rows, so transactions on a busy account "
+                    + "update different rows instead of queueing on one. 0 moves the whole limit back to the account row"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Credit limit split",
+                    content = @Content(schema = @Schema(implementation = AccountBalanceShardsResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Validation error - balance shards is missing or out of range",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Account not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PutMapping("/accounts/{accountId}/balance-shards")
+    ResponseEntity<AccountBalanceShardsResponse> updateBalanceShards(
+            @Parameter(description = "ID of the account to split", required = true, example = "1")
+            @PathVariable Long accountId,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Number of balance shards",
+                    required = true
+            )
+            @RequestBody UpdateBalanceShardsRequest request
+    );
+
+    @Operation(
+            summary = "Rebuild credit limits from transactions",
+            description = "Adds up the transactions of every account in the range, in parallel partitions of account ids, and reports the accounts "
+                    + "whose stored available credit limit differs from the sum. With correct=true the stored limit of those accounts is set to "
+                    + "the sum, except for accounts with balance shards or written to during the rebuild"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Credit limits replayed",
+                    content = @Content(schema = @Schema(implementation = CreditLimitRebuildResponse.class))
+            )
+    })
+    @PostMapping("/credit-limits/rebuild")
+    ResponseEntity<CreditLimitRebuildResponse> rebuildCreditLimits(
+            @Parameter(description = "Lowest account ID to replay; the lowest existing one when omitted", example = "1")
+            @RequestParam(name = "from_account_id", required = false) Long fromAccountId,
+            @Parameter(description = "Highest account ID to replay; the highest existing one when omitted", example = "1000")
+            @RequestParam(name = "to_account_id", required = false) Long toAccountId,
+            @Parameter(description = "Whether to correct the mismatched limits instead of only reporting them", example = "false")
+            @RequestParam(name = "correct", defaultValue = "false") boolean correct
+    );
+}
@@ -1,9 +1,12 @@
 package com.devfreitag.pismotest.api;
 
+import com.devfreitag.pismotest.models.CreateTransactionBatchRequest;
+import com.devfreitag.pismotest.models.CreateTransactionBatchResponse;
 import com.devfreitag.pismotest.models.CreateTransactionRequest;
 import com.devfreitag.pismotest.models.CreateTransactionResponse;
 import com.devfreitag.pismotest.models.ErrorResponse;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -11,15 +14,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 @Tag(name = "Transactions", description = "Transaction management operations")
 @RequestMapping(value = "transactions")
 public interface TransactionAPI {
 
+    String IDEMPOTENCY_KEY = "Idempotency-Key";
+    String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     @Operation(
             summary = "Create a new transaction",
             description = """
@@ -32,6 +40,13 @@ public interface TransactionAPI {
 
                     Always input the amount as a positive value; the system handles the sign conversion.
 
+                    ## Idempotency
+                    Send an `Idempotency-Key` header to make retries safe: a transaction is created at most once per key.
+                    Repeating the request with the same key returns the original transaction, marked with an
+                    `Idempotent-Replayed: true` header, without applying it to the account again. Concurrent requests
+                    with the same key wait for the first one. Reusing a key for a different account, operation type or
+                    amount is rejected.
+
                     ## Operation Types
                     | ID | Name | Amount Sign |
                     |----|------|-------------|
@@ -84,10 +99,17 @@ public interface TransactionAPI {
                     responseCode = "404",
                     description = "Account or operation type not found",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "422",
+                    description = "Insufficient credit limit, amount out of range, or idempotency key already used for a different transaction",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
             )
     })
     @PostMapping
     ResponseEntity<CreateTransactionResponse> createTransaction(
+            @Parameter(description = "Client-generated key that makes retries of this request safe", example = "5f0c7d2e-8a4b-4c1e-9d3f-2b6a1e7c9f40")
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) @Size(min = 1, max = 255) String idempotencyKey,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Transaction creation request",
                     required = true,
@@ -122,4 +144,41 @@ public interface TransactionAPI {
             )
             @RequestBody @Valid CreateTransactionRequest request
     );
+
+    @Operation(
+            summary = "Create transactions in batch",
+            description = """
+                    Creates up to 10,000 transactions in a single call, applying the same amount sign adjustment and
+                    credit limit rules as `POST /transactions`.
+
+                    Transactions are applied in request order for each account. A transaction rejected for business
+                    reasons (unknown account or operation type, insufficient credit limit) does not prevent the others
+                    from being created: every item gets its own result with the status it would have produced on its own.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed; check each result for its own status",
+                    content = @Content(schema = @Schema(implementation = CreateTransactionBatchResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Validation error - batch is empty, too large, or has items with missing or invalid fields",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "An account kept changing while the batch was being applied; nothing was created, try again",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PostMapping("/batch")
+    ResponseEntity<CreateTransactionBatchResponse> createTransactions(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Batch transaction creation request",
+                    required = true
+            )
+            @RequestBody @Valid CreateTransactionBatchRequest request
+    );
 }
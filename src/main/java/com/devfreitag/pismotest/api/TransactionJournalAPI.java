@@ -0,0 +1,66 @@
+package com.devfreitag.pismotest.api;
+
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.models.ErrorResponse;
+import com.devfreitag.pismotest.models.JournaledTransactionResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+@Tag(name = "Transactions", description = "Transaction management operations")
+@RequestMapping(value = "transactions/journal")
+public interface TransactionJournalAPI {
+
+    @Operation(
+            summary = "Accept a transaction into the journal",
+            description = """
+                    Accepts a transaction for asynchronous processing. It is acknowledged once it is on this instance's
+                    local disk and written to its account shortly after, in order, with the same sign adjustment as
+                    `POST /transactions`.
+
+                    Unknown accounts and operation types are rejected right away. With the balance engine enabled
+                    (`pismo.balance-engine.enabled=true`) so is a transaction that would exceed the credit limit;
+                    otherwise the limit is checked when the transaction is written, and a transaction that would
+                    exceed it is accepted here but never applied.
+                    Only available when the journal is enabled (`pismo.journal.enabled=true`).
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Transaction accepted into the journal",
+                    content = @Content(schema = @Schema(implementation = JournaledTransactionResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Validation error - required fields missing or invalid",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Account or operation type not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "422",
+                    description = "Insufficient credit limit, when the balance engine is enabled",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PostMapping
+    ResponseEntity<JournaledTransactionResponse> acceptTransaction(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Transaction creation request",
+                    required = true
+            )
+            @RequestBody @Valid CreateTransactionRequest request
+    );
+}
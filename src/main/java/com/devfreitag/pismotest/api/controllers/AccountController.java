@@ -2,21 +2,51 @@ package com.devfreitag.pismotest.api.controllers;
 
 import com.devfreitag.pismotest.api.AccountAPI;
 import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.exceptions.AccountConflictException;
+import com.devfreitag.pismotest.models.AccountImportLineResponse;
+import com.devfreitag.pismotest.models.AccountImportSummaryResponse;
 import com.devfreitag.pismotest.models.CreateAccountRequest;
 import com.devfreitag.pismotest.models.GetAccountResponse;
+import com.devfreitag.pismotest.repositories.AccountImportResult;
+import com.devfreitag.pismotest.repositories.AccountImportRow;
+import com.devfreitag.pismotest.services.AccountImportService;
+import com.devfreitag.pismotest.services.AccountImportSummary;
 import com.devfreitag.pismotest.services.AccountService;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 
 @RestController
-@RequiredArgsConstructor
 public class AccountController implements AccountAPI {
 
     private final AccountService accountService;
+    private final AccountImportService accountImportService;
+    private final ObjectWriter importWriter;
+
+    public AccountController(final AccountService accountService,
+                             final AccountImportService accountImportService,
+                             final JsonMapper jsonMapper) {
+        this.accountService = accountService;
+        this.accountImportService = accountImportService;
+        // One line per object, leaving flushing to the generator's buffer and closing to the container
+        this.importWriter = jsonMapper.writer()
+                .withRootValueSeparator("")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(StreamWriteFeature.AUTO_CLOSE_TARGET);
+    }
 
     @Override
     public ResponseEntity<GetAccountResponse> createAccount(@RequestBody @Valid CreateAccountRequest request) {
@@ -32,4 +62,32 @@ public class AccountController implements AccountAPI {
 
         return ResponseEntity.ok(new GetAccountResponse(account.getAccountId(), account.getDocumentNumber(), account.getAvailableCreditLimit()));
     }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> importAccounts(InputStream csv) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> {
+                    try (Reader reader = new InputStreamReader(csv, StandardCharsets.UTF_8);
+                         JsonGenerator generator = importWriter.createGenerator(outputStream)) {
+                        final AccountImportSummary summary = accountImportService.importAccounts(reader, result -> {
+                            importWriter.writeValue(generator, toResponse(result));
+                            generator.writeRaw('\n');
+                        });
+
+                        importWriter.writeValue(generator, new AccountImportSummaryResponse(
+                                summary.created(), summary.conflicts(), summary.rejected()));
+                        generator.writeRaw('\n');
+                    }
+                });
+    }
+
+    private static AccountImportLineResponse toResponse(AccountImportResult result) {
+        final String message = switch (result.status()) {
+            case AccountImportRow.ACCEPTED -> null;
+            case AccountImportRow.CONFLICT -> AccountConflictException.message(result.documentNumber());
+            default -> result.error();
+        };
+        return new AccountImportLineResponse(result.line(), result.documentNumber(), result.status(), result.accountId(), message);
+    }
 }
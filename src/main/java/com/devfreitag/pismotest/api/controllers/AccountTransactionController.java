@@ -0,0 +1,68 @@
+package com.devfreitag.pismotest.api.controllers;
+
+import com.devfreitag.pismotest.api.AccountTransactionAPI;
+import com.devfreitag.pismotest.models.AccountTransactionPageResponse;
+import com.devfreitag.pismotest.models.AccountTransactionResponse;
+import com.devfreitag.pismotest.services.AccountService;
+import com.devfreitag.pismotest.services.TransactionCursor;
+import com.devfreitag.pismotest.services.TransactionPage;
+import com.devfreitag.pismotest.services.TransactionService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+@RestController
+public class AccountTransactionController implements AccountTransactionAPI {
+
+    private final TransactionService transactionService;
+    private final AccountService accountService;
+    private final ObjectWriter exportWriter;
+
+    public AccountTransactionController(final TransactionService transactionService,
+                                        final AccountService accountService,
+                                        final JsonMapper jsonMapper) {
+        this.transactionService = transactionService;
+        this.accountService = accountService;
+        // One line per transaction, leaving flushing to the generator's buffer and closing to the container
+        this.exportWriter = jsonMapper.writerFor(AccountTransactionResponse.class)
+                .withRootValueSeparator("")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(StreamWriteFeature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public ResponseEntity<AccountTransactionPageResponse> getTransactions(@PathVariable Long accountId,
+                                                                          @RequestParam(defaultValue = "50") int limit,
+                                                                          @RequestParam(required = false) String cursor) {
+        final TransactionPage page = transactionService.findByAccount(
+                accountId, cursor == null ? null : TransactionCursor.decode(cursor), limit);
+
+        return ResponseEntity.ok(new AccountTransactionPageResponse(
+                page.transactions(), page.nextCursor() == null ? null : page.nextCursor().encode()));
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@PathVariable Long accountId) {
+        // Checked before streaming, since the status is sent with the first bytes
+        accountService.findById(accountId);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> {
+                    try (JsonGenerator generator = exportWriter.createGenerator(outputStream)) {
+                        transactionService.exportByAccount(accountId, transaction -> {
+                            exportWriter.writeValue(generator, transaction);
+                            generator.writeRaw('\n');
+                        });
+                    }
+                });
+    }
+}
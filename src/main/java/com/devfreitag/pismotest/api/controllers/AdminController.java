@@ -0,0 +1,59 @@
+package com.devfreitag.pismotest.api.controllers;
+
+import com.devfreitag.pismotest.api.AdminAPI;
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.models.AccountBalanceShardsResponse;
+import com.devfreitag.pismotest.models.CreditLimitMismatchResponse;
+import com.devfreitag.pismotest.models.CreditLimitRebuildResponse;
+import com.devfreitag.pismotest.models.OperationTypeResponse;
+import com.devfreitag.pismotest.models.UpdateBalanceShardsRequest;
+import com.devfreitag.pismotest.services.BalanceShardService;
+import com.devfreitag.pismotest.services.CreditLimitRebuildReport;
+import com.devfreitag.pismotest.services.CreditLimitRebuildService;
+import com.devfreitag.pismotest.services.OperationTypeRegistry;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class AdminController implements AdminAPI {
+
+    private final BalanceShardService balanceShardService;
+    private final OperationTypeRegistry operationTypeRegistry;
+    private final CreditLimitRebuildService creditLimitRebuildService;
+
+    @Override
+    public ResponseEntity<List<OperationTypeResponse>> refreshOperationTypes() {
+        return ResponseEntity.ok(this.operationTypeRegistry.refresh().stream()
+                .map(operationType -> new OperationTypeResponse(operationType.getOperationTypeId(), operationType.getDescription()))
+                .toList());
+    }
+
+    @Override
+    public ResponseEntity<AccountBalanceShardsResponse> updateBalanceShards(@PathVariable Long accountId,
+                                                                            @RequestBody @Valid UpdateBalanceShardsRequest request) {
+        final Account account = this.balanceShardService.reshard(accountId, request.balanceShards());
+
+        return ResponseEntity.ok(new AccountBalanceShardsResponse(account.getAccountId(), account.getBalanceShards(), account.getAvailableCreditLimit()));
+    }
+
+    @Override
+    public ResponseEntity<CreditLimitRebuildResponse> rebuildCreditLimits(@RequestParam(name = "from_account_id", required = false) Long fromAccountId,
+                                                                          @RequestParam(name = "to_account_id", required = false) Long toAccountId,
+                                                                          @RequestParam(name = "correct", defaultValue = "false") boolean correct) {
+        final CreditLimitRebuildReport report = this.creditLimitRebuildService.rebuild(fromAccountId, toAccountId, correct);
+
+        return ResponseEntity.ok(new CreditLimitRebuildResponse(report.accounts(), report.transactions(), report.mismatches(),
+                report.corrected(), report.listed().stream()
+                .map(mismatch -> new CreditLimitMismatchResponse(mismatch.accountId(), mismatch.storedCreditLimit(),
+                        mismatch.replayedCreditLimit(), mismatch.corrected()))
+                .toList()));
+    }
+}
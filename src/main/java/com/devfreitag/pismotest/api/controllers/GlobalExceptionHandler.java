@@ -1,15 +1,21 @@
 package com.devfreitag.pismotest.api.controllers;
 
+import com.devfreitag.pismotest.exceptions.AccountBusyException;
 import com.devfreitag.pismotest.exceptions.AccountConflictException;
 import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.exceptions.AmountOutOfRangeException;
+import com.devfreitag.pismotest.exceptions.IdempotencyKeyReusedException;
+import com.devfreitag.pismotest.exceptions.InvalidCursorException;
 import com.devfreitag.pismotest.exceptions.OperationTypeNotFoundException;
 import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
 import com.devfreitag.pismotest.models.ErrorResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.method.ParameterErrors;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -26,19 +32,51 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(new ErrorResponse("Validation failed", errors));
     }
 
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ErrorResponse> handleParameterValidationExceptions(HandlerMethodValidationException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getParameterValidationResults().forEach((result) -> {
+            // A @Valid body validated alongside constrained parameters reports its field errors like MethodArgumentNotValidException
+            if (result instanceof ParameterErrors parameterErrors) {
+                parameterErrors.getFieldErrors().forEach((error) -> errors.put(error.getField(), error.getDefaultMessage()));
+            } else {
+                result.getResolvableErrors()
+                        .forEach((error) -> errors.put(result.getMethodParameter().getParameterName(), error.getDefaultMessage()));
+            }
+        });
+
+        return ResponseEntity.badRequest().body(new ErrorResponse("Validation failed", errors));
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(final InvalidCursorException ex) {
+        return ResponseEntity.badRequest()
+                .body(new ErrorResponse(ex.getMessage(), Collections.emptyMap()));
+    }
+
     @ExceptionHandler(AccountConflictException.class)
     public ResponseEntity<ErrorResponse> handleConflictException(final AccountConflictException ex) {
         return ResponseEntity.status(HttpStatus.CONFLICT)
                 .body(new ErrorResponse(ex.getMessage(), Collections.emptyMap()));
     }
 
-    @ExceptionHandler(TransactionInvalidException.class)
-    public ResponseEntity<ErrorResponse> handleInvalidException(final TransactionInvalidException ex) {
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyReusedException(final IdempotencyKeyReusedException ex) {
         return ResponseEntity.status(HttpStatus.UNPROCESSABLE_CONTENT)
                 .body(new ErrorResponse(ex.getMessage(), Collections.emptyMap()));
     }
 
+    @ExceptionHandler({TransactionInvalidException.class, AmountOutOfRangeException.class})
+    public ResponseEntity<ErrorResponse> handleInvalidException(final RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_CONTENT)
+                .body(new ErrorResponse(ex.getMessage(), Collections.emptyMap()));
+    }
 
+    @ExceptionHandler(AccountBusyException.class)
+    public ResponseEntity<ErrorResponse> handleBusyException(final AccountBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse(ex.getMessage(), Collections.emptyMap()));
+    }
 
     @ExceptionHandler({AccountNotFoundException.class, OperationTypeNotFoundException.class })
     public ResponseEntity<ErrorResponse> handleNotFound(final Exception ex) {
@@ -2,33 +2,88 @@ package com.devfreitag.pismotest.api.controllers;
 
 import com.devfreitag.pismotest.api.TransactionAPI;
 import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.exceptions.AmountOutOfRangeException;
+import com.devfreitag.pismotest.exceptions.OperationTypeNotFoundException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.CreateTransactionBatchItemResponse;
+import com.devfreitag.pismotest.models.CreateTransactionBatchRequest;
+import com.devfreitag.pismotest.models.CreateTransactionBatchResponse;
 import com.devfreitag.pismotest.models.CreateTransactionRequest;
 import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import com.devfreitag.pismotest.services.IdempotencyService;
+import com.devfreitag.pismotest.services.IdempotentTransaction;
+import com.devfreitag.pismotest.services.TransactionBatchItemResult;
 import com.devfreitag.pismotest.services.TransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.net.URI;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class TransactionController implements TransactionAPI {
 
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
 
     @Override
-    public ResponseEntity<CreateTransactionResponse> createTransaction(@RequestBody @Valid CreateTransactionRequest request) {
+    public ResponseEntity<CreateTransactionResponse> createTransaction(String idempotencyKey,
+                                                                       CreateTransactionRequest request) {
+        if (idempotencyKey != null) {
+            final IdempotentTransaction result = idempotencyService.createTransaction(idempotencyKey, request);
+
+            return ResponseEntity.created(URI.create("/transactions/" + result.response().transactionId()))
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(result.replayed()))
+                .body(result.response());
+        }
+
         final Transaction transaction = transactionService.createTransaction(request.accountId(), request.operationTypeId(), request.amount());
 
         return ResponseEntity.created(URI.create("/transactions/" + transaction.getTransactionId()))
-            .body(new CreateTransactionResponse(
-                    transaction.getTransactionId(),
-                    transaction.getAccount().getAccountId(),
-                    transaction.getOperationType().getOperationTypeId(),
-                    transaction.getAmount()
-            ));
+            .body(toResponse(transaction));
+    }
+
+    @Override
+    public ResponseEntity<CreateTransactionBatchResponse> createTransactions(@RequestBody @Valid CreateTransactionBatchRequest request) {
+        final List<CreateTransactionBatchItemResponse> results = transactionService.createTransactions(request.transactions()).stream()
+                .map(TransactionController::toItemResponse)
+                .toList();
+
+        final int created = (int) results.stream().filter(result -> result.transaction() != null).count();
+
+        return ResponseEntity.ok(new CreateTransactionBatchResponse(created, results.size() - created, results));
+    }
+
+    private static CreateTransactionResponse toResponse(final Transaction transaction) {
+        return new CreateTransactionResponse(
+                transaction.getTransactionId(),
+                transaction.getAccount().getAccountId(),
+                transaction.getOperationType().getOperationTypeId(),
+                transaction.getAmount()
+        );
+    }
+
+    private static CreateTransactionBatchItemResponse toItemResponse(final TransactionBatchItemResult result) {
+        if (result.isCreated()) {
+            return new CreateTransactionBatchItemResponse(result.index(), HttpStatus.CREATED.value(), toResponse(result.transaction()), null);
+        }
+
+        return new CreateTransactionBatchItemResponse(result.index(), statusOf(result.error()).value(), null, result.error().getMessage());
+    }
+
+    private static HttpStatus statusOf(final RuntimeException error) {
+        if (error instanceof AccountNotFoundException || error instanceof OperationTypeNotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (error instanceof TransactionInvalidException || error instanceof AmountOutOfRangeException) {
+            return HttpStatus.UNPROCESSABLE_CONTENT;
+        }
+        throw error;
     }
 }
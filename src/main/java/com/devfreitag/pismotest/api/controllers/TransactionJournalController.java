@@ -0,0 +1,36 @@
+package com.devfreitag.pismotest.api.controllers;
+
+import com.devfreitag.pismotest.api.TransactionJournalAPI;
+import com.devfreitag.pismotest.enums.OperationTypeEnum;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.models.JournaledTransactionResponse;
+import com.devfreitag.pismotest.services.JournalEntry;
+import com.devfreitag.pismotest.services.Money;
+import com.devfreitag.pismotest.services.TransactionJournalService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnBooleanProperty("pismo.journal.enabled")
+public class TransactionJournalController implements TransactionJournalAPI {
+
+    private final TransactionJournalService transactionJournalService;
+
+    @Override
+    public ResponseEntity<JournaledTransactionResponse> acceptTransaction(@RequestBody @Valid CreateTransactionRequest request) {
+        final JournalEntry entry = transactionJournalService.accept(request);
+
+        return ResponseEntity.accepted().body(new JournaledTransactionResponse(
+                entry.sequence(),
+                entry.accountId(),
+                entry.operationTypeId(),
+                Money.toBigDecimal(OperationTypeEnum.fromCode(entry.operationTypeId()).applySign(Money.toCents(entry.amount()))),
+                entry.eventDate()
+        ));
+    }
+}
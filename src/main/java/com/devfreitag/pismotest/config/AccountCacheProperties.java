@@ -0,0 +1,19 @@
+package com.devfreitag.pismotest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Bounds of the in-memory account cache ({@code pismo.account-cache.*}).
+ *
+ * @param maximumSize number of accounts kept before the least recently used ones are evicted
+ * @param ttl how long an account stays cached after it was loaded or written
+ */
+@ConfigurationProperties("pismo.account-cache")
+public record AccountCacheProperties(
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("30s") Duration ttl
+) {
+}
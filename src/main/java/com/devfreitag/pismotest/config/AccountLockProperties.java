@@ -0,0 +1,21 @@
+package com.devfreitag.pismotest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * In-process serialization of transactions per account ({@code pismo.account-lock.*}).
+ *
+ * @param enabled whether transactions for the same account wait for each other in the JVM before reaching the database
+ * @param stripes number of locks the accounts are spread over, rounded up to a power of two
+ * @param timeout how long a transaction waits for its account before giving up
+ */
+@ConfigurationProperties("pismo.account-lock")
+public record AccountLockProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("64") int stripes,
+        @DefaultValue("5s") Duration timeout
+) {
+}
@@ -0,0 +1,25 @@
+package com.devfreitag.pismotest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Retries of transactions that lost an optimistic locking race on one of their accounts ({@code pismo.account-retry.*}).
+ *
+ * @param maxRetries how many times a transaction is tried again before it is rejected as busy
+ * @param delay      wait before the first retry, doubled on every further retry
+ * @param maxDelay   longest wait between two retries
+ * @param jitter     random amount added to or taken from every wait, so conflicting writers don't retry in lockstep
+ * @param stripes    number of groups the accounts are spread over in the conflict metrics, rounded up to a power of two
+ */
+@ConfigurationProperties("pismo.account-retry")
+public record AccountRetryProperties(
+        @DefaultValue("3") int maxRetries,
+        @DefaultValue("10ms") Duration delay,
+        @DefaultValue("200ms") Duration maxDelay,
+        @DefaultValue("5ms") Duration jitter,
+        @DefaultValue("64") int stripes
+) {
+}
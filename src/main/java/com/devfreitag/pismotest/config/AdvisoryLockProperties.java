@@ -0,0 +1,24 @@
+package com.devfreitag.pismotest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * PostgreSQL advisory locks serializing transactions per account across instances ({@code pismo.advisory-lock.*}).
+ *
+ * @param enabled   whether transactions take their accounts' advisory locks before touching them
+ * @param namespace first key of every lock, so they don't collide with advisory locks taken by other applications
+ * @param stripes   number of locks the accounts are spread over, rounded up to a power of two; 0 for one per account
+ * @param timeout   longest a transaction waits for its locks, set as {@code lock_timeout} for the rest of that
+ *                  transaction only; 0 to wait as long as the datasource's own {@code lock_timeout}
+ */
+@ConfigurationProperties("pismo.advisory-lock")
+public record AdvisoryLockProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1885957992") int namespace,
+        @DefaultValue("0") int stripes,
+        @DefaultValue("5s") Duration timeout
+) {
+}
@@ -0,0 +1,25 @@
+package com.devfreitag.pismotest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * In-memory credit limit decisions ({@code pismo.balance-engine.*}).
+ *
+ * @param enabled whether every account's available credit limit is kept in memory and journaled transactions are
+ *                decided against it
+ * @param stripes number of locks the accounts are spread over, rounded up to a power of two
+ * @param snapshotFile where the committed credit limits are saved, to be loaded on startup
+ * @param snapshotInterval pause between snapshots
+ */
+@ConfigurationProperties("pismo.balance-engine")
+public record BalanceEngineProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("64") int stripes,
+        @DefaultValue("balances.snapshot") Path snapshotFile,
+        @DefaultValue("5m") Duration snapshotInterval
+) {
+}
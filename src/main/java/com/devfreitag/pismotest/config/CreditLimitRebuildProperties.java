@@ -0,0 +1,19 @@
+package com.devfreitag.pismotest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Credit limit rebuild ({@code pismo.credit-limit-rebuild.*}).
+ *
+ * @param parallelism partitions replayed at once, each holding a database connection; 0 for the number of processors
+ * @param partitionSize most account ids replayed by one statement and, when correcting, one database transaction
+ * @param maxListedMismatches most mismatched accounts listed in the report; all of them are counted and logged
+ */
+@ConfigurationProperties("pismo.credit-limit-rebuild")
+public record CreditLimitRebuildProperties(
+        @DefaultValue("0") int parallelism,
+        @DefaultValue("10000") int partitionSize,
+        @DefaultValue("1000") int maxListedMismatches
+) {
+}
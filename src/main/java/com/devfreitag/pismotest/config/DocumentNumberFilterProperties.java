@@ -0,0 +1,17 @@
+package com.devfreitag.pismotest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Size of the in-memory filter of known document numbers ({@code pismo.document-number-filter.*}).
+ *
+ * @param expectedAccounts  number of accounts the filter is sized for; past it, false positives grow more frequent
+ * @param falsePositiveRate share of new document numbers that are still looked up in the database
+ */
+@ConfigurationProperties("pismo.document-number-filter")
+public record DocumentNumberFilterProperties(
+        @DefaultValue("1000000") long expectedAccounts,
+        @DefaultValue("0.01") double falsePositiveRate
+) {
+}
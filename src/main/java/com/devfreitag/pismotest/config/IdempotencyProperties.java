@@ -0,0 +1,20 @@
+package com.devfreitag.pismotest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Bounds of the in-memory store of recent idempotent responses ({@code pismo.idempotency.*}). Keys that fell out of
+ * it are still answered from the {@code idempotency_key} table.
+ *
+ * @param maximumSize number of responses kept before the least recently used ones are evicted
+ * @param ttl how long a response stays in memory after it was created or read from the table
+ */
+@ConfigurationProperties("pismo.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("100000") long maximumSize,
+        @DefaultValue("24h") Duration ttl
+) {
+}
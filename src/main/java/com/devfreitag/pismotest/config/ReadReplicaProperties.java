@@ -0,0 +1,38 @@
+package com.devfreitag.pismotest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Read replica routing ({@code pismo.read-replica.*}).
+ *
+ * @param enabled whether read-only transactions use the replica
+ * @param url JDBC URL of the replica
+ * @param username user the replica pool connects as
+ * @param password password of that user
+ * @param maximumPoolSize most connections the replica pool opens
+ * @param maxLag replication lag above which read-only transactions go to the primary instead
+ * @param lagCheckInterval pause between lag checks
+ * @param lagQuery statement run on the replica returning its lag in seconds; the default reads PostgreSQL's replay
+ *                 position and reports 0 when the replica has replayed everything it received
+ */
+@ConfigurationProperties("pismo.read-replica")
+public record ReadReplicaProperties(
+        @DefaultValue("false") boolean enabled,
+        String url,
+        String username,
+        String password,
+        @DefaultValue("10") int maximumPoolSize,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("1s") Duration lagCheckInterval,
+        @DefaultValue(ReadReplicaProperties.POSTGRESQL_LAG_QUERY) String lagQuery
+) {
+
+    public static final String POSTGRESQL_LAG_QUERY = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+                   END""";
+}
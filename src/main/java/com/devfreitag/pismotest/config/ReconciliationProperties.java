@@ -0,0 +1,23 @@
+package com.devfreitag.pismotest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Scheduled credit limit reconciliation ({@code pismo.reconciliation.*}).
+ *
+ * @param enabled whether this instance reconciles every account's limit against its transactions
+ * @param interval pause between the end of a reconciliation and the start of the next
+ * @param parallelism chunks checked at once, each holding a database connection
+ * @param chunkSize account ids checked by one statement; a reconciliation cut short resumes at chunk boundaries
+ */
+@ConfigurationProperties("pismo.reconciliation")
+public record ReconciliationProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1h") Duration interval,
+        @DefaultValue("2") int parallelism,
+        @DefaultValue("10000") int chunkSize
+) {
+}
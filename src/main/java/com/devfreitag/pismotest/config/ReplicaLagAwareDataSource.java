@@ -0,0 +1,38 @@
+package com.devfreitag.pismotest.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out replica connections while {@link ReplicaLagMonitor} says the replica is close enough behind, and primary
+ * ones otherwise.
+ */
+public class ReplicaLagAwareDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor monitor;
+
+    public ReplicaLagAwareDataSource(final DataSource primary, final DataSource replica, final ReplicaLagMonitor monitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    private DataSource target() {
+        return this.monitor.isReplicaUsable() ? this.replica : this.primary;
+    }
+}
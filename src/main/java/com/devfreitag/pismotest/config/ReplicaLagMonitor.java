@@ -0,0 +1,80 @@
+package com.devfreitag.pismotest.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@code pismo.read-replica.lag-query} on the replica every {@code pismo.read-replica.lag-check-interval} and
+ * tells whether its lag is within {@code pismo.read-replica.max-lag}. The replica is not used until the first check
+ * passes, and a failed check counts as too far behind, so an unreachable replica only sends reads to the primary.
+ *
+ * <p>{@code pismo.read-replica.lag} is the last lag read, in seconds, or {@code NaN} if the check failed.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private final DataSource replica;
+    private final ReadReplicaProperties properties;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile double lag = Double.NaN;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(final DataSource replica, final ReadReplicaProperties properties, final MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.properties = properties;
+        Gauge.builder("pismo.read-replica.lag", this, monitor -> monitor.lag)
+                .description("Replication lag of the read replica in seconds")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("read-replica-lag-monitor").daemon().factory());
+    }
+
+    public void start() {
+        final long interval = this.properties.lagCheckInterval().toMillis();
+        this.scheduler.scheduleWithFixedDelay(this::check, 0L, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        this.scheduler.shutdownNow();
+        this.scheduler.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    public boolean isReplicaUsable() {
+        return this.usable;
+    }
+
+    void check() {
+        final boolean wasUsable = this.usable;
+        try (Connection connection = this.replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(this.properties.lagQuery())) {
+            rs.next();
+            this.lag = rs.getDouble(1);
+            this.usable = this.lag * 1000.0 <= this.properties.maxLag().toMillis();
+        } catch (SQLException | RuntimeException ex) {
+            this.lag = Double.NaN;
+            this.usable = false;
+            if (wasUsable) {
+                log.warn("Could not read the replication lag of the read replica, reading from the primary", ex);
+            }
+            return;
+        }
+
+        if (wasUsable != this.usable) {
+            log.info("Read replica is {} seconds behind, reading from the {}", this.lag, this.usable ? "replica" : "primary");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.devfreitag.pismotest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Journaled transaction ingestion ({@code pismo.journal.*}).
+ *
+ * @param enabled whether {@code POST /transactions/journal} accepts transactions into the local journal
+ * @param id name of this journal's drain checkpoint in the database; every instance needs its own
+ * @param directory where the journal segments are kept
+ * @param segmentSize size of each memory-mapped segment file
+ * @param drainBatchSize most journal entries written to the database in one transaction
+ * @param drainInterval pause between drains once the journal has been caught up with
+ */
+@ConfigurationProperties("pismo.journal")
+public record TransactionJournalProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("default") String id,
+        @DefaultValue("journal") Path directory,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("5000") int drainBatchSize,
+        @DefaultValue("100ms") Duration drainInterval
+) {
+}
@@ -0,0 +1,23 @@
+package com.devfreitag.pismotest.config;
+
+import com.devfreitag.pismotest.services.OutboxPublisher;
+import com.devfreitag.pismotest.services.impl.FileOutboxPublisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tools.jackson.databind.json.JsonMapper;
+
+@Configuration
+@ConditionalOnBooleanProperty("pismo.outbox.enabled")
+public class TransactionOutboxConfig {
+
+    /**
+     * Appends the events to {@code pismo.outbox.file} unless another {@link OutboxPublisher} is declared.
+     */
+    @Bean
+    @ConditionalOnMissingBean(OutboxPublisher.class)
+    public FileOutboxPublisher fileOutboxPublisher(final TransactionOutboxProperties properties, final JsonMapper jsonMapper) {
+        return new FileOutboxPublisher(properties.file(), jsonMapper);
+    }
+}
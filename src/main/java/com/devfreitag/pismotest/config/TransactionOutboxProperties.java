@@ -0,0 +1,26 @@
+package com.devfreitag.pismotest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Transaction events outbox ({@code pismo.outbox.*}).
+ *
+ * @param enabled whether created transactions are written to the outbox and relayed to the {@code OutboxPublisher}
+ * @param relayBatchSize most events locked, published and deleted in one database transaction
+ * @param relayInterval pause between polls once the outbox has been emptied
+ * @param relayThreads relays polling concurrently in this instance
+ * @param file where the default publisher appends the events
+ */
+@ConfigurationProperties("pismo.outbox")
+public record TransactionOutboxProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1000") int relayBatchSize,
+        @DefaultValue("100ms") Duration relayInterval,
+        @DefaultValue("1") int relayThreads,
+        @DefaultValue("outbox/transactions.ndjson") Path file
+) {
+}
@@ -14,7 +14,8 @@ import java.math.BigDecimal;
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_id_seq")
+    @SequenceGenerator(name = "account_id_seq", sequenceName = "account_id_seq", allocationSize = 50)
     @Column(name = "account_id", unique = true, nullable = false)
     private Long accountId;
 
@@ -24,4 +25,13 @@ public class Account {
     @Column(name = "available_credit_limit", nullable = false)
     private BigDecimal availableCreditLimit;
 
+    // 0 unless the limit is split over account_balance_shard rows, see BalanceShardService
+    @Column(name = "balance_shards", nullable = false)
+    private int balanceShards;
+
+    // Bumped by every credit limit update, including the bulk statements in AccountRepository
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
 }
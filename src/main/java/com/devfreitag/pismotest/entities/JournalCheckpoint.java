@@ -0,0 +1,21 @@
+package com.devfreitag.pismotest.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+@Entity
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalCheckpoint {
+
+    @Id
+    @Column(name = "journal_id", nullable = false)
+    private String journalId;
+
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+}
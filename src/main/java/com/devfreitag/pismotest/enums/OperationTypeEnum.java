@@ -1,5 +1,6 @@
 package com.devfreitag.pismotest.enums;
 
+import com.devfreitag.pismotest.services.Money;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
@@ -11,14 +12,35 @@ public enum OperationTypeEnum {
     WITHDRAWAL(3L),
     PAYMENT(4L);
 
+    private static final OperationTypeEnum[] BY_CODE = indexByCode();
+
     private final long code;
 
     public static OperationTypeEnum fromCode(long code) {
-        for (OperationTypeEnum type : values()) {
-            if (type.getCode() == code) {
-                return type;
-            }
+        if (code >= 0 && code < BY_CODE.length && BY_CODE[(int) code] != null) {
+            return BY_CODE[(int) code];
         }
         throw new IllegalArgumentException("Invalid OperationType code: " + code);
     }
+
+    /**
+     * Payments are credits and keep a positive amount; every other operation is a debit and is stored as negative.
+     */
+    public long applySign(long cents) {
+        final long magnitude = Money.abs(cents);
+        return this == PAYMENT ? magnitude : -magnitude;
+    }
+
+    private static OperationTypeEnum[] indexByCode() {
+        long maxCode = 0;
+        for (OperationTypeEnum type : values()) {
+            maxCode = Math.max(maxCode, type.getCode());
+        }
+
+        final OperationTypeEnum[] byCode = new OperationTypeEnum[(int) maxCode + 1];
+        for (OperationTypeEnum type : values()) {
+            byCode[(int) type.getCode()] = type;
+        }
+        return byCode;
+    }
 }
@@ -0,0 +1,7 @@
+package com.devfreitag.pismotest.exceptions;
+
+public class AccountBusyException extends RuntimeException {
+    public AccountBusyException(final Long accountId) {
+        super("Account with ID " + accountId + " is busy, try again later.");
+    }
+}
@@ -2,6 +2,10 @@ package com.devfreitag.pismotest.exceptions;
 
 public class AccountConflictException extends RuntimeException {
     public AccountConflictException(final String documentNumber) {
-        super("Account with document number " + documentNumber + " already exists.");
+        super(message(documentNumber));
+    }
+
+    public static String message(final String documentNumber) {
+        return "Account with document number " + documentNumber + " already exists.";
     }
 }
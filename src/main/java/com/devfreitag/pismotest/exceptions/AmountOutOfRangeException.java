@@ -0,0 +1,7 @@
+package com.devfreitag.pismotest.exceptions;
+
+public class AmountOutOfRangeException extends RuntimeException {
+    public AmountOutOfRangeException() {
+        super("Amount is out of range.");
+    }
+}
@@ -0,0 +1,7 @@
+package com.devfreitag.pismotest.exceptions;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(final String idempotencyKey) {
+        super("Idempotency key " + idempotencyKey + " was already used for a different transaction.");
+    }
+}
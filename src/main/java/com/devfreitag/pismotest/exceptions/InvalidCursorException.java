@@ -0,0 +1,7 @@
+package com.devfreitag.pismotest.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(final String cursor) {
+        super("Invalid page cursor: " + cursor);
+    }
+}
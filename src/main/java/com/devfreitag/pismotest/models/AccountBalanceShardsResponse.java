@@ -0,0 +1,21 @@
+package com.devfreitag.pismotest.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+@Schema(description = "Response containing how an account's credit limit is split")
+public record AccountBalanceShardsResponse(
+        @Schema(description = "Unique identifier for the account", example = "1")
+        @JsonProperty("account_id")
+        Long accountId,
+
+        @Schema(description = "Number of rows the credit limit is split over; 0 when it is kept on the account row", example = "16")
+        @JsonProperty("balance_shards")
+        int balanceShards,
+
+        @Schema(description = "Credit limit available to the account holder, summed over the shards", example = "500.00")
+        @JsonProperty("available_credit_limit")
+        BigDecimal availableCreditLimit
+) {}
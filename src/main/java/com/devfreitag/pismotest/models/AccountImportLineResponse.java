@@ -0,0 +1,27 @@
+package com.devfreitag.pismotest.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of a single line of an account import")
+public record AccountImportLineResponse(
+        @Schema(description = "Line of the file, counting from 1", example = "2")
+        @JsonProperty("line")
+        long line,
+
+        @Schema(description = "Document number read from the line", example = "12345678900")
+        @JsonProperty("document_number")
+        String documentNumber,
+
+        @Schema(description = "HTTP status creating the account on its own would have produced: 201, 409 or 422", example = "201")
+        @JsonProperty("status")
+        int status,
+
+        @Schema(description = "ID of the created account, present only when status is 201", example = "1")
+        @JsonProperty("account_id")
+        Long accountId,
+
+        @Schema(description = "Reason no account was created, present only when status is not 201", example = "Account with document number 12345678900 already exists.")
+        @JsonProperty("message")
+        String message
+) {}
@@ -0,0 +1,19 @@
+package com.devfreitag.pismotest.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Last line of an account import, written once its accounts are committed")
+public record AccountImportSummaryResponse(
+        @Schema(description = "Number of accounts created", example = "2")
+        @JsonProperty("created")
+        int created,
+
+        @Schema(description = "Number of lines whose document number was already taken", example = "1")
+        @JsonProperty("conflicts")
+        int conflicts,
+
+        @Schema(description = "Number of lines that could not be read as an account", example = "0")
+        @JsonProperty("rejected")
+        int rejected
+) {}
@@ -0,0 +1,17 @@
+package com.devfreitag.pismotest.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Page of an account's transactions, newest first")
+public record AccountTransactionPageResponse(
+        @Schema(description = "Transactions in this page, newest first")
+        @JsonProperty("transactions")
+        List<AccountTransactionResponse> transactions,
+
+        @Schema(description = "Cursor for the next page, absent on the last page", example = "MjAyNi0wMS0xNVQxMDozMDowMFp8MTA")
+        @JsonProperty("next_cursor")
+        String nextCursor
+) {}
@@ -0,0 +1,25 @@
+package com.devfreitag.pismotest.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Schema(description = "Transaction in an account's history")
+public record AccountTransactionResponse(
+        @Schema(description = "Unique identifier of the transaction", example = "1")
+        @JsonProperty("transaction_id")
+        Long transactionId,
+
+        @Schema(description = "Operation type ID", example = "1")
+        @JsonProperty("operation_type_id")
+        Long operationTypeId,
+
+        @Schema(description = "Signed transaction amount. Negative for debits (types 1-3), positive for credits (type 4)", example = "-123.45")
+        BigDecimal amount,
+
+        @Schema(description = "When the transaction was created", example = "2026-01-15T10:30:00Z")
+        @JsonProperty("event_date")
+        Instant eventDate
+) {}
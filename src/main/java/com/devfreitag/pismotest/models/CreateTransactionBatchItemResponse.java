@@ -0,0 +1,23 @@
+package com.devfreitag.pismotest.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of a single transaction inside a batch")
+public record CreateTransactionBatchItemResponse(
+        @Schema(description = "Position of the transaction in the request payload", example = "0")
+        @JsonProperty("index")
+        int index,
+
+        @Schema(description = "HTTP status the transaction would have produced on its own: 201, 404 or 422", example = "201")
+        @JsonProperty("status")
+        int status,
+
+        @Schema(description = "Created transaction, present only when status is 201")
+        @JsonProperty("transaction")
+        CreateTransactionResponse transaction,
+
+        @Schema(description = "Reason the transaction was rejected, present only when status is not 201", example = "Account with ID 1 not found.")
+        @JsonProperty("message")
+        String message
+) {}
@@ -0,0 +1,20 @@
+package com.devfreitag.pismotest.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Request payload for creating several transactions in a single call")
+public record CreateTransactionBatchRequest(
+        @Schema(description = "Transactions to create, applied in the given order for each account")
+        @JsonProperty("transactions")
+        @NotEmpty(message = "At least one transaction must be informed")
+        @Size(max = CreateTransactionBatchRequest.MAX_SIZE, message = "A batch can't have more than " + CreateTransactionBatchRequest.MAX_SIZE + " transactions")
+        List<@Valid CreateTransactionRequest> transactions
+) {
+    public static final int MAX_SIZE = 10_000;
+}
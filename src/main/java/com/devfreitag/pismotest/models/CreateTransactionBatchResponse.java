@@ -0,0 +1,21 @@
+package com.devfreitag.pismotest.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Response containing the outcome of every transaction in a batch")
+public record CreateTransactionBatchResponse(
+        @Schema(description = "Number of transactions created", example = "2")
+        @JsonProperty("created")
+        int created,
+
+        @Schema(description = "Number of transactions rejected", example = "1")
+        @JsonProperty("rejected")
+        int rejected,
+
+        @Schema(description = "One result per requested transaction, in request order")
+        @JsonProperty("results")
+        List<CreateTransactionBatchItemResponse> results
+) {}
@@ -0,0 +1,25 @@
+package com.devfreitag.pismotest.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+@Schema(description = "Account whose stored available credit limit is not what its transactions add up to")
+public record CreditLimitMismatchResponse(
+        @Schema(description = "ID of the account", example = "1")
+        @JsonProperty("account_id")
+        Long accountId,
+
+        @Schema(description = "Available credit limit stored for the account, including its balance shards", example = "150.00")
+        @JsonProperty("stored_credit_limit")
+        BigDecimal storedCreditLimit,
+
+        @Schema(description = "Sum of the account's transactions", example = "100.00")
+        @JsonProperty("replayed_credit_limit")
+        BigDecimal replayedCreditLimit,
+
+        @Schema(description = "Whether the stored limit was set to the replayed one", example = "true")
+        @JsonProperty("corrected")
+        boolean corrected
+) {}
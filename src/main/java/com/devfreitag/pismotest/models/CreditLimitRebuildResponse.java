@@ -0,0 +1,29 @@
+package com.devfreitag.pismotest.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Outcome of replaying the transactions of a range of accounts")
+public record CreditLimitRebuildResponse(
+        @Schema(description = "Number of accounts replayed", example = "1000")
+        @JsonProperty("accounts")
+        long accounts,
+
+        @Schema(description = "Number of transactions replayed", example = "25000")
+        @JsonProperty("transactions")
+        long transactions,
+
+        @Schema(description = "Number of accounts whose stored limit is not the sum of their transactions", example = "1")
+        @JsonProperty("mismatches")
+        long mismatches,
+
+        @Schema(description = "Number of mismatched accounts whose stored limit was corrected", example = "1")
+        @JsonProperty("corrected")
+        long corrected,
+
+        @Schema(description = "Mismatched accounts in account id order, up to pismo.credit-limit-rebuild.max-listed-mismatches")
+        @JsonProperty("listed")
+        List<CreditLimitMismatchResponse> listed
+) {}
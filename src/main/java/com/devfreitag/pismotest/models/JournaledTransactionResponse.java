@@ -0,0 +1,28 @@
+package com.devfreitag.pismotest.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Schema(description = "Transaction accepted into the journal, to be written to its account shortly")
+public record JournaledTransactionResponse(
+        @Schema(description = "Position of the transaction in this instance's journal", example = "1")
+        Long sequence,
+
+        @Schema(description = "ID of the account associated with this transaction", example = "1")
+        @JsonProperty("account_id")
+        Long accountId,
+
+        @Schema(description = "Operation type ID", example = "1")
+        @JsonProperty("operation_type_id")
+        Long operationTypeId,
+
+        @Schema(description = "Final transaction amount after sign adjustment. Negative for debits (types 1-3), positive for credits (type 4)", example = "-123.45")
+        BigDecimal amount,
+
+        @Schema(description = "When the transaction was accepted", example = "2026-01-15T10:30:00Z")
+        @JsonProperty("event_date")
+        Instant eventDate
+) {}
@@ -0,0 +1,15 @@
+package com.devfreitag.pismotest.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Response containing operation type details")
+public record OperationTypeResponse(
+        @Schema(description = "Unique identifier for the operation type", example = "1")
+        @JsonProperty("operation_type_id")
+        Long operationTypeId,
+
+        @Schema(description = "Description of the operation type", example = "PURCHASE")
+        @JsonProperty("description")
+        String description
+) {}
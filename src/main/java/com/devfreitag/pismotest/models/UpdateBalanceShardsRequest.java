@@ -0,0 +1,17 @@
+package com.devfreitag.pismotest.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+@Schema(description = "Request payload for splitting an account's credit limit over balance shards")
+public record UpdateBalanceShardsRequest(
+        @Schema(description = "Number of rows to split the credit limit over; 0 keeps it on the account row", example = "16")
+        @JsonProperty("balance_shards")
+        @NotNull(message = "Balance shards must be informed")
+        @Min(0)
+        @Max(256)
+        Integer balanceShards
+) {}
@@ -0,0 +1,9 @@
+package com.devfreitag.pismotest.repositories;
+
+import java.math.BigDecimal;
+
+/**
+ * Sum of the signed amounts of an account's transactions.
+ */
+public record AccountAmount(Long accountId, BigDecimal amount) {
+}
@@ -0,0 +1,44 @@
+package com.devfreitag.pismotest.repositories;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The rows an account's available credit limit is split over once it has balance shards. Shards are numbered from 0
+ * and limits are in cents.
+ */
+public interface AccountBalanceShardRepository {
+
+    /**
+     * Adds the signed amount to one shard in a single conditional statement, like
+     * {@link AccountRepository#applyToCreditLimit}. Returns 0 when the shard does not exist or its limit would not be
+     * positive, 1 otherwise.
+     */
+    int applyToShardCreditLimit(Long accountId, int shard, long cents);
+
+    /**
+     * Reads the limit of every shard of the account, without locking them, indexed by shard.
+     */
+    long[] findShardCreditLimits(Long accountId);
+
+    /**
+     * Reads and locks the shards of the given accounts until the end of the database transaction, indexed by shard.
+     * Accounts without shards are absent from the returned map.
+     */
+    Map<Long, long[]> lockShardCreditLimits(Collection<Long> accountIds);
+
+    /**
+     * Sets the limit of every shard of the account, indexed by shard.
+     */
+    void updateShardCreditLimits(Long accountId, long[] cents);
+
+    /**
+     * Drops the shards of the account and inserts one per given limit, indexed by shard.
+     */
+    void replaceShardCreditLimits(Long accountId, long[] cents);
+
+    /**
+     * Sums the limits of the account's shards; 0 when it has none.
+     */
+    long sumShardCreditLimits(Long accountId);
+}
@@ -0,0 +1,129 @@
+package com.devfreitag.pismotest.repositories;
+
+import com.devfreitag.pismotest.services.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+@RequiredArgsConstructor
+class AccountBalanceShardRepositoryImpl implements AccountBalanceShardRepository {
+
+    private static final String APPLY_TO_SHARD_CREDIT_LIMIT = """
+            UPDATE account_balance_shard
+               SET available_credit_limit = available_credit_limit + :amount
+             WHERE account_id = :accountId
+               AND shard = :shard
+               AND available_credit_limit + :amount > 0
+            """;
+
+    private static final String FIND_SHARD_CREDIT_LIMITS = """
+            SELECT available_credit_limit
+              FROM account_balance_shard
+             WHERE account_id = :accountId
+             ORDER BY shard
+            """;
+
+    private static final String LOCK_SHARD_CREDIT_LIMITS = """
+            SELECT account_id, available_credit_limit
+              FROM account_balance_shard
+             WHERE account_id IN (:accountIds)
+             ORDER BY account_id, shard
+               FOR UPDATE
+            """;
+
+    private static final String UPDATE_SHARD_CREDIT_LIMIT = """
+            UPDATE account_balance_shard SET available_credit_limit = ? WHERE account_id = ? AND shard = ?
+            """;
+
+    private static final String DELETE_SHARDS = """
+            DELETE FROM account_balance_shard WHERE account_id = ?
+            """;
+
+    private static final String INSERT_SHARD = """
+            INSERT INTO account_balance_shard (account_id, shard, available_credit_limit) VALUES (?, ?, ?)
+            """;
+
+    private static final String SUM_SHARD_CREDIT_LIMITS = """
+            SELECT COALESCE(SUM(available_credit_limit), 0) FROM account_balance_shard WHERE account_id = :accountId
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public int applyToShardCreditLimit(Long accountId, int shard, long cents) {
+        return this.jdbcTemplate.update(APPLY_TO_SHARD_CREDIT_LIMIT, Map.of(
+                "amount", Money.toBigDecimal(cents),
+                "accountId", accountId,
+                "shard", shard));
+    }
+
+    @Override
+    public long[] findShardCreditLimits(Long accountId) {
+        return this.jdbcTemplate.queryForList(FIND_SHARD_CREDIT_LIMITS, Map.of("accountId", accountId), BigDecimal.class)
+                .stream()
+                .mapToLong(Money::toCents)
+                .toArray();
+    }
+
+    /**
+     * Locks in ascending account and shard order, like {@link AccountBatchRepositoryImpl#updateCreditLimits}, so
+     * callers locking overlapping accounts can't deadlock each other.
+     */
+    @Override
+    public Map<Long, long[]> lockShardCreditLimits(Collection<Long> accountIds) {
+        final List<Long> distinctIds = accountIds.stream().distinct().sorted().toList();
+        final Map<Long, List<Long>> creditLimits = new LinkedHashMap<>(distinctIds.size() * 2);
+
+        for (int from = 0; from < distinctIds.size(); from += AccountBatchRepositoryImpl.CHUNK_SIZE) {
+            final List<Long> chunk = distinctIds.subList(from, Math.min(from + AccountBatchRepositoryImpl.CHUNK_SIZE, distinctIds.size()));
+            this.jdbcTemplate.query(LOCK_SHARD_CREDIT_LIMITS, Map.of("accountIds", chunk), rs -> {
+                creditLimits.computeIfAbsent(rs.getLong(1), accountId -> new ArrayList<>())
+                        .add(Money.toCents(rs.getBigDecimal(2)));
+            });
+        }
+
+        final Map<Long, long[]> shards = new HashMap<>(creditLimits.size() * 2);
+        creditLimits.forEach((accountId, cents) -> shards.put(accountId, cents.stream().mapToLong(Long::longValue).toArray()));
+        return shards;
+    }
+
+    @Override
+    public void updateShardCreditLimits(Long accountId, long[] cents) {
+        this.jdbcTemplate.getJdbcOperations().batchUpdate(UPDATE_SHARD_CREDIT_LIMIT, shards(cents), cents.length, (ps, shard) -> {
+            ps.setBigDecimal(1, Money.toBigDecimal(cents[shard]));
+            ps.setLong(2, accountId);
+            ps.setInt(3, shard);
+        });
+    }
+
+    @Override
+    public void replaceShardCreditLimits(Long accountId, long[] cents) {
+        this.jdbcTemplate.getJdbcOperations().update(DELETE_SHARDS, accountId);
+        if (cents.length == 0) {
+            return;
+        }
+
+        this.jdbcTemplate.getJdbcOperations().batchUpdate(INSERT_SHARD, shards(cents), cents.length, (ps, shard) -> {
+            ps.setLong(1, accountId);
+            ps.setInt(2, shard);
+            ps.setBigDecimal(3, Money.toBigDecimal(cents[shard]));
+        });
+    }
+
+    @Override
+    public long sumShardCreditLimits(Long accountId) {
+        return Money.toCents(this.jdbcTemplate.queryForObject(SUM_SHARD_CREDIT_LIMITS, Map.of("accountId", accountId), BigDecimal.class));
+    }
+
+    private static List<Integer> shards(long[] cents) {
+        return IntStream.range(0, cents.length).boxed().toList();
+    }
+}
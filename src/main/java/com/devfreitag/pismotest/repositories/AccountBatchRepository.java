@@ -0,0 +1,22 @@
+package com.devfreitag.pismotest.repositories;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface AccountBatchRepository {
+
+    /**
+     * Reads the current available credit limit of the given accounts, without locking them. Accounts that do not exist
+     * are absent from the returned map.
+     */
+    Map<Long, AccountCreditLimit> findCreditLimits(Collection<Long> accountIds);
+
+    /**
+     * Sets the available credit limit, in cents, of every given account whose version is still the given one, and
+     * bumps it.
+     *
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if any account was updated since its
+     *                                                                          version was read
+     */
+    void updateCreditLimits(Map<Long, AccountCreditLimit> creditLimits);
+}
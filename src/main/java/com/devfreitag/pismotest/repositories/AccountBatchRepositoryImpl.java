@@ -0,0 +1,70 @@
+package com.devfreitag.pismotest.repositories;
+
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.services.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class AccountBatchRepositoryImpl implements AccountBatchRepository {
+
+    static final int CHUNK_SIZE = 1_000;
+
+    private static final String FIND_CREDIT_LIMITS = """
+            SELECT account_id, available_credit_limit, version, balance_shards
+              FROM account
+             WHERE account_id IN (:accountIds)
+            """;
+
+    private static final String UPDATE_CREDIT_LIMIT = """
+            UPDATE account SET available_credit_limit = ?, version = version + 1 WHERE account_id = ? AND version = ?
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<Long, AccountCreditLimit> findCreditLimits(Collection<Long> accountIds) {
+        final List<Long> distinctIds = accountIds.stream().distinct().toList();
+        final Map<Long, AccountCreditLimit> creditLimits = new HashMap<>(distinctIds.size() * 2);
+
+        for (int from = 0; from < distinctIds.size(); from += CHUNK_SIZE) {
+            final List<Long> chunk = distinctIds.subList(from, Math.min(from + CHUNK_SIZE, distinctIds.size()));
+            this.jdbcTemplate.query(FIND_CREDIT_LIMITS, Map.of("accountIds", chunk), rs -> {
+                creditLimits.put(rs.getLong(1), new AccountCreditLimit(Money.toCents(rs.getBigDecimal(2)), rs.getLong(3), rs.getInt(4)));
+            });
+        }
+
+        return creditLimits;
+    }
+
+    /**
+     * Updates in ascending id order, so batches touching the same accounts take their row locks in the same order and
+     * can't deadlock each other.
+     */
+    @Override
+    public void updateCreditLimits(Map<Long, AccountCreditLimit> creditLimits) {
+        final List<Map.Entry<Long, AccountCreditLimit>> entries = creditLimits.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+
+        final int[][] updated = this.jdbcTemplate.getJdbcOperations().batchUpdate(UPDATE_CREDIT_LIMIT, entries, CHUNK_SIZE, (ps, entry) -> {
+            ps.setBigDecimal(1, Money.toBigDecimal(entry.getValue().cents()));
+            ps.setLong(2, entry.getKey());
+            ps.setLong(3, entry.getValue().version());
+        });
+
+        for (int chunk = 0; chunk < updated.length; chunk++) {
+            for (int i = 0; i < updated[chunk].length; i++) {
+                if (updated[chunk][i] == 0) {
+                    throw new ObjectOptimisticLockingFailureException(Account.class, entries.get(chunk * CHUNK_SIZE + i).getKey());
+                }
+            }
+        }
+    }
+}
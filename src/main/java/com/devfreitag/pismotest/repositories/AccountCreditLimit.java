@@ -0,0 +1,12 @@
+package com.devfreitag.pismotest.repositories;
+
+/**
+ * An account's available credit limit, in cents, the version it was read at and its number of balance shards. The
+ * limit of an account with shards is only what is left outside of them.
+ */
+public record AccountCreditLimit(long cents, long version, int balanceShards) {
+
+    public AccountCreditLimit(long cents, long version) {
+        this(cents, version, 0);
+    }
+}
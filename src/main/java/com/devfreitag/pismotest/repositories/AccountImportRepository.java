@@ -0,0 +1,42 @@
+package com.devfreitag.pismotest.repositories;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Account imports go through staging rows in {@code account_import}, keyed by the import's id, so that millions of
+ * accounts are checked with a handful of set-based statements and inserted in JDBC batches. The staging rows must be
+ * written, used and deleted in one database transaction.
+ */
+public interface AccountImportRepository {
+
+    int IMPORT_FETCH_SIZE = 10_000;
+
+    /**
+     * Writes the rows to the import's staging rows as they are read, with {@code COPY} on PostgreSQL and JDBC batches
+     * on other databases.
+     */
+    void stageImport(UUID importId, Iterator<AccountImportRow> rows);
+
+    /**
+     * Marks accepted rows as conflicts when their document number belongs to an account already, or to an earlier
+     * row of the import. Returns the number of rows marked.
+     */
+    int markImportConflicts(UUID importId);
+
+    /**
+     * Creates an account, with its initial available credit limit, for every row still accepted, in line order, and
+     * records each positive initial limit as a payment, so an account's limit stays the sum of its transactions. Reads
+     * {@link #IMPORT_FETCH_SIZE} rows at a time. Returns the number of accounts created.
+     */
+    int insertImportedAccounts(UUID importId, Long operationTypeId, Instant eventDate);
+
+    /**
+     * Hands the outcome of every row to the consumer, in line order, reading {@link #IMPORT_FETCH_SIZE} rows at a time.
+     */
+    void findImportResults(UUID importId, Consumer<AccountImportResult> consumer);
+
+    void deleteImport(UUID importId);
+}
@@ -0,0 +1,248 @@
+package com.devfreitag.pismotest.repositories;
+
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.entities.OperationType;
+import com.devfreitag.pismotest.entities.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+class AccountImportRepositoryImpl implements AccountImportRepository {
+
+    static final int CHUNK_SIZE = 1_000;
+    static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String COPY_IMPORT = """
+            COPY account_import (import_id, line, document_number, available_credit_limit, status, error)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+
+    private static final String INSERT_IMPORT = """
+            INSERT INTO account_import (import_id, line, document_number, available_credit_limit, status, error)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    // Rejected rows never hold a document number back, and their status never changes while this runs
+    private static final String MARK_IMPORT_CONFLICTS = """
+            UPDATE account_import
+               SET status = :conflict
+             WHERE import_id = :importId
+               AND status = :accepted
+               AND (EXISTS (SELECT 1 FROM account a WHERE a.document_number = account_import.document_number)
+                    OR EXISTS (SELECT 1
+                                 FROM account_import earlier
+                                WHERE earlier.import_id = account_import.import_id
+                                  AND earlier.document_number = account_import.document_number
+                                  AND earlier.line < account_import.line
+                                  AND earlier.status <> :rejected))
+            """;
+
+    private static final String FIND_ACCEPTED_IMPORTS = """
+            SELECT document_number, available_credit_limit
+              FROM account_import
+             WHERE import_id = ?
+               AND status = ?
+             ORDER BY line
+            """;
+
+    // The accounts were created by this transaction, so the only transaction they can have is their initial credit
+    private static final String FIND_IMPORT_RESULTS = """
+            SELECT i.line, i.document_number, i.available_credit_limit, i.status, i.error, a.account_id, t.transaction_id
+              FROM account_import i
+              LEFT JOIN account a ON i.status = ? AND a.document_number = i.document_number
+              LEFT JOIN transaction t ON t.account_id = a.account_id
+             WHERE i.import_id = ?
+             ORDER BY i.line
+            """;
+
+    private static final String DELETE_IMPORT = """
+            DELETE FROM account_import WHERE import_id = :importId
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Streams the rows into {@code COPY ... FROM STDIN} as CSV through a fixed-size buffer, so memory stays flat
+     * whatever the number of rows.
+     */
+    @Override
+    public void stageImport(UUID importId, Iterator<AccountImportRow> rows) {
+        this.jdbcTemplate.getJdbcOperations().execute((ConnectionCallback<Void>) connection -> {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                copyImport(connection.unwrap(PGConnection.class), importId, rows);
+            } else {
+                insertImport(connection, importId, rows);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public int markImportConflicts(UUID importId) {
+        return this.jdbcTemplate.update(MARK_IMPORT_CONFLICTS, Map.of(
+                "importId", importId,
+                "conflict", AccountImportRow.CONFLICT,
+                "accepted", AccountImportRow.ACCEPTED,
+                "rejected", AccountImportRow.REJECTED));
+    }
+
+    /**
+     * Persists the accounts and their credits like {@link TransactionBatchRepositoryImpl#insertAll}, flushing every
+     * {@link TransactionBatchRepositoryImpl#FLUSH_SIZE} rows, so they take their ids from the same pooled blocks as
+     * every other insert instead of a sequence call, and a whole block, per row.
+     */
+    @Override
+    public int insertImportedAccounts(UUID importId, Long operationTypeId, Instant eventDate) {
+        final int[] inserted = new int[1];
+        this.jdbcTemplate.getJdbcOperations().query(connection -> {
+            final PreparedStatement statement = connection.prepareStatement(FIND_ACCEPTED_IMPORTS);
+            statement.setObject(1, importId);
+            statement.setInt(2, AccountImportRow.ACCEPTED);
+            statement.setFetchSize(IMPORT_FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            final Account account = Account.builder()
+                    .documentNumber(rs.getString(1))
+                    .availableCreditLimit(rs.getBigDecimal(2))
+                    .build();
+            this.entityManager.persist(account);
+
+            if (account.getAvailableCreditLimit().signum() > 0) {
+                this.entityManager.persist(Transaction.builder()
+                        .account(account)
+                        .operationType(this.entityManager.getReference(OperationType.class, operationTypeId))
+                        .amount(account.getAvailableCreditLimit())
+                        .eventDate(eventDate)
+                        .build());
+            }
+
+            if (++inserted[0] % TransactionBatchRepositoryImpl.FLUSH_SIZE == 0) {
+                this.entityManager.flush();
+                this.entityManager.clear();
+            }
+        });
+        this.entityManager.flush();
+        this.entityManager.clear();
+
+        return inserted[0];
+    }
+
+    @Override
+    public void findImportResults(UUID importId, Consumer<AccountImportResult> consumer) {
+        this.jdbcTemplate.getJdbcOperations().query(connection -> {
+            final PreparedStatement statement = connection.prepareStatement(FIND_IMPORT_RESULTS);
+            statement.setInt(1, AccountImportRow.ACCEPTED);
+            statement.setObject(2, importId);
+            statement.setFetchSize(IMPORT_FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            consumer.accept(new AccountImportResult(
+                    rs.getLong(1),
+                    rs.getString(2),
+                    rs.getBigDecimal(3),
+                    rs.getInt(4),
+                    rs.getString(5),
+                    rs.getObject(6, Long.class),
+                    rs.getObject(7, Long.class)));
+        });
+    }
+
+    @Override
+    public void deleteImport(UUID importId) {
+        this.jdbcTemplate.update(DELETE_IMPORT, Map.of("importId", importId));
+    }
+
+    private static void copyImport(PGConnection connection, UUID importId, Iterator<AccountImportRow> rows) throws SQLException {
+        final PGCopyOutputStream copy = new PGCopyOutputStream(connection, COPY_IMPORT, COPY_BUFFER_SIZE);
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), COPY_BUFFER_SIZE);
+        try {
+            final String prefix = importId + ",";
+            while (rows.hasNext()) {
+                final AccountImportRow row = rows.next();
+                writer.write(prefix);
+                writer.write(Long.toString(row.line()));
+                writer.write(',');
+                writeCsv(writer, row.documentNumber());
+                writer.write(',');
+                if (row.availableCreditLimit() != null) {
+                    writer.write(row.availableCreditLimit().toPlainString());
+                }
+                writer.write(',');
+                writer.write(Integer.toString(row.status()));
+                writer.write(',');
+                writeCsv(writer, row.error());
+                writer.write('\n');
+            }
+            // Flushes the rest and ends the COPY; a failure before this point cancels it instead
+            writer.close();
+        } catch (IOException | RuntimeException ex) {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+            if (ex instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            throw (RuntimeException) ex;
+        }
+    }
+
+    /**
+     * Quotes every non-null value, so commas, quotes and line breaks in it are taken literally; an unquoted empty
+     * field is read as {@code NULL}.
+     */
+    private static void writeCsv(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static void insertImport(java.sql.Connection connection, UUID importId, Iterator<AccountImportRow> rows) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_IMPORT)) {
+            final List<AccountImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == CHUNK_SIZE || !rows.hasNext()) {
+                    for (AccountImportRow row : chunk) {
+                        statement.setObject(1, importId);
+                        statement.setLong(2, row.line());
+                        statement.setString(3, row.documentNumber());
+                        statement.setBigDecimal(4, row.availableCreditLimit());
+                        statement.setInt(5, row.status());
+                        statement.setString(6, row.error());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    chunk.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.devfreitag.pismotest.repositories;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of a line of an account import. The account and the transaction crediting its initial limit are only set
+ * for created accounts, and the transaction only when that limit is positive.
+ *
+ * @param status {@link AccountImportRow#ACCEPTED}, {@link AccountImportRow#CONFLICT} or {@link AccountImportRow#REJECTED}
+ */
+public record AccountImportResult(long line, String documentNumber, BigDecimal availableCreditLimit, int status,
+                                  String error, Long accountId, Long transactionId) {
+
+    public boolean isCreated() {
+        return this.status == AccountImportRow.ACCEPTED;
+    }
+}
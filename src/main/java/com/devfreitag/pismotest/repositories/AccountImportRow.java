@@ -0,0 +1,23 @@
+package com.devfreitag.pismotest.repositories;
+
+import java.math.BigDecimal;
+
+/**
+ * A line of an account import: the account it asks for, or why it was rejected before reaching the database.
+ *
+ * @param status 201 for an account to create, 422 for a line that was rejected
+ */
+public record AccountImportRow(long line, String documentNumber, BigDecimal availableCreditLimit, int status, String error) {
+
+    public static final int ACCEPTED = 201;
+    public static final int CONFLICT = 409;
+    public static final int REJECTED = 422;
+
+    public static AccountImportRow accepted(long line, String documentNumber, BigDecimal availableCreditLimit) {
+        return new AccountImportRow(line, documentNumber, availableCreditLimit, ACCEPTED, null);
+    }
+
+    public static AccountImportRow rejected(long line, String documentNumber, String error) {
+        return new AccountImportRow(line, documentNumber, null, REJECTED, error);
+    }
+}
@@ -1,11 +1,69 @@
 package com.devfreitag.pismotest.repositories;
 
 import com.devfreitag.pismotest.entities.Account;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
-public interface AccountRepository extends JpaRepository<Account, Long> {
+public interface AccountRepository extends JpaRepository<Account, Long>, AccountBatchRepository, AccountBalanceShardRepository,
+        AccountImportRepository, CreditLimitReplayRepository, CreditLimitReconciliationRepository {
+
+    int DOCUMENT_NUMBER_FETCH_SIZE = 10_000;
 
     boolean existsByDocumentNumber(String documentNumber);
+
+    /**
+     * Adds the signed amount to the available credit limit in a single conditional statement, so concurrent
+     * transactions on the same account can't overwrite each other. Returns 0 when the account does not exist, has
+     * balance shards, or the resulting limit would not be positive, 1 otherwise. The version is bumped so that writers holding an older one,
+     * such as a batch in {@link AccountBatchRepository#updateCreditLimits}, see the conflict.
+     */
+    @Modifying
+    @Query("""
+            UPDATE Account a
+               SET a.availableCreditLimit = a.availableCreditLimit + :amount,
+                   a.version = a.version + 1
+             WHERE a.accountId = :accountId
+               AND a.balanceShards = 0
+               AND a.availableCreditLimit + :amount > 0
+            """)
+    int applyToCreditLimit(@Param("accountId") Long accountId, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT a.balanceShards FROM Account a WHERE a.accountId = :accountId")
+    Optional<Integer> findBalanceShardsById(@Param("accountId") Long accountId);
+
+    @Query("SELECT MIN(a.accountId) FROM Account a")
+    Optional<Long> findMinAccountId();
+
+    @Query("SELECT MAX(a.accountId) FROM Account a")
+    Optional<Long> findMaxAccountId();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountId = :accountId")
+    Optional<Account> findAndLockById(@Param("accountId") Long accountId);
+
+    /**
+     * Every account's document number, over a cursor that holds {@link #DOCUMENT_NUMBER_FETCH_SIZE} rows at a time. Must be consumed
+     * inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + DOCUMENT_NUMBER_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a.documentNumber FROM Account a")
+    Stream<String> streamDocumentNumbers();
 }
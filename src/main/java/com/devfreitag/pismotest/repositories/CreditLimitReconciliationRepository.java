@@ -0,0 +1,40 @@
+package com.devfreitag.pismotest.repositories;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Checks that account limits are the sums of their transactions a chunk of account ids at a time, and keeps track of
+ * the checked chunks in {@code reconciliation_run}, {@code reconciliation_chunk} and {@code reconciliation_mismatch}.
+ */
+public interface CreditLimitReconciliationRepository {
+
+    long countAccounts(long fromAccountId, long toAccountId);
+
+    /**
+     * Returns the accounts with an id in {@code [fromAccountId, toAccountId)} whose limit is not the sum of their
+     * transactions, in account id order. The sums are grouped by the database in one statement, so only mismatched
+     * accounts are read.
+     */
+    List<ReconciliationMismatch> findCreditLimitMismatches(long fromAccountId, long toAccountId);
+
+    /**
+     * Returns the latest reconciliation that has not finished, if any.
+     */
+    Optional<ReconciliationRun> findUnfinishedReconciliation();
+
+    void insertReconciliation(ReconciliationRun run);
+
+    List<ReconciledChunk> findReconciledChunks(UUID runId);
+
+    /**
+     * Records a checked chunk with the mismatches found in it.
+     */
+    void insertReconciledChunk(UUID runId, ReconciledChunk chunk, List<ReconciliationMismatch> mismatches);
+
+    void finishReconciliation(UUID runId, Instant finishedAt);
+
+    List<ReconciliationMismatch> findReconciliationMismatches(UUID runId);
+}
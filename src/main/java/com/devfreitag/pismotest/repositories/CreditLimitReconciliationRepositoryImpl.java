@@ -0,0 +1,152 @@
+package com.devfreitag.pismotest.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+class CreditLimitReconciliationRepositoryImpl implements CreditLimitReconciliationRepository {
+
+    private static final String COUNT_ACCOUNTS = """
+            SELECT COUNT(*) FROM account WHERE account_id >= :from AND account_id < :to
+            """;
+
+    private static final String FIND_CREDIT_LIMIT_MISMATCHES = """
+            SELECT a.account_id,
+                   a.available_credit_limit + COALESCE(s.available_credit_limit, 0),
+                   COALESCE(t.amount, 0)
+              FROM account a
+              LEFT JOIN (SELECT account_id, SUM(amount) AS amount
+                           FROM transaction
+                          WHERE account_id >= :from AND account_id < :to
+                          GROUP BY account_id) t ON t.account_id = a.account_id
+              LEFT JOIN (SELECT account_id, SUM(available_credit_limit) AS available_credit_limit
+                           FROM account_balance_shard
+                          WHERE account_id >= :from AND account_id < :to
+                          GROUP BY account_id) s ON s.account_id = a.account_id
+             WHERE a.account_id >= :from AND a.account_id < :to
+               AND a.available_credit_limit + COALESCE(s.available_credit_limit, 0) <> COALESCE(t.amount, 0)
+             ORDER BY a.account_id
+            """;
+
+    private static final String FIND_UNFINISHED_RECONCILIATION = """
+            SELECT run_id, from_account_id, to_account_id, chunk_size, started_at
+              FROM reconciliation_run
+             WHERE finished_at IS NULL
+             ORDER BY started_at DESC
+             FETCH FIRST 1 ROWS ONLY
+            """;
+
+    private static final String INSERT_RECONCILIATION = """
+            INSERT INTO reconciliation_run (run_id, from_account_id, to_account_id, chunk_size, started_at)
+            VALUES (:runId, :from, :to, :chunkSize, :startedAt)
+            """;
+
+    private static final String FIND_RECONCILED_CHUNKS = """
+            SELECT from_account_id, accounts, mismatches FROM reconciliation_chunk WHERE run_id = :runId
+            """;
+
+    private static final String INSERT_RECONCILED_CHUNK = """
+            INSERT INTO reconciliation_chunk (run_id, from_account_id, accounts, mismatches)
+            VALUES (:runId, :from, :accounts, :mismatches)
+            """;
+
+    private static final String INSERT_RECONCILIATION_MISMATCH = """
+            INSERT INTO reconciliation_mismatch (run_id, account_id, available_credit_limit, transaction_sum)
+            VALUES (:runId, :accountId, :availableCreditLimit, :transactionSum)
+            """;
+
+    private static final String FINISH_RECONCILIATION = """
+            UPDATE reconciliation_run SET finished_at = :finishedAt WHERE run_id = :runId
+            """;
+
+    private static final String FIND_RECONCILIATION_MISMATCHES = """
+            SELECT account_id, available_credit_limit, transaction_sum
+              FROM reconciliation_mismatch
+             WHERE run_id = :runId
+             ORDER BY account_id
+            """;
+
+    private static final RowMapper<ReconciliationMismatch> MISMATCH = (rs, rowNum) ->
+            new ReconciliationMismatch(rs.getLong(1), rs.getBigDecimal(2), rs.getBigDecimal(3));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public long countAccounts(long fromAccountId, long toAccountId) {
+        return this.jdbcTemplate.queryForObject(COUNT_ACCOUNTS, Map.of("from", fromAccountId, "to", toAccountId), Long.class);
+    }
+
+    @Override
+    public List<ReconciliationMismatch> findCreditLimitMismatches(long fromAccountId, long toAccountId) {
+        return this.jdbcTemplate.query(FIND_CREDIT_LIMIT_MISMATCHES, Map.of("from", fromAccountId, "to", toAccountId), MISMATCH);
+    }
+
+    @Override
+    public Optional<ReconciliationRun> findUnfinishedReconciliation() {
+        return this.jdbcTemplate.query(FIND_UNFINISHED_RECONCILIATION, Map.of(), (rs, rowNum) -> new ReconciliationRun(
+                rs.getObject(1, UUID.class),
+                rs.getLong(2),
+                rs.getLong(3),
+                rs.getInt(4),
+                rs.getTimestamp(5).toInstant())).stream().findFirst();
+    }
+
+    @Override
+    public void insertReconciliation(ReconciliationRun run) {
+        this.jdbcTemplate.update(INSERT_RECONCILIATION, Map.of(
+                "runId", run.runId(),
+                "from", run.fromAccountId(),
+                "to", run.toAccountId(),
+                "chunkSize", run.chunkSize(),
+                "startedAt", Timestamp.from(run.startedAt())));
+    }
+
+    @Override
+    public List<ReconciledChunk> findReconciledChunks(UUID runId) {
+        return this.jdbcTemplate.query(FIND_RECONCILED_CHUNKS, Map.of("runId", runId),
+                (rs, rowNum) -> new ReconciledChunk(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+    }
+
+    @Override
+    public void insertReconciledChunk(UUID runId, ReconciledChunk chunk, List<ReconciliationMismatch> mismatches) {
+        this.jdbcTemplate.update(INSERT_RECONCILED_CHUNK, Map.of(
+                "runId", runId,
+                "from", chunk.fromAccountId(),
+                "accounts", chunk.accounts(),
+                "mismatches", chunk.mismatches()));
+        if (mismatches.isEmpty()) {
+            return;
+        }
+
+        final SqlParameterSource[] batch = new SqlParameterSource[mismatches.size()];
+        for (int i = 0; i < batch.length; i++) {
+            final ReconciliationMismatch mismatch = mismatches.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("runId", runId)
+                    .addValue("accountId", mismatch.accountId())
+                    .addValue("availableCreditLimit", mismatch.availableCreditLimit())
+                    .addValue("transactionSum", mismatch.transactionSum());
+        }
+        this.jdbcTemplate.batchUpdate(INSERT_RECONCILIATION_MISMATCH, batch);
+    }
+
+    @Override
+    public void finishReconciliation(UUID runId, Instant finishedAt) {
+        this.jdbcTemplate.update(FINISH_RECONCILIATION, Map.of("runId", runId, "finishedAt", Timestamp.from(finishedAt)));
+    }
+
+    @Override
+    public List<ReconciliationMismatch> findReconciliationMismatches(UUID runId) {
+        return this.jdbcTemplate.query(FIND_RECONCILIATION_MISMATCHES, Map.of("runId", runId), MISMATCH);
+    }
+}
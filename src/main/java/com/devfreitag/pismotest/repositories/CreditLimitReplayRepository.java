@@ -0,0 +1,24 @@
+package com.devfreitag.pismotest.repositories;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface CreditLimitReplayRepository {
+
+    int REPLAY_FETCH_SIZE = 10_000;
+
+    /**
+     * Adds up the transactions of every account with an id in {@code [fromAccountId, toAccountId)} and hands each
+     * account's total to the consumer along with its stored limit, in account id order. The rows are read over a cursor
+     * that holds {@link #REPLAY_FETCH_SIZE} of them at a time and only one account is added up at once, so memory
+     * stays flat however many transactions there are. The stored limits and the transactions are read by one
+     * statement, so they are consistent with each other. Must be called inside a transaction.
+     */
+    void replayCreditLimits(long fromAccountId, long toAccountId, Consumer<ReplayedCreditLimit> consumer);
+
+    /**
+     * Sets each account's available credit limit to its replayed one if its version has not moved since it was
+     * replayed and it has no balance shards, and bumps the version. Returns, in order, whether each was updated.
+     */
+    boolean[] correctCreditLimits(List<ReplayedCreditLimit> creditLimits);
+}
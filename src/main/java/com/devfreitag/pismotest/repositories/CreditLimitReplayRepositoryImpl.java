@@ -0,0 +1,120 @@
+package com.devfreitag.pismotest.repositories;
+
+import com.devfreitag.pismotest.services.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+class CreditLimitReplayRepositoryImpl implements CreditLimitReplayRepository {
+
+    // One row per transaction, or a single row with a null amount for an account without any
+    private static final String REPLAY_CREDIT_LIMITS = """
+            SELECT a.account_id, a.version, a.balance_shards,
+                   a.available_credit_limit + COALESCE(s.available_credit_limit, 0), t.amount
+              FROM account a
+              LEFT JOIN (SELECT account_id, SUM(available_credit_limit) AS available_credit_limit
+                           FROM account_balance_shard
+                          WHERE account_id >= ? AND account_id < ?
+                          GROUP BY account_id) s ON s.account_id = a.account_id
+              LEFT JOIN transaction t ON t.account_id = a.account_id
+             WHERE a.account_id >= ? AND a.account_id < ?
+             ORDER BY a.account_id
+            """;
+
+    private static final String CORRECT_CREDIT_LIMIT = """
+            UPDATE account
+               SET available_credit_limit = ?, version = version + 1
+             WHERE account_id = ?
+               AND version = ?
+               AND balance_shards = 0
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void replayCreditLimits(long fromAccountId, long toAccountId, Consumer<ReplayedCreditLimit> consumer) {
+        final Replay replay = new Replay(consumer);
+        this.jdbcTemplate.getJdbcOperations().query(connection -> {
+            final PreparedStatement statement = connection.prepareStatement(REPLAY_CREDIT_LIMITS);
+            statement.setLong(1, fromAccountId);
+            statement.setLong(2, toAccountId);
+            statement.setLong(3, fromAccountId);
+            statement.setLong(4, toAccountId);
+            statement.setFetchSize(REPLAY_FETCH_SIZE);
+            return statement;
+        }, replay::add);
+        replay.finish();
+    }
+
+    @Override
+    public boolean[] correctCreditLimits(List<ReplayedCreditLimit> creditLimits) {
+        if (creditLimits.isEmpty()) {
+            return new boolean[0];
+        }
+
+        final int[] updated = this.jdbcTemplate.getJdbcOperations().batchUpdate(CORRECT_CREDIT_LIMIT, creditLimits, creditLimits.size(),
+                (ps, creditLimit) -> {
+                    ps.setBigDecimal(1, Money.toBigDecimal(creditLimit.replayedCents()));
+                    ps.setLong(2, creditLimit.accountId());
+                    ps.setLong(3, creditLimit.version());
+                })[0];
+
+        final boolean[] corrected = new boolean[updated.length];
+        for (int i = 0; i < updated.length; i++) {
+            corrected[i] = updated[i] == 1;
+        }
+        return corrected;
+    }
+
+    /**
+     * Running total of the account whose rows are being read, handed on when the next account's rows start.
+     */
+    private static final class Replay {
+
+        private final Consumer<ReplayedCreditLimit> consumer;
+        private Long accountId;
+        private long version;
+        private int balanceShards;
+        private long storedCents;
+        private long replayedCents;
+        private long transactions;
+
+        private Replay(Consumer<ReplayedCreditLimit> consumer) {
+            this.consumer = consumer;
+        }
+
+        private void add(ResultSet rs) throws SQLException {
+            final long rowAccountId = rs.getLong(1);
+            if (this.accountId == null || this.accountId != rowAccountId) {
+                finish();
+                this.accountId = rowAccountId;
+                this.version = rs.getLong(2);
+                this.balanceShards = rs.getInt(3);
+                this.storedCents = Money.toCents(rs.getBigDecimal(4));
+                this.replayedCents = 0L;
+                this.transactions = 0L;
+            }
+
+            final BigDecimal amount = rs.getBigDecimal(5);
+            if (amount != null) {
+                this.replayedCents = Money.add(this.replayedCents, Money.toCents(amount));
+                this.transactions++;
+            }
+        }
+
+        private void finish() {
+            if (this.accountId != null) {
+                this.consumer.accept(new ReplayedCreditLimit(this.accountId, this.version, this.balanceShards,
+                        this.storedCents, this.replayedCents, this.transactions));
+                this.accountId = null;
+            }
+        }
+    }
+}
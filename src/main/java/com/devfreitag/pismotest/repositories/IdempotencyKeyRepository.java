@@ -0,0 +1,26 @@
+package com.devfreitag.pismotest.repositories;
+
+import com.devfreitag.pismotest.entities.IdempotencyKey;
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * The response of the transaction created under the given key, read from the transaction row alone.
+     */
+    @Query("""
+            SELECT new com.devfreitag.pismotest.models.CreateTransactionResponse(
+                       t.transactionId, t.account.accountId, t.operationType.operationTypeId, t.amount)
+              FROM IdempotencyKey k
+              JOIN k.transaction t
+             WHERE k.idempotencyKey = :idempotencyKey
+            """)
+    Optional<CreateTransactionResponse> findResponseByIdempotencyKey(@Param("idempotencyKey") String idempotencyKey);
+}
@@ -0,0 +1,25 @@
+package com.devfreitag.pismotest.repositories;
+
+import com.devfreitag.pismotest.entities.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, String> {
+
+    /**
+     * Moves the checkpoint from {@code from} to {@code to} only if it still is at {@code from}, so a range of journal
+     * entries can be written to the database once. Returns 0 when the checkpoint had already moved.
+     */
+    @Modifying
+    @Query("""
+            UPDATE JournalCheckpoint c
+               SET c.lastSequence = :to
+             WHERE c.journalId = :journalId
+               AND c.lastSequence = :from
+            """)
+    int advance(@Param("journalId") String journalId, @Param("from") long from, @Param("to") long to);
+}
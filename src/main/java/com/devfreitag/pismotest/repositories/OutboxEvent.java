@@ -0,0 +1,19 @@
+package com.devfreitag.pismotest.repositories;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A created transaction waiting in the outbox. The transaction id identifies the event, so consumers can tell a
+ * redelivery apart.
+ */
+public record OutboxEvent(
+        @JsonProperty("transaction_id") Long transactionId,
+        @JsonProperty("account_id") Long accountId,
+        @JsonProperty("operation_type_id") Long operationTypeId,
+        @JsonProperty("amount") BigDecimal amount,
+        @JsonProperty("event_date") Instant eventDate
+) {
+}
@@ -0,0 +1,9 @@
+package com.devfreitag.pismotest.repositories;
+
+/**
+ * @param fromAccountId first account id of the chunk
+ * @param accounts number of accounts checked
+ * @param mismatches number of accounts whose limit is not the sum of their transactions
+ */
+public record ReconciledChunk(long fromAccountId, long accounts, long mismatches) {
+}
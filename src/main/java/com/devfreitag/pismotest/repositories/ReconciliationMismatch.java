@@ -0,0 +1,9 @@
+package com.devfreitag.pismotest.repositories;
+
+import java.math.BigDecimal;
+
+/**
+ * An account whose available credit limit, including its balance shards, is not the sum of its transactions.
+ */
+public record ReconciliationMismatch(Long accountId, BigDecimal availableCreditLimit, BigDecimal transactionSum) {
+}
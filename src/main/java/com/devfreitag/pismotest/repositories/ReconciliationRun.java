@@ -0,0 +1,26 @@
+package com.devfreitag.pismotest.repositories;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A reconciliation of the account ids from {@code fromAccountId} to {@code toAccountId}, both included, in chunks of
+ * {@code chunkSize} ids starting at {@code fromAccountId}.
+ */
+public record ReconciliationRun(UUID runId, long fromAccountId, long toAccountId, int chunkSize, Instant startedAt) {
+
+    public long chunks() {
+        return (this.toAccountId - this.fromAccountId) / this.chunkSize + 1;
+    }
+
+    public long chunkStart(long chunk) {
+        return this.fromAccountId + chunk * this.chunkSize;
+    }
+
+    /**
+     * First account id after the chunk, which is the end of the range for the last one.
+     */
+    public long chunkEnd(long chunk) {
+        return Math.min(chunkStart(chunk) + this.chunkSize, this.toAccountId + 1);
+    }
+}
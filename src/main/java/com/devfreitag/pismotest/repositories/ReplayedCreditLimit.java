@@ -0,0 +1,16 @@
+package com.devfreitag.pismotest.repositories;
+
+/**
+ * An account's stored available credit limit next to the one its transactions add up to, both in cents. The stored
+ * limit of an account with balance shards includes them.
+ *
+ * @param version the account's version when its limit was read
+ * @param transactions number of transactions replayed
+ */
+public record ReplayedCreditLimit(Long accountId, long version, int balanceShards, long storedCents, long replayedCents,
+                                  long transactions) {
+
+    public boolean matches() {
+        return this.storedCents == this.replayedCents;
+    }
+}
@@ -0,0 +1,20 @@
+package com.devfreitag.pismotest.repositories;
+
+import com.devfreitag.pismotest.entities.Transaction;
+
+import java.util.List;
+
+public interface TransactionBatchRepository {
+
+    /**
+     * Inserts the transactions in JDBC batches, referencing accounts and operation types by id only, and returns
+     * copies carrying the generated ids in the same order.
+     */
+    List<Transaction> insertAll(List<Transaction> transactions);
+
+    /**
+     * Allocates a transaction id from the same pooled block as transactions inserted through JPA, for inserts that
+     * bypass it.
+     */
+    Long nextTransactionId();
+}
@@ -0,0 +1,77 @@
+package com.devfreitag.pismotest.repositories;
+
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.entities.OperationType;
+import com.devfreitag.pismotest.entities.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class TransactionBatchRepositoryImpl implements TransactionBatchRepository {
+
+    /**
+     * Entities persisted between two flushes. Kept as a multiple of {@code hibernate.jdbc.batch_size} so every
+     * flush sends full JDBC batches, and small enough to keep the persistence context from growing unbounded.
+     */
+    static final int FLUSH_SIZE = 1_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Transaction> insertAll(List<Transaction> transactions) {
+        final List<Transaction> entities = new ArrayList<>(transactions.size());
+
+        for (int i = 0; i < transactions.size(); i++) {
+            final Transaction transaction = transactions.get(i);
+            final Transaction entity = Transaction.builder()
+                    .account(this.entityManager.getReference(Account.class, transaction.getAccount().getAccountId()))
+                    .operationType(this.entityManager.getReference(OperationType.class, transaction.getOperationType().getOperationTypeId()))
+                    .amount(transaction.getAmount())
+                    .eventDate(transaction.getEventDate())
+                    .build();
+
+            this.entityManager.persist(entity);
+            entities.add(entity);
+
+            if ((i + 1) % FLUSH_SIZE == 0) {
+                this.entityManager.flush();
+                this.entityManager.clear();
+            }
+        }
+        this.entityManager.flush();
+        this.entityManager.clear();
+
+        final List<Transaction> inserted = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            final Transaction transaction = transactions.get(i);
+            inserted.add(Transaction.builder()
+                    .transactionId(entities.get(i).getTransactionId())
+                    .account(transaction.getAccount())
+                    .operationType(transaction.getOperationType())
+                    .amount(transaction.getAmount())
+                    .eventDate(transaction.getEventDate())
+                    .build());
+        }
+
+        return inserted;
+    }
+
+    /**
+     * Goes through the entity's own generator, so ids keep increasing in the order they are handed out whichever
+     * path inserts them, and a raw insert does not take a whole block of the sequence for one id.
+     */
+    @Override
+    public Long nextTransactionId() {
+        final SharedSessionContractImplementor session = this.entityManager.unwrap(SharedSessionContractImplementor.class);
+        final BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Transaction.class)
+                .getGenerator();
+        return (Long) generator.generate(session, null, null, EventType.INSERT);
+    }
+}
@@ -0,0 +1,21 @@
+package com.devfreitag.pismotest.repositories;
+
+import com.devfreitag.pismotest.entities.Transaction;
+
+import java.util.List;
+
+public interface TransactionOutboxRepository {
+
+    /**
+     * Adds an event for each transaction to the outbox, in one JDBC batch.
+     */
+    void insertOutboxEvents(List<Transaction> transactions);
+
+    /**
+     * The oldest events in the outbox, locked until the current transaction ends. Events locked by another
+     * transaction are skipped rather than waited for, so concurrent relays each get different events.
+     */
+    List<OutboxEvent> lockOutboxEvents(int limit);
+
+    int deleteOutboxEvents(List<Long> transactionIds);
+}
@@ -0,0 +1,64 @@
+package com.devfreitag.pismotest.repositories;
+
+import com.devfreitag.pismotest.entities.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class TransactionOutboxRepositoryImpl implements TransactionOutboxRepository {
+
+    private static final String INSERT_OUTBOX_EVENT = """
+            INSERT INTO outbox (transaction_id, account_id, operation_type_id, amount, event_date)
+            VALUES (:transactionId, :accountId, :operationTypeId, :amount, :eventDate)
+            """;
+
+    private static final String LOCK_OUTBOX_EVENTS = """
+            SELECT transaction_id, account_id, operation_type_id, amount, event_date
+              FROM outbox
+             ORDER BY transaction_id
+             LIMIT :limit
+               FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String DELETE_OUTBOX_EVENTS = """
+            DELETE FROM outbox WHERE transaction_id IN (:transactionIds)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertOutboxEvents(List<Transaction> transactions) {
+        final SqlParameterSource[] batch = new SqlParameterSource[transactions.size()];
+        for (int i = 0; i < batch.length; i++) {
+            final Transaction transaction = transactions.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("transactionId", transaction.getTransactionId())
+                    .addValue("accountId", transaction.getAccount().getAccountId())
+                    .addValue("operationTypeId", transaction.getOperationType().getOperationTypeId())
+                    .addValue("amount", transaction.getAmount())
+                    .addValue("eventDate", Timestamp.from(transaction.getEventDate()));
+        }
+        this.jdbcTemplate.batchUpdate(INSERT_OUTBOX_EVENT, batch);
+    }
+
+    @Override
+    public List<OutboxEvent> lockOutboxEvents(int limit) {
+        return this.jdbcTemplate.query(LOCK_OUTBOX_EVENTS, Map.of("limit", limit), (rs, rowNum) -> new OutboxEvent(
+                rs.getLong(1),
+                rs.getLong(2),
+                rs.getLong(3),
+                rs.getBigDecimal(4),
+                rs.getTimestamp(5).toInstant()));
+    }
+
+    @Override
+    public int deleteOutboxEvents(List<Long> transactionIds) {
+        return this.jdbcTemplate.update(DELETE_OUTBOX_EVENTS, Map.of("transactionIds", transactionIds));
+    }
+}
@@ -1,11 +1,91 @@
 package com.devfreitag.pismotest.repositories;
 
 import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.models.AccountTransactionResponse;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionBatchRepository,
+        TransactionOutboxRepository {
+
+    int EXPORT_FETCH_SIZE = 1_000;
+
+    /**
+     * Newest transactions of an account, read straight into the response record so no entity or proxy is created.
+     * Served by {@code idx_transaction_account_event_date} without sorting.
+     */
+    @Query("""
+            SELECT new com.devfreitag.pismotest.models.AccountTransactionResponse(
+                       t.transactionId, t.operationType.operationTypeId, t.amount, t.eventDate)
+              FROM Transaction t
+             WHERE t.account.accountId = :accountId
+             ORDER BY t.eventDate DESC, t.transactionId DESC
+            """)
+    List<AccountTransactionResponse> findPageByAccountId(@Param("accountId") Long accountId, Limit limit);
+
+    /**
+     * Same as {@link #findPageByAccountId}, continuing after the given sort key. The row value comparison lets the
+     * database seek straight to that position in the index, so a page costs the same however deep it is.
+     */
+    @Query("""
+            SELECT new com.devfreitag.pismotest.models.AccountTransactionResponse(
+                       t.transactionId, t.operationType.operationTypeId, t.amount, t.eventDate)
+              FROM Transaction t
+             WHERE t.account.accountId = :accountId
+               AND (t.eventDate, t.transactionId) < (:eventDate, :transactionId)
+             ORDER BY t.eventDate DESC, t.transactionId DESC
+            """)
+    List<AccountTransactionResponse> findPageByAccountIdAfter(@Param("accountId") Long accountId,
+                                                              @Param("eventDate") Instant eventDate,
+                                                              @Param("transactionId") Long transactionId,
+                                                              Limit limit);
+
+    /**
+     * Every transaction of an account, oldest first, over a forward-only cursor that holds {@link #EXPORT_FETCH_SIZE}
+     * rows at a time. Must be consumed inside a transaction (Postgres only fetches in batches outside auto-commit) and
+     * closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT new com.devfreitag.pismotest.models.AccountTransactionResponse(
+                       t.transactionId, t.operationType.operationTypeId, t.amount, t.eventDate)
+              FROM Transaction t
+             WHERE t.account.accountId = :accountId
+             ORDER BY t.eventDate, t.transactionId
+            """)
+    Stream<AccountTransactionResponse> streamByAccountId(@Param("accountId") Long accountId);
 
+    @Query("SELECT MAX(t.transactionId) FROM Transaction t")
+    Optional<Long> findMaxTransactionId();
 
+    /**
+     * Per account, the sum of the amounts of the transactions with an id in {@code (afterTransactionId, upToTransactionId]}.
+     * Since accounts start with no credit, over all transactions this is every account's available credit limit.
+     */
+    @Query("""
+            SELECT new com.devfreitag.pismotest.repositories.AccountAmount(t.account.accountId, SUM(t.amount))
+              FROM Transaction t
+             WHERE t.transactionId > :afterTransactionId
+               AND t.transactionId <= :upToTransactionId
+             GROUP BY t.account.accountId
+            """)
+    List<AccountAmount> sumAmountsByAccount(@Param("afterTransactionId") Long afterTransactionId,
+                                            @Param("upToTransactionId") Long upToTransactionId);
 }
@@ -0,0 +1,11 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.entities.Account;
+
+import java.util.function.Function;
+
+public interface AccountCache {
+    Account get(Long accountId, Function<Long, Account> loader);
+    void putAfterCommit(Account account);
+    void evictAfterCommit(Long accountId);
+}
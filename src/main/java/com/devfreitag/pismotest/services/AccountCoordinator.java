@@ -0,0 +1,22 @@
+package com.devfreitag.pismotest.services;
+
+import java.util.Collection;
+
+/**
+ * Serializes writes to the same account across every instance of the service, until the current database transaction
+ * ends. Writers call it before they read or update the account.
+ */
+public interface AccountCoordinator {
+
+    /**
+     * @throws com.devfreitag.pismotest.exceptions.AccountBusyException if the account could not be locked in time
+     */
+    void lock(Long accountId);
+
+    /**
+     * Locks every given account, in an order shared by all writers so that they can't deadlock each other.
+     *
+     * @throws com.devfreitag.pismotest.exceptions.AccountBusyException if an account could not be locked in time
+     */
+    void lock(Collection<Long> accountIds);
+}
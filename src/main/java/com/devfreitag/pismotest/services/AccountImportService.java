@@ -0,0 +1,16 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.repositories.AccountImportResult;
+
+import java.io.Reader;
+import java.util.function.Consumer;
+
+public interface AccountImportService {
+
+    /**
+     * Creates an account for every line of the CSV that can have one, in a single database transaction, and hands the
+     * outcome of each line to the consumer, in line order, before that transaction commits. The summary is only
+     * returned once it has committed; if anything fails, no account is created.
+     */
+    AccountImportSummary importAccounts(Reader csv, Consumer<AccountImportResult> consumer);
+}
@@ -0,0 +1,4 @@
+package com.devfreitag.pismotest.services;
+
+public record AccountImportSummary(int created, int conflicts, int rejected) {
+}
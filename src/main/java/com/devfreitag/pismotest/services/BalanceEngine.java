@@ -0,0 +1,40 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.entities.Transaction;
+
+/**
+ * In-memory view of every account's available credit limit, kept in step with the transactions written by
+ * {@link TransactionService}. Amounts are signed, as stored on {@link Transaction}, and in cents (see {@link Money}).
+ */
+public interface BalanceEngine {
+
+    /**
+     * Decides a transaction accepted into the journal and applies it at once.
+     *
+     * @throws com.devfreitag.pismotest.exceptions.TransactionInvalidException if the limit would not stay positive
+     */
+    void admit(Long accountId, long amount);
+
+    /**
+     * Joins the current database transaction. Writers call it before any transaction id is allocated.
+     */
+    void enlist();
+
+    /**
+     * Decides a transaction about to be written synchronously. Debits are held until the database transaction
+     * completes and given back if it rolls back; credits count once it commits.
+     *
+     * @throws com.devfreitag.pismotest.exceptions.TransactionInvalidException if the limit would not stay positive
+     */
+    void reserve(Long accountId, long amount);
+
+    /**
+     * Gives back an admitted transaction that the database rejected, once the rejection commits.
+     */
+    void release(Long accountId, long amount);
+
+    /**
+     * Records a transaction written in the current database transaction, once it commits.
+     */
+    void written(Transaction transaction);
+}
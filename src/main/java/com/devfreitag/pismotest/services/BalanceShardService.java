@@ -0,0 +1,43 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.entities.Account;
+
+import java.util.Map;
+
+/**
+ * Keeps the available credit limit of accounts that have it split over balance shards, so transactions on one busy
+ * account update different rows instead of all queueing on the account row. The account's limit is the sum of its
+ * shards plus whatever is left on the account row. Amounts are signed and in cents (see {@link Money}).
+ */
+public interface BalanceShardService {
+
+    /**
+     * Applies a transaction to one of the account's shards.
+     *
+     * @throws com.devfreitag.pismotest.exceptions.TransactionInvalidException if the account's limit would not stay
+     *                                                                         positive
+     */
+    void apply(Long accountId, int shards, long amount);
+
+    /**
+     * Reads the limit, summed over their shards, of the given accounts and their number of shards, and locks the
+     * shards until the end of the database transaction.
+     *
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if an account no longer has the given
+     *                                                                          number of shards
+     */
+    Map<Long, Long> lockCreditLimits(Map<Long, Integer> balanceShards);
+
+    /**
+     * Spreads a limit read with {@link #lockCreditLimits} evenly over the account's shards.
+     */
+    void updateCreditLimit(Long accountId, int shards, long creditLimit);
+
+    /**
+     * Splits the account's limit over the given number of shards, or moves it back to the account row when 0, and
+     * returns the account with its whole limit.
+     *
+     * @throws com.devfreitag.pismotest.exceptions.AccountNotFoundException if the account does not exist
+     */
+    Account reshard(Long accountId, int shards);
+}
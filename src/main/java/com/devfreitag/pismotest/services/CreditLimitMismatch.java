@@ -0,0 +1,12 @@
+package com.devfreitag.pismotest.services;
+
+import java.math.BigDecimal;
+
+/**
+ * An account whose stored available credit limit is not what its transactions add up to.
+ *
+ * @param corrected whether the stored limit was set to the replayed one
+ */
+public record CreditLimitMismatch(Long accountId, BigDecimal storedCreditLimit, BigDecimal replayedCreditLimit,
+                                  boolean corrected) {
+}
@@ -0,0 +1,10 @@
+package com.devfreitag.pismotest.services;
+
+import java.util.List;
+
+/**
+ * @param mismatches every account found out of step, of which only the first ones by account id are listed
+ */
+public record CreditLimitRebuildReport(long accounts, long transactions, long mismatches, long corrected,
+                                       List<CreditLimitMismatch> listed) {
+}
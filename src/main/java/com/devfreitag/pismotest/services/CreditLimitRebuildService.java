@@ -0,0 +1,14 @@
+package com.devfreitag.pismotest.services;
+
+public interface CreditLimitRebuildService {
+
+    /**
+     * Adds up the transactions of every account with an id between {@code fromAccountId} and {@code toAccountId},
+     * both included, and compares the totals with the stored available credit limits. A missing bound means the
+     * lowest or highest account id.
+     *
+     * @param correct whether to set the stored limit of mismatched accounts to their replayed one; accounts with
+     *                balance shards, or updated since they were replayed, are only reported
+     */
+    CreditLimitRebuildReport rebuild(Long fromAccountId, Long toAccountId, boolean correct);
+}
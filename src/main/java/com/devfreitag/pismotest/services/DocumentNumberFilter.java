@@ -0,0 +1,17 @@
+package com.devfreitag.pismotest.services;
+
+/**
+ * Document numbers of the accounts this instance knows about, so that creating an account only looks its document
+ * number up in the database when it might already be taken.
+ */
+public interface DocumentNumberFilter {
+
+    /**
+     * Returns {@code false} only for a document number this instance has not seen. Accounts created by other instances
+     * since this one loaded are not seen, so the unique constraint on {@code account.document_number} stays the
+     * authority.
+     */
+    boolean mightExist(String documentNumber);
+
+    void add(String documentNumber);
+}
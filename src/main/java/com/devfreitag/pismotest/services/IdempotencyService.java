@@ -0,0 +1,7 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+
+public interface IdempotencyService {
+    IdempotentTransaction createTransaction(String idempotencyKey, CreateTransactionRequest request);
+}
@@ -0,0 +1,10 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+
+/**
+ * Outcome of an idempotent transaction request: the transaction's response and whether it was created by an earlier
+ * request with the same key.
+ */
+public record IdempotentTransaction(CreateTransactionResponse response, boolean replayed) {
+}
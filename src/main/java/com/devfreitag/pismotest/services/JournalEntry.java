@@ -0,0 +1,16 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A transaction accepted into the journal, numbered in acceptance order, with the amount as requested (unsigned).
+ */
+public record JournalEntry(long sequence, Long accountId, Long operationTypeId, BigDecimal amount, Instant eventDate) {
+
+    public CreateTransactionRequest toRequest() {
+        return new CreateTransactionRequest(this.accountId, this.operationTypeId, this.amount);
+    }
+}
@@ -0,0 +1,51 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.exceptions.AmountOutOfRangeException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amounts as a whole number of cents in a {@code long}, which is how the transaction write paths do their arithmetic.
+ * {@link BigDecimal} is only used where amounts enter and leave the application: request and response bodies and the
+ * {@code NUMERIC(19,2)} columns. Arithmetic that would overflow a {@code long} fails with
+ * {@link AmountOutOfRangeException} instead of wrapping around.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Rounds half up to whole cents, as the database does when storing the amount. Values with at most two decimals
+     * that fit in a {@code long} are converted without keeping any intermediate object alive, so the JIT can drop it.
+     */
+    public static long toCents(BigDecimal amount) {
+        try {
+            return amount.setScale(SCALE, RoundingMode.HALF_UP).movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new AmountOutOfRangeException();
+        }
+    }
+
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static long add(long cents, long otherCents) {
+        try {
+            return Math.addExact(cents, otherCents);
+        } catch (ArithmeticException ex) {
+            throw new AmountOutOfRangeException();
+        }
+    }
+
+    public static long abs(long cents) {
+        if (cents == Long.MIN_VALUE) {
+            throw new AmountOutOfRangeException();
+        }
+        return Math.abs(cents);
+    }
+}
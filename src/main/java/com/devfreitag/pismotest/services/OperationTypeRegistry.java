@@ -0,0 +1,11 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.entities.OperationType;
+
+import java.util.List;
+
+public interface OperationTypeRegistry {
+    OperationType findById(Long operationTypeId);
+    List<OperationType> findAll();
+    List<OperationType> refresh();
+}
@@ -0,0 +1,18 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.repositories.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Delivers outbox events to downstream systems. Declaring a bean of this type replaces the default, which appends
+ * them to a local file.
+ */
+public interface OutboxPublisher {
+
+    /**
+     * Delivers the events, ordered by transaction id, and only returns once they are. Throwing leaves all of them in
+     * the outbox to be published again, so a batch that fails part way through is delivered more than once.
+     */
+    void publish(List<OutboxEvent> events);
+}
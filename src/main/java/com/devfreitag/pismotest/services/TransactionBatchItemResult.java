@@ -0,0 +1,18 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.entities.Transaction;
+
+public record TransactionBatchItemResult(int index, Transaction transaction, RuntimeException error) {
+
+    public static TransactionBatchItemResult created(final int index, final Transaction transaction) {
+        return new TransactionBatchItemResult(index, transaction, null);
+    }
+
+    public static TransactionBatchItemResult rejected(final int index, final RuntimeException error) {
+        return new TransactionBatchItemResult(index, null, error);
+    }
+
+    public boolean isCreated() {
+        return this.transaction != null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.exceptions.InvalidCursorException;
+import com.devfreitag.pismotest.models.AccountTransactionResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in an account's transaction history: the sort key {@code (event_date, transaction_id)} of the last
+ * transaction a client has seen. Handed to clients as an opaque URL-safe string.
+ */
+public record TransactionCursor(Instant eventDate, long transactionId) {
+
+    public static TransactionCursor after(final AccountTransactionResponse transaction) {
+        return new TransactionCursor(transaction.eventDate(), transaction.transactionId());
+    }
+
+    public static TransactionCursor decode(final String cursor) {
+        try {
+            final String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            return new TransactionCursor(Instant.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException ex) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((this.eventDate + "|" + this.transactionId).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,16 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.entities.Transaction;
+
+/**
+ * Events for downstream systems, one per created transaction, written to the {@code outbox} table in the same
+ * database transaction as the transaction itself, so an event exists if and only if its transaction does.
+ */
+public interface TransactionOutbox {
+
+    /**
+     * Queues an event for a transaction written in the current database transaction. The transaction needs its id,
+     * account id, operation type id, amount and event date.
+     */
+    void append(Transaction transaction);
+}
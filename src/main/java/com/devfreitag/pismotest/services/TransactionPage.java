@@ -0,0 +1,8 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.models.AccountTransactionResponse;
+
+import java.util.List;
+
+public record TransactionPage(List<AccountTransactionResponse> transactions, TransactionCursor nextCursor) {
+}
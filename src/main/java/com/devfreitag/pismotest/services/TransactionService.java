@@ -1,9 +1,18 @@
 package com.devfreitag.pismotest.services;
 
 import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.models.AccountTransactionResponse;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface TransactionService {
     Transaction createTransaction(Long accountId, Long operationType, BigDecimal amount);
+    Transaction createTransaction(Long accountId, Long operationType, BigDecimal amount, String idempotencyKey);
+    List<TransactionBatchItemResult> createTransactions(List<CreateTransactionRequest> requests);
+    List<TransactionBatchItemResult> createJournaledTransactions(String journalId, List<JournalEntry> entries);
+    TransactionPage findByAccount(Long accountId, TransactionCursor after, int limit);
+    void exportByAccount(Long accountId, Consumer<AccountTransactionResponse> consumer);
 }
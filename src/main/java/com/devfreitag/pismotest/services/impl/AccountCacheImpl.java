@@ -0,0 +1,89 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.AccountCacheProperties;
+import com.devfreitag.pismotest.config.ReadReplicaProperties;
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.services.AccountCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Function;
+
+/**
+ * Size- and TTL-bounded cache of accounts for {@code GET /accounts/{accountId}}. Writers never touch it before their
+ * transaction commits: new accounts are put and changed accounts evicted from an after-commit hook, so a rolled back
+ * write is never visible. An eviction that races with a load of the same account waits for the load and then removes
+ * what it read, so a value read before the commit can't outlive it.
+ *
+ * <p>With a read replica, misses may be filled from it, so a miss right after an eviction can read a limit from before
+ * the write that evicted the account. Entries then live no longer than {@code pismo.read-replica.max-lag}, which keeps
+ * a cached account no staler than any other replica read.
+ *
+ * <p>Entries are copies, so callers can't change the cached account. Hit, miss and eviction counts are published as
+ * the {@code cache.*} meters with {@code cache=accounts}.
+ */
+@Service
+public class AccountCacheImpl implements AccountCache {
+
+    private final Cache<Long, Account> accounts;
+
+    public AccountCacheImpl(final AccountCacheProperties properties, final ReadReplicaProperties readReplicaProperties,
+                            final MeterRegistry meterRegistry) {
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(readReplicaProperties.enabled() && readReplicaProperties.maxLag().compareTo(properties.ttl()) < 0
+                        ? readReplicaProperties.maxLag()
+                        : properties.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.accounts, "accounts");
+    }
+
+    @Override
+    public Account get(Long accountId, Function<Long, Account> loader) {
+        if (accountId == null) {
+            return loader.apply(null);
+        }
+        return copyOf(this.accounts.get(accountId, id -> copyOf(loader.apply(id))));
+    }
+
+    @Override
+    public void putAfterCommit(Account account) {
+        final Account copy = copyOf(account);
+        afterCommit(() -> this.accounts.put(copy.getAccountId(), copy));
+    }
+
+    @Override
+    public void evictAfterCommit(Long accountId) {
+        afterCommit(() -> this.accounts.invalidate(accountId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static Account copyOf(Account account) {
+        return Account.builder()
+                .accountId(account.getAccountId())
+                .documentNumber(account.getDocumentNumber())
+                .availableCreditLimit(account.getAvailableCreditLimit())
+                .balanceShards(account.getBalanceShards())
+                .version(account.getVersion())
+                .build();
+    }
+}
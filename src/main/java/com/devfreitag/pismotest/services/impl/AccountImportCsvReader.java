@@ -0,0 +1,146 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.exceptions.AmountOutOfRangeException;
+import com.devfreitag.pismotest.repositories.AccountImportRow;
+import com.devfreitag.pismotest.services.Money;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads an account import one line at a time, so only the current line is held in memory. Each line is
+ * {@code document_number[,available_credit_limit]}; fields may be quoted, with {@code ""} for a quote inside them. An
+ * optional first line starting with {@code document_number} is a header, and blank lines are skipped. Lines are
+ * numbered as they appear in the file, header and blank lines included.
+ *
+ * <p>Lines that can't become an account are returned as {@link AccountImportRow#rejected rejected} rows rather than
+ * failing the import.
+ */
+final class AccountImportCsvReader implements Iterator<AccountImportRow> {
+
+    static final String HEADER = "document_number";
+    static final int MAX_DOCUMENT_NUMBER_LENGTH = 255;
+
+    private final BufferedReader reader;
+    private long lineNumber;
+    private AccountImportRow next;
+
+    AccountImportCsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.next == null) {
+            this.next = read();
+        }
+        return this.next != null;
+    }
+
+    @Override
+    public AccountImportRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final AccountImportRow row = this.next;
+        this.next = null;
+        return row;
+    }
+
+    private AccountImportRow read() {
+        try {
+            String line;
+            while ((line = this.reader.readLine()) != null) {
+                this.lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                final List<String> fields = split(line);
+                if (this.lineNumber == 1 && HEADER.equalsIgnoreCase(fields.getFirst())) {
+                    continue;
+                }
+                return parse(this.lineNumber, fields);
+            }
+            return null;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static AccountImportRow parse(long line, List<String> fields) {
+        final String documentNumber = fields.getFirst();
+        // Checked first, so no rejected row carries a document number too long for account_import
+        if (documentNumber.length() > MAX_DOCUMENT_NUMBER_LENGTH) {
+            return AccountImportRow.rejected(line, null, "Document number is longer than " + MAX_DOCUMENT_NUMBER_LENGTH + " characters");
+        }
+        if (fields.size() > 2) {
+            return AccountImportRow.rejected(line, documentNumber, "Expected a document number and an available credit limit");
+        }
+        if (documentNumber.isBlank()) {
+            return AccountImportRow.rejected(line, null, "Document number is required");
+        }
+
+        final String limit = fields.size() == 2 ? fields.get(1) : "";
+        if (limit.isBlank()) {
+            return AccountImportRow.accepted(line, documentNumber, Money.toBigDecimal(0L));
+        }
+
+        final long cents;
+        try {
+            cents = Money.toCents(new BigDecimal(limit.strip()));
+        } catch (NumberFormatException ex) {
+            return AccountImportRow.rejected(line, documentNumber, "Available credit limit is not a number");
+        } catch (AmountOutOfRangeException ex) {
+            return AccountImportRow.rejected(line, documentNumber, ex.getMessage());
+        }
+        if (cents < 0L) {
+            return AccountImportRow.rejected(line, documentNumber, "Available credit limit must not be negative");
+        }
+        return AccountImportRow.accepted(line, documentNumber, Money.toBigDecimal(cents));
+    }
+
+    /**
+     * Splits a line on commas outside quotes. Unquoted fields are stripped of surrounding whitespace; quoted ones are
+     * kept as written.
+     */
+    static List<String> split(String line) {
+        final List<String> fields = new ArrayList<>(2);
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && !wasQuoted && field.toString().isBlank()) {
+                field.setLength(0);
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(wasQuoted ? field.toString() : field.toString().strip());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (!(wasQuoted && Character.isWhitespace(c))) {
+                field.append(c);
+            }
+        }
+        fields.add(wasQuoted ? field.toString() : field.toString().strip());
+        return fields;
+    }
+}
@@ -0,0 +1,91 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.enums.OperationTypeEnum;
+import com.devfreitag.pismotest.repositories.AccountImportResult;
+import com.devfreitag.pismotest.repositories.AccountImportRow;
+import com.devfreitag.pismotest.repositories.AccountRepository;
+import com.devfreitag.pismotest.services.AccountImportService;
+import com.devfreitag.pismotest.services.AccountImportSummary;
+import com.devfreitag.pismotest.services.BalanceEngine;
+import com.devfreitag.pismotest.services.DocumentNumberFilter;
+import com.devfreitag.pismotest.services.Money;
+import com.devfreitag.pismotest.services.OperationTypeRegistry;
+import com.devfreitag.pismotest.services.TransactionOutbox;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.Reader;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Stages the CSV in {@code account_import} as it is read, then decides every account with set-based statements and
+ * inserts them in JDBC batches, so neither the file nor the accounts are ever held in memory. New accounts don't need to be evicted
+ * from the account cache, which only holds accounts that exist.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountImportServiceImpl implements AccountImportService {
+
+    private final AccountRepository accountRepository;
+    private final DocumentNumberFilter documentNumberFilter;
+    private final OperationTypeRegistry operationTypeRegistry;
+    private final BalanceEngine balanceEngine;
+    private final TransactionOutbox transactionOutbox;
+
+    @Override
+    @Transactional
+    public AccountImportSummary importAccounts(Reader csv, Consumer<AccountImportResult> consumer) {
+        final UUID importId = UUID.randomUUID();
+        final long start = System.nanoTime();
+        final Instant eventDate = Instant.now();
+        this.balanceEngine.enlist();
+
+        this.accountRepository.stageImport(importId, new AccountImportCsvReader(csv));
+        this.accountRepository.markImportConflicts(importId);
+        this.accountRepository.insertImportedAccounts(importId, OperationTypeEnum.PAYMENT.getCode(), eventDate);
+
+        final int[] counts = new int[3];
+        this.accountRepository.findImportResults(importId, result -> {
+            switch (result.status()) {
+                case AccountImportRow.ACCEPTED -> {
+                    counts[0]++;
+                    created(result, eventDate);
+                }
+                case AccountImportRow.CONFLICT -> counts[1]++;
+                default -> counts[2]++;
+            }
+            consumer.accept(result);
+        });
+        this.accountRepository.deleteImport(importId);
+
+        log.info("Account import {} created {} accounts, {} conflicts and {} rejected lines in {} ms", importId,
+                counts[0], counts[1], counts[2], TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return new AccountImportSummary(counts[0], counts[1], counts[2]);
+    }
+
+    private void created(AccountImportResult result, Instant eventDate) {
+        this.documentNumberFilter.add(result.documentNumber());
+
+        if (result.transactionId() != null) {
+            final Transaction credit = Transaction.builder()
+                    .transactionId(result.transactionId())
+                    .account(Account.builder().accountId(result.accountId()).build())
+                    .operationType(this.operationTypeRegistry.findById(OperationTypeEnum.PAYMENT.getCode()))
+                    .amount(result.availableCreditLimit())
+                    .eventDate(eventDate)
+                    .build();
+            // Counted as a credit too, or the limit only becomes usable once the engine is reloaded
+            this.balanceEngine.reserve(result.accountId(), Money.toCents(result.availableCreditLimit()));
+            this.balanceEngine.written(credit);
+            this.transactionOutbox.append(credit);
+        }
+    }
+}
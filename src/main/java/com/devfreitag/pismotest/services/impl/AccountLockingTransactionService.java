@@ -0,0 +1,166 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.AccountLockProperties;
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.exceptions.AccountBusyException;
+import com.devfreitag.pismotest.models.AccountTransactionResponse;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.services.JournalEntry;
+import com.devfreitag.pismotest.services.TransactionBatchItemResult;
+import com.devfreitag.pismotest.services.TransactionCursor;
+import com.devfreitag.pismotest.services.TransactionPage;
+import com.devfreitag.pismotest.services.TransactionService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Serializes transactions per account inside the JVM before they reach {@link TransactionServiceImpl}, or
+ * {@link StoredFunctionTransactionService} when that is enabled, so a burst on one hot account queues here instead of
+ * holding pool connections while waiting on the account row lock. Accounts are spread over a fixed number of fair
+ * locks, so transactions for the same account run in arrival order while accounts on other stripes run in parallel.
+ * The lock is taken outside the database transaction and released after it commits.
+ *
+ * <p>Each stripe publishes {@code pismo.account.lock.queued} (threads waiting) and {@code pismo.account.lock.wait}
+ * (time spent waiting), tagged with the stripe index. It is reached through {@link RetryingTransactionService}.
+ */
+@Service
+@ConditionalOnBooleanProperty("pismo.account-lock.enabled")
+public class AccountLockingTransactionService implements TransactionService {
+
+    private final TransactionService transactionService;
+    private final ReentrantLock[] locks;
+    private final Timer[] waitTimers;
+    private final long timeoutNanos;
+
+    public AccountLockingTransactionService(final TransactionServiceImpl transactionService,
+                                            final ObjectProvider<StoredFunctionTransactionService> storedFunctionTransactionService,
+                                            final AccountLockProperties properties,
+                                            final MeterRegistry meterRegistry) {
+        this.transactionService = Objects.requireNonNullElse(storedFunctionTransactionService.getIfAvailable(), transactionService);
+        this.timeoutNanos = properties.timeout().toNanos();
+
+        final int stripes = properties.stripes() <= 1 ? 1 : Integer.highestOneBit(properties.stripes() - 1) << 1;
+        this.locks = new ReentrantLock[stripes];
+        this.waitTimers = new Timer[stripes];
+
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            final ReentrantLock lock = new ReentrantLock(true);
+            this.locks[stripe] = lock;
+            this.waitTimers[stripe] = Timer.builder("pismo.account.lock.wait")
+                    .description("Time spent waiting for the account lock")
+                    .tag("stripe", String.valueOf(stripe))
+                    .register(meterRegistry);
+            Gauge.builder("pismo.account.lock.queued", lock, ReentrantLock::getQueueLength)
+                    .description("Threads waiting for the account lock")
+                    .tag("stripe", String.valueOf(stripe))
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Transaction createTransaction(Long accountId, Long operationType, BigDecimal amount) {
+        return withAccountLock(accountId, () -> this.transactionService.createTransaction(accountId, operationType, amount));
+    }
+
+    @Override
+    public Transaction createTransaction(Long accountId, Long operationType, BigDecimal amount, String idempotencyKey) {
+        return withAccountLock(accountId,
+                () -> this.transactionService.createTransaction(accountId, operationType, amount, idempotencyKey));
+    }
+
+    @Override
+    public List<TransactionBatchItemResult> createTransactions(List<CreateTransactionRequest> requests) {
+        return withAccountLocks(requests.stream().map(CreateTransactionRequest::accountId).toList(),
+                () -> this.transactionService.createTransactions(requests));
+    }
+
+    @Override
+    public List<TransactionBatchItemResult> createJournaledTransactions(String journalId, List<JournalEntry> entries) {
+        return withAccountLocks(entries.stream().map(JournalEntry::accountId).toList(),
+                () -> this.transactionService.createJournaledTransactions(journalId, entries));
+    }
+
+    @Override
+    public TransactionPage findByAccount(Long accountId, TransactionCursor after, int limit) {
+        return this.transactionService.findByAccount(accountId, after, limit);
+    }
+
+    @Override
+    public void exportByAccount(Long accountId, Consumer<AccountTransactionResponse> consumer) {
+        this.transactionService.exportByAccount(accountId, consumer);
+    }
+
+    int stripeOf(Long accountId) {
+        final int hash = Objects.hashCode(accountId);
+        return (hash ^ (hash >>> 16)) & (this.locks.length - 1);
+    }
+
+    private <T> T withAccountLock(Long accountId, Supplier<T> action) {
+        final int stripe = stripeOf(accountId);
+
+        acquire(stripe, accountId, this.timeoutNanos);
+        try {
+            return action.get();
+        } finally {
+            this.locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Takes every stripe the accounts fall on, in ascending stripe order so that two batches can't deadlock each other,
+     * and gives up on the whole batch if they are not all acquired within the timeout.
+     */
+    private <T> T withAccountLocks(List<Long> accountIds, Supplier<T> action) {
+        final SortedMap<Integer, Long> accountIdsByStripe = new TreeMap<>();
+        for (Long accountId : accountIds) {
+            accountIdsByStripe.putIfAbsent(stripeOf(accountId), accountId);
+        }
+
+        final long deadline = System.nanoTime() + this.timeoutNanos;
+        final Deque<Integer> acquired = new ArrayDeque<>(accountIdsByStripe.size());
+        try {
+            accountIdsByStripe.forEach((stripe, accountId) -> {
+                acquire(stripe, accountId, deadline - System.nanoTime());
+                acquired.push(stripe);
+            });
+
+            return action.get();
+        } finally {
+            acquired.forEach(stripe -> this.locks[stripe].unlock());
+        }
+    }
+
+    private void acquire(int stripe, Long accountId, long timeoutNanos) {
+        final long start = System.nanoTime();
+        final boolean locked;
+        try {
+            locked = this.locks[stripe].tryLock(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AccountBusyException(accountId);
+        } finally {
+            this.waitTimers[stripe].record(Duration.ofNanos(System.nanoTime() - start));
+        }
+
+        if (!locked) {
+            throw new AccountBusyException(accountId);
+        }
+    }
+}
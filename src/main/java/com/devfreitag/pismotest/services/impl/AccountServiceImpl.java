@@ -4,10 +4,15 @@ import com.devfreitag.pismotest.entities.Account;
 import com.devfreitag.pismotest.exceptions.AccountConflictException;
 import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
 import com.devfreitag.pismotest.repositories.AccountRepository;
+import com.devfreitag.pismotest.services.AccountCache;
 import com.devfreitag.pismotest.services.AccountService;
-import jakarta.transaction.Transactional;
+import com.devfreitag.pismotest.services.DocumentNumberFilter;
+import com.devfreitag.pismotest.services.Money;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 
@@ -16,7 +21,14 @@ import java.math.BigDecimal;
 public class AccountServiceImpl implements AccountService {
 
     private final AccountRepository accountRepository;
+    private final AccountCache accountCache;
+    private final DocumentNumberFilter documentNumberFilter;
 
+    /**
+     * Only looks the document number up when {@link DocumentNumberFilter} says it might be taken. The account is
+     * flushed right away so that a document number taken in the meantime, or by another instance the filter has not
+     * heard of, fails on {@code uk_account_document_number} here and is reported as a conflict too.
+     */
     @Override
     @Transactional
     public Account createAccount(String documentNumber) {
@@ -25,16 +37,53 @@ public class AccountServiceImpl implements AccountService {
                 .availableCreditLimit(BigDecimal.ZERO)
             .build();
 
-        if (this.accountRepository.existsByDocumentNumber(documentNumber)) {
+        if (this.documentNumberFilter.mightExist(documentNumber)
+                && this.accountRepository.existsByDocumentNumber(documentNumber)) {
             throw new AccountConflictException(documentNumber);
         }
 
-        return this.accountRepository.save(account);
+        final Account created;
+        try {
+            created = this.accountRepository.saveAndFlush(account);
+        } catch (DataIntegrityViolationException ex) {
+            if (ex.getCause() instanceof ConstraintViolationException violation
+                    && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE) {
+                throw new AccountConflictException(documentNumber);
+            }
+            throw ex;
+        }
+
+        this.documentNumberFilter.add(documentNumber);
+        this.accountCache.putAfterCommit(created);
+        return created;
     }
 
+    /**
+     * Returns accounts with balance shards as a copy holding their whole limit, so the managed entity never carries a
+     * limit that is not its own column's. Runs read-only, so it reads from the read replica when one is configured;
+     * {@link AccountCacheImpl} then keeps what it reads no longer than the replica may lag.
+     */
     @Override
+    @Transactional(readOnly = true)
     public Account findById(Long accountId) {
-        return this.accountRepository.findById(accountId)
-                .orElseThrow(() -> new AccountNotFoundException(accountId));
+        return this.accountCache.get(accountId, id -> this.accountRepository.findById(id)
+                .map(this::withShardedCreditLimit)
+                .orElseThrow(() -> new AccountNotFoundException(id)));
+    }
+
+    private Account withShardedCreditLimit(Account account) {
+        if (account.getBalanceShards() == 0) {
+            return account;
+        }
+
+        final long shardedCreditLimit = this.accountRepository.sumShardCreditLimits(account.getAccountId());
+        return Account.builder()
+                .accountId(account.getAccountId())
+                .documentNumber(account.getDocumentNumber())
+                .availableCreditLimit(Money.toBigDecimal(
+                        Money.add(Money.toCents(account.getAvailableCreditLimit()), shardedCreditLimit)))
+                .balanceShards(account.getBalanceShards())
+                .version(account.getVersion())
+                .build();
     }
 }
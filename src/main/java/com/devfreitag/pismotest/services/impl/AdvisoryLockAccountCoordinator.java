@@ -0,0 +1,128 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.AdvisoryLockProperties;
+import com.devfreitag.pismotest.exceptions.AccountBusyException;
+import com.devfreitag.pismotest.services.AccountCoordinator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes {@code pg_advisory_xact_lock(namespace, key)} for the account on the connection of the current database
+ * transaction, so transactions on the same account queue in PostgreSQL whichever instance they arrive on, and are let
+ * go when their transaction commits or rolls back. How long they wait is bounded by {@code pismo.advisory-lock.timeout},
+ * set as PostgreSQL's {@code lock_timeout} with {@code set_config(..., true)} before the locks are taken and set back
+ * to what it was once they are held, so the row locks the transaction takes next wait as they otherwise would; a
+ * transaction that runs out of it is rejected with {@link AccountBusyException}.
+ *
+ * <p>The time spent waiting is published as {@code pismo.account.advisory-lock.wait}, tagged with whether the lock was
+ * {@code acquired} or {@code timed-out}.
+ */
+@Service
+@ConditionalOnBooleanProperty("pismo.advisory-lock.enabled")
+public class AdvisoryLockAccountCoordinator implements AccountCoordinator {
+
+    private static final String LOCK = "SELECT pg_advisory_xact_lock(?, ?)";
+    private static final String SET_LOCK_TIMEOUT = "SELECT current_setting('lock_timeout'), set_config('lock_timeout', ?, true)";
+    private static final String RESET_LOCK_TIMEOUT = "SELECT set_config('lock_timeout', ?, true)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int namespace;
+    private final int stripes;
+    private final String lockTimeout;
+    private final Timer acquired;
+    private final Timer timedOut;
+
+    public AdvisoryLockAccountCoordinator(final JdbcTemplate jdbcTemplate,
+                                          final AdvisoryLockProperties properties,
+                                          final MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namespace = properties.namespace();
+        this.stripes = properties.stripes() <= 0 ? 0 : properties.stripes() == 1 ? 1 : Integer.highestOneBit(properties.stripes() - 1) << 1;
+        this.lockTimeout = properties.timeout().isZero() ? null : properties.timeout().toMillis() + "ms";
+        this.acquired = waitTimer(meterRegistry, "acquired");
+        this.timedOut = waitTimer(meterRegistry, "timed-out");
+    }
+
+    @Override
+    public void lock(Long accountId) {
+        final String previousLockTimeout = setLockTimeout();
+        lock(keyOf(accountId), accountId);
+        resetLockTimeout(previousLockTimeout);
+    }
+
+    /**
+     * Takes the locks in ascending key order, once per key.
+     */
+    @Override
+    public void lock(Collection<Long> accountIds) {
+        final SortedMap<Integer, Long> accountIdsByKey = new TreeMap<>();
+        for (Long accountId : accountIds) {
+            accountIdsByKey.putIfAbsent(keyOf(accountId), accountId);
+        }
+
+        if (accountIdsByKey.isEmpty()) {
+            return;
+        }
+
+        final String previousLockTimeout = setLockTimeout();
+        accountIdsByKey.forEach(this::lock);
+        resetLockTimeout(previousLockTimeout);
+    }
+
+    /**
+     * The account id itself when it fits in an int and there are no stripes, which is every id this service hands out
+     * for a long while; otherwise a hash of it.
+     */
+    int keyOf(Long accountId) {
+        final int hash = Objects.hashCode(accountId);
+        return this.stripes == 0 ? hash : (hash ^ (hash >>> 16)) & (this.stripes - 1);
+    }
+
+    /**
+     * Returns the {@code lock_timeout} in force before, or {@code null} when no timeout is configured. A lock that
+     * times out aborts the transaction, which drops the setting with it, so only acquired locks need it set back.
+     */
+    private String setLockTimeout() {
+        if (this.lockTimeout == null) {
+            return null;
+        }
+        return this.jdbcTemplate.query(SET_LOCK_TIMEOUT, rs -> rs.next() ? rs.getString(1) : null, this.lockTimeout);
+    }
+
+    private void resetLockTimeout(String previousLockTimeout) {
+        if (previousLockTimeout != null) {
+            this.jdbcTemplate.query(RESET_LOCK_TIMEOUT, rs -> {
+            }, previousLockTimeout);
+        }
+    }
+
+    private void lock(int key, Long accountId) {
+        final long start = System.nanoTime();
+        try {
+            this.jdbcTemplate.query(LOCK, rs -> {
+            }, this.namespace, key);
+        } catch (PessimisticLockingFailureException | QueryTimeoutException ex) {
+            this.timedOut.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw new AccountBusyException(accountId);
+        }
+        this.acquired.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer waitTimer(final MeterRegistry meterRegistry, final String outcome) {
+        return Timer.builder("pismo.account.advisory-lock.wait")
+                .description("Time spent waiting for the account's advisory lock")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,142 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.repositories.AccountRepository;
+import com.devfreitag.pismotest.services.AccountCache;
+import com.devfreitag.pismotest.services.BalanceShardService;
+import com.devfreitag.pismotest.services.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+@RequiredArgsConstructor
+public class BalanceShardServiceImpl implements BalanceShardService {
+
+    private static final long[] NO_SHARDS = new long[0];
+
+    private final AccountRepository accountRepository;
+    private final AccountCache accountCache;
+
+    /**
+     * Tries a random shard first, with the same conditional statement as an account without shards. When that shard
+     * lacks the headroom, the shards are read without locks and another one that has it is tried. Only when none does,
+     * or it was used up in the meantime, are all the shards locked and the transaction decided against their sum, which
+     * is then spread evenly again. A shard only holds part of the account's limit, so the lock-free attempts may pass on
+     * transactions the account could take, but never accept one it couldn't.
+     *
+     * <p>Some databases keep the lock on a shard whose conditional update waited for another writer and then no longer
+     * matched, so two transactions falling back to other shards can deadlock. The one chosen as the victim is reported
+     * as a conflict on the account, to be tried again like one (see {@link RetryingTransactionService}).
+     */
+    @Override
+    @Transactional
+    public void apply(Long accountId, int shards, long amount) {
+        final int first = ThreadLocalRandom.current().nextInt(shards);
+        if (this.accountRepository.applyToShardCreditLimit(accountId, first, amount) == 1) {
+            return;
+        }
+
+        try {
+            final long[] creditLimits = this.accountRepository.findShardCreditLimits(accountId);
+            final int start = ThreadLocalRandom.current().nextInt(Math.max(creditLimits.length, 1));
+            for (int i = 0; i < creditLimits.length; i++) {
+                final int shard = (start + i) % creditLimits.length;
+                if (shard != first && creditLimits[shard] > -amount
+                        && this.accountRepository.applyToShardCreditLimit(accountId, shard, amount) == 1) {
+                    return;
+                }
+            }
+
+            rebalance(accountId, shards, amount);
+        } catch (PessimisticLockingFailureException ex) {
+            throw new ObjectOptimisticLockingFailureException(Account.class, accountId, ex);
+        }
+    }
+
+    @Override
+    public Map<Long, Long> lockCreditLimits(Map<Long, Integer> balanceShards) {
+        final Map<Long, long[]> locked = this.accountRepository.lockShardCreditLimits(balanceShards.keySet());
+
+        final Map<Long, Long> creditLimits = new HashMap<>(balanceShards.size() * 2);
+        balanceShards.forEach((accountId, shards) -> {
+            final long[] cents = locked.getOrDefault(accountId, NO_SHARDS);
+            // Resharded since the number of shards was read
+            if (cents.length != shards) {
+                throw new ObjectOptimisticLockingFailureException(Account.class, accountId);
+            }
+            creditLimits.put(accountId, sum(cents));
+        });
+
+        return creditLimits;
+    }
+
+    @Override
+    public void updateCreditLimit(Long accountId, int shards, long creditLimit) {
+        this.accountRepository.updateShardCreditLimits(accountId, split(creditLimit, shards));
+    }
+
+    /**
+     * Locks the account row first, then its shards, so transactions already queued on either see the new layout once
+     * this commits. Whatever was left on the account row is folded into the shards.
+     */
+    @Override
+    @Transactional
+    public Account reshard(Long accountId, int shards) {
+        final Account account = this.accountRepository.findAndLockById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException(accountId));
+
+        final long creditLimit = Money.add(Money.toCents(account.getAvailableCreditLimit()),
+                sum(this.accountRepository.lockShardCreditLimits(List.of(accountId)).getOrDefault(accountId, NO_SHARDS)));
+
+        this.accountRepository.replaceShardCreditLimits(accountId, split(creditLimit, shards));
+        account.setAvailableCreditLimit(Money.toBigDecimal(shards == 0 ? creditLimit : 0L));
+        account.setBalanceShards(shards);
+        this.accountCache.evictAfterCommit(accountId);
+
+        return Account.builder()
+                .accountId(account.getAccountId())
+                .documentNumber(account.getDocumentNumber())
+                .availableCreditLimit(Money.toBigDecimal(creditLimit))
+                .balanceShards(shards)
+                .build();
+    }
+
+    private void rebalance(Long accountId, int shards, long amount) {
+        final long creditLimit = Money.add(lockCreditLimits(Map.of(accountId, shards)).get(accountId), amount);
+
+        if (creditLimit <= 0L) {
+            throw new TransactionInvalidException();
+        }
+
+        updateCreditLimit(accountId, shards, creditLimit);
+    }
+
+    /**
+     * Splits the limit into the given number of parts that differ by at most a cent, the larger ones first.
+     */
+    static long[] split(long creditLimit, int shards) {
+        final long[] cents = new long[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            cents[shard] = creditLimit / shards + (shard < creditLimit % shards ? 1L : 0L);
+        }
+        return cents;
+    }
+
+    private static long sum(long[] cents) {
+        long sum = 0L;
+        for (long shard : cents) {
+            sum = Money.add(sum, shard);
+        }
+        return sum;
+    }
+}
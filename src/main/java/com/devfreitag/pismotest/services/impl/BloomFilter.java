@@ -0,0 +1,88 @@
+package com.devfreitag.pismotest.services.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of strings over a fixed bit array, sized for an expected number of strings and false positive rate.
+ * {@link #mightContain} never misses a string that was {@link #put}, and answers {@code true} for one that wasn't at
+ * about the given rate while no more than the expected number were put. Bits are set with compare-and-set, so puts and
+ * reads can run concurrently.
+ */
+final class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0L || falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0) {
+            throw new IllegalArgumentException("Expected insertions must be positive and the false positive rate in (0, 1).");
+        }
+
+        final long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        final int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1L, (optimalBits + Long.SIZE - 1) / Long.SIZE));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * Long.SIZE;
+        this.hashCount = (int) Math.max(1L, Math.round((double) this.bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    void put(String value) {
+        final long hash = hash(value);
+        final long first = hash & 0xFFFFFFFFL;
+        final long second = hash >>> 32;
+
+        for (int i = 0; i < this.hashCount; i++) {
+            final long bit = Math.floorMod(first + i * second, this.bitCount);
+            final int word = (int) (bit >>> 6);
+            final long mask = 1L << bit;
+
+            long current = this.bits.get(word);
+            while ((current & mask) == 0L && !this.bits.weakCompareAndSetVolatile(word, current, current | mask)) {
+                current = this.bits.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(String value) {
+        final long hash = hash(value);
+        final long first = hash & 0xFFFFFFFFL;
+        final long second = hash >>> 32;
+
+        for (int i = 0; i < this.hashCount; i++) {
+            final long bit = Math.floorMod(first + i * second, this.bitCount);
+            if ((this.bits.get((int) (bit >>> 6)) & (1L << bit)) == 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bitCount() {
+        return this.bitCount;
+    }
+
+    int hashCount() {
+        return this.hashCount;
+    }
+
+    /**
+     * FNV-1a over the characters, finished with MurmurHash3's 64-bit mixer so both halves are usable as independent
+     * hashes (Kirsch and Mitzenmacher's double hashing).
+     */
+    private static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
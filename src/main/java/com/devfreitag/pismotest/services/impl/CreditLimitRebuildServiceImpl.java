@@ -0,0 +1,174 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.CreditLimitRebuildProperties;
+import com.devfreitag.pismotest.repositories.AccountRepository;
+import com.devfreitag.pismotest.repositories.ReplayedCreditLimit;
+import com.devfreitag.pismotest.services.AccountCache;
+import com.devfreitag.pismotest.services.CreditLimitMismatch;
+import com.devfreitag.pismotest.services.CreditLimitRebuildReport;
+import com.devfreitag.pismotest.services.CreditLimitRebuildService;
+import com.devfreitag.pismotest.services.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the {@code transaction} table into per-account totals on a {@link ForkJoinPool} of its own. The account id
+ * range is split in halves until each is at most {@code pismo.credit-limit-rebuild.partition-size} ids wide, and each
+ * partition is read by one statement over a cursor, so memory grows with the partition size and the parallelism but
+ * not with the number of transactions. Idle workers steal the halves left by busy ones, so partitions dense with
+ * transactions don't hold the others back.
+ *
+ * <p>Each partition runs in a database transaction of its own. Corrections are conditional on the account version
+ * read with the transactions: every writer bumps it along with the limit, so an account written to since it was
+ * replayed is left alone and reported as not corrected.
+ */
+@Slf4j
+@Service
+public class CreditLimitRebuildServiceImpl implements CreditLimitRebuildService {
+
+    private final AccountRepository accountRepository;
+    private final AccountCache accountCache;
+    private final PlatformTransactionManager transactionManager;
+    private final CreditLimitRebuildProperties properties;
+
+    public CreditLimitRebuildServiceImpl(final AccountRepository accountRepository,
+                                         final AccountCache accountCache,
+                                         final PlatformTransactionManager transactionManager,
+                                         final CreditLimitRebuildProperties properties) {
+        this.accountRepository = accountRepository;
+        this.accountCache = accountCache;
+        this.transactionManager = transactionManager;
+        this.properties = properties;
+    }
+
+    @Override
+    public CreditLimitRebuildReport rebuild(Long fromAccountId, Long toAccountId, boolean correct) {
+        final long start = System.nanoTime();
+        final Long from = fromAccountId != null ? fromAccountId : this.accountRepository.findMinAccountId().orElse(null);
+        final Long to = toAccountId != null ? toAccountId : this.accountRepository.findMaxAccountId().orElse(null);
+        if (from == null || to == null || from > to) {
+            return new CreditLimitRebuildReport(0L, 0L, 0L, 0L, List.of());
+        }
+
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+        transactionTemplate.setReadOnly(!correct);
+
+        final int parallelism = this.properties.parallelism() > 0
+                ? this.properties.parallelism()
+                : Runtime.getRuntime().availableProcessors();
+        final Partial result;
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            result = pool.invoke(new Replay(transactionTemplate, correct, from, to + 1));
+        }
+
+        log.info("Credit limit rebuild of accounts {} to {} replayed {} transactions of {} accounts and found {} mismatches, "
+                        + "corrected {}, in {} ms", from, to, result.transactions, result.accounts, result.mismatches,
+                result.corrected, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return new CreditLimitRebuildReport(result.accounts, result.transactions, result.mismatches, result.corrected,
+                List.copyOf(result.listed));
+    }
+
+    private Partial replay(TransactionTemplate transactionTemplate, boolean correct, long from, long to) {
+        return transactionTemplate.execute(status -> {
+            final Partial partial = new Partial();
+            final List<ReplayedCreditLimit> mismatched = new ArrayList<>();
+            this.accountRepository.replayCreditLimits(from, to, creditLimit -> {
+                partial.accounts++;
+                partial.transactions += creditLimit.transactions();
+                if (!creditLimit.matches()) {
+                    mismatched.add(creditLimit);
+                }
+            });
+            if (mismatched.isEmpty()) {
+                return partial;
+            }
+
+            // Written once the cursor is closed, so the connection is never reading and writing at once
+            final boolean[] corrected = correct
+                    ? this.accountRepository.correctCreditLimits(mismatched)
+                    : new boolean[mismatched.size()];
+            for (int i = 0; i < mismatched.size(); i++) {
+                final ReplayedCreditLimit creditLimit = mismatched.get(i);
+                log.warn("Account {} has an available credit limit of {} but its {} transactions add up to {}{}",
+                        creditLimit.accountId(), Money.toBigDecimal(creditLimit.storedCents()), creditLimit.transactions(),
+                        Money.toBigDecimal(creditLimit.replayedCents()), corrected[i] ? ", corrected" : "");
+                if (corrected[i]) {
+                    this.accountCache.evictAfterCommit(creditLimit.accountId());
+                    partial.corrected++;
+                }
+                partial.mismatches++;
+                if (partial.listed.size() < this.properties.maxListedMismatches()) {
+                    partial.listed.add(new CreditLimitMismatch(creditLimit.accountId(),
+                            Money.toBigDecimal(creditLimit.storedCents()), Money.toBigDecimal(creditLimit.replayedCents()),
+                            corrected[i]));
+                }
+            }
+            return partial;
+        });
+    }
+
+    /**
+     * Replays the account ids in {@code [from, to)}.
+     */
+    private final class Replay extends RecursiveTask<Partial> {
+
+        private final transient TransactionTemplate transactionTemplate;
+        private final boolean correct;
+        private final long from;
+        private final long to;
+
+        private Replay(TransactionTemplate transactionTemplate, boolean correct, long from, long to) {
+            this.transactionTemplate = transactionTemplate;
+            this.correct = correct;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (this.to - this.from <= properties.partitionSize()) {
+                return replay(this.transactionTemplate, this.correct, this.from, this.to);
+            }
+
+            final long middle = this.from + (this.to - this.from) / 2;
+            final Replay upper = new Replay(this.transactionTemplate, this.correct, middle, this.to);
+            upper.fork();
+            final Partial lower = new Replay(this.transactionTemplate, this.correct, this.from, middle).compute();
+            return lower.merge(upper.join(), properties.maxListedMismatches());
+        }
+    }
+
+    private static final class Partial {
+
+        private long accounts;
+        private long transactions;
+        private long mismatches;
+        private long corrected;
+        private final List<CreditLimitMismatch> listed = new ArrayList<>();
+
+        /**
+         * Adds the counts of the partition right above this one; its mismatches come after these in account id order.
+         */
+        private Partial merge(Partial upper, int maxListed) {
+            this.accounts += upper.accounts;
+            this.transactions += upper.transactions;
+            this.mismatches += upper.mismatches;
+            this.corrected += upper.corrected;
+            for (CreditLimitMismatch mismatch : upper.listed) {
+                if (this.listed.size() >= maxListed) {
+                    break;
+                }
+                this.listed.add(mismatch);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.ReconciliationProperties;
+import com.devfreitag.pismotest.repositories.AccountRepository;
+import com.devfreitag.pismotest.repositories.ReconciledChunk;
+import com.devfreitag.pismotest.repositories.ReconciliationMismatch;
+import com.devfreitag.pismotest.repositories.ReconciliationRun;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks every {@code pismo.reconciliation.interval} that each account's available credit limit, balance shards
+ * included, is the sum of its transactions. The account id range is cut into chunks of
+ * {@code pismo.reconciliation.chunk-size} ids, and {@code pismo.reconciliation.parallelism} workers take the next
+ * unchecked chunk until none is left. Each chunk is checked by one read-only statement that groups the transactions by
+ * account in the database and only returns the accounts out of step.
+ *
+ * <p>Every checked chunk is recorded along with its mismatches, in a database transaction of its own. A
+ * reconciliation cut short by a restart or a failure is picked up on the next run with the chunks it had not
+ * recorded, so its totals cover the whole range. Only one instance should have it enabled.
+ *
+ * <p>{@code pismo.reconciliation.accounts} and {@code pismo.reconciliation.mismatches} count the accounts checked and
+ * found out of step; {@code pismo.reconciliation.throughput} is the accounts per second of the last reconciliation
+ * and {@code pismo.reconciliation.last-mismatches} its number of mismatches.
+ */
+@Slf4j
+@Component
+@ConditionalOnBooleanProperty("pismo.reconciliation.enabled")
+public class CreditLimitReconciliationJob {
+
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate readTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final ReconciliationProperties properties;
+    private final Counter accounts;
+    private final Counter mismatches;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile double throughput;
+    private volatile long lastMismatches;
+
+    public CreditLimitReconciliationJob(final AccountRepository accountRepository,
+                                        final PlatformTransactionManager transactionManager,
+                                        final ReconciliationProperties properties,
+                                        final MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.accounts = Counter.builder("pismo.reconciliation.accounts")
+                .description("Accounts whose limit was checked against their transactions")
+                .register(meterRegistry);
+        this.mismatches = Counter.builder("pismo.reconciliation.mismatches")
+                .description("Accounts whose limit is not the sum of their transactions")
+                .register(meterRegistry);
+        Gauge.builder("pismo.reconciliation.throughput", this, job -> job.throughput)
+                .description("Accounts checked per second by the last reconciliation")
+                .register(meterRegistry);
+        Gauge.builder("pismo.reconciliation.last-mismatches", this, job -> job.lastMismatches)
+                .description("Accounts out of step found by the last reconciliation")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("credit-limit-reconciliation").daemon().factory());
+    }
+
+    @PostConstruct
+    void start() {
+        final long interval = this.properties.interval().toMillis();
+        this.scheduler.scheduleWithFixedDelay(this::reconcileQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        this.scheduler.shutdownNow();
+        this.scheduler.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Resumes the unfinished reconciliation, or starts one over every account, and checks its remaining chunks.
+     * Returns empty when there are no accounts.
+     */
+    Optional<Result> reconcile() throws InterruptedException {
+        final long start = System.nanoTime();
+        final Optional<ReconciliationRun> unfinished = this.accountRepository.findUnfinishedReconciliation();
+        final ReconciliationRun run;
+        if (unfinished.isPresent()) {
+            run = unfinished.get();
+        } else {
+            final Optional<Long> from = this.accountRepository.findMinAccountId();
+            final Optional<Long> to = this.accountRepository.findMaxAccountId();
+            if (from.isEmpty() || to.isEmpty()) {
+                return Optional.empty();
+            }
+            run = new ReconciliationRun(UUID.randomUUID(), from.get(), to.get(), this.properties.chunkSize(), Instant.now());
+            this.accountRepository.insertReconciliation(run);
+        }
+
+        final Set<Long> reconciled = new HashSet<>();
+        final AtomicLong checked = new AtomicLong();
+        final AtomicLong mismatched = new AtomicLong();
+        long resumedAccounts = 0L;
+        for (ReconciledChunk chunk : this.accountRepository.findReconciledChunks(run.runId())) {
+            reconciled.add(chunk.fromAccountId());
+            resumedAccounts += chunk.accounts();
+            mismatched.addAndGet(chunk.mismatches());
+        }
+
+        final AtomicLong next = new AtomicLong();
+        final ExecutorService workers = Executors.newFixedThreadPool(this.properties.parallelism(),
+                Thread.ofPlatform().name("credit-limit-reconciliation-", 0).daemon().factory());
+        try {
+            final List<Future<?>> futures = new ArrayList<>(this.properties.parallelism());
+            for (int i = 0; i < this.properties.parallelism(); i++) {
+                futures.add(workers.submit(() -> {
+                    for (long chunk = next.getAndIncrement(); chunk < run.chunks(); chunk = next.getAndIncrement()) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            return;
+                        }
+                        if (!reconciled.contains(run.chunkStart(chunk))) {
+                            final ReconciledChunk result = check(run, chunk);
+                            checked.addAndGet(result.accounts());
+                            mismatched.addAndGet(result.mismatches());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(ex.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+
+        this.accountRepository.finishReconciliation(run.runId(), Instant.now());
+        final long elapsed = System.nanoTime() - start;
+        this.throughput = checked.get() * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(elapsed, 1L);
+        this.lastMismatches = mismatched.get();
+        log.info("Reconciliation {} of accounts {} to {} checked {} accounts ({} resumed) and found {} mismatches in {} ms",
+                run.runId(), run.fromAccountId(), run.toAccountId(), resumedAccounts + checked.get(), resumedAccounts,
+                mismatched.get(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return Optional.of(new Result(run.runId(), resumedAccounts + checked.get(), mismatched.get()));
+    }
+
+    private ReconciledChunk check(ReconciliationRun run, long chunk) {
+        final long from = run.chunkStart(chunk);
+        final long to = run.chunkEnd(chunk);
+        final List<ReconciliationMismatch> found = new ArrayList<>();
+        final long count = this.readTemplate.execute(status -> {
+            found.addAll(this.accountRepository.findCreditLimitMismatches(from, to));
+            return this.accountRepository.countAccounts(from, to);
+        });
+
+        for (ReconciliationMismatch mismatch : found) {
+            log.warn("Reconciliation {}: account {} has an available credit limit of {} but its transactions add up to {}",
+                    run.runId(), mismatch.accountId(), mismatch.availableCreditLimit(), mismatch.transactionSum());
+        }
+        final ReconciledChunk result = new ReconciledChunk(from, count, found.size());
+        this.writeTemplate.executeWithoutResult(status ->
+                this.accountRepository.insertReconciledChunk(run.runId(), result, found));
+
+        this.accounts.increment(count);
+        this.mismatches.increment(found.size());
+        return result;
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.error("Could not finish the reconciliation, it will resume on the next run", ex);
+        }
+    }
+
+    /**
+     * @param accounts accounts checked by the reconciliation, including those of chunks checked before it resumed
+     * @param mismatches accounts found out of step, likewise
+     */
+    record Result(UUID runId, long accounts, long mismatches) {
+    }
+}
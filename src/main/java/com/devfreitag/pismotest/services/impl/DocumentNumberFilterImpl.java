@@ -0,0 +1,105 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.DocumentNumberFilterProperties;
+import com.devfreitag.pismotest.repositories.AccountRepository;
+import com.devfreitag.pismotest.services.DocumentNumberFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the document numbers in a {@link BloomFilter}, loaded on startup by streaming the {@code account} table on a
+ * background thread and added to as accounts are created. Until the load completes every document number might exist,
+ * so the service starts at once and behaves as before until then. Document numbers of accounts that end up rolled back
+ * stay in the filter, which only costs a lookup.
+ *
+ * <p>{@code pismo.account.document-number-filter} counts lookups, tagged with {@code result}: {@code miss} when the
+ * database lookup was skipped, {@code maybe} otherwise.
+ */
+@Slf4j
+@Service
+public class DocumentNumberFilterImpl implements DocumentNumberFilter, SmartInitializingSingleton {
+
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BloomFilter filter;
+    private final Counter misses;
+    private final Counter maybes;
+
+    private volatile boolean loaded;
+
+    public DocumentNumberFilterImpl(final AccountRepository accountRepository,
+                                    final PlatformTransactionManager transactionManager,
+                                    final DocumentNumberFilterProperties properties,
+                                    final MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.filter = new BloomFilter(properties.expectedAccounts(), properties.falsePositiveRate());
+        this.misses = lookups(meterRegistry, "miss");
+        this.maybes = lookups(meterRegistry, "maybe");
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Thread.ofPlatform().name("document-number-filter-loader").daemon().start(this::load);
+    }
+
+    @Override
+    public boolean mightExist(String documentNumber) {
+        if (this.loaded && documentNumber != null && !this.filter.mightContain(documentNumber)) {
+            this.misses.increment();
+            return false;
+        }
+
+        this.maybes.increment();
+        return true;
+    }
+
+    @Override
+    public void add(String documentNumber) {
+        if (documentNumber != null) {
+            this.filter.put(documentNumber);
+        }
+    }
+
+    boolean isLoaded() {
+        return this.loaded;
+    }
+
+    void load() {
+        final long start = System.nanoTime();
+        try {
+            final long accounts = this.transactionTemplate.execute(status -> {
+                long count = 0L;
+                try (Stream<String> documentNumbers = this.accountRepository.streamDocumentNumbers()) {
+                    for (String documentNumber : (Iterable<String>) documentNumbers::iterator) {
+                        this.filter.put(documentNumber);
+                        count++;
+                    }
+                }
+                return count;
+            });
+
+            this.loaded = true;
+            log.info("Document number filter loaded {} accounts into {} bits with {} hashes in {} ms", accounts,
+                    this.filter.bitCount(), this.filter.hashCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException ex) {
+            log.warn("Could not load the document number filter, every document number will be looked up", ex);
+        }
+    }
+
+    private static Counter lookups(final MeterRegistry meterRegistry, final String result) {
+        return Counter.builder("pismo.account.document-number-filter")
+                .description("Document number lookups, by whether the filter ruled the document number out")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
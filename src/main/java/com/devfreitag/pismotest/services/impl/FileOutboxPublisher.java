@@ -0,0 +1,68 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.repositories.OutboxEvent;
+import com.devfreitag.pismotest.services.OutboxPublisher;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Stand-in publisher that appends each event to a local file as a line of JSON and syncs it before returning, so a
+ * published event survives a crash. Meant for development and for tailing the events; real deployments declare
+ * their own {@link OutboxPublisher}.
+ */
+@Slf4j
+public class FileOutboxPublisher implements OutboxPublisher, AutoCloseable {
+
+    private final FileChannel channel;
+    private final ObjectWriter writer;
+
+    public FileOutboxPublisher(final Path file, final JsonMapper jsonMapper) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        this.writer = jsonMapper.writerFor(OutboxEvent.class);
+        log.info("Publishing outbox events to {}", file.toAbsolutePath());
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        final ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 128);
+        for (OutboxEvent event : events) {
+            this.writer.writeValue(lines, event);
+            lines.write('\n');
+        }
+
+        try {
+            synchronized (this.channel) {
+                final ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+                while (buffer.hasRemaining()) {
+                    this.channel.write(buffer);
+                }
+                this.channel.force(false);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,126 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.IdempotencyProperties;
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.exceptions.IdempotencyKeyReusedException;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import com.devfreitag.pismotest.repositories.IdempotencyKeyRepository;
+import com.devfreitag.pismotest.services.IdempotencyService;
+import com.devfreitag.pismotest.services.IdempotentTransaction;
+import com.devfreitag.pismotest.services.Money;
+import com.devfreitag.pismotest.services.TransactionService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates each transaction at most once per {@code Idempotency-Key}. The key is stored with the transaction in the
+ * same database transaction, and recent responses are kept in a size- and TTL-bounded memory store, so a retry is
+ * answered from memory or, once evicted or on another instance, from the {@code idempotency_key} table, without
+ * touching the account again.
+ *
+ * <p>Concurrent requests with the same key are single-flighted: the first one does the work and the others wait for
+ * its response. If it fails nothing was stored, so the next waiter tries again. A key reused with a different account,
+ * operation type or amount is rejected with {@link IdempotencyKeyReusedException}. Hit, miss and eviction counts of the
+ * memory store are published as the {@code cache.*} meters with {@code cache=idempotency}.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private final TransactionService transactionService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Cache<String, CreateTransactionResponse> responses;
+    private final ConcurrentMap<String, CompletableFuture<CreateTransactionResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyServiceImpl(final TransactionService transactionService,
+                                  final IdempotencyKeyRepository idempotencyKeyRepository,
+                                  final IdempotencyProperties properties,
+                                  final MeterRegistry meterRegistry) {
+        this.transactionService = transactionService;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.responses, "idempotency");
+    }
+
+    @Override
+    public IdempotentTransaction createTransaction(String idempotencyKey, CreateTransactionRequest request) {
+        while (true) {
+            final CreateTransactionResponse cached = this.responses.getIfPresent(idempotencyKey);
+            if (cached != null) {
+                return replay(idempotencyKey, request, cached);
+            }
+
+            final CompletableFuture<CreateTransactionResponse> flight = new CompletableFuture<>();
+            final CompletableFuture<CreateTransactionResponse> running = this.inFlight.putIfAbsent(idempotencyKey, flight);
+            if (running != null) {
+                try {
+                    return replay(idempotencyKey, request, running.join());
+                } catch (CompletionException ex) {
+                    continue;
+                }
+            }
+
+            try {
+                final IdempotentTransaction result = createOnce(idempotencyKey, request);
+                this.responses.put(idempotencyKey, result.response());
+                flight.complete(result.response());
+                return result;
+            } catch (RuntimeException ex) {
+                flight.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                this.inFlight.remove(idempotencyKey, flight);
+            }
+        }
+    }
+
+    private IdempotentTransaction createOnce(String idempotencyKey, CreateTransactionRequest request) {
+        // A flight for the same key may have finished between the memory lookup and this one starting
+        final Optional<CreateTransactionResponse> stored = Optional.ofNullable(this.responses.getIfPresent(idempotencyKey))
+                .or(() -> this.idempotencyKeyRepository.findResponseByIdempotencyKey(idempotencyKey));
+        if (stored.isPresent()) {
+            return replay(idempotencyKey, request, stored.get());
+        }
+
+        final Transaction transaction;
+        try {
+            transaction = this.transactionService.createTransaction(
+                    request.accountId(), request.operationTypeId(), request.amount(), idempotencyKey);
+        } catch (DataIntegrityViolationException ex) {
+            // Another instance stored the key first and this transaction was rolled back, so replay the stored one
+            return replay(idempotencyKey, request, this.idempotencyKeyRepository.findResponseByIdempotencyKey(idempotencyKey)
+                    .orElseThrow(() -> ex));
+        }
+
+        return new IdempotentTransaction(new CreateTransactionResponse(
+                transaction.getTransactionId(),
+                transaction.getAccount().getAccountId(),
+                transaction.getOperationType().getOperationTypeId(),
+                transaction.getAmount()
+        ), false);
+    }
+
+    private static IdempotentTransaction replay(String idempotencyKey, CreateTransactionRequest request,
+                                                CreateTransactionResponse response) {
+        if (!response.accountId().equals(request.accountId())
+                || !response.operationTypeId().equals(request.operationTypeId())
+                || Math.abs(Money.toCents(response.amount())) != Money.toCents(request.amount())) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+        return new IdempotentTransaction(response, true);
+    }
+}
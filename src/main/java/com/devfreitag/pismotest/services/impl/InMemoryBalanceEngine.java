@@ -0,0 +1,451 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.BalanceEngineProperties;
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.repositories.AccountAmount;
+import com.devfreitag.pismotest.repositories.TransactionRepository;
+import com.devfreitag.pismotest.services.BalanceEngine;
+import com.devfreitag.pismotest.services.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Every account's available credit limit in cents, in primitive maps spread over a fixed number of locks, so a
+ * journaled transaction is decided without a database round trip. Two figures are kept per account:
+ * <ul>
+ *     <li><em>authorized</em>, which decisions are made against: what the database holds, plus journaled
+ *     transactions not yet written and debits of synchronous writes still in flight;</li>
+ *     <li><em>confirmed</em>, what the database holds: transactions are added once they commit.</li>
+ * </ul>
+ * Synchronous writes are decided against the authorized figure too, with their debits held until they complete, so
+ * the database never ends up with less than what was authorized and an admitted transaction is always applied.
+ *
+ * <p>The confirmed figures, with the highest transaction id they include, are saved to
+ * {@code pismo.balance-engine.snapshot-file} every {@code pismo.balance-engine.snapshot-interval} and on shutdown.
+ * Database writers hold a shared lock from before their transaction ids are allocated until they complete, and the
+ * snapshot is copied under the exclusive one. Every writer takes its ids from the entity's pooled generator, so they
+ * increase in the order they are handed out, and every transaction after the saved id commits after the snapshot. On
+ * startup, once the journal has been drained, the snapshot is loaded and the transactions after its id are added from
+ * the {@code transaction} table; without a snapshot the whole table is summed. The figures are only right if this
+ * instance is the only one writing transactions.
+ */
+@Slf4j
+@Service
+@ConditionalOnBooleanProperty("pismo.balance-engine.enabled")
+public class InMemoryBalanceEngine implements BalanceEngine, SmartInitializingSingleton {
+
+    private static final int SNAPSHOT_MAGIC = 0x50424553;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final TransactionRepository transactionRepository;
+    private final Path snapshotFile;
+    private final long snapshotIntervalMillis;
+    private final Stripe[] stripes;
+    private final Timer snapshotTimer;
+    private final ReentrantReadWriteLock barrier = new ReentrantReadWriteLock();
+    private final AtomicLong lastTransactionId = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("balance-engine-snapshot").daemon().factory());
+
+    private volatile boolean loaded;
+
+    public InMemoryBalanceEngine(final TransactionRepository transactionRepository,
+                                 final BalanceEngineProperties properties,
+                                 final MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.snapshotFile = properties.snapshotFile();
+        this.snapshotIntervalMillis = properties.snapshotInterval().toMillis();
+
+        final int stripes = properties.stripes() <= 1 ? 1 : Integer.highestOneBit(properties.stripes() - 1) << 1;
+        this.stripes = new Stripe[stripes];
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            this.stripes[stripe] = new Stripe();
+        }
+
+        this.snapshotTimer = Timer.builder("pismo.balance.engine.snapshot")
+                .description("Time spent saving the balance engine snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs after every other singleton is ready, and so after {@link TransactionJournalDrainer} has written what a
+     * previous run left in the journal. Calls made before then are ignored: the database already holds their effect.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+        this.scheduler.scheduleWithFixedDelay(this::snapshotQuietly,
+                this.snapshotIntervalMillis, this.snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        this.scheduler.shutdown();
+        this.scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        if (this.loaded) {
+            snapshotQuietly();
+        }
+    }
+
+    @Override
+    public void admit(Long accountId, long cents) {
+        if (!this.loaded) {
+            throw new IllegalStateException("Balance engine is still loading.");
+        }
+
+        final Stripe stripe = stripeOf(accountId);
+        stripe.lock.lock();
+        try {
+            stripe.authorized.put(accountId, decide(stripe, accountId, cents));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public void enlist() {
+        if (this.loaded) {
+            record(changes -> { });
+        }
+    }
+
+    @Override
+    public void reserve(Long accountId, long cents) {
+        if (!this.loaded) {
+            return;
+        }
+
+        record(changes -> {
+            final Stripe stripe = stripeOf(accountId);
+            stripe.lock.lock();
+            try {
+                final long authorized = decide(stripe, accountId, cents);
+                if (cents < 0) {
+                    stripe.authorized.put(accountId, authorized);
+                    changes.debits.add(accountId, cents);
+                } else {
+                    changes.credits.add(accountId, cents);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        });
+    }
+
+    @Override
+    public void release(Long accountId, long cents) {
+        if (this.loaded) {
+            record(changes -> changes.released.add(accountId, cents));
+        }
+    }
+
+    @Override
+    public void written(Transaction transaction) {
+        if (this.loaded) {
+            final long cents = Money.toCents(transaction.getAmount());
+            record(changes -> {
+                changes.written.add(transaction.getAccount().getAccountId(), cents);
+                changes.lastTransactionId = Math.max(changes.lastTransactionId, transaction.getTransactionId());
+            });
+        }
+    }
+
+    /**
+     * The authorized credit limit of an account.
+     */
+    BigDecimal availableCreditLimit(Long accountId) {
+        final Stripe stripe = stripeOf(accountId);
+        stripe.lock.lock();
+        try {
+            return Money.toBigDecimal(stripe.authorized.get(accountId));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    void load() {
+        final long start = System.nanoTime();
+
+        long afterTransactionId = 0L;
+        try {
+            afterTransactionId = readSnapshot();
+        } catch (NoSuchFileException ex) {
+            log.info("No balance engine snapshot at {}, summing every transaction", this.snapshotFile);
+        } catch (IOException ex) {
+            log.warn("Ignoring unreadable balance engine snapshot at {}, summing every transaction", this.snapshotFile, ex);
+        }
+
+        final long upToTransactionId = this.transactionRepository.findMaxTransactionId().orElse(0L);
+        if (upToTransactionId < afterTransactionId) {
+            log.warn("Balance engine snapshot at {} is ahead of the database, summing every transaction", this.snapshotFile);
+            for (Stripe stripe : this.stripes) {
+                stripe.confirmed = new LongLongHashMap();
+            }
+            afterTransactionId = 0L;
+        }
+
+        if (upToTransactionId > afterTransactionId) {
+            for (AccountAmount sum : this.transactionRepository.sumAmountsByAccount(afterTransactionId, upToTransactionId)) {
+                stripeOf(sum.accountId()).confirmed.add(sum.accountId(), Money.toCents(sum.amount()));
+            }
+        }
+
+        int accounts = 0;
+        for (Stripe stripe : this.stripes) {
+            stripe.authorized = stripe.confirmed.copy();
+            accounts += stripe.confirmed.size();
+        }
+        this.lastTransactionId.set(upToTransactionId);
+        this.loaded = true;
+
+        log.info("Balance engine loaded {} accounts up to transaction {} in {} ms", accounts, upToTransactionId,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Saves the confirmed credit limits, writing to a temporary file that replaces the previous snapshot once synced.
+     */
+    void snapshot() throws IOException {
+        final long start = System.nanoTime();
+
+        final LongLongHashMap[] confirmed = new LongLongHashMap[this.stripes.length];
+        final long upToTransactionId;
+        this.barrier.writeLock().lock();
+        try {
+            for (int index = 0; index < this.stripes.length; index++) {
+                final Stripe stripe = this.stripes[index];
+                stripe.lock.lock();
+                try {
+                    confirmed[index] = stripe.confirmed.copy();
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            upToTransactionId = this.lastTransactionId.get();
+        } finally {
+            this.barrier.writeLock().unlock();
+        }
+
+        int accounts = 0;
+        for (LongLongHashMap stripe : confirmed) {
+            accounts += stripe.size();
+        }
+
+        final Path parent = this.snapshotFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        final Path temporary = parent.resolve(this.snapshotFile.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final CRC32C checksum = new CRC32C();
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), checksum)));
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeInt(SNAPSHOT_VERSION);
+            output.writeLong(upToTransactionId);
+            output.writeInt(accounts);
+            for (LongLongHashMap stripe : confirmed) {
+                stripe.forEach((accountId, cents) -> {
+                    try {
+                        output.writeLong(accountId);
+                        output.writeLong(cents);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+            output.flush();
+            output.writeInt((int) checksum.getValue());
+            output.flush();
+            channel.force(true);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        Files.move(temporary, this.snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        final long elapsed = System.nanoTime() - start;
+        this.snapshotTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.debug("Balance engine saved {} accounts up to transaction {} in {} ms", accounts, upToTransactionId,
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException ex) {
+            log.error("Could not save the balance engine snapshot to {}", this.snapshotFile, ex);
+        }
+    }
+
+    /**
+     * Loads the snapshot into the confirmed maps and returns the highest transaction id it includes.
+     */
+    private long readSnapshot() throws IOException {
+        final ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(this.snapshotFile));
+        if (snapshot.remaining() < SNAPSHOT_HEADER_SIZE + Integer.BYTES
+                || snapshot.getInt() != SNAPSHOT_MAGIC || snapshot.getInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Not a balance engine snapshot");
+        }
+
+        final CRC32C checksum = new CRC32C();
+        checksum.update(snapshot.array(), 0, snapshot.limit() - Integer.BYTES);
+        if (snapshot.getInt(snapshot.limit() - Integer.BYTES) != (int) checksum.getValue()) {
+            throw new IOException("Checksum mismatch");
+        }
+
+        final long upToTransactionId = snapshot.getLong();
+        final int accounts = snapshot.getInt();
+        if (snapshot.remaining() != (long) accounts * 2 * Long.BYTES + Integer.BYTES) {
+            throw new IOException("Truncated snapshot");
+        }
+
+        final LongLongHashMap[] confirmed = new LongLongHashMap[this.stripes.length];
+        for (int index = 0; index < confirmed.length; index++) {
+            confirmed[index] = new LongLongHashMap(accounts / confirmed.length);
+        }
+        for (int i = 0; i < accounts; i++) {
+            final long accountId = snapshot.getLong();
+            confirmed[stripeIndexOf(accountId)].put(accountId, snapshot.getLong());
+        }
+
+        for (int index = 0; index < confirmed.length; index++) {
+            this.stripes[index].confirmed = confirmed[index];
+        }
+        return upToTransactionId;
+    }
+
+    /**
+     * Applies a change to the changes of the current database transaction, joining it first. Outside a transaction
+     * the change counts as committed at once.
+     */
+    private void record(Consumer<Changes> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            final Changes changes = new Changes(false);
+            change.accept(changes);
+            complete(changes, true);
+            return;
+        }
+
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            this.barrier.readLock().lock();
+            final Changes enlisted = new Changes(true);
+            TransactionSynchronizationManager.bindResource(this, enlisted);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InMemoryBalanceEngine.this);
+                    complete(enlisted, status == STATUS_COMMITTED);
+                }
+            });
+            changes = enlisted;
+        }
+        change.accept(changes);
+    }
+
+    private void complete(Changes changes, boolean committed) {
+        try {
+            if (committed) {
+                changes.credits.forEach((accountId, cents) -> apply(accountId, cents, 0L));
+                changes.released.forEach((accountId, cents) -> apply(accountId, -cents, 0L));
+                changes.written.forEach((accountId, cents) -> apply(accountId, 0L, cents));
+                this.lastTransactionId.accumulateAndGet(changes.lastTransactionId, Math::max);
+            } else {
+                changes.debits.forEach((accountId, cents) -> apply(accountId, -cents, 0L));
+            }
+        } finally {
+            if (changes.barrierHeld) {
+                this.barrier.readLock().unlock();
+            }
+        }
+    }
+
+    private void apply(long accountId, long authorizedCents, long confirmedCents) {
+        final Stripe stripe = stripeOf(accountId);
+        stripe.lock.lock();
+        try {
+            if (authorizedCents != 0L) {
+                stripe.authorized.add(accountId, authorizedCents);
+            }
+            if (confirmedCents != 0L) {
+                stripe.confirmed.add(accountId, confirmedCents);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * The authorized credit limit after the transaction, under the same rule as the database.
+     */
+    private static long decide(Stripe stripe, long accountId, long cents) {
+        final long authorized = Money.add(stripe.authorized.get(accountId), cents);
+        if (authorized <= 0L) {
+            throw new TransactionInvalidException();
+        }
+        return authorized;
+    }
+
+    private Stripe stripeOf(long accountId) {
+        return this.stripes[stripeIndexOf(accountId)];
+    }
+
+    private int stripeIndexOf(long accountId) {
+        final int hash = Long.hashCode(accountId);
+        return (hash ^ (hash >>> 16)) & (this.stripes.length - 1);
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private LongLongHashMap authorized = new LongLongHashMap();
+        private LongLongHashMap confirmed = new LongLongHashMap();
+    }
+
+    /**
+     * What a database transaction did to the figures, per account in cents, to be applied when it completes.
+     */
+    private static final class Changes {
+        private final boolean barrierHeld;
+        private final LongLongHashMap debits = new LongLongHashMap();
+        private final LongLongHashMap credits = new LongLongHashMap();
+        private final LongLongHashMap released = new LongLongHashMap();
+        private final LongLongHashMap written = new LongLongHashMap();
+        private long lastTransactionId;
+
+        private Changes(boolean barrierHeld) {
+            this.barrierHeld = barrierHeld;
+        }
+    }
+}
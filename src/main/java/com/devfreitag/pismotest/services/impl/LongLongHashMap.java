@@ -0,0 +1,122 @@
+package com.devfreitag.pismotest.services.impl;
+
+/**
+ * Open-addressing map from positive {@code long} keys to {@code long} values, stored in two parallel arrays so that
+ * neither keys nor values are boxed. Absent keys read as zero. Not thread-safe.
+ */
+final class LongLongHashMap {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int shift;
+
+    LongLongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongLongHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    long get(long key) {
+        final int slot = slotOf(key);
+        return this.keys[slot] == key ? this.values[slot] : 0L;
+    }
+
+    void put(long key, long value) {
+        final int slot = slotOf(key);
+        if (this.keys[slot] == key) {
+            this.values[slot] = value;
+            return;
+        }
+
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        if (++this.size > this.keys.length >>> 1) {
+            resize(this.keys.length << 1);
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the value of {@code key} and returns the new value.
+     */
+    long add(long key, long delta) {
+        final long value = get(key) + delta;
+        put(key, value);
+        return value;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < this.keys.length; slot++) {
+            if (this.keys[slot] != 0L) {
+                consumer.accept(this.keys[slot], this.values[slot]);
+            }
+        }
+    }
+
+    LongLongHashMap copy() {
+        final LongLongHashMap copy = new LongLongHashMap();
+        copy.keys = this.keys.clone();
+        copy.values = this.values.clone();
+        copy.size = this.size;
+        copy.shift = this.shift;
+        return copy;
+    }
+
+    /**
+     * Slot holding {@code key}, or the empty slot where it would go. Zero marks an empty slot, hence positive keys.
+     */
+    private int slotOf(long key) {
+        if (key <= 0L) {
+            throw new IllegalArgumentException("Keys must be positive: " + key);
+        }
+
+        final int mask = this.keys.length - 1;
+        int slot = (int) ((key * GOLDEN_RATIO) >>> this.shift);
+        while (this.keys[slot] != 0L && this.keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        final long[] oldKeys = this.keys;
+        final long[] oldValues = this.values;
+
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != 0L) {
+                final int newSlot = slotOf(oldKeys[slot]);
+                this.keys[newSlot] = oldKeys[slot];
+                this.values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.shift = Long.numberOfLeadingZeros(capacity - 1L);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        final long capacity = Math.max(MIN_CAPACITY, Long.highestOneBit(Math.max(1L, expectedSize) * 2L - 1L) << 1);
+        if (capacity > 1 << 30) {
+            throw new IllegalArgumentException("Too many entries: " + expectedSize);
+        }
+        return (int) capacity;
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long key, long value);
+    }
+}
@@ -0,0 +1,486 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.TransactionJournalProperties;
+import com.devfreitag.pismotest.services.JournalEntry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of accepted transactions, kept in fixed-size segment files that are memory-mapped, so appending
+ * is a 48-byte copy into the page cache. An append returns once its record is on disk: a single flusher thread forces
+ * everything written since its last pass in one {@code msync} and wakes every appender it covered, so concurrent
+ * appenders share the cost of a sync (group commit).
+ *
+ * <p>Records are numbered without gaps and carry a CRC-32C. On {@link #open} the segments are scanned, the journal
+ * ends at the first record that is missing or torn, and writing resumes there. Segments are rotated when full and
+ * deleted once every record in them has been drained with {@link #release}.
+ *
+ * <p>Record layout: sequence, account id, operation type id, unscaled amount and event date in epoch microseconds
+ * (8 bytes each), then the amount scale and the checksum of the preceding 44 bytes (4 bytes each).
+ */
+@Slf4j
+@Component
+@ConditionalOnBooleanProperty("pismo.journal.enabled")
+public class MappedTransactionJournal {
+
+    static final int RECORD_SIZE = 48;
+
+    private static final int CHECKSUMMED_SIZE = 44;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentCapacity;
+    private final DistributionSummary groupCommitSize;
+
+    // Guards everything below except durableSequence, which is also read without it
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = this.lock.newCondition();
+    private final Condition synced = this.lock.newCondition();
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private final CRC32C checksum = new CRC32C();
+    private Segment current;
+    private long lastSequence;
+    private volatile long durableSequence;
+    private RuntimeException failure;
+    private boolean open;
+    private Thread flusher;
+
+    public MappedTransactionJournal(final TransactionJournalProperties properties, final MeterRegistry meterRegistry) {
+        this.directory = properties.directory();
+
+        final long capacity = properties.segmentSize().toBytes() / RECORD_SIZE;
+        if (capacity < 1 || capacity * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal segment size must be between " + RECORD_SIZE + " bytes and 2GB.");
+        }
+        this.segmentCapacity = (int) capacity;
+
+        this.groupCommitSize = DistributionSummary.builder("pismo.journal.group.commit.size")
+                .description("Journal records made durable by a single sync")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recovers the segments on disk and starts accepting appends after the last intact record, or after
+     * {@code drainedSequence} if the journal holds nothing newer.
+     *
+     * @throws IllegalStateException if records after {@code drainedSequence} are missing from the journal
+     */
+    public void open(long drainedSequence) {
+        this.lock.lock();
+        try {
+            if (this.open) {
+                throw new IllegalStateException("Transaction journal is already open.");
+            }
+            recover();
+
+            if (this.segments.isEmpty() || this.lastSequence < drainedSequence) {
+                this.segments.values().forEach(MappedTransactionJournal::delete);
+                this.segments.clear();
+                this.lastSequence = drainedSequence;
+            } else if (this.segments.firstKey() > drainedSequence + 1) {
+                throw new IllegalStateException("Transaction journal in " + this.directory + " starts at "
+                        + this.segments.firstKey() + " but entries after " + drainedSequence + " were never drained.");
+            }
+
+            // Recovered records may have survived a crash in the page cache only
+            this.segments.values().forEach(segment -> segment.buffer.force());
+            this.durableSequence = this.lastSequence;
+            this.current = this.segments.isEmpty() ? null : this.segments.lastEntry().getValue();
+            releaseDrained(drainedSequence);
+            if (this.current == null || this.current.isFull()) {
+                rotate();
+            }
+
+            this.open = true;
+            this.flusher = Thread.ofPlatform().name("transaction-journal-flusher").daemon().start(this::flushLoop);
+            log.info("Transaction journal opened in {} at sequence {}, {} entries to drain",
+                    this.directory, this.lastSequence, this.lastSequence - drainedSequence);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Appends an accepted transaction and waits until it is on disk.
+     */
+    public JournalEntry append(Long accountId, Long operationTypeId, BigDecimal amount) {
+        return append(accountId, operationTypeId, amount, () -> { });
+    }
+
+    /**
+     * Same as {@link #append(Long, Long, BigDecimal)}, running {@code admission} under the append lock first, so
+     * entries are numbered in the order they were admitted. An exception from it rejects the transaction and nothing
+     * is written. Once it has run, an exception means the record's group could not be synced, and whatever it
+     * admitted must be given back.
+     */
+    public JournalEntry append(Long accountId, Long operationTypeId, BigDecimal amount, Runnable admission) {
+        final Instant eventDate = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        final long unscaledAmount = amount.unscaledValue().longValueExact();
+
+        this.lock.lock();
+        try {
+            if (!this.open) {
+                throw new IllegalStateException("Transaction journal is not open.");
+            }
+            if (this.failure != null) {
+                throw new IllegalStateException("Transaction journal could not be synced to disk.", this.failure);
+            }
+            if (this.current.isFull()) {
+                rotate();
+            }
+
+            admission.run();
+
+            final long sequence = ++this.lastSequence;
+            this.current.write(this.checksum, sequence, accountId, operationTypeId, unscaledAmount, amount.scale(), eventDate);
+            this.written.signal();
+
+            while (this.durableSequence < sequence) {
+                if (this.failure != null) {
+                    throw new IllegalStateException("Transaction journal could not be synced to disk.", this.failure);
+                }
+                this.synced.awaitUninterruptibly();
+            }
+
+            return new JournalEntry(sequence, accountId, operationTypeId, amount, eventDate);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Up to {@code max} durable entries following {@code afterSequence}, in order. Only the drainer reads, and it
+     * never asks for entries it has released.
+     */
+    public List<JournalEntry> read(long afterSequence, int max) {
+        final long upTo = Math.min(this.durableSequence, afterSequence + max);
+        if (upTo <= afterSequence) {
+            return List.of();
+        }
+
+        final List<JournalEntry> entries = new ArrayList<>((int) (upTo - afterSequence));
+        long sequence = afterSequence + 1;
+        while (sequence <= upTo) {
+            final Segment segment = segmentOf(sequence);
+            for (int index = (int) (sequence - segment.firstSequence); index < segment.capacity && sequence <= upTo; index++, sequence++) {
+                entries.add(segment.read(index));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Deletes the segments whose entries have all been drained, except the one being written.
+     */
+    public void release(long drainedSequence) {
+        this.lock.lock();
+        try {
+            releaseDrained(drainedSequence);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+        this.lock.lock();
+        try {
+            return this.lastSequence;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        this.lock.lock();
+        try {
+            if (!this.open) {
+                return;
+            }
+            this.open = false;
+            this.written.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+
+        try {
+            this.flusher.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.lock.lock();
+        try {
+            this.current.buffer.force();
+            this.durableSequence = this.lastSequence;
+            this.synced.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            final Segment segment;
+            final int from;
+            final int to;
+            final long target;
+
+            this.lock.lock();
+            try {
+                while (this.open && this.lastSequence == this.durableSequence) {
+                    this.written.awaitUninterruptibly();
+                }
+                if (!this.open) {
+                    return;
+                }
+                segment = this.current;
+                from = segment.forced;
+                to = segment.count;
+                target = this.lastSequence;
+            } finally {
+                this.lock.unlock();
+            }
+
+            try {
+                force(segment.buffer, from * RECORD_SIZE, (to - from) * RECORD_SIZE);
+            } catch (RuntimeException ex) {
+                log.error("Transaction journal sync failed, rejecting further appends", ex);
+                this.lock.lock();
+                try {
+                    this.failure = ex;
+                    this.synced.signalAll();
+                } finally {
+                    this.lock.unlock();
+                }
+                return;
+            }
+            segment.forced = to;
+
+            this.lock.lock();
+            try {
+                this.groupCommitSize.record(target - this.durableSequence);
+                this.durableSequence = target;
+                this.synced.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Forces one group of records to disk. Package-private so tests can make the sync fail.
+     */
+    void force(MappedByteBuffer buffer, int offset, int length) {
+        buffer.force(offset, length);
+    }
+
+    private void recover() {
+        final List<Path> files;
+        try {
+            Files.createDirectories(this.directory);
+            try (Stream<Path> paths = Files.list(this.directory)) {
+                files = paths.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                                && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()
+                        .toList();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        for (Path file : files) {
+            final String name = file.getFileName().toString();
+            final long firstSequence = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            if (!this.segments.isEmpty() && (!this.current.isFull() || firstSequence != this.lastSequence + 1)) {
+                throw new IllegalStateException("Transaction journal segment " + file + " does not follow segment "
+                        + this.current.path + ", which ends at sequence " + this.lastSequence + ".");
+            }
+
+            this.current = Segment.map(file, firstSequence, this.segmentCapacity);
+            this.current.recover(this.checksum);
+            this.segments.put(firstSequence, this.current);
+            this.lastSequence = firstSequence + this.current.count - 1;
+        }
+    }
+
+    private void rotate() {
+        if (this.current != null) {
+            this.current.buffer.force();
+        }
+        final long firstSequence = this.lastSequence + 1;
+        this.current = Segment.map(this.directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX)),
+                firstSequence, this.segmentCapacity);
+        this.segments.put(firstSequence, this.current);
+        forceDirectory();
+    }
+
+    private void releaseDrained(long drainedSequence) {
+        final Iterator<Segment> iterator = this.segments.values().iterator();
+        while (iterator.hasNext()) {
+            final Segment segment = iterator.next();
+            if (segment == this.current || !segment.isFull() || segment.lastSequence() > drainedSequence) {
+                return;
+            }
+            iterator.remove();
+            delete(segment);
+        }
+    }
+
+    private Segment segmentOf(long sequence) {
+        this.lock.lock();
+        try {
+            final Map.Entry<Long, Segment> entry = this.segments.floorEntry(sequence);
+            if (entry == null) {
+                throw new IllegalStateException("Transaction journal entry " + sequence + " was already released.");
+            }
+            return entry.getValue();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void forceDirectory() {
+        // Makes a new segment's directory entry survive a crash; not supported on every platform
+        try (FileChannel channel = FileChannel.open(this.directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            log.debug("Could not sync journal directory {}", this.directory, ex);
+        }
+    }
+
+    private static void delete(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException ex) {
+            log.warn("Could not delete drained journal segment {}", segment.path, ex);
+        }
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final long firstSequence;
+        private final int capacity;
+        private final MappedByteBuffer buffer;
+
+        // Written under the journal lock
+        private int count;
+
+        // Only touched by the flusher thread
+        private int forced;
+
+        private Segment(Path path, long firstSequence, int capacity, MappedByteBuffer buffer) {
+            this.path = path;
+            this.firstSequence = firstSequence;
+            this.capacity = capacity;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Maps an existing segment with the size it was created with, or creates a new one.
+         */
+        static Segment map(Path path, long firstSequence, int defaultCapacity) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final int capacity = channel.size() >= RECORD_SIZE ? (int) (channel.size() / RECORD_SIZE) : defaultCapacity;
+                return new Segment(path, firstSequence, capacity, channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        boolean isFull() {
+            return this.count == this.capacity;
+        }
+
+        long lastSequence() {
+            return this.firstSequence + this.count - 1;
+        }
+
+        void write(CRC32C checksum, long sequence, Long accountId, Long operationTypeId, long unscaledAmount, int scale, Instant eventDate) {
+            final int offset = this.count * RECORD_SIZE;
+            this.buffer.putLong(offset, sequence);
+            this.buffer.putLong(offset + 8, accountId);
+            this.buffer.putLong(offset + 16, operationTypeId);
+            this.buffer.putLong(offset + 24, unscaledAmount);
+            this.buffer.putLong(offset + 32, ChronoUnit.MICROS.between(Instant.EPOCH, eventDate));
+            this.buffer.putInt(offset + 40, scale);
+            this.buffer.putInt(offset + CHECKSUMMED_SIZE, checksumOf(checksum, offset));
+            this.count++;
+        }
+
+        JournalEntry read(int index) {
+            final int offset = index * RECORD_SIZE;
+            return new JournalEntry(
+                    this.buffer.getLong(offset),
+                    this.buffer.getLong(offset + 8),
+                    this.buffer.getLong(offset + 16),
+                    new BigDecimal(BigInteger.valueOf(this.buffer.getLong(offset + 24)), this.buffer.getInt(offset + 40)),
+                    Instant.EPOCH.plus(this.buffer.getLong(offset + 32), ChronoUnit.MICROS));
+        }
+
+        /**
+         * Counts the intact records from the start of the segment and zeroes whatever follows them, so a torn record
+         * or a leftover from before a crash can't pass for a valid one later.
+         */
+        void recover(CRC32C checksum) {
+            while (this.count < this.capacity) {
+                final int offset = this.count * RECORD_SIZE;
+                if (this.buffer.getLong(offset) != this.firstSequence + this.count
+                        || this.buffer.getInt(offset + CHECKSUMMED_SIZE) != checksumOf(checksum, offset)) {
+                    break;
+                }
+                this.count++;
+            }
+
+            for (int offset = this.count * RECORD_SIZE; offset < this.capacity * RECORD_SIZE && !isZero(offset); offset += RECORD_SIZE) {
+                for (int i = 0; i < RECORD_SIZE; i += 8) {
+                    this.buffer.putLong(offset + i, 0L);
+                }
+            }
+            this.forced = this.count;
+        }
+
+        private boolean isZero(int offset) {
+            for (int i = 0; i < RECORD_SIZE; i += 8) {
+                if (this.buffer.getLong(offset + i) != 0L) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int checksumOf(CRC32C checksum, int offset) {
+            checksum.reset();
+            checksum.update(this.buffer.slice(offset, CHECKSUMMED_SIZE));
+            return (int) checksum.getValue();
+        }
+    }
+}
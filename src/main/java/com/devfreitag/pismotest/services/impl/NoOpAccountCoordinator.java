@@ -0,0 +1,24 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.services.AccountCoordinator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+
+/**
+ * Used while advisory locks are disabled: the conditional updates and account versions alone keep concurrent writers,
+ * on this instance or another, from overwriting each other.
+ */
+@Service
+@ConditionalOnBooleanProperty(value = "pismo.advisory-lock.enabled", havingValue = false, matchIfMissing = true)
+public class NoOpAccountCoordinator implements AccountCoordinator {
+
+    @Override
+    public void lock(Long accountId) {
+    }
+
+    @Override
+    public void lock(Collection<Long> accountIds) {
+    }
+}
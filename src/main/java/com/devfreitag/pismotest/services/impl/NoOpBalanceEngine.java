@@ -0,0 +1,35 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.services.BalanceEngine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Used while the balance engine is disabled: the database alone decides credit limits, and journaled transactions
+ * are decided when they are written.
+ */
+@Service
+@ConditionalOnBooleanProperty(value = "pismo.balance-engine.enabled", havingValue = false, matchIfMissing = true)
+public class NoOpBalanceEngine implements BalanceEngine {
+
+    @Override
+    public void admit(Long accountId, long amount) {
+    }
+
+    @Override
+    public void enlist() {
+    }
+
+    @Override
+    public void reserve(Long accountId, long amount) {
+    }
+
+    @Override
+    public void release(Long accountId, long amount) {
+    }
+
+    @Override
+    public void written(Transaction transaction) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.services.TransactionOutbox;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Used while the outbox is disabled: no events are written.
+ */
+@Service
+@ConditionalOnBooleanProperty(value = "pismo.outbox.enabled", havingValue = false, matchIfMissing = true)
+public class NoOpTransactionOutbox implements TransactionOutbox {
+
+    @Override
+    public void append(Transaction transaction) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.entities.OperationType;
+import com.devfreitag.pismotest.enums.OperationTypeEnum;
+import com.devfreitag.pismotest.exceptions.OperationTypeNotFoundException;
+import com.devfreitag.pismotest.repositories.OperationTypeRepository;
+import com.devfreitag.pismotest.services.OperationTypeRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the {@code operation_type} reference table in memory, in an array indexed by operation type id, so lookups on
+ * the transaction path never reach the database. The table is loaded at startup and reloaded only on {@link #refresh()}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OperationTypeRegistryImpl implements OperationTypeRegistry {
+
+    private final OperationTypeRepository operationTypeRepository;
+
+    // Not synchronized: refresh() holds it across a database read, which would pin a virtual thread to its carrier
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile OperationType[] operationTypesById = new OperationType[0];
+
+    @PostConstruct
+    void load() {
+        refresh();
+    }
+
+    @Override
+    public OperationType findById(Long operationTypeId) {
+        final OperationType[] operationTypes = this.operationTypesById;
+
+        if (operationTypeId == null || operationTypeId < 0 || operationTypeId >= operationTypes.length
+                || operationTypes[operationTypeId.intValue()] == null) {
+            throw new OperationTypeNotFoundException(operationTypeId);
+        }
+
+        return operationTypes[operationTypeId.intValue()];
+    }
+
+    @Override
+    public List<OperationType> findAll() {
+        return Arrays.stream(this.operationTypesById).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Reloads the table and checks it against {@link OperationTypeEnum}: every enum code must have a row, and rows
+     * without an enum constant are left out since the service would not know how to sign their amounts. When the
+     * check fails the previously loaded operation types stay in place.
+     */
+    @Override
+    public List<OperationType> refresh() {
+        this.refreshLock.lock();
+        try {
+            return reload();
+        } finally {
+            this.refreshLock.unlock();
+        }
+    }
+
+    private List<OperationType> reload() {
+        final Map<Long, OperationType> loaded = new HashMap<>();
+        for (OperationType operationType : this.operationTypeRepository.findAll()) {
+            try {
+                OperationTypeEnum.fromCode(operationType.getOperationTypeId());
+                loaded.put(operationType.getOperationTypeId(), operationType);
+            } catch (IllegalArgumentException ex) {
+                log.warn("Ignoring operation type {} ({}): no matching OperationTypeEnum constant",
+                        operationType.getOperationTypeId(), operationType.getDescription());
+            }
+        }
+
+        for (OperationTypeEnum type : OperationTypeEnum.values()) {
+            if (!loaded.containsKey(type.getCode())) {
+                throw new IllegalStateException("Operation type " + type + " (" + type.getCode() + ") is missing from the operation_type table.");
+            }
+        }
+
+        final int size = (int) loaded.keySet().stream().mapToLong(Long::longValue).max().orElse(-1) + 1;
+        final OperationType[] operationTypesById = new OperationType[size];
+        loaded.forEach((id, operationType) -> operationTypesById[id.intValue()] = operationType);
+
+        this.operationTypesById = operationTypesById;
+        return findAll();
+    }
+}
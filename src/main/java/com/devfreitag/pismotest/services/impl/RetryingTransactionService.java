@@ -0,0 +1,142 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.AccountRetryProperties;
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.exceptions.AccountBusyException;
+import com.devfreitag.pismotest.models.AccountTransactionResponse;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.services.JournalEntry;
+import com.devfreitag.pismotest.services.TransactionBatchItemResult;
+import com.devfreitag.pismotest.services.TransactionCursor;
+import com.devfreitag.pismotest.services.TransactionPage;
+import com.devfreitag.pismotest.services.TransactionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.retry.RetryPolicy;
+import org.springframework.core.retry.RetryTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Tries a transaction again, in a new database transaction, when it loses an optimistic locking race on one of its
+ * accounts, waiting a little longer and with some jitter before every retry. Once the retries run out the transaction
+ * is rejected with {@link AccountBusyException}. Sits in front of {@link AccountLockingTransactionService} when that is
+ * enabled, so the account lock is not held while waiting to retry, and of {@link StoredFunctionTransactionService} when
+ * that is.
+ *
+ * <p>Publishes {@code pismo.account.update.conflicts}, tagged with the stripe the conflicting account falls on, to
+ * spot hot accounts without a meter per account, and {@code pismo.account.update.retries}, the retries each write
+ * needed, tagged with its outcome. Exhausted retries are logged with the account id.
+ */
+@Slf4j
+@Service
+@Primary
+public class RetryingTransactionService implements TransactionService {
+
+    private final TransactionService transactionService;
+    private final RetryTemplate retryTemplate;
+    private final Counter[] conflictCounters;
+    private final DistributionSummary succeededRetries;
+    private final DistributionSummary exhaustedRetries;
+
+    public RetryingTransactionService(final TransactionServiceImpl transactionService,
+                                      final ObjectProvider<StoredFunctionTransactionService> storedFunctionTransactionService,
+                                      final ObjectProvider<AccountLockingTransactionService> accountLockingTransactionService,
+                                      final AccountRetryProperties properties,
+                                      final MeterRegistry meterRegistry) {
+        this.transactionService = Objects.requireNonNullElse(accountLockingTransactionService.getIfAvailable(),
+                Objects.requireNonNullElse(storedFunctionTransactionService.getIfAvailable(), transactionService));
+        this.retryTemplate = new RetryTemplate(RetryPolicy.builder()
+                .includes(ObjectOptimisticLockingFailureException.class)
+                .maxRetries(properties.maxRetries())
+                .delay(properties.delay())
+                .multiplier(2)
+                .maxDelay(properties.maxDelay())
+                .jitter(properties.jitter())
+                .build());
+
+        final int stripes = properties.stripes() <= 1 ? 1 : Integer.highestOneBit(properties.stripes() - 1) << 1;
+        this.conflictCounters = new Counter[stripes];
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            this.conflictCounters[stripe] = Counter.builder("pismo.account.update.conflicts")
+                    .description("Writes that found an account updated since they read it")
+                    .tag("stripe", String.valueOf(stripe))
+                    .register(meterRegistry);
+        }
+        this.succeededRetries = retries(meterRegistry, "succeeded");
+        this.exhaustedRetries = retries(meterRegistry, "exhausted");
+    }
+
+    @Override
+    public Transaction createTransaction(Long accountId, Long operationType, BigDecimal amount) {
+        return withRetries(() -> this.transactionService.createTransaction(accountId, operationType, amount));
+    }
+
+    @Override
+    public Transaction createTransaction(Long accountId, Long operationType, BigDecimal amount, String idempotencyKey) {
+        return withRetries(() -> this.transactionService.createTransaction(accountId, operationType, amount, idempotencyKey));
+    }
+
+    @Override
+    public List<TransactionBatchItemResult> createTransactions(List<CreateTransactionRequest> requests) {
+        return withRetries(() -> this.transactionService.createTransactions(requests));
+    }
+
+    @Override
+    public List<TransactionBatchItemResult> createJournaledTransactions(String journalId, List<JournalEntry> entries) {
+        return withRetries(() -> this.transactionService.createJournaledTransactions(journalId, entries));
+    }
+
+    @Override
+    public TransactionPage findByAccount(Long accountId, TransactionCursor after, int limit) {
+        return this.transactionService.findByAccount(accountId, after, limit);
+    }
+
+    @Override
+    public void exportByAccount(Long accountId, Consumer<AccountTransactionResponse> consumer) {
+        this.transactionService.exportByAccount(accountId, consumer);
+    }
+
+    int stripeOf(Object accountId) {
+        final int hash = Objects.hashCode(accountId);
+        return (hash ^ (hash >>> 16)) & (this.conflictCounters.length - 1);
+    }
+
+    private <T> T withRetries(Supplier<T> action) {
+        final int[] conflicts = {0};
+        try {
+            final T result = this.retryTemplate.invoke(() -> {
+                try {
+                    return action.get();
+                } catch (ObjectOptimisticLockingFailureException ex) {
+                    conflicts[0]++;
+                    this.conflictCounters[stripeOf(ex.getIdentifier())].increment();
+                    throw ex;
+                }
+            });
+            this.succeededRetries.record(conflicts[0]);
+            return result;
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            this.exhaustedRetries.record(conflicts[0] - 1);
+            log.warn("Giving up on a write to account {} after {} conflicts", ex.getIdentifier(), conflicts[0]);
+            throw new AccountBusyException((Long) ex.getIdentifier());
+        }
+    }
+
+    private static DistributionSummary retries(final MeterRegistry meterRegistry, final String outcome) {
+        return DistributionSummary.builder("pismo.account.update.retries")
+                .description("Retries a write needed after optimistic locking conflicts")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
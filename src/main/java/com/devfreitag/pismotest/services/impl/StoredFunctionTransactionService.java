@@ -0,0 +1,137 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.enums.OperationTypeEnum;
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.AccountTransactionResponse;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.repositories.TransactionRepository;
+import com.devfreitag.pismotest.services.AccountCache;
+import com.devfreitag.pismotest.services.AccountCoordinator;
+import com.devfreitag.pismotest.services.BalanceEngine;
+import com.devfreitag.pismotest.services.JournalEntry;
+import com.devfreitag.pismotest.services.Money;
+import com.devfreitag.pismotest.services.OperationTypeRegistry;
+import com.devfreitag.pismotest.services.TransactionBatchItemResult;
+import com.devfreitag.pismotest.services.TransactionCursor;
+import com.devfreitag.pismotest.services.TransactionOutbox;
+import com.devfreitag.pismotest.services.TransactionPage;
+import com.devfreitag.pismotest.services.TransactionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Creates single transactions through the {@code create_transaction} database function, which updates the account's
+ * limit, inserts the transaction and stores its idempotency key in one statement, so a transaction costs one round
+ * trip to the database plus the commit instead of one per statement. The operation type is still checked and the
+ * amount signed here, against {@link OperationTypeRegistry}, which does not go to the database either. With the
+ * outbox enabled, its event is one more statement before the commit. The transaction id is allocated here, from the
+ * same pooled block as {@link TransactionServiceImpl}'s inserts.
+ *
+ * <p>Accounts with balance shards, batches, journal drains and reads are left to {@link TransactionServiceImpl}. It is
+ * reached through {@link RetryingTransactionService}, and {@link AccountLockingTransactionService} when that is enabled.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnBooleanProperty("pismo.stored-function.enabled")
+public class StoredFunctionTransactionService implements TransactionService {
+
+    static final String CREATE_TRANSACTION = "SELECT create_transaction(?, ?, ?, ?, ?, ?)";
+
+    static final long ACCOUNT_NOT_FOUND = -1L;
+    static final long TRANSACTION_INVALID = -2L;
+    static final long BALANCE_SHARDS = -3L;
+
+    private final TransactionServiceImpl transactionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountCache accountCache;
+    private final AccountCoordinator accountCoordinator;
+    private final BalanceEngine balanceEngine;
+    private final OperationTypeRegistry operationTypeRegistry;
+    private final TransactionOutbox transactionOutbox;
+    private final TransactionRepository transactionRepository;
+
+    @Override
+    @Transactional
+    public Transaction createTransaction(Long accountId, Long operationTypeId, BigDecimal amount) {
+        return createTransaction(accountId, operationTypeId, amount, null);
+    }
+
+    /**
+     * A key that is already stored fails the call with a {@link org.springframework.dao.DataIntegrityViolationException}
+     * and nothing is created, as with {@link TransactionServiceImpl}.
+     */
+    @Override
+    @Transactional
+    public Transaction createTransaction(Long accountId, Long operationTypeId, BigDecimal amount, String idempotencyKey) {
+        var operationType = operationTypeRegistry.findById(operationTypeId);
+
+        final long cents = OperationTypeEnum.fromCode(operationTypeId).applySign(Money.toCents(amount));
+        final BigDecimal signedAmount = Money.toBigDecimal(cents);
+        final Instant eventDate = Instant.now();
+
+        accountCoordinator.lock(accountId);
+        // The balance engine is joined before the transaction id is allocated
+        balanceEngine.enlist();
+        final Long transactionId = transactionRepository.nextTransactionId();
+        final Long result = jdbcTemplate.queryForObject(CREATE_TRANSACTION, Long.class,
+                transactionId, accountId, operationTypeId, signedAmount, Timestamp.from(eventDate), idempotencyKey);
+
+        if (result == ACCOUNT_NOT_FOUND) {
+            throw new AccountNotFoundException(accountId);
+        }
+        if (result == TRANSACTION_INVALID) {
+            throw new TransactionInvalidException();
+        }
+        if (result == BALANCE_SHARDS) {
+            return idempotencyKey == null
+                    ? transactionService.createTransaction(accountId, operationTypeId, amount)
+                    : transactionService.createTransaction(accountId, operationTypeId, amount, idempotencyKey);
+        }
+
+        balanceEngine.reserve(accountId, cents);
+        accountCache.evictAfterCommit(accountId);
+
+        final Transaction created = Transaction.builder()
+                .transactionId(transactionId)
+                .account(Account.builder().accountId(accountId).build())
+                .operationType(operationType)
+                .amount(signedAmount)
+                .eventDate(eventDate)
+                .build();
+        balanceEngine.written(created);
+        transactionOutbox.append(created);
+        return created;
+    }
+
+    @Override
+    public List<TransactionBatchItemResult> createTransactions(List<CreateTransactionRequest> requests) {
+        return transactionService.createTransactions(requests);
+    }
+
+    @Override
+    public List<TransactionBatchItemResult> createJournaledTransactions(String journalId, List<JournalEntry> entries) {
+        return transactionService.createJournaledTransactions(journalId, entries);
+    }
+
+    @Override
+    public TransactionPage findByAccount(Long accountId, TransactionCursor after, int limit) {
+        return transactionService.findByAccount(accountId, after, limit);
+    }
+
+    @Override
+    public void exportByAccount(Long accountId, Consumer<AccountTransactionResponse> consumer) {
+        transactionService.exportByAccount(accountId, consumer);
+    }
+}
@@ -0,0 +1,118 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.TransactionJournalProperties;
+import com.devfreitag.pismotest.entities.JournalCheckpoint;
+import com.devfreitag.pismotest.repositories.JournalCheckpointRepository;
+import com.devfreitag.pismotest.services.JournalEntry;
+import com.devfreitag.pismotest.services.TransactionBatchItemResult;
+import com.devfreitag.pismotest.services.TransactionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the journal to the database in batches of up to {@code pismo.journal.drain-batch-size} entries, through
+ * {@link TransactionService#createJournaledTransactions}, which moves the journal's checkpoint in the same
+ * transaction. On startup, before requests are served, it opens the journal after the checkpoint and drains whatever
+ * a previous run accepted but did not write; after that it drains every {@code pismo.journal.drain-interval}.
+ *
+ * <p>Entries rejected by the credit limit rules are logged and counted in {@code pismo.journal.rejected}; entries
+ * still waiting to be written are published as {@code pismo.journal.lag}.
+ */
+@Slf4j
+@Component
+@ConditionalOnBooleanProperty("pismo.journal.enabled")
+public class TransactionJournalDrainer {
+
+    private final MappedTransactionJournal journal;
+    private final TransactionService transactionService;
+    private final JournalCheckpointRepository journalCheckpointRepository;
+    private final TransactionJournalProperties properties;
+    private final Counter rejected;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("transaction-journal-drainer").daemon().factory());
+
+    private volatile long drainedSequence;
+
+    public TransactionJournalDrainer(final MappedTransactionJournal journal,
+                                     final TransactionService transactionService,
+                                     final JournalCheckpointRepository journalCheckpointRepository,
+                                     final TransactionJournalProperties properties,
+                                     final MeterRegistry meterRegistry) {
+        this.journal = journal;
+        this.transactionService = transactionService;
+        this.journalCheckpointRepository = journalCheckpointRepository;
+        this.properties = properties;
+        this.rejected = Counter.builder("pismo.journal.rejected")
+                .description("Journal entries rejected when written to the database")
+                .register(meterRegistry);
+        Gauge.builder("pismo.journal.lag", this, drainer -> drainer.journal.lastSequence() - drainer.drainedSequence)
+                .description("Journal entries not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        this.drainedSequence = this.journalCheckpointRepository.findById(this.properties.id())
+                .orElseGet(() -> this.journalCheckpointRepository.save(new JournalCheckpoint(this.properties.id(), 0L)))
+                .getLastSequence();
+        this.journal.open(this.drainedSequence);
+
+        drainAll();
+
+        final long interval = this.properties.drainInterval().toMillis();
+        this.scheduler.scheduleWithFixedDelay(this::drainQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        this.scheduler.shutdown();
+        this.scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        drainQuietly();
+    }
+
+    /**
+     * Drains batches until the journal has no more durable entries.
+     */
+    void drainAll() {
+        while (drainBatch() == this.properties.drainBatchSize()) {
+            // A full batch means more may be waiting
+        }
+    }
+
+    private int drainBatch() {
+        final List<JournalEntry> entries = this.journal.read(this.drainedSequence, this.properties.drainBatchSize());
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        for (TransactionBatchItemResult result : this.transactionService.createJournaledTransactions(this.properties.id(), entries)) {
+            if (!result.isCreated()) {
+                this.rejected.increment();
+                log.warn("Journal entry {} rejected: {}", entries.get(result.index()).sequence(), result.error().getMessage());
+            }
+        }
+
+        this.drainedSequence = entries.getLast().sequence();
+        this.journal.release(this.drainedSequence);
+        return entries.size();
+    }
+
+    private void drainQuietly() {
+        try {
+            drainAll();
+        } catch (RuntimeException ex) {
+            log.error("Could not drain the transaction journal after sequence {}, retrying", this.drainedSequence, ex);
+        }
+    }
+}
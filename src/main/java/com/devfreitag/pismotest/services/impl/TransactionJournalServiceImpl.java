@@ -0,0 +1,52 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.enums.OperationTypeEnum;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.services.AccountService;
+import com.devfreitag.pismotest.services.BalanceEngine;
+import com.devfreitag.pismotest.services.JournalEntry;
+import com.devfreitag.pismotest.services.Money;
+import com.devfreitag.pismotest.services.OperationTypeRegistry;
+import com.devfreitag.pismotest.services.TransactionJournalService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Accepts transactions into the local journal instead of the database. Only the checks that don't need a database
+ * round trip are made here: the operation type comes from the in-memory registry and the account from the account
+ * cache. The credit limit is decided by the {@link BalanceEngine} as the entry is numbered, so entries reach the
+ * database in the order they were decided; with the engine disabled it is applied when
+ * {@link TransactionJournalDrainer} writes the entry. An entry whose group commit fails is given back to the engine.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnBooleanProperty("pismo.journal.enabled")
+public class TransactionJournalServiceImpl implements TransactionJournalService {
+
+    private final OperationTypeRegistry operationTypeRegistry;
+    private final AccountService accountService;
+    private final BalanceEngine balanceEngine;
+    private final MappedTransactionJournal journal;
+
+    @Override
+    public JournalEntry accept(CreateTransactionRequest request) {
+        this.operationTypeRegistry.findById(request.operationTypeId());
+        this.accountService.findById(request.accountId());
+
+        final long signedAmount = OperationTypeEnum.fromCode(request.operationTypeId()).applySign(Money.toCents(request.amount()));
+        final boolean[] admitted = new boolean[1];
+        try {
+            return this.journal.append(request.accountId(), request.operationTypeId(), request.amount(), () -> {
+                this.balanceEngine.admit(request.accountId(), signedAmount);
+                admitted[0] = true;
+            });
+        } catch (RuntimeException ex) {
+            // The sync of the entry's group failed, so it is rejected and must not keep its share of the limit
+            if (admitted[0]) {
+                this.balanceEngine.release(request.accountId(), signedAmount);
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.repositories.TransactionRepository;
+import com.devfreitag.pismotest.services.TransactionOutbox;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the events of a database transaction and inserts them in JDBC batches of up to {@link #FLUSH_SIZE}, the
+ * last one just before it commits. A single transaction costs one more statement; a batch of them, one more JDBC
+ * batch. Events are kept in the transaction that wrote them, so a rollback discards them with it.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnBooleanProperty("pismo.outbox.enabled")
+public class TransactionOutboxImpl implements TransactionOutbox {
+
+    static final int FLUSH_SIZE = 1_000;
+
+    private final TransactionRepository transactionRepository;
+
+    @Override
+    public void append(Transaction transaction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            this.transactionRepository.insertOutboxEvents(List.of(transaction));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Transaction> pending = (List<Transaction>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            final List<Transaction> enlisted = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, enlisted);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(enlisted);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TransactionOutboxImpl.this);
+                }
+            });
+            pending = enlisted;
+        }
+
+        pending.add(transaction);
+        if (pending.size() == FLUSH_SIZE) {
+            insert(pending);
+        }
+    }
+
+    private void insert(List<Transaction> pending) {
+        if (!pending.isEmpty()) {
+            this.transactionRepository.insertOutboxEvents(pending);
+            pending.clear();
+        }
+    }
+}
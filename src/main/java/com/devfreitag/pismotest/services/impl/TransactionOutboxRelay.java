@@ -0,0 +1,119 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.TransactionOutboxProperties;
+import com.devfreitag.pismotest.repositories.OutboxEvent;
+import com.devfreitag.pismotest.repositories.TransactionRepository;
+import com.devfreitag.pismotest.services.OutboxPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves outbox events to the {@link OutboxPublisher} in batches of up to {@code pismo.outbox.relay-batch-size}: each
+ * batch is locked with {@code FOR UPDATE SKIP LOCKED}, published and deleted in one database transaction. Relays on
+ * other threads or instances skip the locked rows and take the next ones, so every event is handed to one relay at a
+ * time and relays add up. A relay keeps going as long as it gets full batches and only waits
+ * {@code pismo.outbox.relay-interval} once the outbox is empty.
+ *
+ * <p>An event is deleted only after it was published, so it is delivered at least once: if the publisher or the
+ * commit fails, the batch is published again. Events are published in transaction id order within a batch; batches
+ * taken by different relays can overlap in time.
+ *
+ * <p>{@code pismo.outbox.published} counts published events and {@code pismo.outbox.delay} records how long after its
+ * event date each one was published.
+ */
+@Slf4j
+@Component
+@ConditionalOnBooleanProperty("pismo.outbox.enabled")
+public class TransactionOutboxRelay {
+
+    private final TransactionRepository transactionRepository;
+    private final OutboxPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionOutboxProperties properties;
+    private final Counter published;
+    private final Timer delay;
+    private final ScheduledExecutorService scheduler;
+
+    public TransactionOutboxRelay(final TransactionRepository transactionRepository,
+                                  final OutboxPublisher publisher,
+                                  final PlatformTransactionManager transactionManager,
+                                  final TransactionOutboxProperties properties,
+                                  final MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.publisher = publisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.published = Counter.builder("pismo.outbox.published")
+                .description("Outbox events handed to the publisher")
+                .register(meterRegistry);
+        this.delay = Timer.builder("pismo.outbox.delay")
+                .description("Time from a transaction's event date to its event being published")
+                .register(meterRegistry);
+        this.scheduler = Executors.newScheduledThreadPool(properties.relayThreads(),
+                Thread.ofPlatform().name("transaction-outbox-relay-", 0).daemon().factory());
+    }
+
+    @PostConstruct
+    void start() {
+        final long interval = this.properties.relayInterval().toMillis();
+        for (int i = 0; i < this.properties.relayThreads(); i++) {
+            this.scheduler.scheduleWithFixedDelay(this::relayQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        this.scheduler.shutdown();
+        this.scheduler.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Relays batches until one comes back short, meaning the outbox held no more unlocked events.
+     */
+    void relayAll() {
+        while (relayBatch() == this.properties.relayBatchSize()) {
+            // A full batch means more may be waiting
+        }
+    }
+
+    private int relayBatch() {
+        final List<OutboxEvent> events = this.transactionTemplate.execute(status -> {
+            final List<OutboxEvent> locked = this.transactionRepository.lockOutboxEvents(this.properties.relayBatchSize());
+            if (!locked.isEmpty()) {
+                this.publisher.publish(locked);
+                this.transactionRepository.deleteOutboxEvents(locked.stream().map(OutboxEvent::transactionId).toList());
+            }
+            return locked;
+        });
+
+        final Instant now = Instant.now();
+        for (OutboxEvent event : events) {
+            this.delay.record(Duration.between(event.eventDate(), now));
+        }
+        this.published.increment(events.size());
+        return events.size();
+    }
+
+    private void relayQuietly() {
+        try {
+            relayAll();
+        } catch (RuntimeException ex) {
+            log.error("Could not relay the transaction outbox, retrying", ex);
+        }
+    }
+}
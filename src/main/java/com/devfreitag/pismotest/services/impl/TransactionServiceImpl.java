@@ -1,66 +1,307 @@
 package com.devfreitag.pismotest.services.impl;
 
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.entities.IdempotencyKey;
+import com.devfreitag.pismotest.entities.OperationType;
 import com.devfreitag.pismotest.entities.Transaction;
 import com.devfreitag.pismotest.enums.OperationTypeEnum;
 import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.exceptions.AmountOutOfRangeException;
 import com.devfreitag.pismotest.exceptions.OperationTypeNotFoundException;
 import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.AccountTransactionResponse;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.repositories.AccountCreditLimit;
 import com.devfreitag.pismotest.repositories.AccountRepository;
+import com.devfreitag.pismotest.repositories.IdempotencyKeyRepository;
+import com.devfreitag.pismotest.repositories.JournalCheckpointRepository;
 import com.devfreitag.pismotest.repositories.OperationTypeRepository;
 import com.devfreitag.pismotest.repositories.TransactionRepository;
+import com.devfreitag.pismotest.services.AccountCache;
+import com.devfreitag.pismotest.services.AccountCoordinator;
+import com.devfreitag.pismotest.services.BalanceEngine;
+import com.devfreitag.pismotest.services.BalanceShardService;
+import com.devfreitag.pismotest.services.JournalEntry;
+import com.devfreitag.pismotest.services.Money;
+import com.devfreitag.pismotest.services.OperationTypeRegistry;
+import com.devfreitag.pismotest.services.TransactionBatchItemResult;
+import com.devfreitag.pismotest.services.TransactionCursor;
+import com.devfreitag.pismotest.services.TransactionOutbox;
+import com.devfreitag.pismotest.services.TransactionPage;
 import com.devfreitag.pismotest.services.TransactionService;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionServiceImpl implements TransactionService {
 
     private final AccountRepository accountRepository;
+    private final AccountCache accountCache;
+    private final AccountCoordinator accountCoordinator;
+    private final BalanceEngine balanceEngine;
+    private final BalanceShardService balanceShardService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final JournalCheckpointRepository journalCheckpointRepository;
     private final OperationTypeRepository operationTypeRepository;
+    private final OperationTypeRegistry operationTypeRegistry;
+    private final TransactionOutbox transactionOutbox;
     private final TransactionRepository transactionRepository;
 
+    /**
+     * Accounts with balance shards always fail the conditional update of the account row. Reading the number of shards
+     * back, which also tells a missing account apart from an invalid transaction, hands them to
+     * {@link BalanceShardService}.
+     */
     @Override
     @Transactional
     public Transaction createTransaction(Long accountId, Long operationTypeId, BigDecimal amount) {
-        var account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new AccountNotFoundException(accountId));
+        var operationType = operationTypeRegistry.findById(operationTypeId);
 
-        var operationType = operationTypeRepository.findById(operationTypeId)
-                .orElseThrow(() -> new OperationTypeNotFoundException(operationTypeId));
+        final long cents = OperationTypeEnum.fromCode(operationTypeId).applySign(Money.toCents(amount));
+        final BigDecimal signedAmount = Money.toBigDecimal(cents);
 
-        var operationTypeEnum = OperationTypeEnum.fromCode(operationTypeId);
+        accountCoordinator.lock(accountId);
+        if (accountRepository.applyToCreditLimit(accountId, signedAmount) == 0) {
+            final int shards = accountRepository.findBalanceShardsById(accountId)
+                    .orElseThrow(() -> new AccountNotFoundException(accountId));
+            if (shards == 0) {
+                throw new TransactionInvalidException();
+            }
+            balanceShardService.apply(accountId, shards, cents);
+        }
+        balanceEngine.reserve(accountId, cents);
+        accountCache.evictAfterCommit(accountId);
+
+        // Proxies, so neither the updated account nor the registry's detached operation type is read again on insert
+        var transaction = Transaction.builder()
+                .account(accountRepository.getReferenceById(accountId))
+                .operationType(operationTypeRepository.getReferenceById(operationType.getOperationTypeId()))
+                .amount(signedAmount)
+                .eventDate(Instant.now())
+                .build();
+
+        final Transaction created = transactionRepository.save(transaction);
+        balanceEngine.written(created);
+        transactionOutbox.append(created);
+        return created;
+    }
+
+    /**
+     * Same as {@link #createTransaction(Long, Long, BigDecimal)}, storing the idempotency key in the same database
+     * transaction so that the key exists if and only if the transaction does. A key that is already stored fails the
+     * commit with a {@link org.springframework.dao.DataIntegrityViolationException} and nothing is created.
+     */
+    @Override
+    @Transactional
+    public Transaction createTransaction(Long accountId, Long operationTypeId, BigDecimal amount, String idempotencyKey) {
+        final Transaction transaction = createTransaction(accountId, operationTypeId, amount);
+
+        idempotencyKeyRepository.save(IdempotencyKey.builder()
+                .idempotencyKey(idempotencyKey)
+                .transaction(transaction)
+                .createdAt(transaction.getEventDate())
+                .build());
+
+        return transaction;
+    }
 
-        BigDecimal creditLimit = BigDecimal.ZERO;
-        if (operationTypeEnum == OperationTypeEnum.PAYMENT) {
-            amount = amount.abs();
+    /**
+     * Applies the same rules as {@link #createTransaction} to every item, in request order, while paying for the
+     * account lookups once per batch. Items that break a rule are reported back instead of
+     * failing the whole batch; the accepted ones are inserted and their accounts updated with JDBC batches.
+     *
+     * <p>The accounts are read without locking them and only updated if their version has not moved since, so a batch
+     * does not hold up transactions on its accounts while it is being decided. If one has moved the whole batch fails
+     * with an {@link org.springframework.orm.ObjectOptimisticLockingFailureException} and is rolled back, ready to be
+     * tried again (see {@link RetryingTransactionService}). Accounts with balance shards are the exception: their
+     * shards are locked up front, in account order, and decided against their sum.
+     */
+    @Override
+    @Transactional
+    public List<TransactionBatchItemResult> createTransactions(List<CreateTransactionRequest> requests) {
+        final Instant eventDate = Instant.now();
+        return createTransactions(requests, index -> eventDate, false);
+    }
 
-            creditLimit = account.getAvailableCreditLimit().add(amount);
-            account.setAvailableCreditLimit(account.getAvailableCreditLimit().add(amount));
-        } else if (operationTypeEnum == OperationTypeEnum.INSTALLMENT_PURCHASE || operationTypeEnum == OperationTypeEnum.PURCHASE || operationTypeEnum == OperationTypeEnum.WITHDRAWAL) {
-            amount = amount.abs().negate();
+    /**
+     * Writes a range of journal entries like {@link #createTransactions(List)}, keeping the time each one was accepted
+     * as its event date, and moves the journal's checkpoint past them in the same database transaction. The range
+     * must start right after the checkpoint, so entries replayed after a crash are never written twice. The balance
+     * engine already admitted the entries when they were journaled, so it is only given back the ones rejected here.
+     */
+    @Override
+    @Transactional
+    public List<TransactionBatchItemResult> createJournaledTransactions(String journalId, List<JournalEntry> entries) {
+        balanceEngine.enlist();
+        final List<TransactionBatchItemResult> results = createTransactions(
+                entries.stream().map(JournalEntry::toRequest).toList(), index -> entries.get(index).eventDate(), true);
 
-            creditLimit = account.getAvailableCreditLimit().add(amount);
+        for (TransactionBatchItemResult result : results) {
+            if (!result.isCreated()) {
+                final JournalEntry entry = entries.get(result.index());
+                balanceEngine.release(entry.accountId(),
+                        OperationTypeEnum.fromCode(entry.operationTypeId()).applySign(Money.toCents(entry.amount())));
+            }
         }
 
-        if (creditLimit.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new TransactionInvalidException();
+        final long from = entries.getFirst().sequence() - 1;
+        if (journalCheckpointRepository.advance(journalId, from, entries.getLast().sequence()) == 0) {
+            throw new IllegalStateException("Journal " + journalId + " was already drained past sequence " + from + ".");
         }
 
-        account.setAvailableCreditLimit(creditLimit);
-        accountRepository.save(account);
+        return results;
+    }
 
-        var transaction = Transaction.builder()
-                .account(account)
-                .operationType(operationType)
-                .amount(amount)
-                .eventDate(Instant.now())
-                .build();
+    private List<TransactionBatchItemResult> createTransactions(List<CreateTransactionRequest> requests,
+                                                                IntFunction<Instant> eventDates,
+                                                                boolean admitted) {
+        final List<Long> accountIds = requests.stream().map(CreateTransactionRequest::accountId).toList();
+        accountCoordinator.lock(accountIds);
+        final Map<Long, AccountCreditLimit> readCreditLimits = accountRepository.findCreditLimits(accountIds);
+        final Map<Long, Integer> balanceShards = new HashMap<>();
+        readCreditLimits.forEach((accountId, creditLimit) -> {
+            if (creditLimit.balanceShards() > 0) {
+                balanceShards.put(accountId, creditLimit.balanceShards());
+            }
+        });
+        final Map<Long, Long> shardedCreditLimits = balanceShards.isEmpty()
+                ? Map.of()
+                : balanceShardService.lockCreditLimits(balanceShards);
+
+        final TransactionBatchItemResult[] results = new TransactionBatchItemResult[requests.size()];
+        final int[] pendingIndexes = new int[requests.size()];
+        final List<Transaction> pending = new ArrayList<>(requests.size());
+        // Only ever holds positive limits, so a missing account reads as 0
+        final LongLongHashMap updatedCreditLimits = new LongLongHashMap();
+
+        for (int index = 0; index < requests.size(); index++) {
+            final CreateTransactionRequest request = requests.get(index);
+
+            final AccountCreditLimit readCreditLimit = readCreditLimits.get(request.accountId());
+            if (readCreditLimit == null) {
+                results[index] = TransactionBatchItemResult.rejected(index, new AccountNotFoundException(request.accountId()));
+                continue;
+            }
+            final long updatedCreditLimit = updatedCreditLimits.get(request.accountId());
+            final long creditLimit = updatedCreditLimit > 0L
+                    ? updatedCreditLimit
+                    : shardedCreditLimits.getOrDefault(request.accountId(), readCreditLimit.cents());
+
+            final OperationType operationType;
+            try {
+                operationType = operationTypeRegistry.findById(request.operationTypeId());
+            } catch (OperationTypeNotFoundException ex) {
+                results[index] = TransactionBatchItemResult.rejected(index, ex);
+                continue;
+            }
+
+            final long amount;
+            final long newCreditLimit;
+            try {
+                amount = OperationTypeEnum.fromCode(request.operationTypeId()).applySign(Money.toCents(request.amount()));
+                newCreditLimit = applyCreditLimitRule(creditLimit, amount);
+                if (!admitted) {
+                    balanceEngine.reserve(request.accountId(), amount);
+                }
+            } catch (TransactionInvalidException | AmountOutOfRangeException ex) {
+                results[index] = TransactionBatchItemResult.rejected(index, ex);
+                continue;
+            }
+
+            updatedCreditLimits.put(request.accountId(), newCreditLimit);
+
+            pendingIndexes[pending.size()] = index;
+            pending.add(Transaction.builder()
+                    .account(Account.builder().accountId(request.accountId()).build())
+                    .operationType(operationType)
+                    .amount(Money.toBigDecimal(amount))
+                    .eventDate(eventDates.apply(index))
+                    .build());
+        }
+
+        if (!pending.isEmpty()) {
+            final List<Transaction> inserted = transactionRepository.insertAll(pending);
+            for (int i = 0; i < inserted.size(); i++) {
+                results[pendingIndexes[i]] = TransactionBatchItemResult.created(pendingIndexes[i], inserted.get(i));
+            }
+            for (Transaction transaction : inserted) {
+                balanceEngine.written(transaction);
+                transactionOutbox.append(transaction);
+            }
+
+            final Map<Long, AccountCreditLimit> newCreditLimits = new HashMap<>(updatedCreditLimits.size() * 2);
+            updatedCreditLimits.forEach((accountId, cents) -> {
+                final Integer shards = balanceShards.get(accountId);
+                if (shards != null) {
+                    balanceShardService.updateCreditLimit(accountId, shards, cents);
+                } else {
+                    newCreditLimits.put(accountId, new AccountCreditLimit(cents, readCreditLimits.get(accountId).version()));
+                }
+                accountCache.evictAfterCommit(accountId);
+            });
+            accountRepository.updateCreditLimits(newCreditLimits);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Reads one row past the page to know whether there is a next one. An account with no transactions at all is
+     * only told apart from a missing account when the first page comes back empty.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionPage findByAccount(Long accountId, TransactionCursor after, int limit) {
+        final List<AccountTransactionResponse> transactions = after == null
+                ? transactionRepository.findPageByAccountId(accountId, Limit.of(limit + 1))
+                : transactionRepository.findPageByAccountIdAfter(accountId, after.eventDate(), after.transactionId(), Limit.of(limit + 1));
+
+        if (transactions.isEmpty() && after == null && !accountRepository.existsById(accountId)) {
+            throw new AccountNotFoundException(accountId);
+        }
+
+        if (transactions.size() <= limit) {
+            return new TransactionPage(transactions, null);
+        }
+
+        final List<AccountTransactionResponse> page = transactions.subList(0, limit);
+        return new TransactionPage(page, TransactionCursor.after(page.getLast()));
+    }
+
+    /**
+     * Hands the account's transactions to the consumer one at a time while the cursor is open, so memory stays flat
+     * however long the history is. An exception from the consumer, such as a failed write to a client that went away,
+     * stops the export and closes the cursor.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportByAccount(Long accountId, Consumer<AccountTransactionResponse> consumer) {
+        try (Stream<AccountTransactionResponse> transactions = transactionRepository.streamByAccountId(accountId)) {
+            transactions.forEach(consumer);
+        }
+    }
+
+    private static long applyCreditLimitRule(long creditLimit, long signedAmount) {
+        final long newCreditLimit = Money.add(creditLimit, signedAmount);
+
+        if (newCreditLimit <= 0L) {
+            throw new TransactionInvalidException();
+        }
 
-        return transactionRepository.save(transaction);
+        return newCreditLimit;
     }
 }
@@ -0,0 +1,6 @@
+-- Keeps the id sequences in step with spring.flyway.placeholders.id_allocation_size; Flyway re-runs this
+-- script whenever the placeholder value changes. Only grow the value on a live system: while old and new
+-- instances overlap, a smaller increment can hand out ids that an old instance has already reserved.
+ALTER SEQUENCE account_id_seq INCREMENT BY ${id_allocation_size};
+
+ALTER SEQUENCE transaction_id_seq INCREMENT BY ${id_allocation_size};
@@ -0,0 +1,11 @@
+ALTER TABLE account
+ADD balance_shards INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE account_balance_shard (
+    account_id BIGINT NOT NULL,
+    shard INTEGER NOT NULL,
+    available_credit_limit NUMERIC(19,2) NOT NULL,
+    PRIMARY KEY (account_id, shard),
+    CONSTRAINT fk_account_balance_shard_account FOREIGN KEY (account_id)
+        REFERENCES account(account_id)
+);
@@ -0,0 +1,9 @@
+-- One row per transaction waiting to be published. Rows are inserted in the transaction that creates the
+-- transaction and deleted once published, so the table only holds the backlog.
+CREATE TABLE outbox (
+    transaction_id BIGINT PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    operation_type_id BIGINT NOT NULL,
+    amount NUMERIC(19,2) NOT NULL,
+    event_date TIMESTAMP NOT NULL
+);
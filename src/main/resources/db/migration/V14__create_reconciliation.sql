@@ -0,0 +1,31 @@
+-- A reconciliation checks account ids from_account_id to to_account_id in chunks of chunk_size ids. Each checked
+-- chunk gets a row, along with the accounts found out of step in it, so a reconciliation cut short resumes with the
+-- chunks it has not checked yet.
+CREATE TABLE reconciliation_run (
+    run_id UUID PRIMARY KEY,
+    from_account_id BIGINT NOT NULL,
+    to_account_id BIGINT NOT NULL,
+    chunk_size INTEGER NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP
+);
+
+CREATE TABLE reconciliation_chunk (
+    run_id UUID NOT NULL,
+    from_account_id BIGINT NOT NULL,
+    accounts BIGINT NOT NULL,
+    mismatches BIGINT NOT NULL,
+    PRIMARY KEY (run_id, from_account_id),
+    CONSTRAINT fk_reconciliation_chunk_run FOREIGN KEY (run_id)
+        REFERENCES reconciliation_run(run_id)
+);
+
+CREATE TABLE reconciliation_mismatch (
+    run_id UUID NOT NULL,
+    account_id BIGINT NOT NULL,
+    available_credit_limit NUMERIC(19,2) NOT NULL,
+    transaction_sum NUMERIC(19,2) NOT NULL,
+    PRIMARY KEY (run_id, account_id),
+    CONSTRAINT fk_reconciliation_mismatch_run FOREIGN KEY (run_id)
+        REFERENCES reconciliation_run(run_id)
+);
@@ -0,0 +1,3 @@
+CREATE SEQUENCE account_id_seq START WITH 1 INCREMENT BY ${id_allocation_size};
+
+CREATE SEQUENCE transaction_id_seq START WITH 1 INCREMENT BY ${id_allocation_size};
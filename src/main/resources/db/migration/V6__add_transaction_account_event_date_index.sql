@@ -0,0 +1 @@
+CREATE INDEX idx_transaction_account_event_date ON transaction (account_id, event_date DESC, transaction_id DESC);
@@ -0,0 +1,7 @@
+CREATE TABLE idempotency_key (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    transaction_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_idempotency_key_transaction FOREIGN KEY (transaction_id)
+        REFERENCES transaction(transaction_id)
+);
@@ -0,0 +1,4 @@
+CREATE TABLE journal_checkpoint (
+    journal_id VARCHAR(255) PRIMARY KEY,
+    last_sequence BIGINT NOT NULL
+);
@@ -0,0 +1,2 @@
+ALTER TABLE account
+ADD version BIGINT NOT NULL DEFAULT 0;
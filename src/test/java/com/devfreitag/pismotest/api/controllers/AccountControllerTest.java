@@ -4,6 +4,9 @@ import com.devfreitag.pismotest.entities.Account;
 import com.devfreitag.pismotest.exceptions.AccountConflictException;
 import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
 import com.devfreitag.pismotest.models.CreateAccountRequest;
+import com.devfreitag.pismotest.repositories.AccountImportResult;
+import com.devfreitag.pismotest.services.AccountImportService;
+import com.devfreitag.pismotest.services.AccountImportSummary;
 import com.devfreitag.pismotest.services.AccountService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -14,8 +17,17 @@ import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,6 +44,9 @@ class AccountControllerTest {
     @MockitoBean
     private AccountService accountService;
 
+    @MockitoBean
+    private AccountImportService accountImportService;
+
     @Nested
     @DisplayName("POST /accounts - Create Account")
     class CreateAccountTests {
@@ -201,4 +216,62 @@ class AccountControllerTest {
             }
         }
     }
+
+    @Nested
+    @DisplayName("POST /accounts/import - Import Accounts")
+    class ImportAccountsTests {
+
+        @Test
+        @DisplayName("Should stream the outcome of every line followed by the counts")
+        @SuppressWarnings("unchecked")
+        void shouldStreamTheOutcomeOfEveryLineFollowedByTheCounts() throws Exception {
+            // Arrange
+            String csv = """
+                    document_number,available_credit_limit
+                    12345678900,100.00
+                    98765432100
+                    ,5
+                    """;
+
+            when(accountImportService.importAccounts(any(), any())).thenAnswer(invocation -> {
+                try (BufferedReader reader = new BufferedReader(invocation.<Reader>getArgument(0))) {
+                    assertThat(reader.lines()).containsExactly(
+                            "document_number,available_credit_limit", "12345678900,100.00", "98765432100", ",5");
+                }
+                Consumer<AccountImportResult> consumer = invocation.getArgument(1);
+                consumer.accept(new AccountImportResult(2L, "12345678900", new BigDecimal("100.00"), 201, null, 1L, 10L));
+                consumer.accept(new AccountImportResult(3L, "98765432100", new BigDecimal("0.00"), 409, null, null, null));
+                consumer.accept(new AccountImportResult(4L, null, null, 422, "Document number is required", null, null));
+                return new AccountImportSummary(1, 1, 1);
+            });
+
+            // Act
+            MvcResult result = mockMvc.perform(post("/accounts/import")
+                            .contentType("text/csv")
+                            .content(csv))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Assert
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andExpect(content().string("""
+                            {"line":2,"document_number":"12345678900","status":201,"account_id":1,"message":null}
+                            {"line":3,"document_number":"98765432100","status":409,"account_id":null,"message":"Account with document number 98765432100 already exists."}
+                            {"line":4,"document_number":null,"status":422,"account_id":null,"message":"Document number is required"}
+                            {"created":1,"conflicts":1,"rejected":1}
+                            """));
+        }
+
+        @Test
+        @DisplayName("Should return 415 when the body is not CSV")
+        void shouldReturn415WhenTheBodyIsNotCsv() throws Exception {
+            // Act & Assert
+            mockMvc.perform(post("/accounts/import")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{}"))
+                    .andExpect(status().isUnsupportedMediaType());
+        }
+    }
 }
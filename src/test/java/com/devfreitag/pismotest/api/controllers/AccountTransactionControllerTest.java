@@ -0,0 +1,180 @@
+package com.devfreitag.pismotest.api.controllers;
+
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.models.AccountTransactionResponse;
+import com.devfreitag.pismotest.services.AccountService;
+import com.devfreitag.pismotest.services.TransactionCursor;
+import com.devfreitag.pismotest.services.TransactionPage;
+import com.devfreitag.pismotest.services.TransactionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.hasKey;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AccountTransactionController.class)
+@DisplayName("AccountTransactionController Tests")
+class AccountTransactionControllerTest {
+
+    private static final Instant EVENT_DATE = Instant.parse("2026-01-15T10:30:00Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TransactionService transactionService;
+
+    @MockitoBean
+    private AccountService accountService;
+
+    @Nested
+    @DisplayName("GET /accounts/{accountId}/transactions - List Transactions")
+    class GetTransactionsTests {
+
+        @Test
+        @DisplayName("Should return the first page with a cursor for the next one")
+        void shouldReturnTheFirstPageWithACursorForTheNextOne() throws Exception {
+            // Arrange
+            TransactionCursor next = new TransactionCursor(EVENT_DATE, 9L);
+            when(transactionService.findByAccount(1L, null, 50))
+                    .thenReturn(new TransactionPage(List.of(
+                            new AccountTransactionResponse(10L, 1L, new BigDecimal("-50.00"), EVENT_DATE),
+                            new AccountTransactionResponse(9L, 4L, new BigDecimal("20.00"), EVENT_DATE)), next));
+
+            // Act & Assert
+            mockMvc.perform(get("/accounts/1/transactions"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.transactions.length()").value(2))
+                    .andExpect(jsonPath("$.transactions[0].transaction_id").value(10))
+                    .andExpect(jsonPath("$.transactions[0].operation_type_id").value(1))
+                    .andExpect(jsonPath("$.transactions[0].amount").value(-50.00))
+                    .andExpect(jsonPath("$.transactions[0].event_date").value("2026-01-15T10:30:00Z"))
+                    .andExpect(jsonPath("$.next_cursor").value(next.encode()));
+        }
+
+        @Test
+        @DisplayName("Should continue from the given cursor with the given limit")
+        void shouldContinueFromTheGivenCursorWithTheGivenLimit() throws Exception {
+            // Arrange
+            TransactionCursor cursor = new TransactionCursor(EVENT_DATE, 9L);
+            when(transactionService.findByAccount(1L, cursor, 10))
+                    .thenReturn(new TransactionPage(List.of(), null));
+
+            // Act & Assert
+            mockMvc.perform(get("/accounts/1/transactions")
+                            .param("limit", "10")
+                            .param("cursor", cursor.encode()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.transactions").isEmpty())
+                    .andExpect(jsonPath("$.next_cursor").doesNotExist());
+
+            verify(transactionService).findByAccount(1L, cursor, 10);
+        }
+
+        @Test
+        @DisplayName("Should return 400 when the cursor is malformed")
+        void shouldReturn400WhenTheCursorIsMalformed() throws Exception {
+            // Act & Assert
+            mockMvc.perform(get("/accounts/1/transactions").param("cursor", "not-a-cursor"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Invalid page cursor: not-a-cursor"));
+
+            verifyNoInteractions(transactionService);
+        }
+
+        @Test
+        @DisplayName("Should return 400 when the limit is out of range")
+        void shouldReturn400WhenTheLimitIsOutOfRange() throws Exception {
+            // Act & Assert
+            mockMvc.perform(get("/accounts/1/transactions").param("limit", "501"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Validation failed"))
+                    .andExpect(jsonPath("$.errors", hasKey("limit")));
+            mockMvc.perform(get("/accounts/1/transactions").param("limit", "0"))
+                    .andExpect(status().isBadRequest());
+
+            verify(transactionService, never()).findByAccount(any(), any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should return 404 when the account does not exist")
+        void shouldReturn404WhenTheAccountDoesNotExist() throws Exception {
+            // Arrange
+            when(transactionService.findByAccount(999L, null, 50))
+                    .thenThrow(new AccountNotFoundException(999L));
+
+            // Act & Assert
+            mockMvc.perform(get("/accounts/999/transactions"))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.message").value("Account with ID 999 not found."));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /accounts/{accountId}/transactions/export - Export Transactions")
+    class ExportTransactionsTests {
+
+        @Test
+        @DisplayName("Should stream one JSON object per line")
+        @SuppressWarnings("unchecked")
+        void shouldStreamOneJsonObjectPerLine() throws Exception {
+            // Arrange
+            doAnswer(invocation -> {
+                Consumer<AccountTransactionResponse> consumer = invocation.getArgument(1);
+                consumer.accept(new AccountTransactionResponse(1L, 1L, new BigDecimal("-50.00"), EVENT_DATE));
+                consumer.accept(new AccountTransactionResponse(2L, 4L, new BigDecimal("20.00"), EVENT_DATE));
+                return null;
+            }).when(transactionService).exportByAccount(eq(1L), any());
+
+            // Act
+            MvcResult result = mockMvc.perform(get("/accounts/1/transactions/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Assert
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andExpect(content().string("""
+                            {"transaction_id":1,"operation_type_id":1,"amount":-50.00,"event_date":"2026-01-15T10:30:00Z"}
+                            {"transaction_id":2,"operation_type_id":4,"amount":20.00,"event_date":"2026-01-15T10:30:00Z"}
+                            """));
+            verify(accountService).findById(1L);
+        }
+
+        @Test
+        @DisplayName("Should return 404 before streaming when the account does not exist")
+        void shouldReturn404BeforeStreamingWhenTheAccountDoesNotExist() throws Exception {
+            // Arrange
+            when(accountService.findById(999L)).thenThrow(new AccountNotFoundException(999L));
+
+            // Act & Assert
+            mockMvc.perform(get("/accounts/999/transactions/export"))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.message").value("Account with ID 999 not found."));
+
+            verify(transactionService, never()).exportByAccount(any(), any());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.devfreitag.pismotest.api.controllers;
+
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.entities.OperationType;
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.services.BalanceShardService;
+import com.devfreitag.pismotest.services.CreditLimitMismatch;
+import com.devfreitag.pismotest.services.CreditLimitRebuildReport;
+import com.devfreitag.pismotest.services.CreditLimitRebuildService;
+import com.devfreitag.pismotest.services.OperationTypeRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AdminController.class)
+@DisplayName("AdminController Tests")
+class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private BalanceShardService balanceShardService;
+
+    @MockitoBean
+    private OperationTypeRegistry operationTypeRegistry;
+
+    @MockitoBean
+    private CreditLimitRebuildService creditLimitRebuildService;
+
+    private OperationType buildOperationType(Long operationTypeId, String description) {
+        OperationType operationType = new OperationType();
+        ReflectionTestUtils.setField(operationType, "operationTypeId", operationTypeId);
+        ReflectionTestUtils.setField(operationType, "description", description);
+        return operationType;
+    }
+
+    @Nested
+    @DisplayName("POST /admin/operation-types/refresh - Refresh Operation Types")
+    class RefreshOperationTypesTests {
+
+        @Test
+        @DisplayName("Should reload the registry and return the loaded operation types")
+        void shouldReloadTheRegistryAndReturnTheLoadedOperationTypes() throws Exception {
+            // Arrange
+            when(operationTypeRegistry.refresh())
+                    .thenReturn(List.of(buildOperationType(1L, "PURCHASE"), buildOperationType(4L, "PAYMENT")));
+
+            // Act & Assert
+            mockMvc.perform(post("/admin/operation-types/refresh"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].operation_type_id").value(1))
+                    .andExpect(jsonPath("$[0].description").value("PURCHASE"))
+                    .andExpect(jsonPath("$[1].operation_type_id").value(4))
+                    .andExpect(jsonPath("$[1].description").value("PAYMENT"));
+
+            verify(operationTypeRegistry).refresh();
+        }
+    }
+
+    @Nested
+    @DisplayName("PUT /admin/accounts/{accountId}/balance-shards - Update Balance Shards")
+    class UpdateBalanceShardsTests {
+
+        @Test
+        @DisplayName("Should split the account's limit and return it summed over the shards")
+        void shouldSplitTheAccountsLimitAndReturnItSummedOverTheShards() throws Exception {
+            // Arrange
+            when(balanceShardService.reshard(1L, 16))
+                    .thenReturn(Account.builder()
+                            .accountId(1L)
+                            .documentNumber("12345678900")
+                            .availableCreditLimit(new BigDecimal("500.00"))
+                            .balanceShards(16)
+                            .build());
+
+            // Act & Assert
+            mockMvc.perform(put("/admin/accounts/1/balance-shards")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"balance_shards\": 16}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.account_id").value(1))
+                    .andExpect(jsonPath("$.balance_shards").value(16))
+                    .andExpect(jsonPath("$.available_credit_limit").value(500.00));
+        }
+
+        @Test
+        @DisplayName("Should return 400 when the number of shards is out of range")
+        void shouldReturn400WhenTheNumberOfShardsIsOutOfRange() throws Exception {
+            // Act & Assert
+            mockMvc.perform(put("/admin/accounts/1/balance-shards")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"balance_shards\": 1000}"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Validation failed"))
+                    .andExpect(jsonPath("$.errors.balanceShards").exists());
+
+            verify(balanceShardService, never()).reshard(anyLong(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should return 404 when the account does not exist")
+        void shouldReturn404WhenTheAccountDoesNotExist() throws Exception {
+            // Arrange
+            when(balanceShardService.reshard(999L, 4)).thenThrow(new AccountNotFoundException(999L));
+
+            // Act & Assert
+            mockMvc.perform(put("/admin/accounts/999/balance-shards")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"balance_shards\": 4}"))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.message").value("Account with ID 999 not found."));
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /admin/credit-limits/rebuild - Rebuild Credit Limits")
+    class RebuildCreditLimitsTests {
+
+        @Test
+        @DisplayName("Should replay the requested range and return the mismatches")
+        void shouldReplayTheRequestedRangeAndReturnTheMismatches() throws Exception {
+            // Arrange
+            when(creditLimitRebuildService.rebuild(1L, 100L, true))
+                    .thenReturn(new CreditLimitRebuildReport(100L, 2500L, 1L, 1L, List.of(
+                            new CreditLimitMismatch(7L, new BigDecimal("150.00"), new BigDecimal("100.00"), true))));
+
+            // Act & Assert
+            mockMvc.perform(post("/admin/credit-limits/rebuild")
+                            .param("from_account_id", "1")
+                            .param("to_account_id", "100")
+                            .param("correct", "true"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.accounts").value(100))
+                    .andExpect(jsonPath("$.transactions").value(2500))
+                    .andExpect(jsonPath("$.mismatches").value(1))
+                    .andExpect(jsonPath("$.corrected").value(1))
+                    .andExpect(jsonPath("$.listed[0].account_id").value(7))
+                    .andExpect(jsonPath("$.listed[0].stored_credit_limit").value(150.00))
+                    .andExpect(jsonPath("$.listed[0].replayed_credit_limit").value(100.00))
+                    .andExpect(jsonPath("$.listed[0].corrected").value(true));
+        }
+
+        @Test
+        @DisplayName("Should replay every account and only report by default")
+        void shouldReplayEveryAccountAndOnlyReportByDefault() throws Exception {
+            // Arrange
+            when(creditLimitRebuildService.rebuild(null, null, false))
+                    .thenReturn(new CreditLimitRebuildReport(0L, 0L, 0L, 0L, List.of()));
+
+            // Act & Assert
+            mockMvc.perform(post("/admin/credit-limits/rebuild"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.mismatches").value(0))
+                    .andExpect(jsonPath("$.listed").isEmpty());
+
+            verify(creditLimitRebuildService).rebuild(null, null, false);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.devfreitag.pismotest.exceptions.AccountConflictException;
 import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
 import com.devfreitag.pismotest.exceptions.OperationTypeNotFoundException;
 import com.devfreitag.pismotest.models.CreateAccountRequest;
+import com.devfreitag.pismotest.services.AccountImportService;
 import com.devfreitag.pismotest.services.AccountService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -34,6 +35,9 @@ class GlobalExceptionHandlerTest {
     @MockitoBean
     private AccountService accountService;
 
+    @MockitoBean
+    private AccountImportService accountImportService;
+
     @Test
     @DisplayName("Should handle MethodArgumentNotValidException and return 400 with field errors")
     void shouldHandleMethodArgumentNotValidException() throws Exception {
@@ -3,9 +3,17 @@ package com.devfreitag.pismotest.api.controllers;
 import com.devfreitag.pismotest.entities.Account;
 import com.devfreitag.pismotest.entities.OperationType;
 import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.exceptions.AccountBusyException;
 import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.exceptions.IdempotencyKeyReusedException;
 import com.devfreitag.pismotest.exceptions.OperationTypeNotFoundException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.CreateTransactionBatchRequest;
 import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import com.devfreitag.pismotest.services.IdempotencyService;
+import com.devfreitag.pismotest.services.IdempotentTransaction;
+import com.devfreitag.pismotest.services.TransactionBatchItemResult;
 import com.devfreitag.pismotest.services.TransactionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -18,8 +26,11 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -36,6 +47,9 @@ class TransactionControllerTest {
     @MockitoBean
     private TransactionService transactionService;
 
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
     @Nested
     @DisplayName("POST /transactions - Create Transaction")
     class CreateTransactionTests {
@@ -301,6 +315,190 @@ class TransactionControllerTest {
                         .andExpect(jsonPath("$.message").value("Operation type with ID " + operationTypeId + " not found."))
                         .andExpect(jsonPath("$.errors").isEmpty());
             }
+
+            @Test
+            @DisplayName("Should return 503 when account is busy")
+            void shouldReturn503WhenAccountIsBusy() throws Exception {
+                // Arrange
+                Long accountId = 1L;
+                Long operationTypeId = 1L;
+                BigDecimal amount = new BigDecimal("100.00");
+
+                CreateTransactionRequest request = new CreateTransactionRequest(accountId, operationTypeId, amount);
+
+                when(transactionService.createTransaction(accountId, operationTypeId, amount))
+                        .thenThrow(new AccountBusyException(accountId));
+
+                // Act & Assert
+                mockMvc.perform(post("/transactions")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isServiceUnavailable())
+                        .andExpect(jsonPath("$.message").value("Account with ID " + accountId + " is busy, try again later."))
+                        .andExpect(jsonPath("$.errors").isEmpty());
+            }
+        }
+
+        @Nested
+        @DisplayName("Idempotency Key")
+        class IdempotencyKeyScenarios {
+
+            private final CreateTransactionRequest request = new CreateTransactionRequest(1L, 1L, new BigDecimal("100.00"));
+
+            private final CreateTransactionResponse response = new CreateTransactionResponse(7L, 1L, 1L, new BigDecimal("-100.00"));
+
+            @Test
+            @DisplayName("Should create the transaction through the idempotency service when a key is sent")
+            void shouldCreateTheTransactionThroughTheIdempotencyServiceWhenAKeyIsSent() throws Exception {
+                // Arrange
+                when(idempotencyService.createTransaction("key-1", request))
+                        .thenReturn(new IdempotentTransaction(response, false));
+
+                // Act & Assert
+                mockMvc.perform(post("/transactions")
+                                .header("Idempotency-Key", "key-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isCreated())
+                        .andExpect(header().string("Location", "/transactions/7"))
+                        .andExpect(header().string("Idempotent-Replayed", "false"))
+                        .andExpect(jsonPath("$.transaction_id").value(7))
+                        .andExpect(jsonPath("$.amount").value(-100.00));
+
+                verifyNoInteractions(transactionService);
+            }
+
+            @Test
+            @DisplayName("Should return the original transaction marked as replayed")
+            void shouldReturnTheOriginalTransactionMarkedAsReplayed() throws Exception {
+                // Arrange
+                when(idempotencyService.createTransaction("key-1", request))
+                        .thenReturn(new IdempotentTransaction(response, true));
+
+                // Act & Assert
+                mockMvc.perform(post("/transactions")
+                                .header("Idempotency-Key", "key-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isCreated())
+                        .andExpect(header().string("Location", "/transactions/7"))
+                        .andExpect(header().string("Idempotent-Replayed", "true"))
+                        .andExpect(jsonPath("$.transaction_id").value(7));
+            }
+
+            @Test
+            @DisplayName("Should return 422 when the key was used for a different transaction")
+            void shouldReturn422WhenTheKeyWasUsedForADifferentTransaction() throws Exception {
+                // Arrange
+                when(idempotencyService.createTransaction("key-1", request))
+                        .thenThrow(new IdempotencyKeyReusedException("key-1"));
+
+                // Act & Assert
+                mockMvc.perform(post("/transactions")
+                                .header("Idempotency-Key", "key-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isUnprocessableContent())
+                        .andExpect(jsonPath("$.message").value("Idempotency key key-1 was already used for a different transaction."));
+            }
+
+            @Test
+            @DisplayName("Should return 400 when the key is too long")
+            void shouldReturn400WhenTheKeyIsTooLong() throws Exception {
+                // Act & Assert
+                mockMvc.perform(post("/transactions")
+                                .header("Idempotency-Key", "k".repeat(256))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.errors.idempotencyKey").exists());
+
+                verifyNoInteractions(idempotencyService, transactionService);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /transactions/batch - Create Transactions in Batch")
+    class CreateTransactionsTests {
+
+        @Test
+        @DisplayName("Should return one result per item, including rejected ones")
+        void shouldReturnOneResultPerItemIncludingRejectedOnes() throws Exception {
+            // Arrange
+            CreateTransactionRequest purchase = new CreateTransactionRequest(1L, 1L, new BigDecimal("50.00"));
+            CreateTransactionRequest unknownAccount = new CreateTransactionRequest(999L, 1L, new BigDecimal("10.00"));
+            CreateTransactionRequest overLimit = new CreateTransactionRequest(1L, 3L, new BigDecimal("5000.00"));
+            CreateTransactionRequest unknownOperationType = new CreateTransactionRequest(1L, 999L, new BigDecimal("10.00"));
+            List<CreateTransactionRequest> requests = List.of(purchase, unknownAccount, overLimit, unknownOperationType);
+
+            Transaction mockTransaction = createMockTransaction(10L, 1L, 1L, new BigDecimal("-50.00"));
+
+            when(transactionService.createTransactions(requests))
+                    .thenReturn(List.of(
+                            TransactionBatchItemResult.created(0, mockTransaction),
+                            TransactionBatchItemResult.rejected(1, new AccountNotFoundException(999L)),
+                            TransactionBatchItemResult.rejected(2, new TransactionInvalidException()),
+                            TransactionBatchItemResult.rejected(3, new OperationTypeNotFoundException(999L))
+                    ));
+
+            // Act & Assert
+            mockMvc.perform(post("/transactions/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new CreateTransactionBatchRequest(requests))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.created").value(1))
+                    .andExpect(jsonPath("$.rejected").value(3))
+                    .andExpect(jsonPath("$.results[0].index").value(0))
+                    .andExpect(jsonPath("$.results[0].status").value(201))
+                    .andExpect(jsonPath("$.results[0].transaction.transaction_id").value(10))
+                    .andExpect(jsonPath("$.results[0].transaction.amount").value(-50.00))
+                    .andExpect(jsonPath("$.results[1].status").value(404))
+                    .andExpect(jsonPath("$.results[1].message").value("Account with ID 999 not found."))
+                    .andExpect(jsonPath("$.results[2].status").value(422))
+                    .andExpect(jsonPath("$.results[2].message").value("Transaction with credit limit can't be less than zero."))
+                    .andExpect(jsonPath("$.results[3].status").value(404))
+                    .andExpect(jsonPath("$.results[3].transaction").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should return 400 when batch is empty")
+        void shouldReturn400WhenBatchIsEmpty() throws Exception {
+            // Act & Assert
+            mockMvc.perform(post("/transactions/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new CreateTransactionBatchRequest(Collections.emptyList()))))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.errors.transactions").value("At least one transaction must be informed"));
+        }
+
+        @Test
+        @DisplayName("Should return 400 when batch exceeds the maximum size")
+        void shouldReturn400WhenBatchExceedsTheMaximumSize() throws Exception {
+            // Arrange
+            List<CreateTransactionRequest> requests = Collections.nCopies(
+                    CreateTransactionBatchRequest.MAX_SIZE + 1, new CreateTransactionRequest(1L, 1L, BigDecimal.ONE));
+
+            // Act & Assert
+            mockMvc.perform(post("/transactions/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new CreateTransactionBatchRequest(requests))))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.errors.transactions").exists());
+        }
+
+        @Test
+        @DisplayName("Should return 400 with the item path when an item is invalid")
+        void shouldReturn400WithTheItemPathWhenAnItemIsInvalid() throws Exception {
+            // Arrange
+            String requestBody = "{\"transactions\": [{\"account_id\": 1, \"operation_type_id\": 1, \"amount\": 10.00}, {\"account_id\": 1, \"operation_type_id\": 1, \"amount\": -1}]}";
+
+            // Act & Assert
+            mockMvc.perform(post("/transactions/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(requestBody))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.errors['transactions[1].amount']").exists());
         }
     }
 
@@ -0,0 +1,82 @@
+package com.devfreitag.pismotest.api.controllers;
+
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.services.JournalEntry;
+import com.devfreitag.pismotest.services.TransactionJournalService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = TransactionJournalController.class, properties = "pismo.journal.enabled=true")
+@DisplayName("TransactionJournalController Tests")
+class TransactionJournalControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @MockitoBean
+    private TransactionJournalService transactionJournalService;
+
+    @Test
+    @DisplayName("Should accept the transaction once it is in the journal and return 202 with its sequence")
+    void shouldAcceptTheTransactionOnceItIsInTheJournalAndReturn202WithItsSequence() throws Exception {
+        // Arrange
+        CreateTransactionRequest request = new CreateTransactionRequest(1L, 1L, new BigDecimal("123.45"));
+        when(transactionJournalService.accept(request))
+                .thenReturn(new JournalEntry(42L, 1L, 1L, new BigDecimal("123.45"), Instant.parse("2026-01-15T10:30:00Z")));
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/journal")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.sequence").value(42))
+                .andExpect(jsonPath("$.account_id").value(1))
+                .andExpect(jsonPath("$.operation_type_id").value(1))
+                .andExpect(jsonPath("$.amount").value(-123.45))
+                .andExpect(jsonPath("$.event_date").value("2026-01-15T10:30:00Z"));
+    }
+
+    @Test
+    @DisplayName("Should return 404 when the account does not exist")
+    void shouldReturn404WhenTheAccountDoesNotExist() throws Exception {
+        // Arrange
+        CreateTransactionRequest request = new CreateTransactionRequest(999L, 1L, new BigDecimal("10.00"));
+        when(transactionJournalService.accept(any())).thenThrow(new AccountNotFoundException(999L));
+
+        // Act & Assert
+        mockMvc.perform(post("/transactions/journal")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should return 400 without journaling when the amount is missing")
+    void shouldReturn400WithoutJournalingWhenTheAmountIsMissing() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/transactions/journal")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"account_id\": 1, \"operation_type_id\": 1}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(transactionJournalService);
+    }
+}
@@ -0,0 +1,147 @@
+package com.devfreitag.pismotest.config;
+
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.services.AccountService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Stands a second in-memory H2 database in for the replica. Accounts inserted only there tell which database a read
+ * went to.
+ */
+@SpringBootTest(properties = {
+        "pismo.read-replica.enabled=true",
+        "pismo.read-replica.url=" + ReadReplicaIntegrationTest.REPLICA_URL,
+        "pismo.read-replica.username=sa",
+        "pismo.read-replica.password=",
+        "pismo.read-replica.max-lag=2s",
+        "pismo.read-replica.lag-check-interval=1h",
+        "pismo.read-replica.lag-query=SELECT lag FROM replica_lag"
+})
+@DisplayName("Read Replica Integration Tests")
+class ReadReplicaIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void createReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                .placeholders(Map.of("id_allocation_size", "50"))
+                .load()
+                .migrate();
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_lag (lag NUMERIC NOT NULL)");
+    }
+
+    @BeforeEach
+    void setUp() {
+        replica.update("DELETE FROM replica_lag");
+    }
+
+    private void lag(int seconds) {
+        replica.update("DELETE FROM replica_lag");
+        replica.update("INSERT INTO replica_lag (lag) VALUES (?)", seconds);
+        replicaLagMonitor.check();
+    }
+
+    private Long insertReplicaOnlyAccount() {
+        Long accountId = replica.queryForObject("SELECT COALESCE(MAX(account_id), 900000000) + 1 FROM account", Long.class);
+        replica.update("INSERT INTO account (account_id, document_number, available_credit_limit) VALUES (?, ?, 0)",
+                accountId, UUID.randomUUID().toString());
+        return accountId;
+    }
+
+    @Test
+    @DisplayName("Should read from the replica and write to the primary while the replica is within the lag")
+    void shouldReadFromTheReplicaAndWriteToThePrimaryWhileTheReplicaIsWithinTheLag() {
+        // Arrange
+        lag(1);
+        Long replicaOnly = insertReplicaOnlyAccount();
+
+        // Act
+        Account read = accountService.findById(replicaOnly);
+        Account created = accountService.createAccount(UUID.randomUUID().toString());
+
+        // Assert
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+        assertThat(read.getAccountId()).isEqualTo(replicaOnly);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account WHERE account_id = ?", Long.class,
+                created.getAccountId())).isEqualTo(1L);
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM account WHERE document_number = ?", Long.class,
+                created.getDocumentNumber())).isZero();
+    }
+
+    @Test
+    @DisplayName("Should read from the primary when the replica is further behind than the maximum lag")
+    void shouldReadFromThePrimaryWhenTheReplicaIsFurtherBehindThanTheMaximumLag() {
+        // Arrange
+        lag(60);
+        Long replicaOnly = insertReplicaOnlyAccount();
+
+        // Act & Assert
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        assertThatThrownBy(() -> accountService.findById(replicaOnly))
+                .isInstanceOf(AccountNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should read from the primary when the replica lag can't be read")
+    void shouldReadFromThePrimaryWhenTheReplicaLagCantBeRead() {
+        // Arrange
+        lag(1);
+        replica.update("DELETE FROM replica_lag");
+        replicaLagMonitor.check();
+        Long replicaOnly = insertReplicaOnlyAccount();
+
+        // Act & Assert
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        assertThatThrownBy(() -> accountService.findById(replicaOnly))
+                .isInstanceOf(AccountNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should keep an account read from the replica cached no longer than the maximum lag")
+    void shouldKeepAnAccountReadFromTheReplicaCachedNoLongerThanTheMaximumLag() {
+        // Arrange
+        lag(1);
+        Long replicaOnly = insertReplicaOnlyAccount();
+        accountService.findById(replicaOnly);
+
+        // Act
+        replica.update("UPDATE account SET available_credit_limit = 100 WHERE account_id = ?", replicaOnly);
+
+        // Assert
+        assertThat(accountService.findById(replicaOnly).getAvailableCreditLimit()).isEqualByComparingTo("0");
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> accountService.findById(replicaOnly).getAvailableCreditLimit().compareTo(new BigDecimal("100")) == 0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.devfreitag.pismotest.services;
+
+import com.devfreitag.pismotest.exceptions.AmountOutOfRangeException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Money Tests")
+class MoneyTest {
+
+    @Nested
+    @DisplayName("toCents() Tests")
+    class ToCentsTests {
+
+        @Test
+        @DisplayName("Should convert amounts of any scale to cents")
+        void shouldConvertAmountsOfAnyScaleToCents() {
+            // Act & Assert
+            assertThat(Money.toCents(new BigDecimal("123.45"))).isEqualTo(12_345L);
+            assertThat(Money.toCents(new BigDecimal("-0.10"))).isEqualTo(-10L);
+            assertThat(Money.toCents(new BigDecimal("7"))).isEqualTo(700L);
+            assertThat(Money.toCents(new BigDecimal("1.5"))).isEqualTo(150L);
+            assertThat(Money.toCents(new BigDecimal("1E+3"))).isEqualTo(100_000L);
+        }
+
+        @Test
+        @DisplayName("Should round half up like the database does")
+        void shouldRoundHalfUpLikeTheDatabaseDoes() {
+            // Act & Assert
+            assertThat(Money.toCents(new BigDecimal("10.005"))).isEqualTo(1_001L);
+            assertThat(Money.toCents(new BigDecimal("10.004"))).isEqualTo(1_000L);
+            assertThat(Money.toCents(new BigDecimal("-10.005"))).isEqualTo(-1_001L);
+        }
+
+        @Test
+        @DisplayName("Should throw AmountOutOfRangeException when the amount does not fit in a long")
+        void shouldThrowAmountOutOfRangeExceptionWhenTheAmountDoesNotFitInALong() {
+            // Act & Assert
+            assertThat(Money.toCents(new BigDecimal("92233720368547758.07"))).isEqualTo(Long.MAX_VALUE);
+            assertThatThrownBy(() -> Money.toCents(new BigDecimal("92233720368547758.08")))
+                    .isInstanceOf(AmountOutOfRangeException.class)
+                    .hasMessage("Amount is out of range.");
+        }
+    }
+
+    @Test
+    @DisplayName("Should convert cents back to an amount with two decimals")
+    void shouldConvertCentsBackToAnAmountWithTwoDecimals() {
+        // Act
+        BigDecimal amount = Money.toBigDecimal(-12_345L);
+
+        // Assert
+        assertThat(amount).isEqualTo(new BigDecimal("-123.45"));
+    }
+
+    @Test
+    @DisplayName("Should throw AmountOutOfRangeException instead of overflowing")
+    void shouldThrowAmountOutOfRangeExceptionInsteadOfOverflowing() {
+        // Act & Assert
+        assertThat(Money.add(Long.MAX_VALUE - 1, 1L)).isEqualTo(Long.MAX_VALUE);
+        assertThatThrownBy(() -> Money.add(Long.MAX_VALUE, 1L)).isInstanceOf(AmountOutOfRangeException.class);
+        assertThatThrownBy(() -> Money.abs(Long.MIN_VALUE)).isInstanceOf(AmountOutOfRangeException.class);
+    }
+}
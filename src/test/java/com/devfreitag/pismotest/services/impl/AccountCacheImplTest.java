@@ -0,0 +1,237 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.AccountCacheProperties;
+import com.devfreitag.pismotest.config.ReadReplicaProperties;
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("AccountCacheImpl Tests")
+class AccountCacheImplTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AccountCacheImpl accountCache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        accountCache = new AccountCacheImpl(new AccountCacheProperties(100, Duration.ofMinutes(1)),
+                new ReadReplicaProperties(false, null, null, null, 10, Duration.ofSeconds(5), Duration.ofSeconds(1), null),
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Function<Long, Account> loaderReturning(String creditLimit) {
+        return accountId -> {
+            loads.incrementAndGet();
+            return Account.builder()
+                    .accountId(accountId)
+                    .documentNumber("12345678900")
+                    .availableCreditLimit(new BigDecimal(creditLimit))
+                    .build();
+        };
+    }
+
+    private void completeTransaction(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Nested
+    @DisplayName("get() Tests")
+    class GetTests {
+
+        @Test
+        @DisplayName("Should load an account once and serve later reads from the cache")
+        void shouldLoadAnAccountOnceAndServeLaterReadsFromTheCache() {
+            // Act
+            Account first = accountCache.get(1L, loaderReturning("100.00"));
+            Account second = accountCache.get(1L, loaderReturning("999.00"));
+
+            // Assert
+            assertThat(loads).hasValue(1);
+            assertThat(second.getAvailableCreditLimit()).isEqualByComparingTo("100.00");
+            assertThat(second).isNotSameAs(first);
+        }
+
+        @Test
+        @DisplayName("Should not let callers change the cached account")
+        void shouldNotLetCallersChangeTheCachedAccount() {
+            // Arrange
+            accountCache.get(1L, loaderReturning("100.00")).setAvailableCreditLimit(BigDecimal.ZERO);
+
+            // Act
+            Account result = accountCache.get(1L, loaderReturning("999.00"));
+
+            // Assert
+            assertThat(result.getAvailableCreditLimit()).isEqualByComparingTo("100.00");
+        }
+
+        @Test
+        @DisplayName("Should keep every field of the account in the cached copy")
+        void shouldKeepEveryFieldOfTheAccountInTheCachedCopy() {
+            // Arrange
+            accountCache.get(1L, accountId -> Account.builder()
+                    .accountId(accountId)
+                    .documentNumber("12345678900")
+                    .availableCreditLimit(new BigDecimal("100.00"))
+                    .balanceShards(4)
+                    .version(7L)
+                    .build());
+
+            // Act
+            Account result = accountCache.get(1L, loaderReturning("999.00"));
+
+            // Assert
+            assertThat(result.getBalanceShards()).isEqualTo(4);
+            assertThat(result.getVersion()).isEqualTo(7L);
+        }
+
+        @Test
+        @DisplayName("Should not cache accounts that are not found")
+        void shouldNotCacheAccountsThatAreNotFound() {
+            // Act & Assert
+            assertThatThrownBy(() -> accountCache.get(1L, accountId -> {
+                throw new AccountNotFoundException(accountId);
+            })).isInstanceOf(AccountNotFoundException.class);
+
+            assertThat(accountCache.get(1L, loaderReturning("100.00")).getAvailableCreditLimit())
+                    .isEqualByComparingTo("100.00");
+        }
+
+        @Test
+        @DisplayName("Should bypass the cache for a null account ID")
+        void shouldBypassTheCacheForANullAccountId() {
+            // Act & Assert
+            assertThatThrownBy(() -> accountCache.get(null, accountId -> {
+                throw new AccountNotFoundException(accountId);
+            })).isInstanceOf(AccountNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("Should publish hit and miss counters")
+        void shouldPublishHitAndMissCounters() {
+            // Act
+            accountCache.get(1L, loaderReturning("100.00"));
+            accountCache.get(1L, loaderReturning("100.00"));
+            accountCache.get(1L, loaderReturning("100.00"));
+
+            // Assert
+            assertThat(meterRegistry.get("cache.gets").tag("cache", "accounts").tag("result", "hit")
+                    .functionCounter().count()).isEqualTo(2.0);
+            assertThat(meterRegistry.get("cache.gets").tag("cache", "accounts").tag("result", "miss")
+                    .functionCounter().count()).isEqualTo(1.0);
+            assertThat(meterRegistry.find("cache.evictions").tag("cache", "accounts").functionCounter()).isNotNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("evictAfterCommit() Tests")
+    class EvictAfterCommitTests {
+
+        @Test
+        @DisplayName("Should evict immediately outside a transaction")
+        void shouldEvictImmediatelyOutsideATransaction() {
+            // Arrange
+            accountCache.get(1L, loaderReturning("100.00"));
+
+            // Act
+            accountCache.evictAfterCommit(1L);
+
+            // Assert
+            assertThat(accountCache.get(1L, loaderReturning("50.00")).getAvailableCreditLimit())
+                    .isEqualByComparingTo("50.00");
+        }
+
+        @Test
+        @DisplayName("Should keep serving the committed account until the transaction commits")
+        void shouldKeepServingTheCommittedAccountUntilTheTransactionCommits() {
+            // Arrange
+            accountCache.get(1L, loaderReturning("100.00"));
+            TransactionSynchronizationManager.initSynchronization();
+
+            // Act
+            accountCache.evictAfterCommit(1L);
+
+            // Assert
+            assertThat(accountCache.get(1L, loaderReturning("50.00")).getAvailableCreditLimit())
+                    .isEqualByComparingTo("100.00");
+
+            completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+            assertThat(accountCache.get(1L, loaderReturning("50.00")).getAvailableCreditLimit())
+                    .isEqualByComparingTo("50.00");
+        }
+
+        @Test
+        @DisplayName("Should keep the cached account when the transaction rolls back")
+        void shouldKeepTheCachedAccountWhenTheTransactionRollsBack() {
+            // Arrange
+            accountCache.get(1L, loaderReturning("100.00"));
+            TransactionSynchronizationManager.initSynchronization();
+            accountCache.evictAfterCommit(1L);
+
+            // Act
+            completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+            // Assert
+            assertThat(accountCache.get(1L, loaderReturning("50.00")).getAvailableCreditLimit())
+                    .isEqualByComparingTo("100.00");
+            assertThat(loads).hasValue(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("putAfterCommit() Tests")
+    class PutAfterCommitTests {
+
+        @Test
+        @DisplayName("Should cache a new account only once its transaction commits")
+        void shouldCacheANewAccountOnlyOnceItsTransactionCommits() {
+            // Arrange
+            Account account = Account.builder()
+                    .accountId(1L)
+                    .documentNumber("12345678900")
+                    .availableCreditLimit(BigDecimal.ZERO)
+                    .build();
+            TransactionSynchronizationManager.initSynchronization();
+
+            // Act
+            accountCache.putAfterCommit(account);
+            completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+            // Assert
+            assertThat(accountCache.get(1L, loaderReturning("50.00")).getAvailableCreditLimit())
+                    .isEqualByComparingTo("0");
+            assertThat(loads).hasValue(0);
+        }
+    }
+}
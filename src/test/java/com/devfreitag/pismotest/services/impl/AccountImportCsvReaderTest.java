@@ -0,0 +1,74 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.repositories.AccountImportRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AccountImportCsvReader Tests")
+class AccountImportCsvReaderTest {
+
+    private static List<AccountImportRow> read(String csv) {
+        List<AccountImportRow> rows = new ArrayList<>();
+        new AccountImportCsvReader(new StringReader(csv)).forEachRemaining(rows::add);
+        return rows;
+    }
+
+    @Test
+    @DisplayName("Should skip the header and blank lines and number lines as they appear in the file")
+    void shouldSkipTheHeaderAndBlankLinesAndNumberLinesAsTheyAppearInTheFile() {
+        // Act
+        List<AccountImportRow> rows = read("""
+                document_number,available_credit_limit
+                12345678900,100.5
+
+                98765432100
+                "111,222" , 7
+                """);
+
+        // Assert
+        assertThat(rows).containsExactly(
+                AccountImportRow.accepted(2L, "12345678900", new BigDecimal("100.50")),
+                AccountImportRow.accepted(4L, "98765432100", new BigDecimal("0.00")),
+                AccountImportRow.accepted(5L, "111,222", new BigDecimal("7.00")));
+    }
+
+    @Test
+    @DisplayName("Should reject lines that can't become an account instead of failing")
+    void shouldRejectLinesThatCantBecomeAnAccountInsteadOfFailing() {
+        // Act
+        List<AccountImportRow> rows = read("""
+                ,10
+                123,ten
+                456,-1
+                789,99999999999999999999
+                1,2,3
+                "say ""hi""\",1
+                """);
+
+        // Assert
+        assertThat(rows).containsExactly(
+                AccountImportRow.rejected(1L, null, "Document number is required"),
+                AccountImportRow.rejected(2L, "123", "Available credit limit is not a number"),
+                AccountImportRow.rejected(3L, "456", "Available credit limit must not be negative"),
+                AccountImportRow.rejected(4L, "789", "Amount is out of range."),
+                AccountImportRow.rejected(5L, "1", "Expected a document number and an available credit limit"),
+                AccountImportRow.accepted(6L, "say \"hi\"", new BigDecimal("1.00")));
+    }
+
+    @Test
+    @DisplayName("Should drop a document number that is too long even when the line has too many fields")
+    void shouldDropADocumentNumberThatIsTooLongEvenWhenTheLineHasTooManyFields() {
+        // Act
+        List<AccountImportRow> rows = read("x".repeat(256) + ",1,2\n");
+
+        // Assert
+        assertThat(rows).containsExactly(AccountImportRow.rejected(1L, null, "Document number is longer than 255 characters"));
+    }
+}
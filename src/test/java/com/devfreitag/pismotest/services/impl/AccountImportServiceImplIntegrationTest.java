@@ -0,0 +1,97 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.repositories.AccountImportResult;
+import com.devfreitag.pismotest.services.AccountImportService;
+import com.devfreitag.pismotest.services.AccountImportSummary;
+import com.devfreitag.pismotest.services.AccountService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Runs the JDBC batch staging used on H2; PostgreSQL stages the same rows with {@code COPY}.
+ */
+@SpringBootTest
+@DisplayName("AccountImportService Integration Tests")
+class AccountImportServiceImplIntegrationTest {
+
+    @Autowired
+    private AccountImportService accountImportService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should create the accounts, credit their limits and report conflicts and rejected lines")
+    void shouldCreateTheAccountsCreditTheirLimitsAndReportConflictsAndRejectedLines() {
+        // Arrange
+        String existing = accountService.createAccount(UUID.randomUUID().toString()).getDocumentNumber();
+        String first = UUID.randomUUID().toString();
+        String second = UUID.randomUUID().toString();
+        List<AccountImportResult> results = new ArrayList<>();
+
+        // Act
+        AccountImportSummary summary = accountImportService.importAccounts(new StringReader("""
+                document_number,available_credit_limit
+                %s,150.25
+                %s
+                %s,10
+                %s,20
+                ,30
+                """.formatted(first, second, existing, first)), results::add);
+
+        // Assert
+        assertThat(summary).isEqualTo(new AccountImportSummary(2, 2, 1));
+        assertThat(results).extracting(AccountImportResult::line, AccountImportResult::status)
+                .containsExactly(
+                        tuple(2L, 201),
+                        tuple(3L, 201),
+                        tuple(4L, 409),
+                        tuple(5L, 409),
+                        tuple(6L, 422));
+
+        AccountImportResult credited = results.getFirst();
+        assertThat(accountService.findById(credited.accountId()).getDocumentNumber()).isEqualTo(first);
+        assertThat(accountService.findById(credited.accountId()).getAvailableCreditLimit()).isEqualByComparingTo("150.25");
+        assertThat(jdbcTemplate.queryForObject("SELECT amount FROM transaction WHERE transaction_id = ? AND operation_type_id = 4",
+                BigDecimal.class, credited.transactionId())).isEqualByComparingTo("150.25");
+
+        AccountImportResult uncredited = results.get(1);
+        assertThat(accountService.findById(uncredited.accountId()).getAvailableCreditLimit()).isEqualByComparingTo("0.00");
+        assertThat(uncredited.transactionId()).isNull();
+        assertThat(results.subList(2, 5)).allMatch(result -> result.accountId() == null);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account_import", Long.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should create no account when the import fails")
+    void shouldCreateNoAccountWhenTheImportFails() {
+        // Arrange
+        String documentNumber = UUID.randomUUID().toString();
+
+        // Act & Assert
+        assertThatThrownBy(() -> accountImportService.importAccounts(new StringReader(documentNumber + ",10\n"), result -> {
+            throw new IllegalStateException("Client went away");
+        })).hasRootCauseInstanceOf(IllegalStateException.class);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account WHERE document_number = ?",
+                Long.class, documentNumber)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account_import", Long.class)).isZero();
+    }
+}
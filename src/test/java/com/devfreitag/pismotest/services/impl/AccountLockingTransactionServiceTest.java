@@ -0,0 +1,216 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.AccountLockProperties;
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.exceptions.AccountBusyException;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AccountLockingTransactionService Tests")
+class AccountLockingTransactionServiceTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    @Mock
+    private TransactionServiceImpl transactionServiceImpl;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AccountLockingTransactionService transactionService;
+
+    private static ObjectProvider<StoredFunctionTransactionService> noStoredFunction() {
+        return new StaticListableBeanFactory().getBeanProvider(StoredFunctionTransactionService.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        transactionService = new AccountLockingTransactionService(transactionServiceImpl, noStoredFunction(),
+                new AccountLockProperties(true, 64, Duration.ofSeconds(5)), meterRegistry);
+    }
+
+    private CountDownLatch blockWhileCreating(Long accountId, CountDownLatch entered) {
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionServiceImpl.createTransaction(eq(accountId), any(), any())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Transaction.builder().build();
+        });
+        return release;
+    }
+
+    private double queued(Long accountId) {
+        return meterRegistry.get("pismo.account.lock.queued")
+                .tag("stripe", String.valueOf(transactionService.stripeOf(accountId)))
+                .gauge().value();
+    }
+
+    @Nested
+    @DisplayName("createTransaction() Tests")
+    class CreateTransactionTests {
+
+        @Test
+        @DisplayName("Should delegate and record the wait time of the account stripe")
+        void shouldDelegateAndRecordTheWaitTimeOfTheAccountStripe() {
+            // Arrange
+            Transaction expected = Transaction.builder().transactionId(1L).build();
+            when(transactionServiceImpl.createTransaction(1L, 1L, AMOUNT)).thenReturn(expected);
+
+            // Act
+            Transaction result = transactionService.createTransaction(1L, 1L, AMOUNT);
+
+            // Assert
+            assertThat(result).isSameAs(expected);
+            assertThat(meterRegistry.get("pismo.account.lock.wait")
+                    .tag("stripe", String.valueOf(transactionService.stripeOf(1L)))
+                    .timer().count()).isEqualTo(1L);
+        }
+
+        @Test
+        @DisplayName("Should queue a second transaction for the same account until the first one finishes")
+        void shouldQueueASecondTransactionForTheSameAccountUntilTheFirstOneFinishes() throws Exception {
+            // Arrange
+            CountDownLatch entered = new CountDownLatch(2);
+            CountDownLatch release = blockWhileCreating(1L, entered);
+
+            // Act
+            CompletableFuture<Transaction> first = CompletableFuture.supplyAsync(() -> transactionService.createTransaction(1L, 1L, AMOUNT));
+            await().until(() -> entered.getCount() == 1);
+            CompletableFuture<Transaction> second = CompletableFuture.supplyAsync(() -> transactionService.createTransaction(1L, 1L, AMOUNT));
+
+            // Assert
+            await().until(() -> queued(1L) == 1.0);
+            assertThat(entered.getCount()).isEqualTo(1L);
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+            assertThat(queued(1L)).isZero();
+            verify(transactionServiceImpl, times(2)).createTransaction(1L, 1L, AMOUNT);
+        }
+
+        @Test
+        @DisplayName("Should not block transactions for an account on another stripe")
+        void shouldNotBlockTransactionsForAnAccountOnAnotherStripe() throws Exception {
+            // Arrange
+            assertThat(transactionService.stripeOf(1L)).isNotEqualTo(transactionService.stripeOf(2L));
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch release = blockWhileCreating(1L, entered);
+            when(transactionServiceImpl.createTransaction(2L, 1L, AMOUNT)).thenReturn(Transaction.builder().build());
+
+            CompletableFuture<Transaction> blocked = CompletableFuture.supplyAsync(() -> transactionService.createTransaction(1L, 1L, AMOUNT));
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Act
+            transactionService.createTransaction(2L, 1L, AMOUNT);
+
+            // Assert
+            verify(transactionServiceImpl).createTransaction(2L, 1L, AMOUNT);
+            release.countDown();
+            blocked.get(5, TimeUnit.SECONDS);
+        }
+
+        @Test
+        @DisplayName("Should throw AccountBusyException when the account lock is not acquired in time")
+        void shouldThrowAccountBusyExceptionWhenTheAccountLockIsNotAcquiredInTime() throws Exception {
+            // Arrange
+            transactionService = new AccountLockingTransactionService(transactionServiceImpl, noStoredFunction(),
+                    new AccountLockProperties(true, 64, Duration.ofMillis(50)), meterRegistry);
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch release = blockWhileCreating(1L, entered);
+
+            CompletableFuture<Transaction> blocked = CompletableFuture.supplyAsync(() -> transactionService.createTransaction(1L, 1L, AMOUNT));
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Act & Assert
+            assertThatThrownBy(() -> transactionService.createTransaction(1L, 1L, AMOUNT))
+                    .isInstanceOf(AccountBusyException.class)
+                    .hasMessage("Account with ID 1 is busy, try again later.");
+
+            release.countDown();
+            blocked.get(5, TimeUnit.SECONDS);
+            verify(transactionServiceImpl, times(1)).createTransaction(1L, 1L, AMOUNT);
+        }
+
+        @Test
+        @DisplayName("Should take the account lock for a transaction with an idempotency key")
+        void shouldTakeTheAccountLockForATransactionWithAnIdempotencyKey() {
+            // Arrange
+            Transaction expected = Transaction.builder().transactionId(1L).build();
+            when(transactionServiceImpl.createTransaction(1L, 1L, AMOUNT, "key-1")).thenReturn(expected);
+
+            // Act
+            Transaction result = transactionService.createTransaction(1L, 1L, AMOUNT, "key-1");
+
+            // Assert
+            assertThat(result).isSameAs(expected);
+            assertThat(meterRegistry.get("pismo.account.lock.wait")
+                    .tag("stripe", String.valueOf(transactionService.stripeOf(1L)))
+                    .timer().count()).isEqualTo(1L);
+        }
+    }
+
+    @Nested
+    @DisplayName("createTransactions() Tests")
+    class CreateTransactionsTests {
+
+        @Test
+        @DisplayName("Should release every stripe taken by the batch")
+        void shouldReleaseEveryStripeTakenByTheBatch() throws Exception {
+            // Arrange
+            List<CreateTransactionRequest> requests = List.of(
+                    new CreateTransactionRequest(2L, 1L, AMOUNT),
+                    new CreateTransactionRequest(1L, 1L, AMOUNT),
+                    new CreateTransactionRequest(2L, 4L, AMOUNT));
+            when(transactionServiceImpl.createTransactions(anyList())).thenReturn(List.of());
+
+            // Act
+            transactionService.createTransactions(requests);
+
+            // Assert
+            verify(transactionServiceImpl).createTransactions(requests);
+            when(transactionServiceImpl.createTransaction(any(), any(), any())).thenReturn(Transaction.builder().build());
+            CompletableFuture.runAsync(() -> {
+                transactionService.createTransaction(1L, 1L, AMOUNT);
+                transactionService.createTransaction(2L, 1L, AMOUNT);
+            }).get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    @DisplayName("Should round the stripe count up to a power of two")
+    void shouldRoundTheStripeCountUpToAPowerOfTwo() {
+        // Act
+        transactionService = new AccountLockingTransactionService(transactionServiceImpl, noStoredFunction(),
+                new AccountLockProperties(true, 10, Duration.ofSeconds(5)), new SimpleMeterRegistry());
+
+        // Assert
+        assertThat(transactionService.stripeOf(16L)).isEqualTo(transactionService.stripeOf(0L));
+        assertThat(transactionService.stripeOf(15L)).isEqualTo(15);
+    }
+}
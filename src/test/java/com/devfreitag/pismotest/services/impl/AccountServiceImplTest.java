@@ -4,6 +4,10 @@ import com.devfreitag.pismotest.entities.Account;
 import com.devfreitag.pismotest.exceptions.AccountConflictException;
 import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
 import com.devfreitag.pismotest.repositories.AccountRepository;
+import com.devfreitag.pismotest.services.AccountCache;
+import com.devfreitag.pismotest.services.DocumentNumberFilter;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -11,12 +15,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +35,12 @@ class AccountServiceImplTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private AccountCache accountCache;
+
+    @Mock
+    private DocumentNumberFilter documentNumberFilter;
+
     @InjectMocks
     private AccountServiceImpl accountService;
 
@@ -33,6 +48,11 @@ class AccountServiceImplTest {
     @DisplayName("createAccount() Tests")
     class CreateAccountTests {
 
+        @BeforeEach
+        void setUp() {
+            lenient().when(documentNumberFilter.mightExist(any())).thenReturn(true);
+        }
+
         @Nested
         @DisplayName("Success Scenarios")
         class SuccessScenarios {
@@ -44,7 +64,7 @@ class AccountServiceImplTest {
                 String documentNumber = "12345678900";
                 when(accountRepository.existsByDocumentNumber(documentNumber))
                         .thenReturn(false);
-                when(accountRepository.save(any(Account.class)))
+                when(accountRepository.saveAndFlush(any(Account.class)))
                         .thenAnswer(invocation -> {
                             Account account = invocation.getArgument(0);
                             return Account.builder()
@@ -61,7 +81,8 @@ class AccountServiceImplTest {
                 assertThat(result.getAccountId()).isEqualTo(1L);
                 assertThat(result.getDocumentNumber()).isEqualTo(documentNumber);
                 verify(accountRepository, times(1)).existsByDocumentNumber(documentNumber);
-                verify(accountRepository, times(1)).save(any(Account.class));
+                verify(accountRepository, times(1)).saveAndFlush(any(Account.class));
+                verify(accountCache, times(1)).putAfterCommit(result);
                 verifyNoMoreInteractions(accountRepository);
             }
 
@@ -72,7 +93,7 @@ class AccountServiceImplTest {
                 String documentNumber = "98765432100";
                 when(accountRepository.existsByDocumentNumber(documentNumber))
                         .thenReturn(false);
-                when(accountRepository.save(any(Account.class)))
+                when(accountRepository.saveAndFlush(any(Account.class)))
                         .thenAnswer(invocation -> {
                             Account account = invocation.getArgument(0);
                             return Account.builder()
@@ -89,7 +110,7 @@ class AccountServiceImplTest {
                 assertThat(result.getAccountId()).isEqualTo(2L);
                 assertThat(result.getDocumentNumber()).isEqualTo(documentNumber);
                 verify(accountRepository, times(1)).existsByDocumentNumber(documentNumber);
-                verify(accountRepository, times(1)).save(any(Account.class));
+                verify(accountRepository, times(1)).saveAndFlush(any(Account.class));
             }
         }
 
@@ -109,7 +130,7 @@ class AccountServiceImplTest {
                 assertThatThrownBy(() -> accountService.createAccount(documentNumber))
                         .isInstanceOf(AccountConflictException.class);
                 verify(accountRepository, times(1)).existsByDocumentNumber(documentNumber);
-                verify(accountRepository, never()).save(any(Account.class));
+                verify(accountRepository, never()).saveAndFlush(any(Account.class));
             }
 
             @Test
@@ -125,7 +146,7 @@ class AccountServiceImplTest {
                         .isInstanceOf(AccountConflictException.class)
                         .hasMessage("Account with document number " + documentNumber + " already exists.");
                 verify(accountRepository, times(1)).existsByDocumentNumber(documentNumber);
-                verify(accountRepository, never()).save(any(Account.class));
+                verify(accountRepository, never()).saveAndFlush(any(Account.class));
             }
         }
 
@@ -139,7 +160,7 @@ class AccountServiceImplTest {
                 // Arrange
                 when(accountRepository.existsByDocumentNumber(null))
                         .thenReturn(false);
-                when(accountRepository.save(any(Account.class)))
+                when(accountRepository.saveAndFlush(any(Account.class)))
                         .thenAnswer(invocation -> {
                             Account account = invocation.getArgument(0);
                             return Account.builder()
@@ -155,7 +176,7 @@ class AccountServiceImplTest {
                 assertThat(result).isNotNull();
                 assertThat(result.getDocumentNumber()).isNull();
                 verify(accountRepository, times(1)).existsByDocumentNumber(null);
-                verify(accountRepository, times(1)).save(any(Account.class));
+                verify(accountRepository, times(1)).saveAndFlush(any(Account.class));
             }
 
             @Test
@@ -165,7 +186,7 @@ class AccountServiceImplTest {
                 String documentNumber = "";
                 when(accountRepository.existsByDocumentNumber(documentNumber))
                         .thenReturn(false);
-                when(accountRepository.save(any(Account.class)))
+                when(accountRepository.saveAndFlush(any(Account.class)))
                         .thenAnswer(invocation -> {
                             Account account = invocation.getArgument(0);
                             return Account.builder()
@@ -181,7 +202,7 @@ class AccountServiceImplTest {
                 assertThat(result).isNotNull();
                 assertThat(result.getDocumentNumber()).isEqualTo("");
                 verify(accountRepository, times(1)).existsByDocumentNumber(documentNumber);
-                verify(accountRepository, times(1)).save(any(Account.class));
+                verify(accountRepository, times(1)).saveAndFlush(any(Account.class));
             }
 
             @Test
@@ -191,7 +212,7 @@ class AccountServiceImplTest {
                 String documentNumber = "   ";
                 when(accountRepository.existsByDocumentNumber(documentNumber))
                         .thenReturn(false);
-                when(accountRepository.save(any(Account.class)))
+                when(accountRepository.saveAndFlush(any(Account.class)))
                         .thenAnswer(invocation -> {
                             Account account = invocation.getArgument(0);
                             return Account.builder()
@@ -207,7 +228,61 @@ class AccountServiceImplTest {
                 assertThat(result).isNotNull();
                 assertThat(result.getDocumentNumber()).isEqualTo("   ");
                 verify(accountRepository, times(1)).existsByDocumentNumber(documentNumber);
-                verify(accountRepository, times(1)).save(any(Account.class));
+                verify(accountRepository, times(1)).saveAndFlush(any(Account.class));
+            }
+        }
+
+        @Nested
+        @DisplayName("Document Number Filter Scenarios")
+        class DocumentNumberFilterScenarios {
+
+            @Test
+            @DisplayName("Should skip the lookup and add the document number when the filter rules it out")
+            void shouldSkipTheLookupAndAddTheDocumentNumberWhenTheFilterRulesItOut() {
+                // Arrange
+                String documentNumber = "12345678900";
+                when(documentNumberFilter.mightExist(documentNumber)).thenReturn(false);
+                when(accountRepository.saveAndFlush(any(Account.class)))
+                        .thenAnswer(invocation -> invocation.getArgument(0));
+
+                // Act
+                accountService.createAccount(documentNumber);
+
+                // Assert
+                verify(accountRepository, never()).existsByDocumentNumber(any());
+                verify(documentNumberFilter).add(documentNumber);
+            }
+
+            @Test
+            @DisplayName("Should throw AccountConflictException when the insert breaks the document number's uniqueness")
+            void shouldThrowAccountConflictExceptionWhenTheInsertBreaksTheDocumentNumbersUniqueness() {
+                // Arrange
+                String documentNumber = "12345678900";
+                when(documentNumberFilter.mightExist(documentNumber)).thenReturn(false);
+                when(accountRepository.saveAndFlush(any(Account.class))).thenThrow(new DataIntegrityViolationException(
+                        "could not execute statement", new ConstraintViolationException("duplicate key",
+                        new SQLException("duplicate key", "23505"), ConstraintViolationException.ConstraintKind.UNIQUE,
+                        "uk_account_document_number")));
+
+                // Act & Assert
+                assertThatThrownBy(() -> accountService.createAccount(documentNumber))
+                        .isInstanceOf(AccountConflictException.class)
+                        .hasMessage("Account with document number " + documentNumber + " already exists.");
+                verify(documentNumberFilter, never()).add(any());
+                verifyNoInteractions(accountCache);
+            }
+
+            @Test
+            @DisplayName("Should rethrow other integrity violations")
+            void shouldRethrowOtherIntegrityViolations() {
+                // Arrange
+                String documentNumber = "12345678900";
+                DataIntegrityViolationException violation = new DataIntegrityViolationException("value too long");
+                when(documentNumberFilter.mightExist(documentNumber)).thenReturn(false);
+                when(accountRepository.saveAndFlush(any(Account.class))).thenThrow(violation);
+
+                // Act & Assert
+                assertThatThrownBy(() -> accountService.createAccount(documentNumber)).isSameAs(violation);
             }
         }
     }
@@ -216,6 +291,37 @@ class AccountServiceImplTest {
     @DisplayName("findById() Tests")
     class FindByIdTests {
 
+        @BeforeEach
+        @SuppressWarnings("unchecked")
+        void cacheMiss() {
+            lenient().when(accountCache.get(any(), any()))
+                    .thenAnswer(invocation -> invocation.<Function<Long, Account>>getArgument(1).apply(invocation.getArgument(0)));
+        }
+
+        @Nested
+        @DisplayName("Cache Scenarios")
+        class CacheScenarios {
+
+            @Test
+            @DisplayName("Should return cached account without querying the repository")
+            void shouldReturnCachedAccountWithoutQueryingTheRepository() {
+                // Arrange
+                Long accountId = 1L;
+                Account cached = Account.builder()
+                        .accountId(accountId)
+                        .documentNumber("12345678900")
+                        .build();
+                doReturn(cached).when(accountCache).get(eq(accountId), any());
+
+                // Act
+                Account result = accountService.findById(accountId);
+
+                // Assert
+                assertThat(result).isSameAs(cached);
+                verifyNoInteractions(accountRepository);
+            }
+        }
+
         @Nested
         @DisplayName("Success Scenarios")
         class SuccessScenarios {
@@ -244,6 +350,32 @@ class AccountServiceImplTest {
                 verifyNoMoreInteractions(accountRepository);
             }
 
+            @Test
+            @DisplayName("Should return an account with balance shards holding its whole limit")
+            void shouldReturnAnAccountWithBalanceShardsHoldingItsWholeLimit() {
+                // Arrange
+                Long accountId = 1L;
+                Account mockAccount = Account.builder()
+                        .accountId(accountId)
+                        .documentNumber("12345678900")
+                        .availableCreditLimit(new BigDecimal("5.00"))
+                        .balanceShards(4)
+                        .build();
+                when(accountRepository.findById(accountId))
+                        .thenReturn(Optional.of(mockAccount));
+                when(accountRepository.sumShardCreditLimits(accountId))
+                        .thenReturn(100_000L);
+
+                // Act
+                Account result = accountService.findById(accountId);
+
+                // Assert
+                assertThat(result).isNotSameAs(mockAccount);
+                assertThat(result.getAvailableCreditLimit()).isEqualByComparingTo("1005.00");
+                assertThat(result.getBalanceShards()).isEqualTo(4);
+                assertThat(mockAccount.getAvailableCreditLimit()).isEqualByComparingTo("5.00");
+            }
+
             @Test
             @DisplayName("Should find account with different ID")
             void shouldFindAccountWithDifferentId() {
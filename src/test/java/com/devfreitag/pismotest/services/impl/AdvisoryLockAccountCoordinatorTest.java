@@ -0,0 +1,130 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.AdvisoryLockProperties;
+import com.devfreitag.pismotest.exceptions.AccountBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AdvisoryLockAccountCoordinator Tests")
+class AdvisoryLockAccountCoordinatorTest {
+
+    private static final String LOCK = "SELECT pg_advisory_xact_lock(?, ?)";
+    private static final String SET_LOCK_TIMEOUT = "SELECT current_setting('lock_timeout'), set_config('lock_timeout', ?, true)";
+    private static final String RESET_LOCK_TIMEOUT = "SELECT set_config('lock_timeout', ?, true)";
+    private static final int NAMESPACE = 7;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AdvisoryLockAccountCoordinator coordinator(int stripes) {
+        return coordinator(stripes, Duration.ofSeconds(5));
+    }
+
+    private AdvisoryLockAccountCoordinator coordinator(int stripes, Duration timeout) {
+        return new AdvisoryLockAccountCoordinator(jdbcTemplate, new AdvisoryLockProperties(true, NAMESPACE, stripes, timeout), meterRegistry);
+    }
+
+    private void givenLockTimeout(String previous) {
+        when(jdbcTemplate.query(eq(SET_LOCK_TIMEOUT), ArgumentMatchers.<ResultSetExtractor<String>>any(), eq("5000ms")))
+                .thenReturn(previous);
+    }
+
+    @Test
+    @DisplayName("Should lock the account id in the namespace and record the wait")
+    void shouldLockTheAccountIdInTheNamespaceAndRecordTheWait() {
+        // Arrange
+        givenLockTimeout("0");
+
+        // Act
+        coordinator(0).lock(42L);
+
+        // Assert
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).query(eq(SET_LOCK_TIMEOUT), ArgumentMatchers.<ResultSetExtractor<String>>any(), eq("5000ms"));
+        inOrder.verify(jdbcTemplate).query(eq(LOCK), any(RowCallbackHandler.class), eq(NAMESPACE), eq(42));
+        inOrder.verify(jdbcTemplate).query(eq(RESET_LOCK_TIMEOUT), any(RowCallbackHandler.class), eq("0"));
+        assertThat(meterRegistry.get("pismo.account.advisory-lock.wait").tag("outcome", "acquired").timer().count()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should leave the lock timeout alone when none is configured")
+    void shouldLeaveTheLockTimeoutAloneWhenNoneIsConfigured() {
+        // Act
+        coordinator(0, Duration.ZERO).lock(42L);
+
+        // Assert
+        verify(jdbcTemplate).query(eq(LOCK), any(RowCallbackHandler.class), eq(NAMESPACE), eq(42));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should lock every stripe a batch touches once, in ascending order")
+    void shouldLockEveryStripeABatchTouchesOnceInAscendingOrder() {
+        // Arrange
+        AdvisoryLockAccountCoordinator coordinator = coordinator(3);
+        givenLockTimeout("1s");
+
+        // Act
+        coordinator.lock(List.of(6L, 1L, 5L, 2L));
+
+        // Assert
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).query(eq(SET_LOCK_TIMEOUT), ArgumentMatchers.<ResultSetExtractor<String>>any(), eq("5000ms"));
+        inOrder.verify(jdbcTemplate).query(eq(LOCK), any(RowCallbackHandler.class), eq(NAMESPACE), eq(1));
+        inOrder.verify(jdbcTemplate).query(eq(LOCK), any(RowCallbackHandler.class), eq(NAMESPACE), eq(2));
+        inOrder.verify(jdbcTemplate).query(eq(RESET_LOCK_TIMEOUT), any(RowCallbackHandler.class), eq("1s"));
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    @DisplayName("Should throw AccountBusyException when the lock times out")
+    void shouldThrowAccountBusyExceptionWhenTheLockTimesOut() {
+        // Arrange
+        doThrow(new CannotAcquireLockException("canceling statement due to lock timeout"))
+                .when(jdbcTemplate).query(eq(LOCK), any(RowCallbackHandler.class), eq(NAMESPACE), eq(42));
+
+        // Act & Assert
+        assertThatThrownBy(() -> coordinator(0, Duration.ZERO).lock(42L))
+                .isInstanceOf(AccountBusyException.class)
+                .hasMessage("Account with ID 42 is busy, try again later.");
+
+        assertThat(meterRegistry.get("pismo.account.advisory-lock.wait").tag("outcome", "timed-out").timer().count()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should leave the lock timeout to the rollback when the lock times out")
+    void shouldLeaveTheLockTimeoutToTheRollbackWhenTheLockTimesOut() {
+        // Arrange
+        givenLockTimeout("0");
+        doThrow(new CannotAcquireLockException("canceling statement due to lock timeout"))
+                .when(jdbcTemplate).query(eq(LOCK), any(RowCallbackHandler.class), eq(NAMESPACE), eq(42));
+
+        // Act & Assert
+        assertThatThrownBy(() -> coordinator(0).lock(42L))
+                .isInstanceOf(AccountBusyException.class);
+
+        verify(jdbcTemplate, never()).query(eq(RESET_LOCK_TIMEOUT), any(RowCallbackHandler.class), eq("0"));
+    }
+}
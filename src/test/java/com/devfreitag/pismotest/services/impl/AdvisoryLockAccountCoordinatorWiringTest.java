@@ -0,0 +1,265 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.PismoTestApplication;
+import com.devfreitag.pismotest.config.AdvisoryLockProperties;
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.exceptions.AccountBusyException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.repositories.AccountRepository;
+import com.devfreitag.pismotest.services.AccountCoordinator;
+import com.devfreitag.pismotest.services.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks how the coordinator is wired into two instances of the application sharing one database, the way replicas
+ * share PostgreSQL behind a load balancer: that writers on either instance take the lock, in the same database
+ * transaction, and time out of it. The tests run on H2, where {@code pg_advisory_xact_lock} is stood in for by a row
+ * lock on {@code advisory_lock}, which H2 also holds until the transaction ends, and {@code current_setting} and
+ * {@code set_config} by H2's {@code LOCK_TIMEOUT()} and {@code SET LOCK_TIMEOUT}. PostgreSQL's advisory locks
+ * themselves are not exercised.
+ */
+@DisplayName("AdvisoryLockAccountCoordinator Wiring Tests")
+class AdvisoryLockAccountCoordinatorWiringTest {
+
+    private static final int STRIPES = 8;
+    private static final long TIMEOUT_MILLIS = 2000L;
+
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+
+    @BeforeAll
+    static void startInstances() {
+        first = startInstance();
+        second = startInstance();
+
+        JdbcTemplate jdbcTemplate = first.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("CREATE TABLE advisory_lock (namespace INT NOT NULL, lock_key INT NOT NULL, PRIMARY KEY (namespace, lock_key))");
+        int namespace = first.getBean(AdvisoryLockProperties.class).namespace();
+        for (int key = 0; key < STRIPES; key++) {
+            jdbcTemplate.update("INSERT INTO advisory_lock VALUES (?, ?)", namespace, key);
+        }
+        jdbcTemplate.execute("CREATE ALIAS pg_advisory_xact_lock FOR '" + H2AdvisoryLocks.class.getName() + ".advisoryXactLock'");
+        jdbcTemplate.execute("CREATE ALIAS set_config FOR '" + H2AdvisoryLocks.class.getName() + ".setConfig'");
+        jdbcTemplate.execute("CREATE ALIAS current_setting FOR '" + H2AdvisoryLocks.class.getName() + ".currentSetting'");
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        second.close();
+        first.close();
+    }
+
+    private static ConfigurableApplicationContext startInstance() {
+        return new SpringApplicationBuilder(PismoTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:advisory-lock;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+                        "spring.jmx.enabled=false",
+                        "pismo.advisory-lock.enabled=true",
+                        "pismo.advisory-lock.stripes=" + STRIPES,
+                        "pismo.advisory-lock.timeout=" + TIMEOUT_MILLIS + "ms")
+                .run();
+    }
+
+    public static class H2AdvisoryLocks {
+
+        /**
+         * Only {@code lock_timeout} is set by the coordinator. H2's lock timeout lasts for the session rather than the
+         * transaction, which every connection of these instances shares anyway.
+         */
+        public static String setConfig(Connection connection, String name, String value, boolean local) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCK_TIMEOUT " + Long.parseLong(value.replace("ms", "")));
+            }
+            return value;
+        }
+
+        public static String currentSetting(Connection connection, String name) throws SQLException {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT LOCK_TIMEOUT()")) {
+                resultSet.next();
+                return resultSet.getLong(1) + "ms";
+            }
+        }
+
+        public static void advisoryXactLock(Connection connection, int namespace, int key) throws SQLException {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT lock_key FROM advisory_lock WHERE namespace = ? AND lock_key = ? FOR UPDATE")) {
+                statement.setInt(1, namespace);
+                statement.setInt(2, key);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        throw new SQLException("No advisory lock " + namespace + "/" + key);
+                    }
+                }
+            }
+        }
+    }
+
+    private Account createAccount(BigDecimal availableCreditLimit) {
+        return first.getBean(AccountRepository.class).save(Account.builder()
+                .documentNumber(UUID.randomUUID().toString())
+                .availableCreditLimit(availableCreditLimit)
+                .build());
+    }
+
+    private BigDecimal creditLimitOf(Long accountId) {
+        return first.getBean(JdbcTemplate.class).queryForObject(
+                "SELECT available_credit_limit FROM account WHERE account_id = ?", BigDecimal.class, accountId);
+    }
+
+    @Test
+    @DisplayName("Should make a transaction on one instance wait while another instance holds the account's lock")
+    void shouldMakeATransactionOnOneInstanceWaitWhileAnotherInstanceHoldsTheAccountsLock() throws Exception {
+        // Arrange
+        Account account = createAccount(new BigDecimal("100.00"));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<?> holder = executor.submit(() -> new TransactionTemplate(first.getBean(PlatformTransactionManager.class))
+                    .executeWithoutResult(status -> {
+                        first.getBean(AccountCoordinator.class).lock(account.getAccountId());
+                        locked.countDown();
+                        try {
+                            release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // Act
+            Future<?> waiter = executor.submit(() -> second.getBean(TransactionService.class)
+                    .createTransaction(account.getAccountId(), 1L, new BigDecimal("10.00")));
+
+            // Assert
+            Thread.sleep(300);
+            assertThat(waiter).isNotDone();
+            release.countDown();
+            holder.get();
+            waiter.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(creditLimitOf(account.getAccountId())).isEqualByComparingTo("90.00");
+        assertThat(second.getBean(MeterRegistry.class).get("pismo.account.advisory-lock.wait")
+                .tag("outcome", "acquired").timer().max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(300.0);
+    }
+
+    @Test
+    @DisplayName("Should set the lock timeout back once the account's lock is held")
+    void shouldSetTheLockTimeoutBackOnceTheAccountsLockIsHeld() {
+        // Arrange
+        Account account = createAccount(new BigDecimal("100.00"));
+        JdbcTemplate jdbcTemplate = first.getBean(JdbcTemplate.class);
+
+        // Act
+        Long lockTimeout = new TransactionTemplate(first.getBean(PlatformTransactionManager.class)).execute(status -> {
+            jdbcTemplate.execute("SET LOCK_TIMEOUT 7000");
+            first.getBean(AccountCoordinator.class).lock(account.getAccountId());
+            return jdbcTemplate.queryForObject("SELECT LOCK_TIMEOUT()", Long.class);
+        });
+
+        // Assert
+        assertThat(lockTimeout).isEqualTo(7000L);
+    }
+
+    @Test
+    @DisplayName("Should reject a transaction with AccountBusyException once it has waited out the lock timeout")
+    void shouldRejectATransactionWithAccountBusyExceptionOnceItHasWaitedOutTheLockTimeout() throws Exception {
+        // Arrange
+        Account account = createAccount(new BigDecimal("100.00"));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<?> holder = executor.submit(() -> new TransactionTemplate(first.getBean(PlatformTransactionManager.class))
+                    .executeWithoutResult(status -> {
+                        first.getBean(AccountCoordinator.class).lock(account.getAccountId());
+                        locked.countDown();
+                        try {
+                            release.await(30, TimeUnit.SECONDS);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // Act & Assert
+            try {
+                assertThatThrownBy(() -> second.getBean(TransactionService.class)
+                        .createTransaction(account.getAccountId(), 1L, new BigDecimal("10.00")))
+                        .isInstanceOf(AccountBusyException.class);
+            } finally {
+                release.countDown();
+            }
+            holder.get();
+        }
+
+        assertThat(creditLimitOf(account.getAccountId())).isEqualByComparingTo("100.00");
+        assertThat(second.getBean(MeterRegistry.class).get("pismo.account.advisory-lock.wait")
+                .tag("outcome", "timed-out").timer().max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo((double) TIMEOUT_MILLIS);
+    }
+
+    @Test
+    @DisplayName("Should never overdraw an account when instances race debits that exceed its credit limit")
+    void shouldNeverOverdrawAnAccountWhenInstancesRaceDebitsThatExceedItsCreditLimit() throws Exception {
+        // Arrange
+        Account account = createAccount(new BigDecimal("100.00"));
+        List<TransactionService> instances = List.of(
+                first.getBean(TransactionService.class), second.getBean(TransactionService.class));
+
+        // Act
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 150; i++) {
+                TransactionService instance = instances.get(i % instances.size());
+                futures.add(executor.submit(() -> instance.createTransaction(account.getAccountId(), 1L, new BigDecimal("1.00"))));
+            }
+        }
+
+        // Assert
+        int rejected = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                assertThat(ex.getCause()).isInstanceOf(TransactionInvalidException.class);
+                rejected++;
+            }
+        }
+        assertThat(rejected).isEqualTo(51);
+        assertThat(creditLimitOf(account.getAccountId())).isEqualByComparingTo("1.00");
+        assertThat(first.getBean(JdbcTemplate.class).queryForObject(
+                "SELECT COUNT(*) FROM transaction WHERE account_id = ?", Long.class, account.getAccountId())).isEqualTo(99L);
+    }
+}
@@ -0,0 +1,199 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.repositories.AccountRepository;
+import com.devfreitag.pismotest.services.AccountCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BalanceShardServiceImpl Tests")
+class BalanceShardServiceImplTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountCache accountCache;
+
+    @InjectMocks
+    private BalanceShardServiceImpl balanceShardService;
+
+    @Nested
+    @DisplayName("apply() Tests")
+    class ApplyTests {
+
+        @Test
+        @DisplayName("Should apply the amount to a random shard without reading or locking the others")
+        void shouldApplyTheAmountToARandomShardWithoutReadingOrLockingTheOthers() {
+            // Arrange
+            when(accountRepository.applyToShardCreditLimit(eq(1L), anyInt(), eq(-500L))).thenReturn(1);
+
+            // Act
+            balanceShardService.apply(1L, 4, -500L);
+
+            // Assert
+            verify(accountRepository, times(1)).applyToShardCreditLimit(eq(1L), anyInt(), eq(-500L));
+            verify(accountRepository, never()).findShardCreditLimits(any());
+            verify(accountRepository, never()).lockShardCreditLimits(any());
+        }
+
+        @Test
+        @DisplayName("Should fall back to a shard that has the headroom")
+        void shouldFallBackToAShardThatHasTheHeadroom() {
+            // Arrange - the random first shard may already be the one with the headroom
+            lenient().when(accountRepository.applyToShardCreditLimit(eq(1L), anyInt(), eq(-500L))).thenReturn(0);
+            when(accountRepository.applyToShardCreditLimit(1L, 2, -500L)).thenReturn(1);
+            lenient().when(accountRepository.findShardCreditLimits(1L)).thenReturn(new long[]{100L, 100L, 5_000L, 100L});
+
+            // Act
+            balanceShardService.apply(1L, 4, -500L);
+
+            // Assert
+            verify(accountRepository).applyToShardCreditLimit(1L, 2, -500L);
+            verify(accountRepository, never()).lockShardCreditLimits(any());
+            verify(accountRepository, never()).updateShardCreditLimits(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should rebalance the shards when none has the headroom but their sum does")
+        void shouldRebalanceTheShardsWhenNoneHasTheHeadroomButTheirSumDoes() {
+            // Arrange
+            when(accountRepository.applyToShardCreditLimit(eq(1L), anyInt(), eq(-500L))).thenReturn(0);
+            when(accountRepository.findShardCreditLimits(1L)).thenReturn(new long[]{300L, 300L, 300L, 300L});
+            when(accountRepository.lockShardCreditLimits(Set.of(1L)))
+                    .thenReturn(Map.of(1L, new long[]{300L, 300L, 300L, 300L}));
+
+            // Act
+            balanceShardService.apply(1L, 4, -500L);
+
+            // Assert
+            verify(accountRepository).updateShardCreditLimits(1L, new long[]{175L, 175L, 175L, 175L});
+        }
+
+        @Test
+        @DisplayName("Should throw TransactionInvalidException when the sum of the shards is insufficient")
+        void shouldThrowTransactionInvalidExceptionWhenTheSumOfTheShardsIsInsufficient() {
+            // Arrange
+            when(accountRepository.applyToShardCreditLimit(eq(1L), anyInt(), eq(-500L))).thenReturn(0);
+            when(accountRepository.findShardCreditLimits(1L)).thenReturn(new long[]{100L, 100L, 100L, 200L});
+            when(accountRepository.lockShardCreditLimits(Set.of(1L)))
+                    .thenReturn(Map.of(1L, new long[]{100L, 100L, 100L, 200L}));
+
+            // Act & Assert
+            assertThatThrownBy(() -> balanceShardService.apply(1L, 4, -500L))
+                    .isInstanceOf(TransactionInvalidException.class);
+
+            verify(accountRepository, never()).updateShardCreditLimits(any(), any());
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw ObjectOptimisticLockingFailureException when an account was resharded since it was read")
+    void shouldThrowObjectOptimisticLockingFailureExceptionWhenAnAccountWasReshardedSinceItWasRead() {
+        // Arrange
+        when(accountRepository.lockShardCreditLimits(Set.of(1L)))
+                .thenReturn(Map.of(1L, new long[]{300L, 300L}));
+
+        // Act & Assert
+        assertThatThrownBy(() -> balanceShardService.lockCreditLimits(Map.of(1L, 4)))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Nested
+    @DisplayName("reshard() Tests")
+    class ReshardTests {
+
+        @Test
+        @DisplayName("Should split the account's limit over the shards and leave nothing on the account row")
+        void shouldSplitTheAccountsLimitOverTheShardsAndLeaveNothingOnTheAccountRow() {
+            // Arrange
+            Account account = Account.builder()
+                    .accountId(1L)
+                    .documentNumber("12345678900")
+                    .availableCreditLimit(new BigDecimal("1000.00"))
+                    .build();
+            when(accountRepository.findAndLockById(1L)).thenReturn(Optional.of(account));
+            when(accountRepository.lockShardCreditLimits(List.of(1L))).thenReturn(Map.of());
+
+            // Act
+            Account result = balanceShardService.reshard(1L, 3);
+
+            // Assert
+            verify(accountRepository).replaceShardCreditLimits(1L, new long[]{33_334L, 33_333L, 33_333L});
+            assertThat(account.getAvailableCreditLimit()).isEqualByComparingTo("0.00");
+            assertThat(account.getBalanceShards()).isEqualTo(3);
+            assertThat(result.getAvailableCreditLimit()).isEqualByComparingTo("1000.00");
+            assertThat(result.getBalanceShards()).isEqualTo(3);
+            verify(accountCache).evictAfterCommit(1L);
+        }
+
+        @Test
+        @DisplayName("Should move the shards and what was left on the account row back to it")
+        void shouldMoveTheShardsAndWhatWasLeftOnTheAccountRowBackToIt() {
+            // Arrange
+            Account account = Account.builder()
+                    .accountId(1L)
+                    .documentNumber("12345678900")
+                    .availableCreditLimit(new BigDecimal("5.00"))
+                    .balanceShards(2)
+                    .build();
+            when(accountRepository.findAndLockById(1L)).thenReturn(Optional.of(account));
+            when(accountRepository.lockShardCreditLimits(List.of(1L))).thenReturn(Map.of(1L, new long[]{250L, 250L}));
+
+            // Act
+            Account result = balanceShardService.reshard(1L, 0);
+
+            // Assert
+            verify(accountRepository).replaceShardCreditLimits(1L, new long[0]);
+            assertThat(account.getAvailableCreditLimit()).isEqualByComparingTo("10.00");
+            assertThat(account.getBalanceShards()).isZero();
+            assertThat(result.getAvailableCreditLimit()).isEqualByComparingTo("10.00");
+        }
+
+        @Test
+        @DisplayName("Should throw AccountNotFoundException when the account does not exist")
+        void shouldThrowAccountNotFoundExceptionWhenTheAccountDoesNotExist() {
+            // Arrange
+            when(accountRepository.findAndLockById(999L)).thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertThatThrownBy(() -> balanceShardService.reshard(999L, 4))
+                    .isInstanceOf(AccountNotFoundException.class)
+                    .hasMessage("Account with ID 999 not found.");
+
+            verify(accountRepository, never()).replaceShardCreditLimits(any(), any());
+            verifyNoInteractions(accountCache);
+        }
+    }
+
+    @Test
+    @DisplayName("Should split a limit into parts that differ by at most a cent")
+    void shouldSplitALimitIntoPartsThatDifferByAtMostACent() {
+        // Act & Assert
+        assertThat(BalanceShardServiceImpl.split(10L, 4)).containsExactly(3L, 3L, 2L, 2L);
+        assertThat(BalanceShardServiceImpl.split(2L, 4)).containsExactly(1L, 1L, 0L, 0L);
+        assertThat(BalanceShardServiceImpl.split(0L, 2)).containsExactly(0L, 0L);
+    }
+}
@@ -0,0 +1,58 @@
+package com.devfreitag.pismotest.services.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BloomFilter Tests")
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Should contain every string put and rule out others at about the false positive rate")
+    void shouldContainEveryStringPutAndRuleOutOthersAtAboutTheFalsePositiveRate() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000L, 0.01);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            values.add(String.format("%011d", i * 7_919L));
+        }
+
+        // Act
+        values.forEach(filter::put);
+
+        // Assert
+        assertThat(values).allMatch(filter::mightContain);
+        long falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300L);
+    }
+
+    @Test
+    @DisplayName("Should size the bits and hashes for the expected insertions and rate")
+    void shouldSizeTheBitsAndHashesForTheExpectedInsertionsAndRate() {
+        // Act
+        BloomFilter filter = new BloomFilter(1_000_000L, 0.01);
+
+        // Assert
+        assertThat(filter.bitCount()).isBetween(9_585_059L, 9_585_059L + Long.SIZE);
+        assertThat(filter.hashCount()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should reject a false positive rate outside (0, 1)")
+    void shouldRejectAFalsePositiveRateOutsideZeroAndOne() {
+        // Act & Assert
+        assertThatThrownBy(() -> new BloomFilter(1_000L, 1.0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,110 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.repositories.AccountImportResult;
+import com.devfreitag.pismotest.services.AccountImportService;
+import com.devfreitag.pismotest.services.AccountService;
+import com.devfreitag.pismotest.services.BalanceShardService;
+import com.devfreitag.pismotest.services.CreditLimitMismatch;
+import com.devfreitag.pismotest.services.CreditLimitRebuildReport;
+import com.devfreitag.pismotest.services.CreditLimitRebuildService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Replays one account id per partition over two workers, so the range is split and merged back.
+ */
+@SpringBootTest(properties = {
+        "pismo.credit-limit-rebuild.parallelism=2",
+        "pismo.credit-limit-rebuild.partition-size=1"
+})
+@DisplayName("CreditLimitRebuildService Integration Tests")
+class CreditLimitRebuildServiceImplIntegrationTest {
+
+    @Autowired
+    private CreditLimitRebuildService creditLimitRebuildService;
+
+    @Autowired
+    private AccountImportService accountImportService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceShardService balanceShardService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long intact;
+    private Long drifted;
+    private Long sharded;
+
+    @BeforeEach
+    void setUp() {
+        List<AccountImportResult> results = new ArrayList<>();
+        accountImportService.importAccounts(new StringReader("""
+                %s,100.00
+                %s,200.00
+                %s,300.00
+                """.formatted(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID())), results::add);
+        intact = results.get(0).accountId();
+        drifted = results.get(1).accountId();
+        sharded = results.get(2).accountId();
+
+        balanceShardService.reshard(sharded, 2);
+        jdbcTemplate.update("UPDATE account SET available_credit_limit = available_credit_limit + 50 WHERE account_id IN (?, ?)",
+                drifted, sharded);
+    }
+
+    @Test
+    @DisplayName("Should report the accounts whose limit is not the sum of their transactions without changing them")
+    void shouldReportTheAccountsWhoseLimitIsNotTheSumOfTheirTransactionsWithoutChangingThem() {
+        // Act
+        CreditLimitRebuildReport report = creditLimitRebuildService.rebuild(intact, sharded, false);
+
+        // Assert
+        assertThat(report.accounts()).isEqualTo(3L);
+        assertThat(report.transactions()).isEqualTo(3L);
+        assertThat(report.mismatches()).isEqualTo(2L);
+        assertThat(report.corrected()).isZero();
+        assertThat(report.listed())
+                .extracting(CreditLimitMismatch::accountId, CreditLimitMismatch::storedCreditLimit,
+                        CreditLimitMismatch::replayedCreditLimit, CreditLimitMismatch::corrected)
+                .containsExactly(
+                        tuple(drifted, new BigDecimal("250.00"), new BigDecimal("200.00"), false),
+                        tuple(sharded, new BigDecimal("350.00"), new BigDecimal("300.00"), false));
+
+        assertThat(accountService.findById(drifted).getAvailableCreditLimit()).isEqualByComparingTo("250.00");
+    }
+
+    @Test
+    @DisplayName("Should correct the limit of unsharded accounts and only report sharded ones")
+    void shouldCorrectTheLimitOfUnshardedAccountsAndOnlyReportShardedOnes() {
+        // Act
+        CreditLimitRebuildReport report = creditLimitRebuildService.rebuild(intact, sharded, true);
+
+        // Assert
+        assertThat(report.mismatches()).isEqualTo(2L);
+        assertThat(report.corrected()).isEqualTo(1L);
+        assertThat(report.listed())
+                .extracting(CreditLimitMismatch::accountId, CreditLimitMismatch::corrected)
+                .containsExactly(tuple(drifted, true), tuple(sharded, false));
+
+        assertThat(accountService.findById(drifted).getAvailableCreditLimit()).isEqualByComparingTo("200.00");
+        assertThat(accountService.findById(sharded).getAvailableCreditLimit()).isEqualByComparingTo("350.00");
+        assertThat(creditLimitRebuildService.rebuild(intact, drifted, false).mismatches()).isZero();
+    }
+}
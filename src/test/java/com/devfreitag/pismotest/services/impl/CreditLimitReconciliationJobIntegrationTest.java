@@ -0,0 +1,125 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.repositories.AccountImportResult;
+import com.devfreitag.pismotest.repositories.AccountRepository;
+import com.devfreitag.pismotest.repositories.ReconciliationMismatch;
+import com.devfreitag.pismotest.services.AccountImportService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "pismo.reconciliation.enabled=true",
+        "pismo.reconciliation.interval=1h",
+        "pismo.reconciliation.chunk-size=7"
+})
+@DisplayName("CreditLimitReconciliationJob Integration Tests")
+class CreditLimitReconciliationJobIntegrationTest {
+
+    @Autowired
+    private CreditLimitReconciliationJob job;
+
+    @Autowired
+    private AccountImportService accountImportService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM reconciliation_mismatch");
+        jdbcTemplate.update("DELETE FROM reconciliation_chunk");
+        jdbcTemplate.update("DELETE FROM reconciliation_run");
+    }
+
+    private List<Long> importAccounts(String... limits) {
+        StringBuilder csv = new StringBuilder();
+        for (String limit : limits) {
+            csv.append(UUID.randomUUID()).append(',').append(limit).append('\n');
+        }
+        List<AccountImportResult> results = new ArrayList<>();
+        accountImportService.importAccounts(new StringReader(csv.toString()), results::add);
+        return results.stream().map(AccountImportResult::accountId).toList();
+    }
+
+    private void drift(Long accountId) {
+        jdbcTemplate.update("UPDATE account SET available_credit_limit = available_credit_limit + 50 WHERE account_id = ?", accountId);
+    }
+
+    @Test
+    @DisplayName("Should check every account and record the ones whose limit is not the sum of their transactions")
+    void shouldCheckEveryAccountAndRecordTheOnesWhoseLimitIsNotTheSumOfTheirTransactions() throws Exception {
+        // Arrange
+        List<Long> accounts = importAccounts("100.00", "200.00");
+        drift(accounts.get(1));
+        long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account", Long.class);
+        double checkedBefore = meterRegistry.get("pismo.reconciliation.accounts").counter().count();
+
+        // Act
+        CreditLimitReconciliationJob.Result result = job.reconcile().orElseThrow();
+
+        // Assert
+        assertThat(result.accounts()).isEqualTo(total);
+        List<ReconciliationMismatch> mismatches = accountRepository.findReconciliationMismatches(result.runId());
+        assertThat(mismatches).hasSize((int) result.mismatches());
+        assertThat(mismatches).extracting(ReconciliationMismatch::accountId)
+                .contains(accounts.get(1))
+                .doesNotContain(accounts.get(0));
+        assertThat(mismatches).filteredOn(mismatch -> mismatch.accountId().equals(accounts.get(1))).singleElement()
+                .satisfies(mismatch -> {
+                    assertThat(mismatch.availableCreditLimit()).isEqualByComparingTo("250.00");
+                    assertThat(mismatch.transactionSum()).isEqualByComparingTo("200.00");
+                });
+
+        assertThat(accountRepository.findUnfinishedReconciliation()).isEmpty();
+        assertThat(meterRegistry.get("pismo.reconciliation.accounts").counter().count() - checkedBefore).isEqualTo(total);
+        assertThat(meterRegistry.get("pismo.reconciliation.throughput").gauge().value()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should resume an unfinished reconciliation with the chunks it had not checked")
+    void shouldResumeAnUnfinishedReconciliationWithTheChunksItHadNotChecked() throws Exception {
+        // Arrange
+        List<Long> accounts = importAccounts("100.00", "200.00");
+        drift(accounts.get(0));
+        drift(accounts.get(1));
+        UUID runId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO reconciliation_run (run_id, from_account_id, to_account_id, chunk_size, started_at)
+                VALUES (?, ?, ?, 1, ?)
+                """, runId, accounts.get(0), accounts.get(1), Timestamp.from(Instant.now()));
+        jdbcTemplate.update("INSERT INTO reconciliation_chunk (run_id, from_account_id, accounts, mismatches) VALUES (?, ?, 1, 0)",
+                runId, accounts.get(0));
+
+        // Act
+        CreditLimitReconciliationJob.Result result = job.reconcile().orElseThrow();
+
+        // Assert
+        assertThat(result.runId()).isEqualTo(runId);
+        assertThat(result.accounts()).isEqualTo(2L);
+        assertThat(result.mismatches()).isEqualTo(1L);
+        assertThat(accountRepository.findReconciliationMismatches(runId))
+                .containsExactly(new ReconciliationMismatch(accounts.get(1), new BigDecimal("250.00"), new BigDecimal("200.00")));
+        assertThat(accountRepository.findUnfinishedReconciliation()).isEmpty();
+    }
+}
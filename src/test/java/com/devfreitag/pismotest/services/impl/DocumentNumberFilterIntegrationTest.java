@@ -0,0 +1,95 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.DocumentNumberFilterProperties;
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.exceptions.AccountConflictException;
+import com.devfreitag.pismotest.repositories.AccountRepository;
+import com.devfreitag.pismotest.services.AccountService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@DisplayName("DocumentNumberFilter Integration Tests")
+class DocumentNumberFilterIntegrationTest {
+
+    @Autowired
+    private DocumentNumberFilterImpl documentNumberFilter;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String saveAccountBehindTheFiltersBack() {
+        String documentNumber = UUID.randomUUID().toString();
+        accountRepository.save(Account.builder()
+                .documentNumber(documentNumber)
+                .availableCreditLimit(BigDecimal.ZERO)
+                .build());
+        return documentNumber;
+    }
+
+    @Test
+    @DisplayName("Should load the document numbers already in the database")
+    void shouldLoadTheDocumentNumbersAlreadyInTheDatabase() {
+        // Arrange
+        String documentNumber = saveAccountBehindTheFiltersBack();
+        DocumentNumberFilterImpl filter = new DocumentNumberFilterImpl(accountRepository, transactionManager,
+                new DocumentNumberFilterProperties(1_000L, 0.01), new SimpleMeterRegistry());
+        assertThat(filter.mightExist(UUID.randomUUID().toString())).isTrue();
+
+        // Act
+        filter.load();
+
+        // Assert
+        assertThat(filter.mightExist(documentNumber)).isTrue();
+        assertThat(filter.mightExist(UUID.randomUUID().toString())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should add the document numbers of the accounts it creates")
+    void shouldAddTheDocumentNumbersOfTheAccountsItCreates() {
+        // Arrange
+        await().atMost(Duration.ofSeconds(10)).until(documentNumberFilter::isLoaded);
+        String documentNumber = UUID.randomUUID().toString();
+
+        // Act
+        accountService.createAccount(documentNumber);
+
+        // Assert
+        assertThat(documentNumberFilter.mightExist(documentNumber)).isTrue();
+        assertThatThrownBy(() -> accountService.createAccount(documentNumber))
+                .isInstanceOf(AccountConflictException.class);
+    }
+
+    @Test
+    @DisplayName("Should report a document number the filter missed as a conflict when the insert breaks its uniqueness")
+    void shouldReportADocumentNumberTheFilterMissedAsAConflictWhenTheInsertBreaksItsUniqueness() {
+        // Arrange - as if another instance had created the account
+        await().atMost(Duration.ofSeconds(10)).until(documentNumberFilter::isLoaded);
+        String documentNumber = saveAccountBehindTheFiltersBack();
+
+        // Act & Assert
+        assertThat(documentNumberFilter.mightExist(documentNumber)).isFalse();
+        assertThatThrownBy(() -> accountService.createAccount(documentNumber))
+                .isInstanceOf(AccountConflictException.class)
+                .hasMessage("Account with document number " + documentNumber + " already exists.");
+        assertThat(accountRepository.existsByDocumentNumber(documentNumber)).isTrue();
+    }
+}
@@ -0,0 +1,44 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.repositories.OutboxEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("FileOutboxPublisher Tests")
+class FileOutboxPublisherTest {
+
+    private static final Instant EVENT_DATE = Instant.parse("2026-01-15T10:30:00Z");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Should append one JSON line per event, keeping what earlier runs wrote")
+    void shouldAppendOneJsonLinePerEventKeepingWhatEarlierRunsWrote() throws Exception {
+        // Arrange
+        Path file = directory.resolve("outbox").resolve("transactions.ndjson");
+        try (FileOutboxPublisher publisher = new FileOutboxPublisher(file, JsonMapper.builder().build())) {
+            publisher.publish(List.of(new OutboxEvent(1L, 10L, 4L, new BigDecimal("100.00"), EVENT_DATE)));
+        }
+
+        // Act
+        try (FileOutboxPublisher publisher = new FileOutboxPublisher(file, JsonMapper.builder().build())) {
+            publisher.publish(List.of(new OutboxEvent(2L, 10L, 1L, new BigDecimal("-30.00"), EVENT_DATE)));
+        }
+
+        // Assert
+        assertThat(Files.readAllLines(file)).containsExactly(
+                "{\"transaction_id\":1,\"account_id\":10,\"operation_type_id\":4,\"amount\":100.00,\"event_date\":\"2026-01-15T10:30:00Z\"}",
+                "{\"transaction_id\":2,\"account_id\":10,\"operation_type_id\":1,\"amount\":-30.00,\"event_date\":\"2026-01-15T10:30:00Z\"}");
+    }
+}
@@ -0,0 +1,199 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.IdempotencyProperties;
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.entities.OperationType;
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.exceptions.IdempotencyKeyReusedException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.models.CreateTransactionResponse;
+import com.devfreitag.pismotest.repositories.IdempotencyKeyRepository;
+import com.devfreitag.pismotest.services.IdempotentTransaction;
+import com.devfreitag.pismotest.services.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotencyServiceImpl Tests")
+class IdempotencyServiceImplTest {
+
+    private static final String KEY = "key-1";
+
+    private static final CreateTransactionRequest REQUEST = new CreateTransactionRequest(1L, 1L, new BigDecimal("100.00"));
+
+    private static final CreateTransactionResponse RESPONSE = new CreateTransactionResponse(7L, 1L, 1L, new BigDecimal("-100.00"));
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private IdempotencyServiceImpl idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyServiceImpl(transactionService, idempotencyKeyRepository,
+                new IdempotencyProperties(100, Duration.ofMinutes(1)), new SimpleMeterRegistry());
+    }
+
+    private Transaction buildTransaction() {
+        OperationType operationType = new OperationType();
+        ReflectionTestUtils.setField(operationType, "operationTypeId", 1L);
+        return Transaction.builder()
+                .transactionId(7L)
+                .account(Account.builder().accountId(1L).build())
+                .operationType(operationType)
+                .amount(new BigDecimal("-100.00"))
+                .eventDate(Instant.now())
+                .build();
+    }
+
+    @Nested
+    @DisplayName("createTransaction() Tests")
+    class CreateTransactionTests {
+
+        @Test
+        @DisplayName("Should create the transaction under the key the first time it is seen")
+        void shouldCreateTheTransactionUnderTheKeyTheFirstTimeItIsSeen() {
+            // Arrange
+            when(idempotencyKeyRepository.findResponseByIdempotencyKey(KEY)).thenReturn(Optional.empty());
+            when(transactionService.createTransaction(1L, 1L, REQUEST.amount(), KEY)).thenReturn(buildTransaction());
+
+            // Act
+            IdempotentTransaction result = idempotencyService.createTransaction(KEY, REQUEST);
+
+            // Assert
+            assertThat(result).isEqualTo(new IdempotentTransaction(RESPONSE, false));
+        }
+
+        @Test
+        @DisplayName("Should replay a recent response from memory without touching the database")
+        void shouldReplayARecentResponseFromMemoryWithoutTouchingTheDatabase() {
+            // Arrange
+            when(idempotencyKeyRepository.findResponseByIdempotencyKey(KEY)).thenReturn(Optional.empty());
+            when(transactionService.createTransaction(1L, 1L, REQUEST.amount(), KEY)).thenReturn(buildTransaction());
+            idempotencyService.createTransaction(KEY, REQUEST);
+
+            // Act
+            IdempotentTransaction result = idempotencyService.createTransaction(KEY, REQUEST);
+
+            // Assert
+            assertThat(result).isEqualTo(new IdempotentTransaction(RESPONSE, true));
+            verify(transactionService, times(1)).createTransaction(any(), any(), any(), any());
+            verify(idempotencyKeyRepository, times(1)).findResponseByIdempotencyKey(KEY);
+        }
+
+        @Test
+        @DisplayName("Should replay a stored response that is no longer in memory")
+        void shouldReplayAStoredResponseThatIsNoLongerInMemory() {
+            // Arrange
+            when(idempotencyKeyRepository.findResponseByIdempotencyKey(KEY)).thenReturn(Optional.of(RESPONSE));
+
+            // Act
+            IdempotentTransaction result = idempotencyService.createTransaction(KEY, REQUEST);
+
+            // Assert
+            assertThat(result).isEqualTo(new IdempotentTransaction(RESPONSE, true));
+            verifyNoInteractions(transactionService);
+        }
+
+        @Test
+        @DisplayName("Should throw IdempotencyKeyReusedException when the key was used for a different transaction")
+        void shouldThrowIdempotencyKeyReusedExceptionWhenTheKeyWasUsedForADifferentTransaction() {
+            // Arrange
+            when(idempotencyKeyRepository.findResponseByIdempotencyKey(KEY)).thenReturn(Optional.of(RESPONSE));
+
+            // Act & Assert
+            assertThatThrownBy(() -> idempotencyService.createTransaction(KEY,
+                    new CreateTransactionRequest(1L, 1L, new BigDecimal("100.01"))))
+                    .isInstanceOf(IdempotencyKeyReusedException.class)
+                    .hasMessage("Idempotency key key-1 was already used for a different transaction.");
+            assertThatThrownBy(() -> idempotencyService.createTransaction(KEY,
+                    new CreateTransactionRequest(2L, 1L, new BigDecimal("100.00"))))
+                    .isInstanceOf(IdempotencyKeyReusedException.class);
+
+            verifyNoInteractions(transactionService);
+        }
+
+        @Test
+        @DisplayName("Should replay the stored transaction when another instance stored the key first")
+        void shouldReplayTheStoredTransactionWhenAnotherInstanceStoredTheKeyFirst() {
+            // Arrange
+            when(idempotencyKeyRepository.findResponseByIdempotencyKey(KEY))
+                    .thenReturn(Optional.empty())
+                    .thenReturn(Optional.of(RESPONSE));
+            when(transactionService.createTransaction(1L, 1L, REQUEST.amount(), KEY))
+                    .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+            // Act
+            IdempotentTransaction result = idempotencyService.createTransaction(KEY, REQUEST);
+
+            // Assert
+            assertThat(result).isEqualTo(new IdempotentTransaction(RESPONSE, true));
+        }
+
+        @Test
+        @DisplayName("Should try again after a rejected attempt, since nothing was stored for it")
+        void shouldTryAgainAfterARejectedAttemptSinceNothingWasStoredForIt() {
+            // Arrange
+            when(idempotencyKeyRepository.findResponseByIdempotencyKey(KEY)).thenReturn(Optional.empty());
+            when(transactionService.createTransaction(1L, 1L, REQUEST.amount(), KEY))
+                    .thenThrow(new TransactionInvalidException())
+                    .thenReturn(buildTransaction());
+
+            // Act & Assert
+            assertThatThrownBy(() -> idempotencyService.createTransaction(KEY, REQUEST))
+                    .isInstanceOf(TransactionInvalidException.class);
+            assertThat(idempotencyService.createTransaction(KEY, REQUEST))
+                    .isEqualTo(new IdempotentTransaction(RESPONSE, false));
+        }
+
+        @Test
+        @DisplayName("Should let a concurrent request with the same key wait for the first one")
+        void shouldLetAConcurrentRequestWithTheSameKeyWaitForTheFirstOne() throws Exception {
+            // Arrange
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            when(idempotencyKeyRepository.findResponseByIdempotencyKey(KEY)).thenReturn(Optional.empty());
+            when(transactionService.createTransaction(1L, 1L, REQUEST.amount(), KEY)).thenAnswer(invocation -> {
+                entered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return buildTransaction();
+            });
+
+            CompletableFuture<IdempotentTransaction> first = CompletableFuture.supplyAsync(() -> idempotencyService.createTransaction(KEY, REQUEST));
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Act
+            CompletableFuture<IdempotentTransaction> second = CompletableFuture.supplyAsync(() -> idempotencyService.createTransaction(KEY, REQUEST));
+            release.countDown();
+
+            // Assert
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(new IdempotentTransaction(RESPONSE, false));
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(new IdempotentTransaction(RESPONSE, true));
+            verify(transactionService, times(1)).createTransaction(any(), any(), any(), any());
+        }
+    }
+}
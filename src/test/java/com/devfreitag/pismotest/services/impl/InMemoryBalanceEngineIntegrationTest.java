@@ -0,0 +1,145 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.repositories.AccountImportResult;
+import com.devfreitag.pismotest.services.AccountImportService;
+import com.devfreitag.pismotest.services.AccountService;
+import com.devfreitag.pismotest.services.TransactionJournalService;
+import com.devfreitag.pismotest.services.TransactionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "pismo.balance-engine.enabled=true",
+        "pismo.journal.enabled=true",
+        "pismo.journal.id=balance-engine-test",
+        "pismo.journal.drain-interval=1h"
+})
+@DisplayName("InMemoryBalanceEngine Integration Tests")
+class InMemoryBalanceEngineIntegrationTest {
+
+    @TempDir
+    private static Path directory;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("pismo.journal.directory", () -> directory.resolve("journal").toString());
+        registry.add("pismo.balance-engine.snapshot-file", () -> directory.resolve("balances.snapshot").toString());
+    }
+
+    @Autowired
+    private InMemoryBalanceEngine balanceEngine;
+
+    @Autowired
+    private TransactionJournalDrainer drainer;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionJournalService transactionJournalService;
+
+    @Autowired
+    private AccountImportService accountImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private BigDecimal creditLimitOf(Long accountId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT available_credit_limit FROM account WHERE account_id = ?", BigDecimal.class, accountId);
+    }
+
+    @Test
+    @DisplayName("Should decide journaled and synchronous transactions against the same figures")
+    void shouldDecideJournaledAndSynchronousTransactionsAgainstTheSameFigures() {
+        // Arrange
+        Account account = accountService.createAccount(UUID.randomUUID().toString());
+        Long accountId = account.getAccountId();
+        transactionService.createTransaction(accountId, 4L, new BigDecimal("100.00"));
+
+        // Act
+        transactionJournalService.accept(new CreateTransactionRequest(accountId, 1L, new BigDecimal("60.00")));
+
+        // Assert
+        assertThatThrownBy(() -> transactionJournalService.accept(new CreateTransactionRequest(accountId, 1L, new BigDecimal("40.00"))))
+                .isInstanceOf(TransactionInvalidException.class);
+        assertThatThrownBy(() -> transactionService.createTransaction(accountId, 1L, new BigDecimal("50.00")))
+                .isInstanceOf(TransactionInvalidException.class);
+        assertThat(creditLimitOf(accountId)).isEqualByComparingTo("100.00");
+        assertThat(balanceEngine.availableCreditLimit(accountId)).isEqualByComparingTo("40.00");
+
+        drainer.drainAll();
+
+        assertThat(creditLimitOf(accountId)).isEqualByComparingTo("40.00");
+        assertThat(balanceEngine.availableCreditLimit(accountId)).isEqualByComparingTo("40.00");
+    }
+
+    @Test
+    @DisplayName("Should let an imported account spend its initial limit at once")
+    void shouldLetAnImportedAccountSpendItsInitialLimitAtOnce() {
+        // Arrange
+        List<AccountImportResult> results = new ArrayList<>();
+        accountImportService.importAccounts(new StringReader(UUID.randomUUID() + ",100.00\n"), results::add);
+        Long accountId = results.getFirst().accountId();
+
+        // Act
+        transactionService.createTransaction(accountId, 1L, new BigDecimal("30.00"));
+        transactionJournalService.accept(new CreateTransactionRequest(accountId, 1L, new BigDecimal("20.00")));
+
+        // Assert
+        assertThat(creditLimitOf(accountId)).isEqualByComparingTo("70.00");
+        assertThat(balanceEngine.availableCreditLimit(accountId)).isEqualByComparingTo("50.00");
+
+        drainer.drainAll();
+
+        assertThat(creditLimitOf(accountId)).isEqualByComparingTo("50.00");
+    }
+
+    @Test
+    @DisplayName("Should keep JPA transactions committed after a snapshot taken behind an import when the balance engine reloads it")
+    void shouldKeepJpaTransactionsCommittedAfterASnapshotTakenBehindAnImportWhenTheBalanceEngineReloadsIt() throws IOException {
+        // Arrange
+        Long accountId = accountService.createAccount(UUID.randomUUID().toString()).getAccountId();
+        // Two JPA inserts, so a pooled block is in use even on a fresh sequence
+        transactionService.createTransaction(accountId, 4L, new BigDecimal("60.00"));
+        transactionService.createTransaction(accountId, 4L, new BigDecimal("40.00"));
+        List<AccountImportResult> results = new ArrayList<>();
+        accountImportService.importAccounts(new StringReader(UUID.randomUUID() + ",100.00\n"), results::add);
+        AccountImportResult imported = results.getFirst();
+        balanceEngine.snapshot();
+        Transaction viaJpa = transactionService.createTransaction(imported.accountId(), 1L, new BigDecimal("30.00"));
+
+        // Act
+        balanceEngine.load();
+
+        // Assert
+        assertThat(viaJpa.getTransactionId()).isGreaterThan(imported.transactionId());
+        assertThat(balanceEngine.availableCreditLimit(imported.accountId())).isEqualByComparingTo("70.00");
+        assertThat(creditLimitOf(imported.accountId())).isEqualByComparingTo("70.00");
+        assertThat(balanceEngine.availableCreditLimit(accountId)).isEqualByComparingTo("100.00");
+    }
+}
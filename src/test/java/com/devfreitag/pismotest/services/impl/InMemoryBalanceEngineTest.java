@@ -0,0 +1,233 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.BalanceEngineProperties;
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.repositories.AccountAmount;
+import com.devfreitag.pismotest.repositories.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InMemoryBalanceEngine Tests")
+class InMemoryBalanceEngineTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @TempDir
+    private Path directory;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private InMemoryBalanceEngine newEngine() {
+        return new InMemoryBalanceEngine(transactionRepository,
+                new BalanceEngineProperties(true, 4, directory.resolve("balances.snapshot"), Duration.ofHours(1)),
+                new SimpleMeterRegistry());
+    }
+
+    private InMemoryBalanceEngine loadedEngine(AccountAmount... sums) {
+        when(transactionRepository.findMaxTransactionId()).thenReturn(Optional.of(100L));
+        when(transactionRepository.sumAmountsByAccount(0L, 100L)).thenReturn(List.of(sums));
+        InMemoryBalanceEngine engine = newEngine();
+        engine.load();
+        return engine;
+    }
+
+    private static Transaction transaction(long transactionId, long accountId, String amount) {
+        return Transaction.builder()
+                .transactionId(transactionId)
+                .account(Account.builder().accountId(accountId).build())
+                .amount(new BigDecimal(amount))
+                .eventDate(Instant.now())
+                .build();
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+
+    @Nested
+    @DisplayName("admit() Tests")
+    class AdmitTests {
+
+        @Test
+        @DisplayName("Should apply transactions that keep the limit positive and reject the rest")
+        void shouldApplyTransactionsThatKeepTheLimitPositiveAndRejectTheRest() {
+            // Arrange
+            InMemoryBalanceEngine engine = loadedEngine(new AccountAmount(1L, new BigDecimal("100.00")));
+
+            // Act
+            engine.admit(1L, -6_000L);
+
+            // Assert
+            assertThatThrownBy(() -> engine.admit(1L, -4_000L))
+                    .isInstanceOf(TransactionInvalidException.class);
+            assertThatThrownBy(() -> engine.admit(2L, -1L))
+                    .isInstanceOf(TransactionInvalidException.class);
+            assertThat(engine.availableCreditLimit(1L)).isEqualByComparingTo("40.00");
+        }
+
+        @Test
+        @DisplayName("Should refuse to decide before it is loaded")
+        void shouldRefuseToDecideBeforeItIsLoaded() {
+            // Arrange
+            InMemoryBalanceEngine engine = newEngine();
+
+            // Act & Assert
+            assertThatThrownBy(() -> engine.admit(1L, 1_000L))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("reserve() Tests")
+    class ReserveTests {
+
+        @Test
+        @DisplayName("Should hold debits at once and give them back when the database transaction rolls back")
+        void shouldHoldDebitsAtOnceAndGiveThemBackWhenTheDatabaseTransactionRollsBack() {
+            // Arrange
+            InMemoryBalanceEngine engine = loadedEngine(new AccountAmount(1L, new BigDecimal("100.00")));
+            TransactionSynchronizationManager.initSynchronization();
+
+            // Act
+            engine.reserve(1L, -7_000L);
+
+            // Assert
+            assertThat(engine.availableCreditLimit(1L)).isEqualByComparingTo("30.00");
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+            assertThat(engine.availableCreditLimit(1L)).isEqualByComparingTo("100.00");
+        }
+
+        @Test
+        @DisplayName("Should only count credits once the database transaction commits")
+        void shouldOnlyCountCreditsOnceTheDatabaseTransactionCommits() {
+            // Arrange
+            InMemoryBalanceEngine engine = loadedEngine(new AccountAmount(1L, new BigDecimal("100.00")));
+            TransactionSynchronizationManager.initSynchronization();
+
+            // Act
+            engine.reserve(1L, 5_000L);
+
+            // Assert
+            assertThat(engine.availableCreditLimit(1L)).isEqualByComparingTo("100.00");
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+            assertThat(engine.availableCreditLimit(1L)).isEqualByComparingTo("150.00");
+        }
+
+        @Test
+        @DisplayName("Should give back an admitted transaction the database rejected once the rejection commits")
+        void shouldGiveBackAnAdmittedTransactionTheDatabaseRejectedOnceTheRejectionCommits() {
+            // Arrange
+            InMemoryBalanceEngine engine = loadedEngine(new AccountAmount(1L, new BigDecimal("100.00")));
+            engine.admit(1L, -7_000L);
+            TransactionSynchronizationManager.initSynchronization();
+
+            // Act
+            engine.release(1L, -7_000L);
+
+            // Assert
+            assertThat(engine.availableCreditLimit(1L)).isEqualByComparingTo("30.00");
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+            assertThat(engine.availableCreditLimit(1L)).isEqualByComparingTo("100.00");
+        }
+    }
+
+    @Nested
+    @DisplayName("snapshot() and load() Tests")
+    class SnapshotTests {
+
+        @Test
+        @DisplayName("Should load the snapshot and add only the transactions written after it")
+        void shouldLoadTheSnapshotAndAddOnlyTheTransactionsWrittenAfterIt() throws IOException {
+            // Arrange
+            InMemoryBalanceEngine engine = loadedEngine(
+                    new AccountAmount(1L, new BigDecimal("100.00")), new AccountAmount(2L, new BigDecimal("5.00")));
+            engine.written(transaction(150L, 1L, "-20.00"));
+            engine.admit(1L, -3_000L);
+            engine.snapshot();
+
+            when(transactionRepository.findMaxTransactionId()).thenReturn(Optional.of(200L));
+            doReturn(List.of(new AccountAmount(1L, new BigDecimal("-30.00")), new AccountAmount(3L, new BigDecimal("9.99"))))
+                    .when(transactionRepository).sumAmountsByAccount(150L, 200L);
+            InMemoryBalanceEngine restarted = newEngine();
+
+            // Act
+            restarted.load();
+
+            // Assert
+            assertThat(restarted.availableCreditLimit(1L)).isEqualByComparingTo("50.00");
+            assertThat(restarted.availableCreditLimit(2L)).isEqualByComparingTo("5.00");
+            assertThat(restarted.availableCreditLimit(3L)).isEqualByComparingTo("9.99");
+        }
+
+        @Test
+        @DisplayName("Should sum every transaction when the snapshot is corrupt")
+        void shouldSumEveryTransactionWhenTheSnapshotIsCorrupt() throws IOException {
+            // Arrange
+            InMemoryBalanceEngine engine = loadedEngine(new AccountAmount(1L, new BigDecimal("100.00")));
+            engine.snapshot();
+            Path snapshotFile = directory.resolve("balances.snapshot");
+            byte[] bytes = Files.readAllBytes(snapshotFile);
+            bytes[bytes.length - 10] ^= 1;
+            Files.write(snapshotFile, bytes);
+            InMemoryBalanceEngine restarted = newEngine();
+
+            // Act
+            restarted.load();
+
+            // Assert
+            verify(transactionRepository, times(2)).sumAmountsByAccount(0L, 100L);
+            assertThat(restarted.availableCreditLimit(1L)).isEqualByComparingTo("100.00");
+        }
+
+        @Test
+        @DisplayName("Should not read transactions when the snapshot is up to date")
+        void shouldNotReadTransactionsWhenTheSnapshotIsUpToDate() throws IOException {
+            // Arrange
+            InMemoryBalanceEngine engine = loadedEngine(new AccountAmount(1L, new BigDecimal("100.00")));
+            engine.snapshot();
+            InMemoryBalanceEngine restarted = newEngine();
+
+            // Act
+            restarted.load();
+
+            // Assert
+            verify(transactionRepository, times(1)).sumAmountsByAccount(anyLong(), anyLong());
+            assertThat(restarted.availableCreditLimit(1L)).isEqualByComparingTo("100.00");
+        }
+    }
+}
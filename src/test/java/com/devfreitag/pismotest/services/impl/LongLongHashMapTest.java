@@ -0,0 +1,84 @@
+package com.devfreitag.pismotest.services.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("LongLongHashMap Tests")
+class LongLongHashMapTest {
+
+    @Test
+    @DisplayName("Should read absent keys as zero and accumulate additions")
+    void shouldReadAbsentKeysAsZeroAndAccumulateAdditions() {
+        // Arrange
+        LongLongHashMap map = new LongLongHashMap();
+
+        // Act
+        long first = map.add(7L, 100L);
+        long second = map.add(7L, -30L);
+
+        // Assert
+        assertThat(map.get(8L)).isZero();
+        assertThat(first).isEqualTo(100L);
+        assertThat(second).isEqualTo(70L);
+        assertThat(map.get(7L)).isEqualTo(70L);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep every entry while growing")
+    void shouldKeepEveryEntryWhileGrowing() {
+        // Arrange
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // Act
+        for (int i = 0; i < 50_000; i++) {
+            long key = 1L + random.nextInt(20_000);
+            long delta = random.nextInt(1_000) - 500;
+            map.add(key, delta);
+            expected.merge(key, delta, Long::sum);
+        }
+
+        // Assert
+        Map<Long, Long> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+        assertThat(map.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    @DisplayName("Should copy into an independent map")
+    void shouldCopyIntoAnIndependentMap() {
+        // Arrange
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(1L, 10L);
+
+        // Act
+        LongLongHashMap copy = map.copy();
+        map.put(1L, 20L);
+        copy.put(2L, 30L);
+
+        // Assert
+        assertThat(copy.get(1L)).isEqualTo(10L);
+        assertThat(map.get(2L)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject keys that are not positive")
+    void shouldRejectKeysThatAreNotPositive() {
+        // Arrange
+        LongLongHashMap map = new LongLongHashMap();
+
+        // Act & Assert
+        assertThatThrownBy(() -> map.put(0L, 1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.get(-1L)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
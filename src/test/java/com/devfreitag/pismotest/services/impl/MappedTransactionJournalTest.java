@@ -0,0 +1,233 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.TransactionJournalProperties;
+import com.devfreitag.pismotest.services.JournalEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("MappedTransactionJournal Tests")
+class MappedTransactionJournalTest {
+
+    private static final int SEGMENT_RECORDS = 3;
+
+    @TempDir
+    private Path directory;
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<MappedTransactionJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        journals.forEach(MappedTransactionJournal::close);
+    }
+
+    private MappedTransactionJournal openJournal(long drainedSequence) {
+        meterRegistry = new SimpleMeterRegistry();
+        MappedTransactionJournal journal = new MappedTransactionJournal(new TransactionJournalProperties(true, "test", directory,
+                DataSize.ofBytes((long) SEGMENT_RECORDS * MappedTransactionJournal.RECORD_SIZE), 100, Duration.ofMillis(100)), meterRegistry);
+        journals.add(journal);
+        journal.open(drainedSequence);
+        return journal;
+    }
+
+    private void appendPurchases(MappedTransactionJournal journal, int count) {
+        for (int i = 0; i < count; i++) {
+            journal.append(1L, 1L, new BigDecimal("10.00"));
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @Nested
+    @DisplayName("append() and read() Tests")
+    class AppendAndReadTests {
+
+        @Test
+        @DisplayName("Should number entries in order and read them back unchanged")
+        void shouldNumberEntriesInOrderAndReadThemBackUnchanged() {
+            // Arrange
+            MappedTransactionJournal journal = openJournal(0);
+
+            // Act
+            JournalEntry first = journal.append(1L, 1L, new BigDecimal("123.45"));
+            JournalEntry second = journal.append(2L, 4L, new BigDecimal("0.005"));
+
+            // Assert
+            assertThat(first.sequence()).isEqualTo(1L);
+            assertThat(second.sequence()).isEqualTo(2L);
+            assertThat(journal.read(0, 10)).containsExactly(first, second);
+            assertThat(journal.read(1, 10)).containsExactly(second);
+            assertThat(journal.read(2, 10)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should rotate full segments and read across them")
+        void shouldRotateFullSegmentsAndReadAcrossThem() throws IOException {
+            // Arrange
+            MappedTransactionJournal journal = openJournal(0);
+
+            // Act
+            appendPurchases(journal, 7);
+
+            // Assert
+            assertThat(segmentFiles()).extracting(path -> path.getFileName().toString()).containsExactly(
+                    "journal-00000000000000000001.log", "journal-00000000000000000004.log", "journal-00000000000000000007.log");
+            assertThat(journal.read(2, 4)).extracting(JournalEntry::sequence).containsExactly(3L, 4L, 5L, 6L);
+        }
+
+        @Test
+        @DisplayName("Should give every concurrent append its own sequence once it is synced")
+        void shouldGiveEveryConcurrentAppendItsOwnSequenceOnceItIsSynced() throws Exception {
+            // Arrange
+            MappedTransactionJournal journal = openJournal(0);
+            List<Future<List<Long>>> futures = new ArrayList<>();
+
+            // Act
+            try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+                for (int thread = 0; thread < 8; thread++) {
+                    futures.add(executor.submit(() -> {
+                        List<Long> sequences = new ArrayList<>();
+                        for (int i = 0; i < 100; i++) {
+                            sequences.add(journal.append(1L, 1L, BigDecimal.ONE).sequence());
+                        }
+                        return sequences;
+                    }));
+                }
+            }
+
+            // Assert
+            List<Long> sequences = new ArrayList<>();
+            for (Future<List<Long>> future : futures) {
+                sequences.addAll(future.get());
+            }
+            assertThat(sequences).containsExactlyInAnyOrderElementsOf(LongStream.rangeClosed(1, 800).boxed().toList());
+            assertThat(journal.read(0, 1_000)).hasSize(800);
+            assertThat(meterRegistry.get("pismo.journal.group.commit.size").summary().totalAmount()).isEqualTo(800.0);
+        }
+    }
+
+    @Nested
+    @DisplayName("release() Tests")
+    class ReleaseTests {
+
+        @Test
+        @DisplayName("Should delete segments whose entries were all drained")
+        void shouldDeleteSegmentsWhoseEntriesWereAllDrained() throws IOException {
+            // Arrange
+            MappedTransactionJournal journal = openJournal(0);
+            appendPurchases(journal, 7);
+
+            // Act
+            journal.release(5);
+
+            // Assert
+            assertThat(segmentFiles()).extracting(path -> path.getFileName().toString()).containsExactly(
+                    "journal-00000000000000000004.log", "journal-00000000000000000007.log");
+            assertThat(journal.read(5, 10)).extracting(JournalEntry::sequence).containsExactly(6L, 7L);
+        }
+    }
+
+    @Nested
+    @DisplayName("open() Tests")
+    class OpenTests {
+
+        @Test
+        @DisplayName("Should recover undrained entries and continue their numbering")
+        void shouldRecoverUndrainedEntriesAndContinueTheirNumbering() {
+            // Arrange
+            MappedTransactionJournal journal = openJournal(0);
+            appendPurchases(journal, 5);
+            List<JournalEntry> written = journal.read(0, 10);
+            journal.close();
+
+            // Act
+            MappedTransactionJournal reopened = openJournal(2);
+
+            // Assert
+            assertThat(reopened.read(2, 10)).isEqualTo(written.subList(2, 5));
+            assertThat(reopened.append(1L, 1L, BigDecimal.ONE).sequence()).isEqualTo(6L);
+        }
+
+        @Test
+        @DisplayName("Should end the journal at a torn record and overwrite it")
+        void shouldEndTheJournalAtATornRecordAndOverwriteIt() throws IOException {
+            // Arrange
+            MappedTransactionJournal journal = openJournal(0);
+            appendPurchases(journal, 2);
+            journal.close();
+            try (FileChannel channel = FileChannel.open(segmentFiles().getFirst(), StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4}), MappedTransactionJournal.RECORD_SIZE + 10);
+            }
+
+            // Act
+            MappedTransactionJournal reopened = openJournal(0);
+
+            // Assert
+            assertThat(reopened.read(0, 10)).extracting(JournalEntry::sequence).containsExactly(1L);
+            JournalEntry replacement = reopened.append(3L, 4L, new BigDecimal("9.99"));
+            assertThat(replacement.sequence()).isEqualTo(2L);
+            assertThat(reopened.read(1, 10)).containsExactly(replacement);
+        }
+
+        @Test
+        @DisplayName("Should start after the drained sequence when the journal holds nothing newer")
+        void shouldStartAfterTheDrainedSequenceWhenTheJournalHoldsNothingNewer() throws IOException {
+            // Arrange
+            MappedTransactionJournal journal = openJournal(0);
+            appendPurchases(journal, 2);
+            journal.close();
+
+            // Act
+            MappedTransactionJournal reopened = openJournal(40);
+
+            // Assert
+            assertThat(reopened.append(1L, 1L, BigDecimal.ONE).sequence()).isEqualTo(41L);
+            assertThat(segmentFiles()).extracting(path -> path.getFileName().toString())
+                    .containsExactly("journal-00000000000000000041.log");
+        }
+
+        @Test
+        @DisplayName("Should refuse to open when undrained entries are missing")
+        void shouldRefuseToOpenWhenUndrainedEntriesAreMissing() {
+            // Arrange
+            MappedTransactionJournal journal = openJournal(0);
+            appendPurchases(journal, 7);
+            journal.release(6);
+            journal.close();
+
+            // Act & Assert
+            assertThatThrownBy(() -> openJournal(3))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("entries after 3 were never drained");
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.entities.OperationType;
+import com.devfreitag.pismotest.exceptions.OperationTypeNotFoundException;
+import com.devfreitag.pismotest.repositories.OperationTypeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OperationTypeRegistryImpl Tests")
+class OperationTypeRegistryImplTest {
+
+    @Mock
+    private OperationTypeRepository operationTypeRepository;
+
+    @InjectMocks
+    private OperationTypeRegistryImpl operationTypeRegistry;
+
+    private OperationType buildOperationType(Long operationTypeId, String description) {
+        OperationType operationType = new OperationType();
+        ReflectionTestUtils.setField(operationType, "operationTypeId", operationTypeId);
+        ReflectionTestUtils.setField(operationType, "description", description);
+        return operationType;
+    }
+
+    private List<OperationType> seededOperationTypes() {
+        return new ArrayList<>(List.of(
+                buildOperationType(1L, "PURCHASE"),
+                buildOperationType(2L, "INSTALLMENT PURCHASE"),
+                buildOperationType(3L, "WITHDRAWAL"),
+                buildOperationType(4L, "PAYMENT")));
+    }
+
+    @Nested
+    @DisplayName("findById() Tests")
+    class FindByIdTests {
+
+        @Test
+        @DisplayName("Should return loaded operation types without reaching the repository again")
+        void shouldReturnLoadedOperationTypesWithoutReachingTheRepositoryAgain() {
+            // Arrange
+            when(operationTypeRepository.findAll()).thenReturn(seededOperationTypes());
+            operationTypeRegistry.load();
+
+            // Act
+            OperationType purchase = operationTypeRegistry.findById(1L);
+            OperationType payment = operationTypeRegistry.findById(4L);
+
+            // Assert
+            assertThat(purchase.getDescription()).isEqualTo("PURCHASE");
+            assertThat(payment.getDescription()).isEqualTo("PAYMENT");
+            assertThat(operationTypeRegistry.findById(1L)).isSameAs(purchase);
+            verify(operationTypeRepository, times(1)).findAll();
+        }
+
+        @Test
+        @DisplayName("Should throw OperationTypeNotFoundException for unknown, negative and null ids")
+        void shouldThrowOperationTypeNotFoundExceptionForUnknownNegativeAndNullIds() {
+            // Arrange
+            when(operationTypeRepository.findAll()).thenReturn(seededOperationTypes());
+            operationTypeRegistry.load();
+
+            // Act & Assert
+            assertThatThrownBy(() -> operationTypeRegistry.findById(999L))
+                    .isInstanceOf(OperationTypeNotFoundException.class)
+                    .hasMessage("Operation type with ID 999 not found.");
+            assertThatThrownBy(() -> operationTypeRegistry.findById(0L))
+                    .isInstanceOf(OperationTypeNotFoundException.class);
+            assertThatThrownBy(() -> operationTypeRegistry.findById(-1L))
+                    .isInstanceOf(OperationTypeNotFoundException.class);
+            assertThatThrownBy(() -> operationTypeRegistry.findById(null))
+                    .isInstanceOf(OperationTypeNotFoundException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("refresh() Tests")
+    class RefreshTests {
+
+        @Test
+        @DisplayName("Should leave out rows that have no OperationTypeEnum constant")
+        void shouldLeaveOutRowsThatHaveNoOperationTypeEnumConstant() {
+            // Arrange
+            List<OperationType> operationTypes = seededOperationTypes();
+            operationTypes.add(buildOperationType(5L, "UNKNOWN"));
+            when(operationTypeRepository.findAll()).thenReturn(operationTypes);
+
+            // Act
+            List<OperationType> loaded = operationTypeRegistry.refresh();
+
+            // Assert
+            assertThat(loaded).extracting(OperationType::getOperationTypeId).containsExactly(1L, 2L, 3L, 4L);
+            assertThatThrownBy(() -> operationTypeRegistry.findById(5L))
+                    .isInstanceOf(OperationTypeNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("Should keep previous operation types when a known operation type is missing")
+        void shouldKeepPreviousOperationTypesWhenAKnownOperationTypeIsMissing() {
+            // Arrange
+            List<OperationType> withoutPayment = seededOperationTypes().subList(0, 3);
+            when(operationTypeRepository.findAll())
+                    .thenReturn(seededOperationTypes())
+                    .thenReturn(withoutPayment);
+            operationTypeRegistry.load();
+
+            // Act & Assert
+            assertThatThrownBy(() -> operationTypeRegistry.refresh())
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("PAYMENT");
+            assertThat(operationTypeRegistry.findById(4L).getDescription()).isEqualTo("PAYMENT");
+        }
+
+        @Test
+        @DisplayName("Should pick up description changes")
+        void shouldPickUpDescriptionChanges() {
+            // Arrange
+            List<OperationType> renamed = seededOperationTypes();
+            renamed.set(1, buildOperationType(2L, "INSTALLMENT_PURCHASE"));
+            when(operationTypeRepository.findAll())
+                    .thenReturn(seededOperationTypes())
+                    .thenReturn(renamed);
+            operationTypeRegistry.load();
+
+            // Act
+            operationTypeRegistry.refresh();
+
+            // Assert
+            assertThat(operationTypeRegistry.findById(2L).getDescription()).isEqualTo("INSTALLMENT_PURCHASE");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.AccountRetryProperties;
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.exceptions.AccountBusyException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.services.TransactionBatchItemResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RetryingTransactionService Tests")
+class RetryingTransactionServiceTest {
+
+    private static final int MAX_RETRIES = 3;
+
+    private final List<CreateTransactionRequest> requests = List.of(new CreateTransactionRequest(1L, 1L, BigDecimal.TEN));
+
+    @Mock
+    private TransactionServiceImpl transactionServiceImpl;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RetryingTransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        transactionService = retryingTransactionService(new StaticListableBeanFactory());
+    }
+
+    private RetryingTransactionService retryingTransactionService(StaticListableBeanFactory beanFactory) {
+        return new RetryingTransactionService(transactionServiceImpl,
+                beanFactory.getBeanProvider(StoredFunctionTransactionService.class),
+                beanFactory.getBeanProvider(AccountLockingTransactionService.class),
+                new AccountRetryProperties(MAX_RETRIES, Duration.ofMillis(1), Duration.ofMillis(5), Duration.ZERO, 64),
+                meterRegistry);
+    }
+
+    private static ObjectOptimisticLockingFailureException conflictOn(Long accountId) {
+        return new ObjectOptimisticLockingFailureException(Account.class, accountId);
+    }
+
+    private DistributionSummary retries(String outcome) {
+        return meterRegistry.get("pismo.account.update.retries").tag("outcome", outcome).summary();
+    }
+
+    private double conflicts(Long accountId) {
+        return meterRegistry.get("pismo.account.update.conflicts")
+                .tag("stripe", String.valueOf(transactionService.stripeOf(accountId)))
+                .counter().count();
+    }
+
+    @Test
+    @DisplayName("Should try a batch again when one of its accounts changed and count the conflict")
+    void shouldTryABatchAgainWhenOneOfItsAccountsChangedAndCountTheConflict() {
+        // Arrange
+        List<TransactionBatchItemResult> expected = List.of(TransactionBatchItemResult.created(0, Transaction.builder().build()));
+        when(transactionServiceImpl.createTransactions(requests))
+                .thenThrow(conflictOn(1L))
+                .thenReturn(expected);
+
+        // Act
+        List<TransactionBatchItemResult> results = transactionService.createTransactions(requests);
+
+        // Assert
+        assertThat(results).isSameAs(expected);
+        verify(transactionServiceImpl, times(2)).createTransactions(requests);
+        assertThat(conflicts(1L)).isEqualTo(1.0);
+        assertThat(retries("succeeded").count()).isEqualTo(1L);
+        assertThat(retries("succeeded").totalAmount()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should reject the write as busy once the retries run out")
+    void shouldRejectTheWriteAsBusyOnceTheRetriesRunOut() {
+        // Arrange
+        when(transactionServiceImpl.createTransactions(requests)).thenThrow(conflictOn(1L));
+
+        // Act & Assert
+        assertThatThrownBy(() -> transactionService.createTransactions(requests))
+                .isInstanceOf(AccountBusyException.class)
+                .hasMessage("Account with ID 1 is busy, try again later.");
+        verify(transactionServiceImpl, times(MAX_RETRIES + 1)).createTransactions(requests);
+        assertThat(conflicts(1L)).isEqualTo(MAX_RETRIES + 1.0);
+        assertThat(retries("exhausted").totalAmount()).isEqualTo(MAX_RETRIES);
+    }
+
+    @Test
+    @DisplayName("Should not retry anything but optimistic locking conflicts")
+    void shouldNotRetryAnythingButOptimisticLockingConflicts() {
+        // Arrange
+        when(transactionServiceImpl.createTransaction(1L, 1L, BigDecimal.TEN)).thenThrow(new TransactionInvalidException());
+
+        // Act & Assert
+        assertThatThrownBy(() -> transactionService.createTransaction(1L, 1L, BigDecimal.TEN))
+                .isInstanceOf(TransactionInvalidException.class);
+        verify(transactionServiceImpl).createTransaction(1L, 1L, BigDecimal.TEN);
+        assertThat(retries("succeeded").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should go through the account lock when it is enabled")
+    void shouldGoThroughTheAccountLockWhenItIsEnabled() {
+        // Arrange
+        AccountLockingTransactionService accountLockingTransactionService = mock(AccountLockingTransactionService.class);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("accountLockingTransactionService", accountLockingTransactionService);
+        RetryingTransactionService lockingTransactionService = retryingTransactionService(beanFactory);
+
+        // Act
+        lockingTransactionService.createTransactions(requests);
+
+        // Assert
+        verify(accountLockingTransactionService).createTransactions(requests);
+        verifyNoInteractions(transactionServiceImpl);
+    }
+
+    @Test
+    @DisplayName("Should go through the stored function when it is enabled")
+    void shouldGoThroughTheStoredFunctionWhenItIsEnabled() {
+        // Arrange
+        StoredFunctionTransactionService storedFunctionTransactionService = mock(StoredFunctionTransactionService.class);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("storedFunctionTransactionService", storedFunctionTransactionService);
+        RetryingTransactionService storedFunctionRetryingService = retryingTransactionService(beanFactory);
+
+        // Act
+        storedFunctionRetryingService.createTransaction(1L, 1L, BigDecimal.TEN);
+
+        // Assert
+        verify(storedFunctionTransactionService).createTransaction(1L, 1L, BigDecimal.TEN);
+        verifyNoInteractions(transactionServiceImpl);
+    }
+}
@@ -0,0 +1,175 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.services.AccountService;
+import com.devfreitag.pismotest.services.BalanceShardService;
+import com.devfreitag.pismotest.services.TransactionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the H2 counterpart of the {@code create_transaction} function, which takes the same arguments and gives the
+ * same results as the PostgreSQL one. The balance engine is enabled to check it sees the function's transactions.
+ */
+@SpringBootTest(properties = {
+        "pismo.stored-function.enabled=true",
+        "pismo.balance-engine.enabled=true"
+})
+@DisplayName("StoredFunctionTransactionService Integration Tests")
+class StoredFunctionTransactionServiceIntegrationTest {
+
+    @TempDir
+    private static Path directory;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("pismo.balance-engine.snapshot-file", () -> directory.resolve("balances.snapshot").toString());
+    }
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceShardService balanceShardService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionServiceImpl transactionServiceImpl;
+
+    @Autowired
+    private InMemoryBalanceEngine balanceEngine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long createAccount(String availableCreditLimit) {
+        Account account = accountService.createAccount(UUID.randomUUID().toString());
+        transactionService.createTransaction(account.getAccountId(), 4L, new BigDecimal(availableCreditLimit));
+        return account.getAccountId();
+    }
+
+    private BigDecimal creditLimitOf(Long accountId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT available_credit_limit FROM account WHERE account_id = ?", BigDecimal.class, accountId);
+    }
+
+    private long transactionsOf(Long accountId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction WHERE account_id = ?", Long.class, accountId);
+    }
+
+    @Test
+    @DisplayName("Should update the account's limit and insert the signed transaction in one call")
+    void shouldUpdateTheAccountsLimitAndInsertTheSignedTransactionInOneCall() {
+        // Arrange
+        Long accountId = createAccount("100.00");
+
+        // Act
+        Transaction transaction = transactionService.createTransaction(accountId, 1L, new BigDecimal("30.00"));
+
+        // Assert
+        assertThat(transaction.getTransactionId()).isPositive();
+        assertThat(transaction.getAmount()).isEqualByComparingTo("-30.00");
+        assertThat(creditLimitOf(accountId)).isEqualByComparingTo("70.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT amount FROM transaction WHERE transaction_id = ?",
+                BigDecimal.class, transaction.getTransactionId())).isEqualByComparingTo("-30.00");
+        assertThat(accountService.findById(accountId).getAvailableCreditLimit()).isEqualByComparingTo("70.00");
+    }
+
+    @Test
+    @DisplayName("Should store the idempotency key with the transaction and reject it the second time")
+    void shouldStoreTheIdempotencyKeyWithTheTransactionAndRejectItTheSecondTime() {
+        // Arrange
+        Long accountId = createAccount("100.00");
+        String idempotencyKey = UUID.randomUUID().toString();
+        Transaction transaction = transactionService.createTransaction(accountId, 1L, new BigDecimal("10.00"), idempotencyKey);
+
+        // Act & Assert
+        assertThatThrownBy(() -> transactionService.createTransaction(accountId, 1L, new BigDecimal("10.00"), idempotencyKey))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT transaction_id FROM idempotency_key WHERE idempotency_key = ?",
+                Long.class, idempotencyKey)).isEqualTo(transaction.getTransactionId());
+        assertThat(creditLimitOf(accountId)).isEqualByComparingTo("90.00");
+        assertThat(transactionsOf(accountId)).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Should leave the account untouched when the limit would not stay positive")
+    void shouldLeaveTheAccountUntouchedWhenTheLimitWouldNotStayPositive() {
+        // Arrange
+        Long accountId = createAccount("100.00");
+
+        // Act & Assert
+        assertThatThrownBy(() -> transactionService.createTransaction(accountId, 1L, new BigDecimal("100.00")))
+                .isInstanceOf(TransactionInvalidException.class);
+
+        assertThat(creditLimitOf(accountId)).isEqualByComparingTo("100.00");
+        assertThat(transactionsOf(accountId)).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should throw AccountNotFoundException when the account does not exist")
+    void shouldThrowAccountNotFoundExceptionWhenTheAccountDoesNotExist() {
+        // Act & Assert
+        assertThatThrownBy(() -> transactionService.createTransaction(999_999L, 1L, new BigDecimal("10.00")))
+                .isInstanceOf(AccountNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should hand accounts with balance shards to the shards")
+    void shouldHandAccountsWithBalanceShardsToTheShards() {
+        // Arrange
+        Long accountId = createAccount("100.00");
+        balanceShardService.reshard(accountId, 4);
+
+        // Act
+        transactionService.createTransaction(accountId, 1L, new BigDecimal("10.00"));
+
+        // Assert
+        assertThat(creditLimitOf(accountId)).isEqualByComparingTo("0.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(available_credit_limit) FROM account_balance_shard WHERE account_id = ?",
+                BigDecimal.class, accountId)).isEqualByComparingTo("90.00");
+        assertThat(transactionsOf(accountId)).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Should keep JPA transactions committed after a snapshot when the balance engine reloads it")
+    void shouldKeepJpaTransactionsCommittedAfterASnapshotWhenTheBalanceEngineReloadsIt() throws IOException {
+        // Arrange
+        Long accountId = accountService.createAccount(UUID.randomUUID().toString()).getAccountId();
+        // Two JPA inserts, so a pooled block is in use even on a fresh sequence
+        transactionServiceImpl.createTransaction(accountId, 4L, new BigDecimal("60.00"));
+        transactionServiceImpl.createTransaction(accountId, 4L, new BigDecimal("40.00"));
+        Transaction viaFunction = transactionService.createTransaction(accountId, 1L, new BigDecimal("10.00"));
+        balanceEngine.snapshot();
+        Transaction viaJpa = transactionServiceImpl.createTransaction(accountId, 1L, new BigDecimal("30.00"));
+
+        // Act
+        balanceEngine.load();
+
+        // Assert
+        assertThat(viaJpa.getTransactionId()).isGreaterThan(viaFunction.getTransactionId());
+        assertThat(balanceEngine.availableCreditLimit(accountId)).isEqualByComparingTo("60.00");
+        assertThat(creditLimitOf(accountId)).isEqualByComparingTo("60.00");
+    }
+}
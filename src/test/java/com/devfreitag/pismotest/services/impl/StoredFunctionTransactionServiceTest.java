@@ -0,0 +1,170 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.entities.OperationType;
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.exceptions.OperationTypeNotFoundException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.repositories.TransactionRepository;
+import com.devfreitag.pismotest.services.AccountCache;
+import com.devfreitag.pismotest.services.AccountCoordinator;
+import com.devfreitag.pismotest.services.BalanceEngine;
+import com.devfreitag.pismotest.services.OperationTypeRegistry;
+import com.devfreitag.pismotest.services.TransactionOutbox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+import static com.devfreitag.pismotest.services.impl.StoredFunctionTransactionService.CREATE_TRANSACTION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StoredFunctionTransactionService Tests")
+class StoredFunctionTransactionServiceTest {
+
+    @Mock
+    private TransactionServiceImpl transactionServiceImpl;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AccountCache accountCache;
+
+    @Mock
+    private AccountCoordinator accountCoordinator;
+
+    @Mock
+    private BalanceEngine balanceEngine;
+
+    @Mock
+    private OperationTypeRegistry operationTypeRegistry;
+
+    @Mock
+    private TransactionOutbox transactionOutbox;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private StoredFunctionTransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        OperationType operationType = new OperationType();
+        ReflectionTestUtils.setField(operationType, "operationTypeId", 1L);
+        ReflectionTestUtils.setField(operationType, "description", "Normal Purchase");
+        lenient().when(operationTypeRegistry.findById(1L)).thenReturn(operationType);
+    }
+
+    private void mockCreateTransaction(String signedAmount, String idempotencyKey, long result) {
+        when(transactionRepository.nextTransactionId()).thenReturn(42L);
+        when(jdbcTemplate.queryForObject(eq(CREATE_TRANSACTION), eq(Long.class), eq(42L), eq(1L), eq(1L),
+                eq(new BigDecimal(signedAmount)), any(Timestamp.class), idempotencyKey == null ? isNull() : eq(idempotencyKey)))
+                .thenReturn(result);
+    }
+
+    @Test
+    @DisplayName("Should create the transaction with the signed amount in a single call")
+    void shouldCreateTheTransactionWithTheSignedAmountInASingleCall() {
+        // Arrange
+        mockCreateTransaction("-50.00", "key-1", 42L);
+
+        // Act
+        Transaction transaction = transactionService.createTransaction(1L, 1L, new BigDecimal("50.00"), "key-1");
+
+        // Assert
+        assertThat(transaction.getTransactionId()).isEqualTo(42L);
+        assertThat(transaction.getAccount().getAccountId()).isEqualTo(1L);
+        assertThat(transaction.getOperationType().getOperationTypeId()).isEqualTo(1L);
+        assertThat(transaction.getAmount()).isEqualByComparingTo("-50.00");
+
+        InOrder inOrder = inOrder(accountCoordinator, jdbcTemplate, balanceEngine, transactionRepository);
+        inOrder.verify(accountCoordinator).lock(1L);
+        inOrder.verify(balanceEngine).enlist();
+        inOrder.verify(transactionRepository).nextTransactionId();
+        inOrder.verify(jdbcTemplate).queryForObject(eq(CREATE_TRANSACTION), eq(Long.class), any(), any(), any(), any(), any(), any());
+        inOrder.verify(balanceEngine).reserve(1L, -5_000L);
+        inOrder.verify(balanceEngine).written(transaction);
+        verify(transactionOutbox).append(transaction);
+        verify(accountCache).evictAfterCommit(1L);
+        verifyNoInteractions(transactionServiceImpl);
+    }
+
+    @Test
+    @DisplayName("Should throw AccountNotFoundException when the function finds no account")
+    void shouldThrowAccountNotFoundExceptionWhenTheFunctionFindsNoAccount() {
+        // Arrange
+        mockCreateTransaction("-50.00", null, StoredFunctionTransactionService.ACCOUNT_NOT_FOUND);
+
+        // Act & Assert
+        assertThatThrownBy(() -> transactionService.createTransaction(1L, 1L, new BigDecimal("50.00")))
+                .isInstanceOf(AccountNotFoundException.class)
+                .hasMessage("Account with ID 1 not found.");
+
+        verify(balanceEngine).enlist();
+        verifyNoMoreInteractions(balanceEngine);
+        verifyNoInteractions(accountCache);
+    }
+
+    @Test
+    @DisplayName("Should throw TransactionInvalidException when the limit would not stay positive")
+    void shouldThrowTransactionInvalidExceptionWhenTheLimitWouldNotStayPositive() {
+        // Arrange
+        mockCreateTransaction("-50.00", null, StoredFunctionTransactionService.TRANSACTION_INVALID);
+
+        // Act & Assert
+        assertThatThrownBy(() -> transactionService.createTransaction(1L, 1L, new BigDecimal("50.00")))
+                .isInstanceOf(TransactionInvalidException.class);
+
+        verify(balanceEngine).enlist();
+        verifyNoMoreInteractions(balanceEngine);
+        verifyNoInteractions(accountCache);
+    }
+
+    @Test
+    @DisplayName("Should hand accounts with balance shards to TransactionServiceImpl")
+    void shouldHandAccountsWithBalanceShardsToTransactionServiceImpl() {
+        // Arrange
+        mockCreateTransaction("-50.00", "key-1", StoredFunctionTransactionService.BALANCE_SHARDS);
+        Transaction created = Transaction.builder().transactionId(42L).build();
+        when(transactionServiceImpl.createTransaction(1L, 1L, new BigDecimal("50.00"), "key-1")).thenReturn(created);
+
+        // Act
+        Transaction transaction = transactionService.createTransaction(1L, 1L, new BigDecimal("50.00"), "key-1");
+
+        // Assert
+        assertThat(transaction).isSameAs(created);
+        verify(balanceEngine).enlist();
+        verifyNoMoreInteractions(balanceEngine);
+        verifyNoInteractions(accountCache);
+    }
+
+    @Test
+    @DisplayName("Should throw OperationTypeNotFoundException without calling the function")
+    void shouldThrowOperationTypeNotFoundExceptionWithoutCallingTheFunction() {
+        // Arrange
+        when(operationTypeRegistry.findById(99L)).thenThrow(new OperationTypeNotFoundException(99L));
+
+        // Act & Assert
+        assertThatThrownBy(() -> transactionService.createTransaction(1L, 99L, new BigDecimal("50.00")))
+                .isInstanceOf(OperationTypeNotFoundException.class);
+
+        verifyNoInteractions(jdbcTemplate, accountCoordinator, transactionRepository);
+    }
+}
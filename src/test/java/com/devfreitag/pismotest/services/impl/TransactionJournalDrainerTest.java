@@ -0,0 +1,150 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.TransactionJournalProperties;
+import com.devfreitag.pismotest.entities.JournalCheckpoint;
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.repositories.JournalCheckpointRepository;
+import com.devfreitag.pismotest.services.JournalEntry;
+import com.devfreitag.pismotest.services.TransactionBatchItemResult;
+import com.devfreitag.pismotest.services.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionJournalDrainer Tests")
+class TransactionJournalDrainerTest {
+
+    private static final Instant EVENT_DATE = Instant.parse("2026-01-15T10:30:00Z");
+
+    @Mock
+    private MappedTransactionJournal journal;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private JournalCheckpointRepository journalCheckpointRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TransactionJournalDrainer drainer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        drainer = new TransactionJournalDrainer(journal, transactionService, journalCheckpointRepository,
+                new TransactionJournalProperties(true, "node-1", Path.of("journal"), DataSize.ofMegabytes(1), 2, Duration.ofHours(1)),
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        drainer.stop();
+    }
+
+    private JournalEntry entry(long sequence) {
+        return new JournalEntry(sequence, 1L, 1L, new BigDecimal("10.00"), EVENT_DATE);
+    }
+
+    @Nested
+    @DisplayName("start() Tests")
+    class StartTests {
+
+        @Test
+        @DisplayName("Should open the journal after the checkpoint and drain what a previous run left")
+        void shouldOpenTheJournalAfterTheCheckpointAndDrainWhatAPreviousRunLeft() {
+            // Arrange
+            when(journalCheckpointRepository.findById("node-1")).thenReturn(Optional.of(new JournalCheckpoint("node-1", 10L)));
+            when(journal.read(10L, 2)).thenReturn(List.of(entry(11), entry(12)));
+            when(journal.read(12L, 2)).thenReturn(List.of(entry(13)));
+            when(transactionService.createJournaledTransactions(eq("node-1"), any())).thenReturn(List.of());
+
+            // Act
+            drainer.start();
+
+            // Assert
+            InOrder inOrder = inOrder(journal, transactionService);
+            inOrder.verify(journal).open(10L);
+            inOrder.verify(transactionService).createJournaledTransactions("node-1", List.of(entry(11), entry(12)));
+            inOrder.verify(journal).release(12L);
+            inOrder.verify(transactionService).createJournaledTransactions("node-1", List.of(entry(13)));
+            inOrder.verify(journal).release(13L);
+        }
+
+        @Test
+        @DisplayName("Should create the checkpoint of a new journal")
+        void shouldCreateTheCheckpointOfANewJournal() {
+            // Arrange
+            when(journalCheckpointRepository.findById("node-1")).thenReturn(Optional.empty());
+            when(journalCheckpointRepository.save(any(JournalCheckpoint.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(journal.read(0L, 2)).thenReturn(List.of());
+
+            // Act
+            drainer.start();
+
+            // Assert
+            verify(journal).open(0L);
+            verifyNoInteractions(transactionService);
+        }
+    }
+
+    @Test
+    @DisplayName("Should count entries rejected by the credit limit rules and move past them")
+    void shouldCountEntriesRejectedByTheCreditLimitRulesAndMovePastThem() {
+        // Arrange
+        when(journalCheckpointRepository.findById("node-1")).thenReturn(Optional.of(new JournalCheckpoint("node-1", 0L)));
+        when(journal.read(0L, 2)).thenReturn(List.of(entry(1)));
+        when(transactionService.createJournaledTransactions("node-1", List.of(entry(1))))
+                .thenReturn(List.of(TransactionBatchItemResult.rejected(0, new TransactionInvalidException())));
+        when(journal.lastSequence()).thenReturn(3L);
+
+        // Act
+        drainer.start();
+
+        // Assert
+        verify(journal).release(1L);
+        assertThat(meterRegistry.get("pismo.journal.rejected").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("pismo.journal.lag").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should keep its position when writing a batch fails")
+    void shouldKeepItsPositionWhenWritingABatchFails() throws InterruptedException {
+        // Arrange
+        when(journalCheckpointRepository.findById("node-1")).thenReturn(Optional.of(new JournalCheckpoint("node-1", 0L)));
+        when(journal.read(0L, 2)).thenReturn(List.of()).thenReturn(List.of(entry(1)));
+        when(transactionService.createJournaledTransactions("node-1", List.of(entry(1))))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(List.of(TransactionBatchItemResult.created(0, Transaction.builder().build())));
+        drainer.start();
+
+        // Act
+        drainer.stop();
+        drainer.drainAll();
+
+        // Assert
+        verify(transactionService, times(2)).createJournaledTransactions("node-1", List.of(entry(1)));
+        verify(journal, times(1)).release(1L);
+    }
+}
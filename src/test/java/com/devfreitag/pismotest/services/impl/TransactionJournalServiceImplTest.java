@@ -0,0 +1,135 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.config.TransactionJournalProperties;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.services.AccountService;
+import com.devfreitag.pismotest.services.BalanceEngine;
+import com.devfreitag.pismotest.services.JournalEntry;
+import com.devfreitag.pismotest.services.OperationTypeRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionJournalServiceImpl Tests")
+class TransactionJournalServiceImplTest {
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private OperationTypeRegistry operationTypeRegistry;
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private BalanceEngine balanceEngine;
+
+    private MappedTransactionJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    private TransactionJournalServiceImpl service(MappedTransactionJournal journal) {
+        this.journal = journal;
+        journal.open(0L);
+        return new TransactionJournalServiceImpl(operationTypeRegistry, accountService, balanceEngine, journal);
+    }
+
+    private TransactionJournalProperties properties() {
+        return new TransactionJournalProperties(true, "test", directory, DataSize.ofKilobytes(64), 100, Duration.ofMillis(100));
+    }
+
+    @Test
+    @DisplayName("Should admit the transaction into the balance engine and journal it")
+    void shouldAdmitTheTransactionIntoTheBalanceEngineAndJournalIt() {
+        // Arrange
+        TransactionJournalServiceImpl service = service(new MappedTransactionJournal(properties(), new SimpleMeterRegistry()));
+
+        // Act
+        JournalEntry entry = service.accept(new CreateTransactionRequest(1L, 1L, new BigDecimal("10.00")));
+
+        // Assert
+        assertThat(entry.sequence()).isEqualTo(1L);
+        verify(balanceEngine).admit(1L, -1_000L);
+        verifyNoMoreInteractions(balanceEngine);
+    }
+
+    @Test
+    @DisplayName("Should journal nothing and give nothing back when the balance engine rejects the transaction")
+    void shouldJournalNothingAndGiveNothingBackWhenTheBalanceEngineRejectsTheTransaction() {
+        // Arrange
+        TransactionJournalServiceImpl service = service(new MappedTransactionJournal(properties(), new SimpleMeterRegistry()));
+        doThrow(new TransactionInvalidException()).when(balanceEngine).admit(1L, -1_000L);
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.accept(new CreateTransactionRequest(1L, 1L, new BigDecimal("10.00"))))
+                .isInstanceOf(TransactionInvalidException.class);
+
+        assertThat(journal.lastSequence()).isZero();
+        verify(balanceEngine, never()).release(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should give every transaction of a group back to the balance engine when its sync fails")
+    void shouldGiveEveryTransactionOfAGroupBackToTheBalanceEngineWhenItsSyncFails() throws Exception {
+        // Arrange
+        TransactionJournalServiceImpl service = service(new MappedTransactionJournal(properties(), new SimpleMeterRegistry()) {
+            @Override
+            void force(MappedByteBuffer buffer, int offset, int length) {
+                // Lets the whole group be written before its sync fails
+                await().until(() -> lastSequence() == 3L);
+                throw new UncheckedIOException(new IOException("No space left on device"));
+            }
+        });
+
+        // Act
+        List<Future<JournalEntry>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            for (long accountId = 1; accountId <= 3; accountId++) {
+                CreateTransactionRequest request = new CreateTransactionRequest(accountId, 1L, new BigDecimal("10.00"));
+                futures.add(executor.submit(() -> service.accept(request)));
+            }
+        }
+
+        // Assert
+        for (Future<JournalEntry> future : futures) {
+            assertThatThrownBy(future::get)
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        for (long accountId = 1; accountId <= 3; accountId++) {
+            verify(balanceEngine).admit(accountId, -1_000L);
+            verify(balanceEngine).release(accountId, -1_000L);
+        }
+        verifyNoMoreInteractions(balanceEngine);
+    }
+}
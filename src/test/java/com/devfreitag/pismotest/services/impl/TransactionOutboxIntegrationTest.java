@@ -0,0 +1,153 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.entities.Transaction;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.repositories.OutboxEvent;
+import com.devfreitag.pismotest.repositories.TransactionRepository;
+import com.devfreitag.pismotest.services.AccountService;
+import com.devfreitag.pismotest.services.OutboxPublisher;
+import com.devfreitag.pismotest.services.TransactionBatchItemResult;
+import com.devfreitag.pismotest.services.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {"pismo.outbox.enabled=true", "pismo.outbox.relay-interval=1h", "pismo.outbox.relay-batch-size=2"})
+@DisplayName("TransactionOutbox Integration Tests")
+class TransactionOutboxIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionOutboxRelay relay;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private OutboxPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM outbox");
+    }
+
+    private Long createAccount() {
+        return accountService.createAccount(UUID.randomUUID().toString()).getAccountId();
+    }
+
+    private List<Long> outboxTransactionIds() {
+        return jdbcTemplate.queryForList("SELECT transaction_id FROM outbox ORDER BY transaction_id", Long.class);
+    }
+
+    @Test
+    @DisplayName("Should write an event with every transaction and none for rejected ones")
+    void shouldWriteAnEventWithEveryTransactionAndNoneForRejectedOnes() {
+        // Arrange
+        Long accountId = createAccount();
+
+        // Act
+        Transaction payment = transactionService.createTransaction(accountId, 4L, new BigDecimal("100.00"));
+        List<TransactionBatchItemResult> batch = transactionService.createTransactions(List.of(
+                new CreateTransactionRequest(accountId, 1L, new BigDecimal("30.00")),
+                new CreateTransactionRequest(accountId, 1L, new BigDecimal("500.00"))));
+
+        // Assert
+        assertThat(outboxTransactionIds()).containsExactly(
+                payment.getTransactionId(), batch.getFirst().transaction().getTransactionId());
+        assertThat(batch.get(1).isCreated()).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT amount FROM outbox WHERE transaction_id = ?",
+                BigDecimal.class, payment.getTransactionId())).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    @DisplayName("Should publish the events in transaction id order, in batches, and delete them")
+    @SuppressWarnings("unchecked")
+    void shouldPublishTheEventsInTransactionIdOrderInBatchesAndDeleteThem() {
+        // Arrange
+        Long accountId = createAccount();
+        List<Long> transactionIds = List.of(
+                transactionService.createTransaction(accountId, 4L, new BigDecimal("100.00")).getTransactionId(),
+                transactionService.createTransaction(accountId, 1L, new BigDecimal("10.00")).getTransactionId(),
+                transactionService.createTransaction(accountId, 1L, new BigDecimal("20.00")).getTransactionId());
+        ArgumentCaptor<List<OutboxEvent>> batches = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        relay.relayAll();
+
+        // Assert
+        verify(publisher, times(2)).publish(batches.capture());
+        assertThat(batches.getAllValues().stream().flatMap(List::stream).map(OutboxEvent::transactionId))
+                .containsExactlyElementsOf(transactionIds);
+        assertThat(batches.getAllValues().getFirst().get(1))
+                .isEqualTo(new OutboxEvent(transactionIds.get(1), accountId, 1L, new BigDecimal("-10.00"),
+                        batches.getAllValues().getFirst().get(1).eventDate()));
+        assertThat(outboxTransactionIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep the events when the publisher fails")
+    void shouldKeepTheEventsWhenThePublisherFails() {
+        // Arrange
+        Long transactionId = transactionService.createTransaction(createAccount(), 4L, new BigDecimal("100.00")).getTransactionId();
+        doThrow(new IllegalStateException("Broker unavailable")).when(publisher).publish(any());
+
+        // Act & Assert
+        assertThatThrownBy(() -> relay.relayAll()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(outboxTransactionIds()).containsExactly(transactionId);
+    }
+
+    @Test
+    @DisplayName("Should skip events another relay has locked")
+    void shouldSkipEventsAnotherRelayHasLocked() {
+        // Arrange
+        Long accountId = createAccount();
+        for (int i = 0; i < 3; i++) {
+            transactionService.createTransaction(accountId, 4L, new BigDecimal("10.00"));
+        }
+        List<Long> transactionIds = outboxTransactionIds();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // Act
+        List<Long> lockedByOther = transactionTemplate.execute(status -> {
+            List<Long> locked = transactionRepository.lockOutboxEvents(2).stream().map(OutboxEvent::transactionId).toList();
+            return CompletableFuture.supplyAsync(() -> transactionTemplate.execute(otherStatus ->
+                    transactionRepository.lockOutboxEvents(2).stream().map(OutboxEvent::transactionId).toList())).join()
+                    .stream().filter(locked::contains).toList();
+        });
+
+        // Assert
+        assertThat(lockedByOther).isEmpty();
+        assertThat(outboxTransactionIds()).containsExactlyElementsOf(transactionIds);
+    }
+}
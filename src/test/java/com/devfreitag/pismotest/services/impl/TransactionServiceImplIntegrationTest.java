@@ -0,0 +1,412 @@
+package com.devfreitag.pismotest.services.impl;
+
+import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.entities.JournalCheckpoint;
+import com.devfreitag.pismotest.exceptions.AccountBusyException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.AccountTransactionResponse;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.repositories.AccountCreditLimit;
+import com.devfreitag.pismotest.repositories.AccountRepository;
+import com.devfreitag.pismotest.repositories.JournalCheckpointRepository;
+import com.devfreitag.pismotest.services.AccountService;
+import com.devfreitag.pismotest.services.BalanceShardService;
+import com.devfreitag.pismotest.services.IdempotencyService;
+import com.devfreitag.pismotest.services.IdempotentTransaction;
+import com.devfreitag.pismotest.services.JournalEntry;
+import com.devfreitag.pismotest.services.TransactionBatchItemResult;
+import com.devfreitag.pismotest.services.TransactionCursor;
+import com.devfreitag.pismotest.services.TransactionPage;
+import com.devfreitag.pismotest.services.TransactionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@DisplayName("TransactionServiceImpl Integration Tests")
+class TransactionServiceImplIntegrationTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceShardService balanceShardService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JournalCheckpointRepository journalCheckpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Account createAccount(BigDecimal availableCreditLimit) {
+        return accountRepository.save(Account.builder()
+                .documentNumber(UUID.randomUUID().toString())
+                .availableCreditLimit(availableCreditLimit)
+                .build());
+    }
+
+    private BigDecimal creditLimitOf(Long accountId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT available_credit_limit FROM account WHERE account_id = ?", BigDecimal.class, accountId);
+    }
+
+    @Test
+    @DisplayName("Should insert accepted items and update every touched account in one batch")
+    void shouldInsertAcceptedItemsAndUpdateEveryTouchedAccountInOneBatch() {
+        // Arrange
+        Account first = createAccount(new BigDecimal("1000.00"));
+        Account second = createAccount(new BigDecimal("50.00"));
+
+        List<CreateTransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1_500; i++) {
+            requests.add(new CreateTransactionRequest(first.getAccountId(), 1L, new BigDecimal("0.50")));
+        }
+        requests.add(new CreateTransactionRequest(second.getAccountId(), 3L, new BigDecimal("60.00")));
+        requests.add(new CreateTransactionRequest(second.getAccountId(), 4L, new BigDecimal("15.00")));
+        requests.add(new CreateTransactionRequest(Long.MAX_VALUE, 1L, new BigDecimal("1.00")));
+
+        // Act
+        List<TransactionBatchItemResult> results = transactionService.createTransactions(requests);
+
+        // Assert
+        assertThat(results).hasSize(requests.size());
+        assertThat(results.stream().filter(TransactionBatchItemResult::isCreated)).hasSize(1_501);
+        assertThat(results.get(1_500).isCreated()).isFalse();
+        assertThat(results.get(1_502).isCreated()).isFalse();
+        assertThat(results.stream().filter(TransactionBatchItemResult::isCreated)
+                .map(result -> result.transaction().getTransactionId()).distinct()).hasSize(1_501);
+
+        assertThat(creditLimitOf(first.getAccountId())).isEqualByComparingTo("250.00");
+        assertThat(creditLimitOf(second.getAccountId())).isEqualByComparingTo("65.00");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transaction WHERE account_id = ?", Long.class, first.getAccountId()))
+                .isEqualTo(1_500L);
+    }
+
+    @Test
+    @DisplayName("Should refuse to write credit limits read before the account changed")
+    void shouldRefuseToWriteCreditLimitsReadBeforeTheAccountChanged() {
+        // Arrange
+        Account account = createAccount(new BigDecimal("100.00"));
+        Map<Long, AccountCreditLimit> read = accountRepository.findCreditLimits(List.of(account.getAccountId()));
+        transactionService.createTransaction(account.getAccountId(), 1L, new BigDecimal("10.00"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> accountRepository.updateCreditLimits(Map.of(account.getAccountId(),
+                new AccountCreditLimit(read.get(account.getAccountId()).cents() - 2_000L, read.get(account.getAccountId()).version()))))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(creditLimitOf(account.getAccountId())).isEqualByComparingTo("90.00");
+    }
+
+    @Test
+    @DisplayName("Should keep the credit limit in step with the transactions when batches race single transactions")
+    void shouldKeepTheCreditLimitInStepWithTheTransactionsWhenBatchesRaceSingleTransactions() throws Exception {
+        // Arrange
+        Account account = createAccount(new BigDecimal("100000.00"));
+        List<CreateTransactionRequest> batch = Collections.nCopies(20,
+                new CreateTransactionRequest(account.getAccountId(), 1L, new BigDecimal("1.00")));
+
+        // Act
+        List<Future<?>> futures = submitConcurrently(() -> {
+            try {
+                transactionService.createTransactions(batch);
+                transactionService.createTransaction(account.getAccountId(), 4L, new BigDecimal("0.50"));
+            } catch (AccountBusyException ignored) {
+                // Gave up after its retries; whatever it did was rolled back
+            }
+        }, 32);
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        // Assert
+        BigDecimal written = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(amount), 0) FROM transaction WHERE account_id = ?", BigDecimal.class, account.getAccountId());
+        assertThat(transactionCountOf(account.getAccountId())).isPositive();
+        assertThat(creditLimitOf(account.getAccountId())).isEqualByComparingTo(new BigDecimal("100000.00").add(written));
+    }
+
+    private List<Future<?>> submitConcurrently(Runnable task, int times) throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>(times);
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < times; i++) {
+                futures.add(executor.submit(task));
+            }
+        }
+        return futures;
+    }
+
+    private long transactionCountOf(Long accountId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transaction WHERE account_id = ?", Long.class, accountId);
+    }
+
+    @Test
+    @DisplayName("Should not lose any debit when the same account is debited concurrently")
+    void shouldNotLoseAnyDebitWhenTheSameAccountIsDebitedConcurrently() throws Exception {
+        // Arrange
+        Account account = createAccount(new BigDecimal("1000.00"));
+
+        // Act
+        List<Future<?>> futures = submitConcurrently(() ->
+                transactionService.createTransaction(account.getAccountId(), 1L, new BigDecimal("1.00")), 400);
+
+        // Assert
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        assertThat(creditLimitOf(account.getAccountId())).isEqualByComparingTo("600.00");
+        assertThat(transactionCountOf(account.getAccountId())).isEqualTo(400L);
+    }
+
+    @Test
+    @DisplayName("Should never overdraw an account when concurrent debits exceed its credit limit")
+    void shouldNeverOverdrawAnAccountWhenConcurrentDebitsExceedItsCreditLimit() throws Exception {
+        // Arrange
+        Account account = createAccount(new BigDecimal("100.00"));
+
+        // Act
+        List<Future<?>> futures = submitConcurrently(() ->
+                transactionService.createTransaction(account.getAccountId(), 1L, new BigDecimal("1.00")), 150);
+
+        // Assert
+        int rejected = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                assertThat(ex.getCause()).isInstanceOf(TransactionInvalidException.class);
+                rejected++;
+            }
+        }
+        assertThat(rejected).isEqualTo(51);
+        assertThat(creditLimitOf(account.getAccountId())).isEqualByComparingTo("1.00");
+        assertThat(transactionCountOf(account.getAccountId())).isEqualTo(99L);
+    }
+
+    @Test
+    @DisplayName("Should never overdraw an account with balance shards when concurrent debits exceed its credit limit")
+    void shouldNeverOverdrawAnAccountWithBalanceShardsWhenConcurrentDebitsExceedItsCreditLimit() throws Exception {
+        // Arrange
+        Account account = createAccount(new BigDecimal("100.00"));
+        balanceShardService.reshard(account.getAccountId(), 8);
+
+        // Act
+        List<Future<?>> futures = submitConcurrently(() ->
+                transactionService.createTransaction(account.getAccountId(), 1L, new BigDecimal("1.00")), 150);
+
+        // Assert
+        int rejected = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                assertThat(ex.getCause()).isInstanceOf(TransactionInvalidException.class);
+                rejected++;
+            }
+        }
+        assertThat(rejected).isEqualTo(51);
+        assertThat(creditLimitOf(account.getAccountId())).isEqualByComparingTo("0.00");
+        assertThat(accountService.findById(account.getAccountId()).getAvailableCreditLimit()).isEqualByComparingTo("1.00");
+        assertThat(transactionCountOf(account.getAccountId())).isEqualTo(99L);
+    }
+
+    @Test
+    @DisplayName("Should keep the shards in step with the transactions when batches race single transactions and resharding")
+    void shouldKeepTheShardsInStepWithTheTransactionsWhenBatchesRaceSingleTransactionsAndResharding() throws Exception {
+        // Arrange
+        Account account = createAccount(new BigDecimal("100000.00"));
+        balanceShardService.reshard(account.getAccountId(), 4);
+        List<CreateTransactionRequest> batch = Collections.nCopies(20,
+                new CreateTransactionRequest(account.getAccountId(), 1L, new BigDecimal("1.00")));
+
+        // Act
+        List<Future<?>> futures = submitConcurrently(() -> {
+            try {
+                transactionService.createTransactions(batch);
+                transactionService.createTransaction(account.getAccountId(), 1L, new BigDecimal("0.75"));
+                transactionService.createTransaction(account.getAccountId(), 4L, new BigDecimal("0.50"));
+            } catch (AccountBusyException ignored) {
+                // Gave up after its retries; whatever it did was rolled back
+            }
+        }, 32);
+        balanceShardService.reshard(account.getAccountId(), 16);
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        // Assert
+        BigDecimal written = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(amount), 0) FROM transaction WHERE account_id = ?", BigDecimal.class, account.getAccountId());
+        assertThat(transactionCountOf(account.getAccountId())).isPositive();
+        assertThat(accountService.findById(account.getAccountId()).getAvailableCreditLimit())
+                .isEqualByComparingTo(new BigDecimal("100000.00").add(written));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM account_balance_shard WHERE account_id = ?", Long.class, account.getAccountId())).isEqualTo(16L);
+    }
+
+    @Test
+    @DisplayName("Should read the new credit limit of a cached account once its transaction commits")
+    void shouldReadTheNewCreditLimitOfACachedAccountOnceItsTransactionCommits() {
+        // Arrange
+        Account account = createAccount(new BigDecimal("100.00"));
+        assertThat(accountService.findById(account.getAccountId()).getAvailableCreditLimit()).isEqualByComparingTo("100.00");
+
+        // Act
+        transactionService.createTransaction(account.getAccountId(), 1L, new BigDecimal("30.00"));
+        transactionService.createTransactions(List.of(new CreateTransactionRequest(account.getAccountId(), 4L, new BigDecimal("5.00"))));
+
+        // Assert
+        assertThat(accountService.findById(account.getAccountId()).getAvailableCreditLimit()).isEqualByComparingTo("75.00");
+    }
+
+    @Test
+    @DisplayName("Should page through an account's history newest first without gaps or repeats")
+    void shouldPageThroughAnAccountsHistoryNewestFirstWithoutGapsOrRepeats() {
+        // Arrange
+        Account account = createAccount(new BigDecimal("1000.00"));
+        List<CreateTransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            requests.add(new CreateTransactionRequest(account.getAccountId(), 1L, new BigDecimal("1.00")));
+        }
+        // One batch shares a single event date, so the pages are split by transaction id alone
+        transactionService.createTransactions(requests);
+        transactionService.createTransaction(account.getAccountId(), 4L, new BigDecimal("5.00"));
+
+        // Act
+        List<AccountTransactionResponse> read = new ArrayList<>();
+        TransactionCursor cursor = null;
+        int pages = 0;
+        do {
+            TransactionPage page = transactionService.findByAccount(account.getAccountId(), cursor, 25);
+            read.addAll(page.transactions());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Assert
+        assertThat(pages).isEqualTo(5);
+        assertThat(read).hasSize(121);
+        assertThat(read.getFirst().amount()).isEqualByComparingTo("5.00");
+        assertThat(read.stream().map(AccountTransactionResponse::transactionId).distinct()).hasSize(121);
+        assertThat(read).isSortedAccordingTo(Comparator.comparing(AccountTransactionResponse::eventDate)
+                .thenComparing(AccountTransactionResponse::transactionId).reversed());
+    }
+
+    @Test
+    @DisplayName("Should export an account's whole history oldest first")
+    void shouldExportAnAccountsWholeHistoryOldestFirst() {
+        // Arrange
+        Account account = createAccount(new BigDecimal("10000.00"));
+        Account other = createAccount(new BigDecimal("10000.00"));
+        List<CreateTransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            requests.add(new CreateTransactionRequest(account.getAccountId(), 1L, new BigDecimal("1.00")));
+        }
+        requests.add(new CreateTransactionRequest(other.getAccountId(), 1L, new BigDecimal("1.00")));
+        transactionService.createTransactions(requests);
+
+        // Act
+        List<Long> exported = new ArrayList<>();
+        transactionService.exportByAccount(account.getAccountId(), transaction -> exported.add(transaction.transactionId()));
+
+        // Assert
+        assertThat(exported).hasSize(2_500).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Should debit the account once for requests repeated with the same idempotency key")
+    void shouldDebitTheAccountOnceForRequestsRepeatedWithTheSameIdempotencyKey() throws Exception {
+        // Arrange
+        Account account = createAccount(new BigDecimal("1000.00"));
+        CreateTransactionRequest request = new CreateTransactionRequest(account.getAccountId(), 1L, new BigDecimal("10.00"));
+        String idempotencyKey = UUID.randomUUID().toString();
+        List<IdempotentTransaction> results = Collections.synchronizedList(new ArrayList<>());
+
+        // Act
+        for (Future<?> future : submitConcurrently(() -> results.add(idempotencyService.createTransaction(idempotencyKey, request)), 8)) {
+            future.get();
+        }
+        IdempotentTransaction retry = idempotencyService.createTransaction(idempotencyKey, request);
+
+        // Assert
+        assertThat(results).extracting(IdempotentTransaction::response).containsOnly(retry.response());
+        assertThat(results).filteredOn(result -> !result.replayed()).hasSize(1);
+        assertThat(retry.replayed()).isTrue();
+        assertThat(transactionCountOf(account.getAccountId())).isEqualTo(1);
+        assertThat(creditLimitOf(account.getAccountId())).isEqualByComparingTo("990.00");
+    }
+
+    @Test
+    @DisplayName("Should roll back a transaction whose idempotency key is already stored")
+    void shouldRollBackATransactionWhoseIdempotencyKeyIsAlreadyStored() {
+        // Arrange
+        Account account = createAccount(new BigDecimal("1000.00"));
+        String idempotencyKey = UUID.randomUUID().toString();
+        transactionService.createTransaction(account.getAccountId(), 1L, new BigDecimal("10.00"), idempotencyKey);
+
+        // Act & Assert
+        assertThatThrownBy(() -> transactionService.createTransaction(account.getAccountId(), 1L, new BigDecimal("10.00"), idempotencyKey))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(transactionCountOf(account.getAccountId())).isEqualTo(1);
+        assertThat(creditLimitOf(account.getAccountId())).isEqualByComparingTo("990.00");
+    }
+
+    @Test
+    @DisplayName("Should write a journal range once, with its event dates, and refuse to write it again")
+    void shouldWriteAJournalRangeOnceWithItsEventDatesAndRefuseToWriteItAgain() {
+        // Arrange
+        Account account = createAccount(new BigDecimal("1000.00"));
+        String journalId = UUID.randomUUID().toString();
+        journalCheckpointRepository.save(new JournalCheckpoint(journalId, 0L));
+        Instant acceptedAt = Instant.parse("2026-01-15T10:30:00Z");
+        List<JournalEntry> entries = List.of(
+                new JournalEntry(1L, account.getAccountId(), 1L, new BigDecimal("10.00"), acceptedAt),
+                new JournalEntry(2L, account.getAccountId(), 4L, new BigDecimal("5.00"), acceptedAt.plusSeconds(1)));
+
+        // Act
+        List<TransactionBatchItemResult> results = transactionService.createJournaledTransactions(journalId, entries);
+
+        // Assert
+        assertThat(results).allMatch(TransactionBatchItemResult::isCreated);
+        assertThat(results.getFirst().transaction().getEventDate()).isEqualTo(acceptedAt);
+        assertThat(journalCheckpointRepository.findById(journalId)).get()
+                .extracting(JournalCheckpoint::getLastSequence).isEqualTo(2L);
+        assertThat(creditLimitOf(account.getAccountId())).isEqualByComparingTo("995.00");
+
+        assertThatThrownBy(() -> transactionService.createJournaledTransactions(journalId, entries))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(transactionCountOf(account.getAccountId())).isEqualTo(2);
+        assertThat(creditLimitOf(account.getAccountId())).isEqualByComparingTo("995.00");
+    }
+}
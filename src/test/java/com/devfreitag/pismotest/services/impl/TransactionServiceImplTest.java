@@ -1,13 +1,31 @@
 package com.devfreitag.pismotest.services.impl;
 
 import com.devfreitag.pismotest.entities.Account;
+import com.devfreitag.pismotest.entities.IdempotencyKey;
 import com.devfreitag.pismotest.entities.OperationType;
 import com.devfreitag.pismotest.entities.Transaction;
 import com.devfreitag.pismotest.exceptions.AccountNotFoundException;
+import com.devfreitag.pismotest.exceptions.AmountOutOfRangeException;
 import com.devfreitag.pismotest.exceptions.OperationTypeNotFoundException;
+import com.devfreitag.pismotest.exceptions.TransactionInvalidException;
+import com.devfreitag.pismotest.models.AccountTransactionResponse;
+import com.devfreitag.pismotest.models.CreateTransactionRequest;
+import com.devfreitag.pismotest.repositories.AccountCreditLimit;
 import com.devfreitag.pismotest.repositories.AccountRepository;
+import com.devfreitag.pismotest.repositories.IdempotencyKeyRepository;
+import com.devfreitag.pismotest.repositories.JournalCheckpointRepository;
 import com.devfreitag.pismotest.repositories.OperationTypeRepository;
 import com.devfreitag.pismotest.repositories.TransactionRepository;
+import com.devfreitag.pismotest.services.AccountCache;
+import com.devfreitag.pismotest.services.AccountCoordinator;
+import com.devfreitag.pismotest.services.BalanceEngine;
+import com.devfreitag.pismotest.services.BalanceShardService;
+import com.devfreitag.pismotest.services.JournalEntry;
+import com.devfreitag.pismotest.services.OperationTypeRegistry;
+import com.devfreitag.pismotest.services.TransactionBatchItemResult;
+import com.devfreitag.pismotest.services.TransactionCursor;
+import com.devfreitag.pismotest.services.TransactionOutbox;
+import com.devfreitag.pismotest.services.TransactionPage;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -17,15 +35,29 @@ import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,9 +67,33 @@ class TransactionServiceImplTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private AccountCache accountCache;
+
+    @Mock
+    private AccountCoordinator accountCoordinator;
+
+    @Mock
+    private BalanceEngine balanceEngine;
+
+    @Mock
+    private BalanceShardService balanceShardService;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private JournalCheckpointRepository journalCheckpointRepository;
+
     @Mock
     private OperationTypeRepository operationTypeRepository;
 
+    @Mock
+    private OperationTypeRegistry operationTypeRegistry;
+
+    @Mock
+    private TransactionOutbox transactionOutbox;
+
     @Mock
     private TransactionRepository transactionRepository;
 
@@ -66,14 +122,34 @@ class TransactionServiceImplTest {
 
     private void mockAccountRepository(Long accountId, String documentNumber, BigDecimal availableCreditLimit) {
         Account mockAccount = buildAccount(accountId, documentNumber, availableCreditLimit);
-        when(accountRepository.findById(accountId))
-                .thenReturn(Optional.of(mockAccount));
+        lenient().when(accountRepository.applyToCreditLimit(eq(accountId), any(BigDecimal.class)))
+                .thenAnswer(invocation -> {
+                    BigDecimal creditLimit = mockAccount.getAvailableCreditLimit().add(invocation.getArgument(1));
+                    if (creditLimit.compareTo(BigDecimal.ZERO) <= 0) {
+                        return 0;
+                    }
+                    mockAccount.setAvailableCreditLimit(creditLimit);
+                    return 1;
+                });
+        lenient().when(accountRepository.findBalanceShardsById(accountId))
+                .thenReturn(Optional.of(0));
+        lenient().when(accountRepository.getReferenceById(accountId))
+                .thenReturn(mockAccount);
+    }
+
+    private void mockMissingAccount(Long accountId) {
+        when(accountRepository.applyToCreditLimit(eq(accountId), any(BigDecimal.class)))
+                .thenReturn(0);
+        when(accountRepository.findBalanceShardsById(accountId))
+                .thenReturn(Optional.empty());
     }
 
     private void mockOperationTypeRepository(Long operationTypeId, String description) {
         OperationType mockOperationType = buildOperationType(operationTypeId, description);
-        when(operationTypeRepository.findById(operationTypeId))
-                .thenReturn(Optional.of(mockOperationType));
+        when(operationTypeRegistry.findById(operationTypeId))
+                .thenReturn(mockOperationType);
+        lenient().when(operationTypeRepository.getReferenceById(operationTypeId))
+                .thenReturn(mockOperationType);
     }
 
     private void mockTransactionRepositorySave() {
@@ -522,7 +598,7 @@ class TransactionServiceImplTest {
                     assertThat(savedTransaction.getEventDate()).isNotNull();
 
                     // Reset mocks for next iteration
-                    reset(accountRepository, operationTypeRepository, transactionRepository);
+                    reset(accountRepository, operationTypeRepository, operationTypeRegistry, transactionRepository);
                 }
             }
         }
@@ -539,16 +615,16 @@ class TransactionServiceImplTest {
                 Long operationTypeId = 1L;
                 BigDecimal inputAmount = new BigDecimal("100.00");
 
-                when(accountRepository.findById(accountId))
-                        .thenReturn(Optional.empty());
+                mockMissingAccount(accountId);
+                mockOperationTypeRepository(operationTypeId, "PURCHASE");
 
                 // Act & Assert
                 assertThatThrownBy(() ->
                         transactionService.createTransaction(accountId, operationTypeId, inputAmount))
                         .isInstanceOf(AccountNotFoundException.class);
 
-                verify(accountRepository, times(1)).findById(accountId);
-                verify(operationTypeRepository, never()).findById(any());
+                verify(accountRepository, times(1)).applyToCreditLimit(eq(accountId), any(BigDecimal.class));
+                verify(operationTypeRegistry, times(1)).findById(operationTypeId);
                 verify(transactionRepository, never()).save(any());
             }
 
@@ -560,8 +636,8 @@ class TransactionServiceImplTest {
                 Long operationTypeId = 1L;
                 BigDecimal inputAmount = new BigDecimal("100.00");
 
-                when(accountRepository.findById(accountId))
-                        .thenReturn(Optional.empty());
+                mockMissingAccount(accountId);
+                mockOperationTypeRepository(operationTypeId, "PURCHASE");
 
                 // Act & Assert
                 assertThatThrownBy(() ->
@@ -569,7 +645,7 @@ class TransactionServiceImplTest {
                         .isInstanceOf(AccountNotFoundException.class)
                         .hasMessage("Account with ID " + accountId + " not found.");
 
-                verify(accountRepository, times(1)).findById(accountId);
+                verify(accountRepository, times(1)).applyToCreditLimit(eq(accountId), any(BigDecimal.class));
             }
         }
 
@@ -586,16 +662,16 @@ class TransactionServiceImplTest {
                 BigDecimal inputAmount = new BigDecimal("100.00");
 
                 mockAccountRepository(accountId, "12345678900");
-                when(operationTypeRepository.findById(operationTypeId))
-                        .thenReturn(Optional.empty());
+                when(operationTypeRegistry.findById(operationTypeId))
+                        .thenThrow(new OperationTypeNotFoundException(operationTypeId));
 
                 // Act & Assert
                 assertThatThrownBy(() ->
                         transactionService.createTransaction(accountId, operationTypeId, inputAmount))
                         .isInstanceOf(OperationTypeNotFoundException.class);
 
-                verify(accountRepository, times(1)).findById(accountId);
-                verify(operationTypeRepository, times(1)).findById(operationTypeId);
+                verify(accountRepository, never()).applyToCreditLimit(eq(accountId), any(BigDecimal.class));
+                verify(operationTypeRegistry, times(1)).findById(operationTypeId);
                 verify(transactionRepository, never()).save(any());
             }
 
@@ -608,8 +684,8 @@ class TransactionServiceImplTest {
                 BigDecimal inputAmount = new BigDecimal("100.00");
 
                 mockAccountRepository(accountId, "12345678900");
-                when(operationTypeRepository.findById(operationTypeId))
-                        .thenReturn(Optional.empty());
+                when(operationTypeRegistry.findById(operationTypeId))
+                        .thenThrow(new OperationTypeNotFoundException(operationTypeId));
 
                 // Act & Assert
                 assertThatThrownBy(() ->
@@ -617,7 +693,7 @@ class TransactionServiceImplTest {
                         .isInstanceOf(OperationTypeNotFoundException.class)
                         .hasMessage("Operation type with ID " + operationTypeId + " not found.");
 
-                verify(operationTypeRepository, times(1)).findById(operationTypeId);
+                verify(operationTypeRegistry, times(1)).findById(operationTypeId);
             }
         }
 
@@ -642,8 +718,8 @@ class TransactionServiceImplTest {
                         .isInstanceOf(IllegalArgumentException.class)
                         .hasMessage("Invalid OperationType code: " + operationTypeId);
 
-                verify(accountRepository, times(1)).findById(accountId);
-                verify(operationTypeRepository, times(1)).findById(operationTypeId);
+                verify(accountRepository, never()).applyToCreditLimit(eq(accountId), any(BigDecimal.class));
+                verify(operationTypeRegistry, times(1)).findById(operationTypeId);
                 verify(transactionRepository, never()).save(any());
             }
 
@@ -664,8 +740,8 @@ class TransactionServiceImplTest {
                         .isInstanceOf(IllegalArgumentException.class)
                         .hasMessage("Invalid OperationType code: " + operationTypeId);
 
-                verify(accountRepository, times(1)).findById(accountId);
-                verify(operationTypeRepository, times(1)).findById(operationTypeId);
+                verify(accountRepository, never()).applyToCreditLimit(eq(accountId), any(BigDecimal.class));
+                verify(operationTypeRegistry, times(1)).findById(operationTypeId);
                 verify(transactionRepository, never()).save(any());
             }
         }
@@ -690,9 +766,9 @@ class TransactionServiceImplTest {
                 transactionService.createTransaction(accountId, operationTypeId, inputAmount);
 
                 // Assert
-                InOrder inOrder = inOrder(accountRepository, operationTypeRepository, transactionRepository);
-                inOrder.verify(accountRepository).findById(accountId);
-                inOrder.verify(operationTypeRepository).findById(operationTypeId);
+                InOrder inOrder = inOrder(accountRepository, operationTypeRegistry, transactionRepository);
+                inOrder.verify(operationTypeRegistry).findById(operationTypeId);
+                inOrder.verify(accountRepository).applyToCreditLimit(accountId, new BigDecimal("-100.00"));
                 inOrder.verify(transactionRepository).save(any(Transaction.class));
             }
 
@@ -704,8 +780,8 @@ class TransactionServiceImplTest {
                 Long operationTypeId = 1L;
                 BigDecimal inputAmount = new BigDecimal("100.00");
 
-                when(accountRepository.findById(accountId))
-                        .thenReturn(Optional.empty());
+                mockMissingAccount(accountId);
+                mockOperationTypeRepository(operationTypeId, "PURCHASE");
 
                 // Act & Assert
                 assertThatThrownBy(() ->
@@ -724,8 +800,8 @@ class TransactionServiceImplTest {
                 BigDecimal inputAmount = new BigDecimal("100.00");
 
                 mockAccountRepository(accountId, "12345678900");
-                when(operationTypeRepository.findById(operationTypeId))
-                        .thenReturn(Optional.empty());
+                when(operationTypeRegistry.findById(operationTypeId))
+                        .thenThrow(new OperationTypeNotFoundException(operationTypeId));
 
                 // Act & Assert
                 assertThatThrownBy(() ->
@@ -830,15 +906,15 @@ class TransactionServiceImplTest {
                 Long operationTypeId = 1L;
                 BigDecimal inputAmount = new BigDecimal("100.00");
 
-                when(accountRepository.findById(null))
-                        .thenReturn(Optional.empty());
+                mockMissingAccount(null);
+                mockOperationTypeRepository(operationTypeId, "PURCHASE");
 
                 // Act & Assert
                 assertThatThrownBy(() ->
                         transactionService.createTransaction(null, operationTypeId, inputAmount))
                         .isInstanceOf(AccountNotFoundException.class);
 
-                verify(accountRepository, times(1)).findById(null);
+                verify(accountRepository, times(1)).applyToCreditLimit(eq(null), any(BigDecimal.class));
             }
 
             @Test
@@ -849,15 +925,15 @@ class TransactionServiceImplTest {
                 BigDecimal inputAmount = new BigDecimal("100.00");
 
                 mockAccountRepository(accountId, "12345678900");
-                when(operationTypeRepository.findById(null))
-                        .thenReturn(Optional.empty());
+                when(operationTypeRegistry.findById(null))
+                        .thenThrow(new OperationTypeNotFoundException(null));
 
                 // Act & Assert
                 assertThatThrownBy(() ->
                         transactionService.createTransaction(accountId, null, inputAmount))
                         .isInstanceOf(OperationTypeNotFoundException.class);
 
-                verify(operationTypeRepository, times(1)).findById(null);
+                verify(operationTypeRegistry, times(1)).findById(null);
             }
 
             @Test
@@ -947,12 +1023,561 @@ class TransactionServiceImplTest {
                 transactionService.createTransaction(accountId, operationTypeId, inputAmount);
 
                 // Assert
-                ArgumentCaptor<Account> accountCaptor = ArgumentCaptor.forClass(Account.class);
-                verify(accountRepository).save(accountCaptor.capture());
-                Account savedAccount = accountCaptor.getValue();
+                verify(accountRepository).applyToCreditLimit(accountId, new BigDecimal("-100.00"));
+                verify(accountRepository, never()).save(any(Account.class));
+                verify(accountCache).evictAfterCommit(accountId);
+                assertThat(accountRepository.getReferenceById(accountId).getAvailableCreditLimit())
+                        .isEqualByComparingTo(expectedCreditLimit);
+            }
+
+            @Test
+            @DisplayName("Should throw TransactionInvalidException when credit limit is insufficient")
+            void shouldThrowTransactionInvalidExceptionWhenCreditLimitIsInsufficient() {
+                // Arrange
+                Long accountId = 1L;
+                Long operationTypeId = 1L;
+                BigDecimal inputAmount = new BigDecimal("500.00");
+
+                mockAccountRepository(accountId, "12345678900", new BigDecimal("500.00"));
+                mockOperationTypeRepository(operationTypeId, "PURCHASE");
+
+                // Act & Assert
+                assertThatThrownBy(() ->
+                        transactionService.createTransaction(accountId, operationTypeId, inputAmount))
+                        .isInstanceOf(TransactionInvalidException.class);
+
+                verify(accountRepository, times(1)).findBalanceShardsById(accountId);
+                verify(accountCache, never()).evictAfterCommit(any());
+                verify(transactionRepository, never()).save(any(Transaction.class));
+            }
+
+            @Test
+            @DisplayName("Should reserve the amount in the balance engine and record the written transaction")
+            void shouldReserveTheAmountInTheBalanceEngineAndRecordTheWrittenTransaction() {
+                // Arrange
+                Long accountId = 1L;
+                mockAccountRepository(accountId, "12345678900", new BigDecimal("500.00"));
+                mockOperationTypeRepository(1L, "PURCHASE");
+                mockTransactionRepositorySave();
+
+                // Act
+                Transaction result = transactionService.createTransaction(accountId, 1L, new BigDecimal("100.00"));
+
+                // Assert
+                InOrder inOrder = inOrder(balanceEngine, transactionRepository);
+                inOrder.verify(balanceEngine).reserve(accountId, -10_000L);
+                inOrder.verify(transactionRepository).save(any(Transaction.class));
+                inOrder.verify(balanceEngine).written(result);
+                verify(transactionOutbox).append(result);
+            }
+
+            @Test
+            @DisplayName("Should not write the transaction when the balance engine rejects it")
+            void shouldNotWriteTheTransactionWhenTheBalanceEngineRejectsIt() {
+                // Arrange
+                Long accountId = 1L;
+                mockAccountRepository(accountId, "12345678900", new BigDecimal("500.00"));
+                mockOperationTypeRepository(1L, "PURCHASE");
+                doThrow(new TransactionInvalidException()).when(balanceEngine).reserve(accountId, -10_000L);
+
+                // Act & Assert
+                assertThatThrownBy(() -> transactionService.createTransaction(accountId, 1L, new BigDecimal("100.00")))
+                        .isInstanceOf(TransactionInvalidException.class);
+
+                verify(transactionRepository, never()).save(any(Transaction.class));
+            }
+
+            @Test
+            @DisplayName("Should lock the account before updating its credit limit")
+            void shouldLockTheAccountBeforeUpdatingItsCreditLimit() {
+                // Arrange
+                Long accountId = 1L;
+                mockAccountRepository(accountId, "12345678900", new BigDecimal("500.00"));
+                mockOperationTypeRepository(1L, "PURCHASE");
+                mockTransactionRepositorySave();
+
+                // Act
+                transactionService.createTransaction(accountId, 1L, new BigDecimal("100.00"));
+
+                // Assert
+                InOrder inOrder = inOrder(accountCoordinator, accountRepository);
+                inOrder.verify(accountCoordinator).lock(accountId);
+                inOrder.verify(accountRepository).applyToCreditLimit(accountId, new BigDecimal("-100.00"));
+            }
+
+            @Test
+            @DisplayName("Should apply the amount to the balance shards of an account that has them")
+            void shouldApplyTheAmountToTheBalanceShardsOfAnAccountThatHasThem() {
+                // Arrange
+                Long accountId = 1L;
+                when(accountRepository.applyToCreditLimit(accountId, new BigDecimal("-100.00"))).thenReturn(0);
+                when(accountRepository.findBalanceShardsById(accountId)).thenReturn(Optional.of(8));
+                when(accountRepository.getReferenceById(accountId)).thenReturn(buildAccount(accountId, "12345678900", BigDecimal.ZERO));
+                mockOperationTypeRepository(1L, "PURCHASE");
+                mockTransactionRepositorySave();
+
+                // Act
+                Transaction result = transactionService.createTransaction(accountId, 1L, new BigDecimal("100.00"));
 
-                assertThat(savedAccount.getAvailableCreditLimit()).isEqualByComparingTo(expectedCreditLimit);
+                // Assert
+                assertThat(result.getAmount()).isEqualByComparingTo("-100.00");
+                verify(balanceShardService).apply(accountId, 8, -10_000L);
+                verify(balanceEngine).reserve(accountId, -10_000L);
+                verify(accountCache).evictAfterCommit(accountId);
             }
+
+            @Test
+            @DisplayName("Should not write the transaction when the balance shards reject it")
+            void shouldNotWriteTheTransactionWhenTheBalanceShardsRejectIt() {
+                // Arrange
+                Long accountId = 1L;
+                when(accountRepository.applyToCreditLimit(accountId, new BigDecimal("-100.00"))).thenReturn(0);
+                when(accountRepository.findBalanceShardsById(accountId)).thenReturn(Optional.of(8));
+                mockOperationTypeRepository(1L, "PURCHASE");
+                doThrow(new TransactionInvalidException()).when(balanceShardService).apply(accountId, 8, -10_000L);
+
+                // Act & Assert
+                assertThatThrownBy(() -> transactionService.createTransaction(accountId, 1L, new BigDecimal("100.00")))
+                        .isInstanceOf(TransactionInvalidException.class);
+
+                verify(balanceEngine, never()).reserve(any(), anyLong());
+                verify(transactionRepository, never()).save(any(Transaction.class));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("createTransaction() with Idempotency Key Tests")
+    class CreateIdempotentTransactionTests {
+
+        @Test
+        @DisplayName("Should store the key with the created transaction")
+        void shouldStoreTheKeyWithTheCreatedTransaction() {
+            // Arrange
+            mockAccountRepository(1L, "12345678900");
+            mockOperationTypeRepository(1L, "PURCHASE");
+            mockTransactionRepositorySave();
+            ArgumentCaptor<IdempotencyKey> keyCaptor = ArgumentCaptor.forClass(IdempotencyKey.class);
+
+            // Act
+            Transaction result = transactionService.createTransaction(1L, 1L, new BigDecimal("100.00"), "key-1");
+
+            // Assert
+            assertThat(result.getAmount()).isEqualByComparingTo("-100.00");
+            verify(idempotencyKeyRepository).save(keyCaptor.capture());
+            assertThat(keyCaptor.getValue().getIdempotencyKey()).isEqualTo("key-1");
+            assertThat(keyCaptor.getValue().getTransaction()).isSameAs(result);
+            assertThat(keyCaptor.getValue().getCreatedAt()).isEqualTo(result.getEventDate());
+        }
+
+        @Test
+        @DisplayName("Should not store the key when the transaction is rejected")
+        void shouldNotStoreTheKeyWhenTheTransactionIsRejected() {
+            // Arrange
+            mockAccountRepository(1L, "12345678900", new BigDecimal("50.00"));
+            mockOperationTypeRepository(1L, "PURCHASE");
+
+            // Act & Assert
+            assertThatThrownBy(() -> transactionService.createTransaction(1L, 1L, new BigDecimal("100.00"), "key-1"))
+                    .isInstanceOf(TransactionInvalidException.class);
+
+            verifyNoInteractions(idempotencyKeyRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("createTransactions() Tests")
+    class CreateTransactionsTests {
+
+        private static final long VERSION = 7L;
+
+        private void mockOperationTypes() {
+            lenient().when(operationTypeRegistry.findById(1L)).thenReturn(buildOperationType(1L, "PURCHASE"));
+            lenient().when(operationTypeRegistry.findById(2L)).thenReturn(buildOperationType(2L, "INSTALLMENT_PURCHASE"));
+            lenient().when(operationTypeRegistry.findById(3L)).thenReturn(buildOperationType(3L, "WITHDRAWAL"));
+            lenient().when(operationTypeRegistry.findById(4L)).thenReturn(buildOperationType(4L, "PAYMENT"));
+            lenient().when(operationTypeRegistry.findById(999L)).thenThrow(new OperationTypeNotFoundException(999L));
+        }
+
+        private void mockCreditLimits(Map<Long, Long> creditLimits) {
+            Map<Long, AccountCreditLimit> readCreditLimits = new HashMap<>();
+            creditLimits.forEach((accountId, cents) -> readCreditLimits.put(accountId, new AccountCreditLimit(cents, VERSION)));
+            when(accountRepository.findCreditLimits(anyCollection())).thenReturn(readCreditLimits);
+        }
+
+        private void mockInsertAll() {
+            AtomicLong ids = new AtomicLong();
+            when(transactionRepository.insertAll(anyList()))
+                    .thenAnswer(invocation -> {
+                        List<Transaction> transactions = invocation.getArgument(0);
+                        return transactions.stream()
+                                .map(transaction -> Transaction.builder()
+                                        .transactionId(ids.incrementAndGet())
+                                        .account(transaction.getAccount())
+                                        .operationType(transaction.getOperationType())
+                                        .amount(transaction.getAmount())
+                                        .eventDate(transaction.getEventDate())
+                                        .build())
+                                .toList();
+                    });
+        }
+
+        @Test
+        @DisplayName("Should apply sign and credit limit rules to every item in order")
+        void shouldApplySignAndCreditLimitRulesToEveryItemInOrder() {
+            // Arrange
+            mockOperationTypes();
+            mockCreditLimits(Map.of(1L, 10_000L, 2L, 1_000L));
+            mockInsertAll();
+
+            List<CreateTransactionRequest> requests = List.of(
+                    new CreateTransactionRequest(1L, 1L, new BigDecimal("60.00")),
+                    new CreateTransactionRequest(1L, 3L, new BigDecimal("50.00")),
+                    new CreateTransactionRequest(1L, 4L, new BigDecimal("20.00")),
+                    new CreateTransactionRequest(1L, 3L, new BigDecimal("60.00")),
+                    new CreateTransactionRequest(2L, 2L, new BigDecimal("5.00")));
+
+            // Act
+            List<TransactionBatchItemResult> results = transactionService.createTransactions(requests);
+
+            // Assert
+            assertThat(results).extracting(TransactionBatchItemResult::index).containsExactly(0, 1, 2, 3, 4);
+            assertThat(results.get(0).transaction().getAmount()).isEqualByComparingTo("-60.00");
+            assertThat(results.get(1).error()).isInstanceOf(TransactionInvalidException.class);
+            assertThat(results.get(2).transaction().getAmount()).isEqualByComparingTo("20.00");
+            assertThat(results.get(3).error()).isInstanceOf(TransactionInvalidException.class);
+            assertThat(results.get(4).transaction().getAmount()).isEqualByComparingTo("-5.00");
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Map<Long, AccountCreditLimit>> captor = ArgumentCaptor.forClass(Map.class);
+            verify(accountRepository).updateCreditLimits(captor.capture());
+            assertThat(captor.getValue())
+                    .containsEntry(1L, new AccountCreditLimit(6_000L, VERSION))
+                    .containsEntry(2L, new AccountCreditLimit(500L, VERSION));
+            verify(accountCache).evictAfterCommit(1L);
+            verify(accountCache).evictAfterCommit(2L);
+            verify(balanceEngine, times(3)).reserve(any(), anyLong());
+            verify(balanceEngine, times(3)).written(any(Transaction.class));
+            verify(transactionOutbox, times(3)).append(any(Transaction.class));
+        }
+
+        @Test
+        @DisplayName("Should reject items the balance engine rejects without failing the batch")
+        void shouldRejectItemsTheBalanceEngineRejectsWithoutFailingTheBatch() {
+            // Arrange
+            mockOperationTypes();
+            mockCreditLimits(Map.of(1L, 10_000L, 2L, 10_000L));
+            mockInsertAll();
+            doThrow(new TransactionInvalidException()).when(balanceEngine).reserve(1L, -1_000L);
+
+            List<CreateTransactionRequest> requests = List.of(
+                    new CreateTransactionRequest(1L, 1L, new BigDecimal("10.00")),
+                    new CreateTransactionRequest(2L, 1L, new BigDecimal("10.00")));
+
+            // Act
+            List<TransactionBatchItemResult> results = transactionService.createTransactions(requests);
+
+            // Assert
+            assertThat(results.get(0).error()).isInstanceOf(TransactionInvalidException.class);
+            assertThat(results.get(1).isCreated()).isTrue();
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Map<Long, AccountCreditLimit>> captor = ArgumentCaptor.forClass(Map.class);
+            verify(accountRepository).updateCreditLimits(captor.capture());
+            assertThat(captor.getValue()).containsOnlyKeys(2L);
+        }
+
+        @Test
+        @DisplayName("Should reject items that would overflow the credit limit without failing the batch")
+        void shouldRejectItemsThatWouldOverflowTheCreditLimitWithoutFailingTheBatch() {
+            // Arrange
+            mockOperationTypes();
+            mockCreditLimits(Map.of(1L, Long.MAX_VALUE - 100L));
+            mockInsertAll();
+
+            List<CreateTransactionRequest> requests = List.of(
+                    new CreateTransactionRequest(1L, 4L, new BigDecimal("1.01")),
+                    new CreateTransactionRequest(1L, 4L, new BigDecimal("1.00")));
+
+            // Act
+            List<TransactionBatchItemResult> results = transactionService.createTransactions(requests);
+
+            // Assert
+            assertThat(results.get(0).error()).isInstanceOf(AmountOutOfRangeException.class);
+            assertThat(results.get(1).isCreated()).isTrue();
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Map<Long, AccountCreditLimit>> captor = ArgumentCaptor.forClass(Map.class);
+            verify(accountRepository).updateCreditLimits(captor.capture());
+            assertThat(captor.getValue()).containsEntry(1L, new AccountCreditLimit(Long.MAX_VALUE, VERSION));
+        }
+
+        @Test
+        @DisplayName("Should reject items with unknown account or operation type without failing the batch")
+        void shouldRejectItemsWithUnknownAccountOrOperationTypeWithoutFailingTheBatch() {
+            // Arrange
+            mockOperationTypes();
+            mockCreditLimits(Map.of(1L, 10_000L));
+            mockInsertAll();
+
+            List<CreateTransactionRequest> requests = List.of(
+                    new CreateTransactionRequest(999L, 1L, new BigDecimal("10.00")),
+                    new CreateTransactionRequest(1L, 999L, new BigDecimal("10.00")),
+                    new CreateTransactionRequest(1L, 1L, new BigDecimal("10.00")));
+
+            // Act
+            List<TransactionBatchItemResult> results = transactionService.createTransactions(requests);
+
+            // Assert
+            assertThat(results.get(0).error())
+                    .isInstanceOf(AccountNotFoundException.class)
+                    .hasMessage("Account with ID 999 not found.");
+            assertThat(results.get(1).error())
+                    .isInstanceOf(OperationTypeNotFoundException.class)
+                    .hasMessage("Operation type with ID 999 not found.");
+            assertThat(results.get(2).isCreated()).isTrue();
+            assertThat(results.get(2).transaction().getTransactionId()).isEqualTo(1L);
+        }
+
+        @Test
+        @DisplayName("Should not write anything when every item is rejected")
+        void shouldNotWriteAnythingWhenEveryItemIsRejected() {
+            // Arrange
+            mockOperationTypes();
+            mockCreditLimits(Map.of());
+
+            List<CreateTransactionRequest> requests = List.of(
+                    new CreateTransactionRequest(999L, 1L, new BigDecimal("10.00")));
+
+            // Act
+            List<TransactionBatchItemResult> results = transactionService.createTransactions(requests);
+
+            // Assert
+            assertThat(results).hasSize(1);
+            assertThat(results.get(0).isCreated()).isFalse();
+            verify(transactionRepository, never()).insertAll(anyList());
+            verify(accountRepository, never()).updateCreditLimits(any());
+        }
+
+        @Test
+        @DisplayName("Should decide accounts with balance shards against their locked sum and spread the new limit over them")
+        void shouldDecideAccountsWithBalanceShardsAgainstTheirLockedSumAndSpreadTheNewLimitOverThem() {
+            // Arrange
+            mockOperationTypes();
+            when(accountRepository.findCreditLimits(anyCollection())).thenReturn(Map.of(
+                    1L, new AccountCreditLimit(0L, VERSION, 4),
+                    2L, new AccountCreditLimit(10_000L, VERSION)));
+            when(balanceShardService.lockCreditLimits(Map.of(1L, 4))).thenReturn(Map.of(1L, 1_000L));
+            mockInsertAll();
+
+            List<CreateTransactionRequest> requests = List.of(
+                    new CreateTransactionRequest(1L, 1L, new BigDecimal("6.00")),
+                    new CreateTransactionRequest(1L, 1L, new BigDecimal("6.00")),
+                    new CreateTransactionRequest(2L, 1L, new BigDecimal("6.00")));
+
+            // Act
+            List<TransactionBatchItemResult> results = transactionService.createTransactions(requests);
+
+            // Assert
+            assertThat(results.get(0).isCreated()).isTrue();
+            assertThat(results.get(1).error()).isInstanceOf(TransactionInvalidException.class);
+            assertThat(results.get(2).isCreated()).isTrue();
+
+            verify(balanceShardService).updateCreditLimit(1L, 4, 400L);
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Map<Long, AccountCreditLimit>> captor = ArgumentCaptor.forClass(Map.class);
+            verify(accountRepository).updateCreditLimits(captor.capture());
+            assertThat(captor.getValue()).containsOnlyKeys(2L);
+            verify(accountCache).evictAfterCommit(1L);
+            verify(accountCache).evictAfterCommit(2L);
+        }
+    }
+
+    @Nested
+    @DisplayName("createJournaledTransactions() Tests")
+    class CreateJournaledTransactionsTests {
+
+        private static final Instant FIRST_EVENT_DATE = Instant.parse("2026-01-15T10:30:00Z");
+
+        private static final Instant SECOND_EVENT_DATE = Instant.parse("2026-01-15T10:30:01Z");
+
+        private final List<JournalEntry> entries = List.of(
+                new JournalEntry(11L, 1L, 1L, new BigDecimal("60.00"), FIRST_EVENT_DATE),
+                new JournalEntry(12L, 1L, 1L, new BigDecimal("50.00"), SECOND_EVENT_DATE));
+
+        @Test
+        @DisplayName("Should keep the time each entry was accepted and move the checkpoint past the batch")
+        void shouldKeepTheTimeEachEntryWasAcceptedAndMoveTheCheckpointPastTheBatch() {
+            // Arrange
+            when(operationTypeRegistry.findById(1L)).thenReturn(buildOperationType(1L, "PURCHASE"));
+            when(accountRepository.findCreditLimits(anyCollection())).thenReturn(Map.of(1L, new AccountCreditLimit(10_000L, 0L)));
+            when(transactionRepository.insertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+            when(journalCheckpointRepository.advance("node-1", 10L, 12L)).thenReturn(1);
+
+            // Act
+            List<TransactionBatchItemResult> results = transactionService.createJournaledTransactions("node-1", entries);
+
+            // Assert
+            assertThat(results.get(0).transaction().getEventDate()).isEqualTo(FIRST_EVENT_DATE);
+            assertThat(results.get(1).error()).isInstanceOf(TransactionInvalidException.class);
+            verify(journalCheckpointRepository).advance("node-1", 10L, 12L);
+        }
+
+        @Test
+        @DisplayName("Should give the balance engine back only the entries the database rejected")
+        void shouldGiveTheBalanceEngineBackOnlyTheEntriesTheDatabaseRejected() {
+            // Arrange
+            when(operationTypeRegistry.findById(1L)).thenReturn(buildOperationType(1L, "PURCHASE"));
+            when(accountRepository.findCreditLimits(anyCollection())).thenReturn(Map.of(1L, new AccountCreditLimit(10_000L, 0L)));
+            when(transactionRepository.insertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+            when(journalCheckpointRepository.advance("node-1", 10L, 12L)).thenReturn(1);
+
+            // Act
+            transactionService.createJournaledTransactions("node-1", entries);
+
+            // Assert
+            InOrder inOrder = inOrder(balanceEngine, transactionRepository);
+            inOrder.verify(balanceEngine).enlist();
+            inOrder.verify(transactionRepository).insertAll(anyList());
+            verify(balanceEngine, never()).reserve(any(), anyLong());
+            verify(balanceEngine).release(1L, -5_000L);
+            verify(balanceEngine, times(1)).written(any(Transaction.class));
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalStateException when the batch was already drained")
+        void shouldThrowIllegalStateExceptionWhenTheBatchWasAlreadyDrained() {
+            // Arrange
+            when(operationTypeRegistry.findById(1L)).thenReturn(buildOperationType(1L, "PURCHASE"));
+            when(accountRepository.findCreditLimits(anyCollection())).thenReturn(Map.of(1L, new AccountCreditLimit(100_000L, 0L)));
+            when(transactionRepository.insertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+            when(journalCheckpointRepository.advance("node-1", 10L, 12L)).thenReturn(0);
+
+            // Act & Assert
+            assertThatThrownBy(() -> transactionService.createJournaledTransactions("node-1", entries))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Journal node-1 was already drained past sequence 10.");
+        }
+    }
+
+    @Nested
+    @DisplayName("findByAccount() Tests")
+    class FindByAccountTests {
+
+        private final Instant eventDate = Instant.parse("2026-01-15T10:30:00Z");
+
+        private List<AccountTransactionResponse> transactions(long... transactionIds) {
+            return Arrays.stream(transactionIds)
+                    .mapToObj(id -> new AccountTransactionResponse(id, 1L, new BigDecimal("-10.00"), eventDate))
+                    .toList();
+        }
+
+        @Test
+        @DisplayName("Should return the first page and a cursor after its last transaction when there are more")
+        void shouldReturnTheFirstPageAndACursorAfterItsLastTransactionWhenThereAreMore() {
+            // Arrange
+            when(transactionRepository.findPageByAccountId(1L, Limit.of(3)))
+                    .thenReturn(transactions(30L, 20L, 10L));
+
+            // Act
+            TransactionPage page = transactionService.findByAccount(1L, null, 2);
+
+            // Assert
+            assertThat(page.transactions()).extracting(AccountTransactionResponse::transactionId).containsExactly(30L, 20L);
+            assertThat(page.nextCursor()).isEqualTo(new TransactionCursor(eventDate, 20L));
+            verify(accountRepository, never()).existsById(any());
+        }
+
+        @Test
+        @DisplayName("Should seek past the cursor and return no cursor on the last page")
+        void shouldSeekPastTheCursorAndReturnNoCursorOnTheLastPage() {
+            // Arrange
+            TransactionCursor cursor = new TransactionCursor(eventDate, 20L);
+            when(transactionRepository.findPageByAccountIdAfter(1L, eventDate, 20L, Limit.of(3)))
+                    .thenReturn(transactions(10L));
+
+            // Act
+            TransactionPage page = transactionService.findByAccount(1L, cursor, 2);
+
+            // Assert
+            assertThat(page.transactions()).extracting(AccountTransactionResponse::transactionId).containsExactly(10L);
+            assertThat(page.nextCursor()).isNull();
+            verify(transactionRepository, never()).findPageByAccountId(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should return an empty page for an account without transactions")
+        void shouldReturnAnEmptyPageForAnAccountWithoutTransactions() {
+            // Arrange
+            when(transactionRepository.findPageByAccountId(1L, Limit.of(51))).thenReturn(List.of());
+            when(accountRepository.existsById(1L)).thenReturn(true);
+
+            // Act
+            TransactionPage page = transactionService.findByAccount(1L, null, 50);
+
+            // Assert
+            assertThat(page.transactions()).isEmpty();
+            assertThat(page.nextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should throw AccountNotFoundException when the account does not exist")
+        void shouldThrowAccountNotFoundExceptionWhenTheAccountDoesNotExist() {
+            // Arrange
+            when(transactionRepository.findPageByAccountId(999L, Limit.of(51))).thenReturn(List.of());
+            when(accountRepository.existsById(999L)).thenReturn(false);
+
+            // Act & Assert
+            assertThatThrownBy(() -> transactionService.findByAccount(999L, null, 50))
+                    .isInstanceOf(AccountNotFoundException.class)
+                    .hasMessage("Account with ID 999 not found.");
+        }
+    }
+
+    @Nested
+    @DisplayName("exportByAccount() Tests")
+    class ExportByAccountTests {
+
+        private final Instant eventDate = Instant.parse("2026-01-15T10:30:00Z");
+
+        @Test
+        @DisplayName("Should hand every transaction to the consumer in order and close the cursor")
+        void shouldHandEveryTransactionToTheConsumerInOrderAndCloseTheCursor() {
+            // Arrange
+            AtomicBoolean closed = new AtomicBoolean();
+            when(transactionRepository.streamByAccountId(1L)).thenReturn(Stream.of(
+                    new AccountTransactionResponse(1L, 1L, new BigDecimal("-10.00"), eventDate),
+                    new AccountTransactionResponse(2L, 4L, new BigDecimal("5.00"), eventDate)).onClose(() -> closed.set(true)));
+            List<AccountTransactionResponse> exported = new ArrayList<>();
+
+            // Act
+            transactionService.exportByAccount(1L, exported::add);
+
+            // Assert
+            assertThat(exported).extracting(AccountTransactionResponse::transactionId).containsExactly(1L, 2L);
+            assertThat(closed).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should stop reading and close the cursor when the consumer fails")
+        void shouldStopReadingAndCloseTheCursorWhenTheConsumerFails() {
+            // Arrange
+            AtomicBoolean closed = new AtomicBoolean();
+            AtomicLong read = new AtomicLong();
+            when(transactionRepository.streamByAccountId(1L)).thenReturn(Stream.iterate(1L, id -> id + 1)
+                    .map(id -> new AccountTransactionResponse(id, 1L, new BigDecimal("-10.00"), eventDate))
+                    .peek(transaction -> read.incrementAndGet())
+                    .onClose(() -> closed.set(true)));
+
+            // Act & Assert
+            assertThatThrownBy(() -> transactionService.exportByAccount(1L, transaction -> {
+                if (transaction.transactionId() == 3L) {
+                    throw new UncheckedIOException(new IOException("Broken pipe"));
+                }
+            })).isInstanceOf(UncheckedIOException.class);
+
+            assertThat(read).hasValue(3L);
+            assertThat(closed).isTrue();
         }
     }
 }